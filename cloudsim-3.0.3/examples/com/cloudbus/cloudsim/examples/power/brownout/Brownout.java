@@ -38,8 +38,14 @@ public class Brownout {
 	public static HashMap<Long, Double> ENERGY_EFFICIENCY_COLLECTOR1 = new HashMap<Long, Double>();
 	public static double minimumEnergyEfficiencyResult = 10.0;
 	public static long seedOfMinimumEnergyEfficiencyResult = 0l;
+	/**
+	 * The brownout policy: 0 nearest utilization, 1 lowest utilization, 2 lowest price, 3 highest
+	 * utilization and price ratio, 4 minimum revenue loss.
+	 */
 	public static int brownoutPolicyId = 0;
 	public static int workloadId = 0;
+	/** The utilization threshold above which the dimmer is triggered. */
+	public static double dimmerUpThreshold = DimmerConstants.DimmerUpThreshold;
 	
 	public static void main(String[] args) throws IOException {
 		boolean enableOutput = true;
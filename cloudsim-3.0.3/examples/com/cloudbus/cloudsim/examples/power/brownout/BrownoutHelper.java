@@ -9,6 +9,7 @@ import java.util.Random;
 
 import org.cloudbus.cloudsim.Cloudlet;
 import org.cloudbus.cloudsim.CloudletOptionalComponent;
+import org.cloudbus.cloudsim.CloudletOptionalComponentCatalog;
 import org.cloudbus.cloudsim.UtilizationModel;
 import org.cloudbus.cloudsim.UtilizationModelDimmer;
 import org.cloudbus.cloudsim.UtilizationModelNull;
@@ -313,12 +314,15 @@ public class BrownoutHelper {
 //		CloudletOptionalComponent coc3 = new CloudletOptionalComponent(0.15, 0.11, true, "tag1");
 //		cloudletOptionalComponentList.add(coc3); //Delay the add operation to the later codes
 		
+		// the cloudlets share the components, each of them only keeps which ones are enabled
+		CloudletOptionalComponentCatalog catalog = new CloudletOptionalComponentCatalog(cloudletOptionalComponentList);
+
 		for (int i = 0; i < cloudletsNumber; i++) {
 			Cloudlet cloudlet = null;
 			if (seed == -1) {
 				cloudlet = new Cloudlet(i, Constants.CLOUDLET_LENGTH, Constants.CLOUDLET_PES, fileSize, outputSize,
 						new UtilizationModelDimmer(), utilizationModelNull, utilizationModelNull,
-						cloudletOptionalComponentList, true);
+						catalog, true);
 			} else {
 				//Delay to this segment, whether to add another component
 				if (isAddMoreComponent(i)) {
@@ -328,8 +332,8 @@ public class BrownoutHelper {
 				}
 
 				cloudlet = new Cloudlet(i, Constants.CLOUDLET_LENGTH, Constants.CLOUDLET_PES, fileSize, outputSize,
-						new UtilizationModelDimmer(seed * i), utilizationModelNull, utilizationModelNull,
-						cloudletOptionalComponentList, true);
+						new UtilizationModelDimmer(seed * i, Constants.SCHEDULING_INTERVAL), utilizationModelNull, utilizationModelNull,
+						catalog, true);
 			}
 			cloudlet.setUserId(brokerId);
 			cloudlet.setVmId(i);
@@ -2,10 +2,19 @@ package com.cloudbus.cloudsim.examples.power.brownout;
 
 import java.util.Calendar;
 
+import org.cloudbus.cloudsim.CloudletOptionalComponentCatalog;
 import org.cloudbus.cloudsim.Log;
 import org.cloudbus.cloudsim.core.CloudSim;
 import org.cloudbus.cloudsim.examples.power.Helper;
 import org.cloudbus.cloudsim.examples.power.RunnerAbstract;
+import org.cloudbus.cloudsim.power.BrownoutComponentSelectionStrategy;
+import org.cloudbus.cloudsim.power.BrownoutComponentSelectionStrategyInOrder;
+import org.cloudbus.cloudsim.power.BrownoutComponentSelectionStrategyMinimumRevenueLoss;
+import org.cloudbus.cloudsim.power.BrownoutComponentSelectionStrategyNearestUtilization;
+import org.cloudbus.cloudsim.power.BrownoutController;
+import org.cloudbus.cloudsim.power.BrownoutControllerSimple;
+import org.cloudbus.cloudsim.power.BrownoutDimmerStrategyCyclic;
+import org.cloudbus.cloudsim.power.PowerDatacenter;
 
 /**
  * The example runner for the random workload.
@@ -76,4 +85,50 @@ public class BrownoutRunner extends RunnerAbstract {
 		}
 	}
 
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see org.cloudbus.cloudsim.examples.power.RunnerAbstract#configureDatacenter(org.cloudbus.cloudsim.power.PowerDatacenter)
+	 */
+	@Override
+	protected void configureDatacenter(PowerDatacenter datacenter) {
+		datacenter.setBrownoutController(createBrownoutController(Brownout.brownoutPolicyId, Brownout.dimmerUpThreshold));
+		datacenter.setDimmerComponentLowerThreshold(DimmerConstants.DimmerComponentLowerThreshold);
+		datacenter.setMarkovSeed(Brownout.MARKOV_SEED);
+	}
+
+	/**
+	 * Creates the brownout controller of an experiment.
+	 * 
+	 * @param brownoutPolicyId the brownout policy id, as in {@link Brownout#brownoutPolicyId}
+	 * @param dimmerUpThreshold the utilization threshold above which the dimmer is triggered
+	 * @return the brownout controller
+	 */
+	public static BrownoutController createBrownoutController(int brownoutPolicyId, double dimmerUpThreshold) {
+		BrownoutComponentSelectionStrategy componentSelectionStrategy;
+		switch (brownoutPolicyId) {
+			case 0:
+				componentSelectionStrategy = new BrownoutComponentSelectionStrategyNearestUtilization();
+				break;
+			case 1:
+				componentSelectionStrategy = new BrownoutComponentSelectionStrategyInOrder(
+						CloudletOptionalComponentCatalog.ORDER_UTILIZATION);
+				break;
+			case 2:
+				componentSelectionStrategy = new BrownoutComponentSelectionStrategyInOrder(
+						CloudletOptionalComponentCatalog.ORDER_PRICE);
+				break;
+			case 4:
+				componentSelectionStrategy = new BrownoutComponentSelectionStrategyMinimumRevenueLoss();
+				break;
+			default:
+				componentSelectionStrategy = new BrownoutComponentSelectionStrategyInOrder(
+						CloudletOptionalComponentCatalog.ORDER_UTILIZATION_AND_PRICE_RATIO);
+				break;
+		}
+		return new BrownoutControllerSimple(
+				new BrownoutDimmerStrategyCyclic(dimmerUpThreshold),
+				componentSelectionStrategy);
+	}
+
 }
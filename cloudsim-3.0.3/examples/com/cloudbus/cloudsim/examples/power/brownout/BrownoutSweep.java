@@ -0,0 +1,319 @@
+package com.cloudbus.cloudsim.examples.power.brownout;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Runs a parameter sweep of the brownout experiment over a grid of brownout policies, overloaded
+ * trace workloads, dimmer thresholds, seeds and VM allocation and selection policies.
+ * <p>
+ * The brownout settings, the runner state and the log are held in static fields, so each cell of
+ * the grid runs in its own JVM ({@link BrownoutSweepWorker}), and up to a given number of cells run
+ * in parallel. The results reported by the Helper class are collected into one CSV file with a row
+ * per cell, in the order of the grid. The console output of each cell is kept in its own log file.
+ * <p>
+ * Usage: <tt>BrownoutSweep [grid.properties]</tt>. The properties are comma-separated lists of
+ * values: <tt>policies</tt>, <tt>workloads</tt>, <tt>thresholds</tt>, <tt>seeds</tt>,
+ * <tt>allocationPolicies</tt>, <tt>selectionPolicies</tt> and <tt>parameters</tt>; in addition
+ * <tt>workers</tt> is the number of parallel cells (the number of cores by default),
+ * <tt>output</tt> the output folder and <tt>jvmArgs</tt> the space-separated options of the worker
+ * JVMs. The defaults run the experiments of {@link Brownout}.
+ */
+public class BrownoutSweep {
+
+	/** The names of the grid columns of the summary. */
+	private static final String GRID_COLUMNS = "cell,policy,workload,threshold,seed,allocation,selection,parameter,status";
+
+	/**
+	 * The main method.
+	 *
+	 * @param args the arguments
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 * @throws InterruptedException if the sweep is interrupted
+	 */
+	public static void main(String[] args) throws IOException, InterruptedException {
+		Properties grid = new Properties();
+		if (args.length > 0) {
+			InputStream input = new FileInputStream(args[0]);
+			grid.load(input);
+			input.close();
+		}
+
+		List<Cell> cells = new ArrayList<Cell>();
+		for (String workload : getValues(grid, "workloads", "0")) {
+			for (String policy : getValues(grid, "policies", "0,1,2,3")) {
+				for (String threshold : getValues(grid, "thresholds", String.valueOf(DimmerConstants.DimmerUpThreshold))) {
+					for (String seed : getValues(grid, "seeds", String.valueOf(Brownout.MARKOV_SEED))) {
+						for (String allocation : getValues(grid, "allocationPolicies", "thr")) {
+							for (String selection : getValues(grid, "selectionPolicies", "mu")) {
+								for (String parameter : getValues(grid, "parameters", "0.8")) {
+									cells.add(new Cell(
+											cells.size(),
+											Integer.parseInt(policy),
+											Integer.parseInt(workload),
+											Double.parseDouble(threshold),
+											Long.parseLong(seed),
+											allocation,
+											selection,
+											parameter));
+								}
+							}
+						}
+					}
+				}
+			}
+		}
+
+		int workers = Integer.parseInt(grid.getProperty(
+				"workers",
+				String.valueOf(Runtime.getRuntime().availableProcessors())));
+		File outputFolder = new File(grid.getProperty("output", "output/sweep"));
+		String jvmArgs = grid.getProperty("jvmArgs", "").trim();
+
+		runSweep(cells, workers, outputFolder, jvmArgs.isEmpty() ? new String[0] : jvmArgs.split("\\s+"));
+	}
+
+	/**
+	 * Runs the cells of a sweep and writes the summary to <tt>summary.csv</tt> in the output folder.
+	 *
+	 * @param cells the cells
+	 * @param workers the maximum number of cells running in parallel
+	 * @param outputFolder the output folder
+	 * @param jvmArgs the options of the worker JVMs
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 * @throws InterruptedException if the sweep is interrupted
+	 */
+	public static void runSweep(List<Cell> cells, int workers, final File outputFolder, final String[] jvmArgs)
+			throws IOException, InterruptedException {
+		outputFolder.mkdirs();
+		System.out.println(String.format("Running %d cells on %d workers", cells.size(), workers));
+		long startTime = System.currentTimeMillis();
+
+		ExecutorService executor = Executors.newFixedThreadPool(workers);
+		List<Future<String[]>> results = new ArrayList<Future<String[]>>();
+		for (final Cell cell : cells) {
+			results.add(executor.submit(new Callable<String[]>() {
+
+				@Override
+				public String[] call() throws Exception {
+					return runCell(cell, outputFolder, jvmArgs);
+				}
+			}));
+		}
+		executor.shutdown();
+
+		// the rows are written in the order of the grid, whatever order the cells finish in
+		String metricNames = null;
+		List<String> rows = new ArrayList<String>();
+		int failed = 0;
+		for (int i = 0; i < cells.size(); i++) {
+			String[] result;
+			try {
+				result = results.get(i).get();
+			} catch (ExecutionException e) {
+				e.getCause().printStackTrace();
+				result = null;
+			}
+			Cell cell = cells.get(i);
+			if (result == null) {
+				failed++;
+				rows.add(cell.toCsv() + ",failed");
+				System.out.println("Cell " + cell.getName() + " failed");
+			} else {
+				if (metricNames == null) {
+					metricNames = result[0];
+				}
+				rows.add(cell.toCsv() + ",ok," + result[1]);
+			}
+		}
+
+		BufferedWriter writer = new BufferedWriter(new FileWriter(new File(outputFolder, "summary.csv")));
+		writer.write(GRID_COLUMNS + (metricNames == null ? "" : "," + metricNames) + "\n");
+		for (String row : rows) {
+			writer.write(row + "\n");
+		}
+		writer.close();
+
+		System.out.println(String.format(
+				"Finished %d cells (%d failed) in %.1f sec",
+				cells.size(),
+				failed,
+				(System.currentTimeMillis() - startTime) / 1000.0));
+	}
+
+	/**
+	 * Runs a cell in a new JVM.
+	 *
+	 * @param cell the cell
+	 * @param outputFolder the output folder
+	 * @param jvmArgs the options of the JVM
+	 * @return the header and value lines of the results, or null if the cell failed
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 * @throws InterruptedException if the sweep is interrupted
+	 */
+	private static String[] runCell(Cell cell, File outputFolder, String[] jvmArgs) throws IOException,
+			InterruptedException {
+		File cellFolder = new File(outputFolder, cell.getName());
+		cellFolder.mkdirs();
+		File resultFile = new File(cellFolder, "results.csv");
+		resultFile.delete();
+
+		List<String> command = new ArrayList<String>();
+		command.add(System.getProperty("java.home") + File.separator + "bin" + File.separator + "java");
+		command.addAll(Arrays.asList(jvmArgs));
+		command.add("-cp");
+		command.add(System.getProperty("java.class.path"));
+		command.add(BrownoutSweepWorker.class.getName());
+		command.add(resultFile.getPath());
+		command.add(cellFolder.getPath());
+		command.add(String.valueOf(cell.policyId));
+		command.add(String.valueOf(cell.workloadId));
+		command.add(String.valueOf(cell.threshold));
+		command.add(String.valueOf(cell.seed));
+		command.add(cell.vmAllocationPolicy);
+		command.add(cell.vmSelectionPolicy);
+		command.add(cell.parameter);
+
+		ProcessBuilder builder = new ProcessBuilder(command);
+		builder.redirectErrorStream(true);
+		Process process = builder.start();
+
+		// the output has to be drained for the worker not to block
+		InputStream input = process.getInputStream();
+		OutputStream log = new FileOutputStream(new File(cellFolder, "console.log"));
+		byte[] buffer = new byte[8192];
+		int read;
+		while ((read = input.read(buffer)) != -1) {
+			log.write(buffer, 0, read);
+		}
+		log.close();
+		input.close();
+
+		if (process.waitFor() != 0 || !resultFile.exists()) {
+			return null;
+		}
+		BufferedReader reader = new BufferedReader(new FileReader(resultFile));
+		String names = reader.readLine();
+		String values = reader.readLine();
+		reader.close();
+		if (names == null || values == null) {
+			return null;
+		}
+		return new String[] { names, values };
+	}
+
+	/**
+	 * Gets the comma-separated values of a grid property.
+	 *
+	 * @param grid the grid
+	 * @param key the key
+	 * @param defaultValue the default value
+	 * @return the values
+	 */
+	private static String[] getValues(Properties grid, String key, String defaultValue) {
+		String[] values = grid.getProperty(key, defaultValue).split(",");
+		for (int i = 0; i < values.length; i++) {
+			values[i] = values[i].trim();
+		}
+		return values;
+	}
+
+	/**
+	 * A cell of the sweep grid.
+	 */
+	public static class Cell {
+
+		/** The index of the cell in the grid. */
+		private final int index;
+
+		/** The brownout policy id. */
+		private final int policyId;
+
+		/** The id of the overloaded trace workload. */
+		private final int workloadId;
+
+		/** The dimmer up threshold. */
+		private final double threshold;
+
+		/** The seed of the random generators of the brownout policies. */
+		private final long seed;
+
+		/** The vm allocation policy. */
+		private final String vmAllocationPolicy;
+
+		/** The vm selection policy. */
+		private final String vmSelectionPolicy;
+
+		/** The parameter of the vm allocation policy. */
+		private final String parameter;
+
+		/**
+		 * Instantiates a new cell.
+		 *
+		 * @param index the index of the cell in the grid
+		 * @param policyId the brownout policy id
+		 * @param workloadId the id of the overloaded trace workload
+		 * @param threshold the dimmer up threshold
+		 * @param seed the seed of the random generators of the brownout policies
+		 * @param vmAllocationPolicy the vm allocation policy
+		 * @param vmSelectionPolicy the vm selection policy
+		 * @param parameter the parameter of the vm allocation policy
+		 */
+		public Cell(
+				int index,
+				int policyId,
+				int workloadId,
+				double threshold,
+				long seed,
+				String vmAllocationPolicy,
+				String vmSelectionPolicy,
+				String parameter) {
+			this.index = index;
+			this.policyId = policyId;
+			this.workloadId = workloadId;
+			this.threshold = threshold;
+			this.seed = seed;
+			this.vmAllocationPolicy = vmAllocationPolicy;
+			this.vmSelectionPolicy = vmSelectionPolicy;
+			this.parameter = parameter;
+		}
+
+		/**
+		 * Gets the name of the cell, which is also the name of its output folder.
+		 *
+		 * @return the name
+		 */
+		public String getName() {
+			return String.format("cell%05d", index);
+		}
+
+		/**
+		 * Gets the grid values of the cell as a CSV row.
+		 *
+		 * @return the CSV row
+		 */
+		public String toCsv() {
+			return getName() + "," + policyId + "," + workloadId + "," + threshold + "," + seed + ","
+					+ vmAllocationPolicy + "," + vmSelectionPolicy + "," + parameter;
+		}
+
+	}
+
+}
@@ -0,0 +1,94 @@
+package com.cloudbus.cloudsim.examples.power.brownout;
+
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.cloudbus.cloudsim.examples.power.Helper;
+import org.cloudbus.cloudsim.power.PowerDatacenter;
+
+/**
+ * Runs one cell of a {@link BrownoutSweep} in its own JVM. The brownout settings are set before
+ * the simulation is created, and the results are written to a file with a header line holding the
+ * metric names and a line holding their values.
+ * <p>
+ * Usage: <tt>BrownoutSweepWorker resultFile outputFolder policyId workloadId dimmerUpThreshold
+ * seed vmAllocationPolicy vmSelectionPolicy parameter</tt>
+ */
+public class BrownoutSweepWorker {
+
+	/** The file the results are written to. */
+	private static String resultFile;
+
+	/**
+	 * The main method.
+	 *
+	 * @param args the arguments
+	 */
+	public static void main(String[] args) {
+		if (args.length != 9) {
+			System.out.println("Usage: BrownoutSweepWorker resultFile outputFolder policyId workloadId "
+					+ "dimmerUpThreshold seed vmAllocationPolicy vmSelectionPolicy parameter");
+			System.exit(1);
+		}
+		resultFile = args[0];
+		String outputFolder = args[1];
+		Brownout.brownoutPolicyId = Integer.parseInt(args[2]);
+		Brownout.workloadId = Integer.parseInt(args[3]);
+		Brownout.dimmerUpThreshold = Double.parseDouble(args[4]);
+		Brownout.MARKOV_SEED = Long.parseLong(args[5]);
+
+		new Runner(outputFolder, args[6], args[7], args[8]);
+	}
+
+	/**
+	 * The brownout runner that writes the results to the result file.
+	 */
+	private static class Runner extends BrownoutRunner {
+
+		/**
+		 * Instantiates a new runner and runs the simulation.
+		 *
+		 * @param outputFolder the output folder
+		 * @param vmAllocationPolicy the vm allocation policy
+		 * @param vmSelectionPolicy the vm selection policy
+		 * @param parameter the parameter
+		 */
+		public Runner(String outputFolder, String vmAllocationPolicy, String vmSelectionPolicy, String parameter) {
+			super(false, false, "", outputFolder, "random", vmAllocationPolicy, vmSelectionPolicy, parameter);
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * @see org.cloudbus.cloudsim.examples.power.RunnerAbstract#processResults(org.cloudbus.cloudsim.power.PowerDatacenter, double, java.lang.String)
+		 */
+		@Override
+		protected void processResults(PowerDatacenter datacenter, double lastClock, String experimentName) {
+			Map<String, Double> results = Helper.getResults(datacenter, vmList, lastClock);
+			StringBuilder names = new StringBuilder();
+			StringBuilder values = new StringBuilder();
+			for (Entry<String, Double> entry : results.entrySet()) {
+				if (names.length() > 0) {
+					names.append(",");
+					values.append(",");
+				}
+				names.append(entry.getKey());
+				values.append(entry.getValue());
+			}
+
+			try {
+				BufferedWriter writer = new BufferedWriter(new FileWriter(resultFile));
+				writer.write(names.toString() + "\n");
+				writer.write(values.toString() + "\n");
+				writer.close();
+			} catch (IOException e) {
+				e.printStackTrace();
+				System.exit(1);
+			}
+		}
+
+	}
+
+}
@@ -0,0 +1,148 @@
+package org.cloudbus.cloudsim.examples.benchmark;
+
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation
+ *               of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.cloudbus.cloudsim.CloudletSchedulerDynamicWorkload;
+import org.cloudbus.cloudsim.Pe;
+import org.cloudbus.cloudsim.Vm;
+import org.cloudbus.cloudsim.VmSchedulerTimeSharedOverSubscription;
+import org.cloudbus.cloudsim.power.PowerHost;
+import org.cloudbus.cloudsim.power.PowerHostUtilizationHistory;
+import org.cloudbus.cloudsim.power.PowerVm;
+import org.cloudbus.cloudsim.power.models.PowerModel;
+import org.cloudbus.cloudsim.power.models.PowerModelSpecPowerIbmX3550XeonX5670;
+import org.cloudbus.cloudsim.power.models.PowerModelSpecPowerIbmX3550XeonX5675;
+import org.cloudbus.cloudsim.provisioners.BwProvisionerSimple;
+import org.cloudbus.cloudsim.provisioners.PeProvisionerSimple;
+import org.cloudbus.cloudsim.provisioners.RamProvisionerSimple;
+
+/**
+ * The Class BenchmarkHelper builds the consolidated datacenter shared by the benchmarks of the VM
+ * placement and of the migration planning: the VMs are packed on part of the hosts, so that some
+ * hosts are over-utilized and the others are idle. Its host types are also used by the other
+ * benchmarks of the hosts.
+ */
+public class BenchmarkHelper {
+
+	/** The utilization threshold of the hosts. */
+	public static final double UTILIZATION_THRESHOLD = 0.8;
+
+	/** The seed of the random generators of the benchmarks. */
+	static final long SEED = 42;
+
+	/** The MIPS of the PEs of the host types. */
+	static final int[] HOST_MIPS = { 1860, 2660 };
+
+	/** The number of PEs of the hosts. */
+	static final int HOST_PES = 8;
+
+	/** The RAM of the hosts. */
+	static final int HOST_RAM = 16384;
+
+	/** The BW of the hosts. */
+	static final int HOST_BW = 1000000;
+
+	/** The storage of the hosts. */
+	static final long HOST_STORAGE = 1000000;
+
+	/** The power models of the host types. */
+	static final PowerModel[] HOST_POWER = { new PowerModelSpecPowerIbmX3550XeonX5670(),
+			new PowerModelSpecPowerIbmX3550XeonX5675() };
+
+	/** The MIPS of the VM types. */
+	private static final int[] VM_MIPS = { 2500, 2000, 1000, 500 };
+
+	/** The RAM of the VM types. */
+	private static final int[] VM_RAM = { 870, 1740, 1740, 613 };
+
+	/** The BW of the VMs. */
+	private static final int VM_BW = 100000;
+
+	/** The size of the VM types. */
+	private static final int[] VM_SIZE = { 2500, 2000, 1000, 500 };
+
+	/**
+	 * Creates the hosts and VMs of a consolidated datacenter, and places the VMs. The same numbers
+	 * of hosts and VMs always give the same placement.
+	 *
+	 * @param hostsNumber the number of hosts
+	 * @param vmsNumber the number of VMs
+	 * @param vmList the list to which the VMs are added
+	 * @return the hosts
+	 */
+	public static List<PowerHost> createConsolidatedHostList(int hostsNumber, int vmsNumber, List<Vm> vmList) {
+		Random random = new Random(SEED);
+		List<PowerHost> hostList = new ArrayList<PowerHost>();
+		for (int i = 0; i < hostsNumber; i++) {
+			int hostType = i % HOST_MIPS.length;
+			List<Pe> peList = createPeList(hostType);
+			hostList.add(new PowerHostUtilizationHistory(i, new RamProvisionerSimple(HOST_RAM),
+					new BwProvisionerSimple(HOST_BW), HOST_STORAGE, peList,
+					new VmSchedulerTimeSharedOverSubscription(peList), HOST_POWER[hostType]));
+		}
+
+		// the VMs are packed on the first hosts of a random order, up to a random utilization of each
+		// host, and the other hosts stay idle
+		List<PowerHost> activeHosts = new ArrayList<PowerHost>(hostList);
+		Collections.shuffle(activeHosts, random);
+		int next = 0;
+		double targetUtilization = getTargetUtilization(random);
+		for (int i = 0; i < vmsNumber; i++) {
+			int vmType = random.nextInt(VM_MIPS.length);
+			Vm vm = new PowerVm(i, 0, VM_MIPS[vmType], 1, VM_RAM[vmType], VM_BW, VM_SIZE[vmType], 1, "Xen",
+					new CloudletSchedulerDynamicWorkload(VM_MIPS[vmType], 1), 300);
+			while (true) {
+				PowerHost host = activeHosts.get(next % activeHosts.size());
+				double utilization = 1 - (host.getAvailableMips() - VM_MIPS[vmType]) / host.getTotalMips();
+				if (utilization <= targetUtilization && host.vmCreate(vm)) {
+					break;
+				}
+				next++;
+				targetUtilization = getTargetUtilization(random);
+			}
+			vmList.add(vm);
+		}
+		for (PowerHost host : hostList) {
+			host.updateVmsProcessing(0);
+		}
+		return hostList;
+	}
+
+	/**
+	 * Creates the PEs of a host.
+	 *
+	 * @param hostType the type of the host
+	 * @return the PEs
+	 */
+	static List<Pe> createPeList(int hostType) {
+		List<Pe> peList = new ArrayList<Pe>();
+		for (int j = 0; j < HOST_PES; j++) {
+			peList.add(new Pe(j, new PeProvisionerSimple(HOST_MIPS[hostType])));
+		}
+		return peList;
+	}
+
+	/**
+	 * Gets the utilization up to which a host is packed, of which about a third is above the
+	 * utilization threshold.
+	 *
+	 * @param random the random generator
+	 * @return the target utilization
+	 */
+	private static double getTargetUtilization(Random random) {
+		return 0.5 + 0.45 * random.nextDouble();
+	}
+
+}
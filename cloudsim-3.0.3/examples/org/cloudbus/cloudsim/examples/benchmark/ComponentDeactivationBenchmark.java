@@ -0,0 +1,180 @@
+package org.cloudbus.cloudsim.examples.benchmark;
+
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation
+ *               of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+
+import org.cloudbus.cloudsim.CloudletOptionalComponent;
+import org.cloudbus.cloudsim.CloudletOptionalComponentCatalog;
+import org.cloudbus.cloudsim.ComponentDeactivationEngine;
+
+/**
+ * A micro-benchmark of the choice of the optional components disabled by the brownout policies.
+ * For each cloudlet, the components of the lowest utilization policy are cut with the former
+ * nested loop, which sums the utilization of the first components again for each rank, and with
+ * the binary search of the {@link ComponentDeactivationEngine}; both cuts are checked to be the
+ * same. The revenue loss of the cut by utilization and price ratio is then compared with the one
+ * of the knapsack mode, which is the lowest possible.
+ * <p>
+ * Usage: <tt>ComponentDeactivationBenchmark [components [cloudlets [tags]]]</tt>. The default is
+ * 64 components with 32 distinct tags, for 100,000 cloudlets.
+ */
+public class ComponentDeactivationBenchmark {
+
+	/** The seed of the random components and reductions. */
+	private static final long SEED = 42;
+
+	/**
+	 * Creates main() to run this example.
+	 *
+	 * @param args the number of components, cloudlets and distinct tags
+	 */
+	public static void main(String[] args) {
+		int components = args.length > 0 ? Integer.parseInt(args[0]) : 64;
+		int cloudlets = args.length > 1 ? Integer.parseInt(args[1]) : 100000;
+		int tags = args.length > 2 ? Integer.parseInt(args[2]) : components / 2;
+
+		Random random = new Random(SEED);
+		List<CloudletOptionalComponent> list = new ArrayList<CloudletOptionalComponent>();
+		for (int i = 0; i < components; i++) {
+			// the components share the whole utilization, as in the brownout workload
+			double utilization = (0.5 + random.nextDouble()) / components;
+			double price = (0.5 + random.nextDouble()) / components;
+			list.add(new CloudletOptionalComponent(i, utilization, price, true, "tag" + random.nextInt(tags)));
+		}
+		CloudletOptionalComponentCatalog catalog = new CloudletOptionalComponentCatalog(list);
+		double[] reductions = new double[cloudlets];
+		for (int i = 0; i < cloudlets; i++) {
+			reductions[i] = random.nextDouble();
+		}
+		ComponentDeactivationEngine engine = new ComponentDeactivationEngine();
+
+		// warm up the JIT compiler
+		for (int i = 0; i < 3; i++) {
+			cutByNestedLoop(catalog, reductions);
+			cutByBinarySearch(engine, catalog, reductions);
+		}
+
+		long startTime = System.nanoTime();
+		long nestedLoopChecksum = cutByNestedLoop(catalog, reductions);
+		double nestedLoopSeconds = (System.nanoTime() - startTime) / 1e9;
+
+		startTime = System.nanoTime();
+		long binarySearchChecksum = cutByBinarySearch(engine, catalog, reductions);
+		double binarySearchSeconds = (System.nanoTime() - startTime) / 1e9;
+
+		if (nestedLoopChecksum != binarySearchChecksum) {
+			throw new IllegalStateException("The nested loop and the binary search found different cuts");
+		}
+
+		double greedyLoss = 0;
+		double knapsackLoss = 0;
+		startTime = System.nanoTime();
+		for (double reduction : reductions) {
+			knapsackLoss += getPrice(catalog, engine.getMinimumRevenueLossGroups(catalog, reduction));
+		}
+		double knapsackSeconds = (System.nanoTime() - startTime) / 1e9;
+		for (double reduction : reductions) {
+			int order = CloudletOptionalComponentCatalog.ORDER_UTILIZATION_AND_PRICE_RATIO;
+			BitSet groups = new BitSet();
+			for (int rank = 0; rank <= engine.getCutRank(catalog, order, reduction); rank++) {
+				groups.set(catalog.getTagGroup(catalog.getComponentIndex(order, rank)));
+			}
+			greedyLoss += getPrice(catalog, groups);
+		}
+
+		System.out.println(String.format("%d components, %d tags, %d cloudlets", components,
+				catalog.getTagGroupCount(), cloudlets));
+		System.out.println(String.format("Nested loop:   %.3f s, %.2f us per cloudlet", nestedLoopSeconds,
+				nestedLoopSeconds * 1e6 / cloudlets));
+		System.out.println(String.format("Binary search: %.3f s, %.2f us per cloudlet", binarySearchSeconds,
+				binarySearchSeconds * 1e6 / cloudlets));
+		System.out.println(String.format("Knapsack:      %.3f s, %.2f us per cloudlet", knapsackSeconds,
+				knapsackSeconds * 1e6 / cloudlets));
+		System.out.println(String.format("Mean revenue loss: %.4f by ratio cut, %.4f by knapsack", greedyLoss
+				/ cloudlets, knapsackLoss / cloudlets));
+	}
+
+	/**
+	 * Cuts the components by lowest utilization with the former nested loop.
+	 *
+	 * @param catalog the catalog
+	 * @param reductions the required reduction of each cloudlet
+	 * @return the sum of the cut ranks
+	 */
+	private static long cutByNestedLoop(CloudletOptionalComponentCatalog catalog, double[] reductions) {
+		int order = CloudletOptionalComponentCatalog.ORDER_UTILIZATION;
+		int size = catalog.size();
+		long checksum = 0;
+		for (double configuredUtilization : reductions) {
+			int partitionIndex = 0;
+			if (catalog.getUtilization(catalog.getComponentIndex(order, 0)) < configuredUtilization) {
+				partitionIndex = size - 1;
+				for (int index = 1; index < size; index++) {
+					double tempUtilization1 = 0.0;
+					for (int i = 0; i <= index - 1; i++) {
+						tempUtilization1 += catalog.getUtilization(catalog.getComponentIndex(order, i));
+					}
+					double tempUtilization2 = tempUtilization1
+							+ catalog.getUtilization(catalog.getComponentIndex(order, index));
+					if ((tempUtilization1 <= configuredUtilization) && (configuredUtilization < tempUtilization2)) {
+						if ((configuredUtilization - tempUtilization1) <= (tempUtilization2 - configuredUtilization)) {
+							partitionIndex = index - 1;
+						} else {
+							partitionIndex = index;
+						}
+						break;
+					}
+				}
+			}
+			checksum += partitionIndex;
+		}
+		return checksum;
+	}
+
+	/**
+	 * Cuts the components by lowest utilization with the binary search of the engine.
+	 *
+	 * @param engine the engine
+	 * @param catalog the catalog
+	 * @param reductions the required reduction of each cloudlet
+	 * @return the sum of the cut ranks
+	 */
+	private static long cutByBinarySearch(ComponentDeactivationEngine engine,
+			CloudletOptionalComponentCatalog catalog, double[] reductions) {
+		int order = CloudletOptionalComponentCatalog.ORDER_UTILIZATION;
+		long checksum = 0;
+		for (double configuredUtilization : reductions) {
+			checksum += engine.getCutRank(catalog, order, configuredUtilization);
+		}
+		return checksum;
+	}
+
+	/**
+	 * Gets the revenue loss of disabling some tag groups.
+	 *
+	 * @param catalog the catalog
+	 * @param groups the tag groups
+	 * @return the total price of the components of the groups
+	 */
+	private static double getPrice(CloudletOptionalComponentCatalog catalog, BitSet groups) {
+		double price = 0;
+		for (int index = 0; index < catalog.size(); index++) {
+			if (groups.get(catalog.getTagGroup(index))) {
+				price += catalog.getPrice(index);
+			}
+		}
+		return price;
+	}
+
+}
@@ -0,0 +1,143 @@
+package org.cloudbus.cloudsim.examples.benchmark;
+
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation
+ *               of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+import java.util.Calendar;
+
+import org.cloudbus.cloudsim.Log;
+import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.core.CloudSimTags;
+import org.cloudbus.cloudsim.core.SimEntity;
+import org.cloudbus.cloudsim.core.SimEvent;
+import org.cloudbus.cloudsim.core.predicates.PredicateType;
+
+/**
+ * A micro-benchmark of the periodic rescheduling done by the power-aware datacenters: on every
+ * scheduling interval each datacenter cancels its pending <tt>VM_DATACENTER_EVENT</tt> with
+ * {@link CloudSim#cancelAll(int, org.cloudbus.cloudsim.core.predicates.Predicate)} and schedules a
+ * new one. Each datacenter also keeps a number of unrelated events pending, which makes the future
+ * queue as large as in a simulation with many cloudlets.
+ * <p>
+ * Usage: <tt>EventCancellationBenchmark [datacenters [ticks [pendingPerDatacenter]]]</tt>. The
+ * default is 1,000 datacenters rescheduling on 100 ticks with 100 other pending events each.
+ */
+public class EventCancellationBenchmark {
+
+	/** The scheduling interval. */
+	private static final double SCHEDULING_INTERVAL = 300;
+
+	/** The tag of the unrelated pending events. */
+	private static final int OTHER = 1000002;
+
+	/**
+	 * Creates main() to run this example.
+	 *
+	 * @param args the number of datacenters, ticks and other pending events per datacenter
+	 */
+	public static void main(String[] args) {
+		int datacenters = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+		int ticks = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+		int pending = args.length > 2 ? Integer.parseInt(args[2]) : 100;
+
+		Log.disable();
+
+		// warm up the JIT compiler
+		run(100, 100, pending);
+
+		long startTime = System.nanoTime();
+		long reschedulings = run(datacenters, ticks, pending);
+		double seconds = (System.nanoTime() - startTime) / 1e9;
+
+		System.out.println(String.format("%d datacenters, %d ticks, %d pending events", datacenters, ticks,
+				datacenters * (pending + 1)));
+		System.out.println(String.format("%.3f s, %.0f reschedulings/sec, %.2f us per rescheduling", seconds,
+				reschedulings / seconds, seconds * 1e6 / reschedulings));
+	}
+
+	/**
+	 * Runs one simulation.
+	 *
+	 * @param datacenters the number of datacenters
+	 * @param ticks the number of scheduling intervals
+	 * @param pending the number of other pending events per datacenter
+	 * @return the number of reschedulings
+	 */
+	private static long run(int datacenters, int ticks, int pending) {
+		CloudSim.init(0, Calendar.getInstance(), false);
+		DatacenterEntity[] entities = new DatacenterEntity[datacenters];
+		for (int i = 0; i < datacenters; i++) {
+			entities[i] = new DatacenterEntity("Datacenter_" + i, pending);
+		}
+		CloudSim.terminateSimulation(SCHEDULING_INTERVAL * ticks + 1);
+		CloudSim.startSimulation();
+
+		long reschedulings = 0;
+		for (DatacenterEntity entity : entities) {
+			reschedulings += entity.getReschedulings();
+		}
+		return reschedulings;
+	}
+
+	/**
+	 * An entity that reschedules its periodic event the way PowerDatacenter does.
+	 */
+	private static class DatacenterEntity extends SimEntity {
+
+		/** The number of other pending events. */
+		private final int pending;
+
+		/** The number of reschedulings. */
+		private long reschedulings;
+
+		/**
+		 * Instantiates a new datacenter entity.
+		 *
+		 * @param name the name
+		 * @param pending the number of other pending events
+		 */
+		public DatacenterEntity(String name, int pending) {
+			super(name);
+			this.pending = pending;
+		}
+
+		@Override
+		public void startEntity() {
+			for (int i = 0; i < pending; i++) {
+				// far beyond the end of the simulation, so they stay pending
+				schedule(getId(), Double.MAX_VALUE / 2, OTHER);
+			}
+			schedule(getId(), SCHEDULING_INTERVAL, CloudSimTags.VM_DATACENTER_EVENT);
+		}
+
+		@Override
+		public void processEvent(SimEvent ev) {
+			if (ev.getTag() == CloudSimTags.VM_DATACENTER_EVENT) {
+				CloudSim.cancelAll(getId(), new PredicateType(CloudSimTags.VM_DATACENTER_EVENT));
+				schedule(getId(), SCHEDULING_INTERVAL, CloudSimTags.VM_DATACENTER_EVENT);
+				reschedulings++;
+			}
+		}
+
+		@Override
+		public void shutdownEntity() {
+		}
+
+		/**
+		 * Gets the number of reschedulings.
+		 *
+		 * @return the number of reschedulings
+		 */
+		public long getReschedulings() {
+			return reschedulings;
+		}
+
+	}
+
+}
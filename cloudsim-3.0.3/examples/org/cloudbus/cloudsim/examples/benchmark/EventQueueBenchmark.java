@@ -0,0 +1,199 @@
+package org.cloudbus.cloudsim.examples.benchmark;
+
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation
+ *               of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+import java.util.Calendar;
+import java.util.Random;
+
+import org.cloudbus.cloudsim.Log;
+import org.cloudbus.cloudsim.core.CalendarEventQueue;
+import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.core.EventQueue;
+import org.cloudbus.cloudsim.core.FutureQueue;
+import org.cloudbus.cloudsim.core.HeapEventQueue;
+import org.cloudbus.cloudsim.core.SimEntity;
+import org.cloudbus.cloudsim.core.SimEvent;
+
+/**
+ * A benchmark of the future event queue implementations using the classic hold model: the queue
+ * is filled with a given number of pending events and then each processed event schedules a new
+ * one with an exponentially distributed delay, so that the number of pending events stays
+ * constant. The events go through the whole simulation kernel, so the reported rate is the one
+ * seen by a simulation.
+ * <p>
+ * Usage: <tt>EventQueueBenchmark [holds [pending...]]</tt>. The default is 1,000,000 holds at
+ * 10^4, 10^6 and 10^7 pending events; the largest size needs a heap of several GB (e.g.
+ * <tt>-Xmx8g</tt>).
+ */
+public class EventQueueBenchmark {
+
+	/** The tag of the benchmark events. */
+	private static final int HOLD = 1000001;
+
+	/**
+	 * Creates main() to run this example.
+	 *
+	 * @param args the number of holds followed by the numbers of pending events
+	 */
+	public static void main(String[] args) {
+		long holds = 1000000;
+		int[] pendingSizes = new int[] { 10000, 1000000, 10000000 };
+		if (args.length > 0) {
+			holds = Long.parseLong(args[0]);
+		}
+		if (args.length > 1) {
+			pendingSizes = new int[args.length - 1];
+			for (int i = 1; i < args.length; i++) {
+				pendingSizes[i - 1] = Integer.parseInt(args[i]);
+			}
+		}
+
+		Log.disable();
+		String[] names = new String[] { "TreeSet", "binary heap", "4-ary heap", "calendar" };
+
+		// warm up the JIT compiler
+		for (int i = 0; i < names.length; i++) {
+			run(createQueue(i), 10000, 200000);
+		}
+
+		System.out.println(String.format("%-12s %12s %16s", "queue", "pending", "events/sec"));
+		for (int pending : pendingSizes) {
+			for (int i = 0; i < names.length; i++) {
+				double rate = run(createQueue(i), pending, holds);
+				System.out.println(String.format("%-12s %12d %16.0f", names[i], pending, rate));
+			}
+		}
+	}
+
+	/**
+	 * Creates the queue with a given index in the list of benchmarked queues.
+	 *
+	 * @param index the index
+	 * @return the queue
+	 */
+	private static EventQueue createQueue(int index) {
+		switch (index) {
+			case 0:
+				return new FutureQueue();
+			case 1:
+				return new HeapEventQueue(2);
+			case 2:
+				return new HeapEventQueue(4);
+			default:
+				return new CalendarEventQueue();
+		}
+	}
+
+	/**
+	 * Runs one simulation of the hold model.
+	 *
+	 * @param queue the future event queue
+	 * @param pending the number of pending events
+	 * @param holds the number of events to process
+	 * @return the number of processed events per second of wall-clock time
+	 */
+	private static double run(EventQueue queue, int pending, long holds) {
+		CloudSim.init(0, Calendar.getInstance(), false, queue);
+		HoldEntity entity = new HoldEntity("HoldEntity", pending, holds);
+		CloudSim.startSimulation();
+		return holds / ((entity.getFinishTime() - entity.getStartTime()) / 1e9);
+	}
+
+	/**
+	 * An entity that keeps a constant number of events pending in the future event queue.
+	 */
+	private static class HoldEntity extends SimEntity {
+
+		/** The random generator of the delays. */
+		private final Random random = new Random(1);
+
+		/** The number of pending events. */
+		private final int pending;
+
+		/** The number of events to process. */
+		private final long holds;
+
+		/** The number of processed events. */
+		private long processed;
+
+		/** The wall-clock time of the first processed event. */
+		private long startTime;
+
+		/** The wall-clock time of the last processed event. */
+		private long finishTime;
+
+		/**
+		 * Instantiates a new hold entity.
+		 *
+		 * @param name the name
+		 * @param pending the number of pending events
+		 * @param holds the number of events to process
+		 */
+		public HoldEntity(String name, int pending, long holds) {
+			super(name);
+			this.pending = pending;
+			this.holds = holds;
+		}
+
+		@Override
+		public void startEntity() {
+			for (int i = 0; i < pending; i++) {
+				schedule(getId(), nextDelay(), HOLD);
+			}
+		}
+
+		@Override
+		public void processEvent(SimEvent ev) {
+			if (processed == 0) {
+				startTime = System.nanoTime();
+			}
+			processed++;
+			if (processed == holds) {
+				finishTime = System.nanoTime();
+				CloudSim.abruptallyTerminate();
+			} else {
+				schedule(getId(), nextDelay(), HOLD);
+			}
+		}
+
+		@Override
+		public void shutdownEntity() {
+		}
+
+		/**
+		 * Gets an exponentially distributed delay with mean 1.
+		 *
+		 * @return the delay
+		 */
+		private double nextDelay() {
+			return -Math.log(1 - random.nextDouble());
+		}
+
+		/**
+		 * Gets the wall-clock time of the first processed event.
+		 *
+		 * @return the time in nanoseconds
+		 */
+		public long getStartTime() {
+			return startTime;
+		}
+
+		/**
+		 * Gets the wall-clock time of the last processed event.
+		 *
+		 * @return the time in nanoseconds
+		 */
+		public long getFinishTime() {
+			return finishTime;
+		}
+
+	}
+
+}
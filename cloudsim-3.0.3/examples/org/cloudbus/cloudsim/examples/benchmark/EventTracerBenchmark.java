@@ -0,0 +1,157 @@
+package org.cloudbus.cloudsim.examples.benchmark;
+
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation
+ *               of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Random;
+
+import org.cloudbus.cloudsim.EventTraceBuffer;
+import org.cloudbus.cloudsim.EventTraceDecoder;
+import org.cloudbus.cloudsim.EventTracer;
+import org.cloudbus.cloudsim.Log;
+
+/**
+ * A micro-benchmark of the events logged at each time frame by a datacenter and its hosts, with
+ * the {@link EventTracer} against the former eager {@link Log#formatLine(String, Object...)}
+ * calls, which concatenated and boxed their arguments even when the log was disabled. The events
+ * are the allocation of each VM and the utilization and energy of each host. The text rendered by
+ * the tracer to the log, and the text decoded from its buffer, are checked to be the former text.
+ * <p>
+ * Usage: <tt>EventTracerBenchmark [hosts [vms [frames]]]</tt>. The default is 100 hosts of 10 VMs,
+ * on 1,000 time frames.
+ */
+public class EventTracerBenchmark {
+
+	/** The seed of the random values. */
+	private static final long SEED = 42;
+
+	/** The MIPS of the VMs. */
+	private static final double VM_MIPS = 1000;
+
+	/**
+	 * Creates main() to run this example.
+	 *
+	 * @param args the number of hosts, of VMs per host and of time frames
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	public static void main(String[] args) throws IOException {
+		int hosts = args.length > 0 ? Integer.parseInt(args[0]) : 100;
+		int vms = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+		int frames = args.length > 2 ? Integer.parseInt(args[2]) : 1000;
+
+		// check that the tracer renders the former text, directly and from its buffer
+		ByteArrayOutputStream formerText = new ByteArrayOutputStream();
+		Log.setOutput(formerText);
+		Log.enable();
+		logFormer(hosts, vms, 3);
+		ByteArrayOutputStream text = new ByteArrayOutputStream();
+		Log.setOutput(text);
+		trace(hosts, vms, 3);
+		EventTraceBuffer buffer = new EventTraceBuffer(3 * hosts * (vms + 2) + 1);
+		EventTracer.setBuffer(buffer);
+		trace(hosts, vms, 3);
+		StringBuilder decodedText = new StringBuilder();
+		EventTraceDecoder.decode(buffer, decodedText);
+		EventTracer.setBuffer(null);
+		if (!formerText.toString().equals(text.toString()) || !formerText.toString().equals(decodedText.toString())) {
+			throw new IllegalStateException("The tracer does not render the former text");
+		}
+
+		Log.disable();
+		buffer = new EventTraceBuffer(1 << 16);
+		// warm up the JIT compiler
+		for (int i = 0; i < 3; i++) {
+			logFormer(hosts, vms, frames / 10);
+			trace(hosts, vms, frames / 10);
+			EventTracer.setBuffer(buffer);
+			trace(hosts, vms, frames / 10);
+			EventTracer.setBuffer(null);
+		}
+
+		long startTime = System.nanoTime();
+		logFormer(hosts, vms, frames);
+		double formerSeconds = (System.nanoTime() - startTime) / 1e9;
+
+		startTime = System.nanoTime();
+		trace(hosts, vms, frames);
+		double disabledSeconds = (System.nanoTime() - startTime) / 1e9;
+
+		EventTracer.setBuffer(buffer);
+		startTime = System.nanoTime();
+		trace(hosts, vms, frames);
+		double bufferSeconds = (System.nanoTime() - startTime) / 1e9;
+		EventTracer.setBuffer(null);
+
+		Log.setOutput(System.out);
+		Log.enable();
+		long events = (long) hosts * (vms + 2) * frames;
+		System.out.println(String.format("%d hosts of %d VMs, %d time frames, %d events", hosts, vms, frames, events));
+		System.out.println(String.format("Log.formatLine, log disabled: %.3f s, %.2f ns per event", formerSeconds,
+				formerSeconds * 1e9 / events));
+		System.out.println(String.format("EventTracer, log disabled:    %.3f s, %.2f ns per event", disabledSeconds,
+				disabledSeconds * 1e9 / events));
+		System.out.println(String.format("EventTracer, ring buffer:     %.3f s, %.2f ns per event", bufferSeconds,
+				bufferSeconds * 1e9 / events));
+	}
+
+	/**
+	 * Logs the events of the time frames as before.
+	 *
+	 * @param hosts the number of hosts
+	 * @param vms the number of VMs per host
+	 * @param frames the number of time frames
+	 */
+	private static void logFormer(int hosts, int vms, int frames) {
+		Random random = new Random(SEED);
+		for (int t = 1; t <= frames; t++) {
+			double time = t * 300 + 0.1;
+			for (int i = 0; i < hosts; i++) {
+				for (int j = 0; j < vms; j++) {
+					double allocatedMips = random.nextDouble() * VM_MIPS;
+					double requestedMips = random.nextDouble() * VM_MIPS;
+					Log.formatLine("%.2f: [Host #" + i + "] Total allocated MIPS for VM #" + (i * vms + j) + " (Host #" + i
+							+ ") is %.2f, was requested %.2f out of total %.2f (%.2f%%)", time, allocatedMips,
+							requestedMips, VM_MIPS, requestedMips / VM_MIPS * 100);
+				}
+				Log.formatLine("%.2f: [Host #%d] utilization is %.2f%%", time, i, random.nextDouble() * 100);
+				Log.printLine();
+				Log.formatLine("%.2f: [Host #%d] utilization at %.2f was %.2f%%, now is %.2f%%", time, i, time - 300,
+						random.nextDouble() * 100, random.nextDouble() * 100);
+				Log.formatLine("%.2f: [Host #%d] energy is %.2f W*sec", time, i, random.nextDouble() * 1e5);
+			}
+		}
+	}
+
+	/**
+	 * Records the events of the time frames with the tracer.
+	 *
+	 * @param hosts the number of hosts
+	 * @param vms the number of VMs per host
+	 * @param frames the number of time frames
+	 */
+	private static void trace(int hosts, int vms, int frames) {
+		Random random = new Random(SEED);
+		for (int t = 1; t <= frames; t++) {
+			double time = t * 300 + 0.1;
+			for (int i = 0; i < hosts; i++) {
+				for (int j = 0; j < vms; j++) {
+					double allocatedMips = random.nextDouble() * VM_MIPS;
+					double requestedMips = random.nextDouble() * VM_MIPS;
+					EventTracer.vmAllocation(time, i, i * vms + j, i, allocatedMips, requestedMips, VM_MIPS);
+				}
+				EventTracer.hostUtilization(time, i, random.nextDouble());
+				EventTracer.hostEnergy(time, i, time - 300, random.nextDouble(), random.nextDouble(),
+						random.nextDouble() * 1e5);
+			}
+		}
+	}
+
+}
@@ -0,0 +1,124 @@
+package org.cloudbus.cloudsim.examples.benchmark;
+
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation
+ *               of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.cloudbus.cloudsim.Log;
+import org.cloudbus.cloudsim.Vm;
+import org.cloudbus.cloudsim.power.PowerHost;
+import org.cloudbus.cloudsim.power.PowerHostUtilizationHistory;
+import org.cloudbus.cloudsim.power.PowerVmAllocationPolicyMigrationAbstract;
+import org.cloudbus.cloudsim.power.PowerVmAllocationPolicyMigrationStaticThreshold;
+import org.cloudbus.cloudsim.power.PowerVmSelectionPolicyMinimumMigrationTime;
+
+/**
+ * A micro-benchmark of the VM placement of a scheduling interval, i.e. of
+ * {@link PowerVmAllocationPolicyMigrationAbstract#optimizeAllocation(List)} with a static
+ * threshold, with and without the capacity index of the hosts. The VMs are packed on part of the
+ * hosts, so that some hosts are over-utilized and the others are idle, as in a consolidated
+ * datacenter. The VMs of the over-utilized hosts are placed on the other hosts; the consolidation
+ * of the under-utilized hosts is left out, as it tries to evacuate every host in turn. Both
+ * placements are checked to give the same migration map.
+ * <p>
+ * Usage: <tt>HostPlacementBenchmark [hosts [vms [intervals]]]</tt>. The default is 10,000 hosts
+ * and 40,000 VMs, on 1 interval.
+ */
+public class HostPlacementBenchmark {
+
+	/**
+	 * Creates main() to run this example.
+	 *
+	 * @param args the number of hosts, VMs and intervals
+	 */
+	public static void main(String[] args) {
+		int hosts = args.length > 0 ? Integer.parseInt(args[0]) : 10000;
+		int vms = args.length > 1 ? Integer.parseInt(args[1]) : 40000;
+		int intervals = args.length > 2 ? Integer.parseInt(args[2]) : 1;
+
+		Log.disable();
+
+		List<Vm> scanVms = new ArrayList<Vm>();
+		PowerVmAllocationPolicyMigrationAbstract scanPolicy = createDatacenter(hosts, vms, scanVms);
+		scanPolicy.setHostCapacityIndexEnabled(false);
+		List<Vm> indexVms = new ArrayList<Vm>();
+		PowerVmAllocationPolicyMigrationAbstract indexPolicy = createDatacenter(hosts, vms, indexVms);
+
+		// warm up the JIT compiler
+		List<Map<String, Object>> scanMap = scanPolicy.optimizeAllocation(scanVms);
+		List<Map<String, Object>> indexMap = indexPolicy.optimizeAllocation(indexVms);
+		if (!toString(scanMap).equals(toString(indexMap))) {
+			throw new IllegalStateException("The full scan and the capacity index gave different placements");
+		}
+
+		long startTime = System.nanoTime();
+		for (int i = 0; i < intervals; i++) {
+			scanPolicy.optimizeAllocation(scanVms);
+		}
+		double scanSeconds = (System.nanoTime() - startTime) / 1e9 / intervals;
+
+		startTime = System.nanoTime();
+		for (int i = 0; i < intervals; i++) {
+			indexPolicy.optimizeAllocation(indexVms);
+		}
+		double indexSeconds = (System.nanoTime() - startTime) / 1e9 / intervals;
+
+		int idleHosts = 0;
+		for (PowerHost host : indexPolicy.<PowerHost> getHostList()) {
+			if (host.getVmList().isEmpty()) {
+				idleHosts++;
+			}
+		}
+		System.out.println(String.format("%d hosts (%d idle), %d VMs, %d migrations per interval", hosts,
+				idleHosts, vms, indexMap.size()));
+		System.out.println(String.format("Full scan:      %.3f s per interval", scanSeconds));
+		System.out.println(String.format("Capacity index: %.3f s per interval", indexSeconds));
+	}
+
+	/**
+	 * Creates the consolidated datacenter of {@link BenchmarkHelper}.
+	 *
+	 * @param hostsNumber the number of hosts
+	 * @param vmsNumber the number of VMs
+	 * @param vmList the list to which the VMs are added
+	 * @return the allocation policy
+	 */
+	private static PowerVmAllocationPolicyMigrationAbstract createDatacenter(int hostsNumber, int vmsNumber,
+			List<Vm> vmList) {
+		List<PowerHost> hostList = BenchmarkHelper.createConsolidatedHostList(hostsNumber, vmsNumber, vmList);
+		return new PowerVmAllocationPolicyMigrationStaticThreshold(hostList,
+				new PowerVmSelectionPolicyMinimumMigrationTime(), BenchmarkHelper.UTILIZATION_THRESHOLD) {
+
+			@Override
+			protected List<Map<String, Object>> getMigrationMapFromUnderUtilizedHosts(
+					List<PowerHostUtilizationHistory> overUtilizedHosts) {
+				return new ArrayList<Map<String, Object>>();
+			}
+		};
+	}
+
+	/**
+	 * Gets a migration map as a string of VM and host ids.
+	 *
+	 * @param migrationMap the migration map
+	 * @return the string
+	 */
+	private static String toString(List<Map<String, Object>> migrationMap) {
+		StringBuilder result = new StringBuilder();
+		for (Map<String, Object> migrate : migrationMap) {
+			result.append(((Vm) migrate.get("vm")).getId()).append('>')
+					.append(((PowerHost) migrate.get("host")).getId()).append(' ');
+		}
+		return result.toString();
+	}
+
+}
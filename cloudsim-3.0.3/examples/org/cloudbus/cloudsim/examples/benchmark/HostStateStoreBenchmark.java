@@ -0,0 +1,191 @@
+package org.cloudbus.cloudsim.examples.benchmark;
+
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation
+ *               of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.cloudbus.cloudsim.Pe;
+import org.cloudbus.cloudsim.VmSchedulerTimeSharedOverSubscription;
+import org.cloudbus.cloudsim.power.PowerHost;
+import org.cloudbus.cloudsim.power.PowerHostStateStore;
+import org.cloudbus.cloudsim.power.models.PowerModel;
+import org.cloudbus.cloudsim.provisioners.BwProvisionerSimple;
+import org.cloudbus.cloudsim.provisioners.RamProvisionerSimple;
+
+/**
+ * A micro-benchmark of the energy accounting of a time frame, as done by the power datacenter:
+ * the energy of each host from its previous to its current utilization, and the number of idle
+ * hosts. The hosts attached to a {@link PowerHostStateStore} are swept through its columns, and
+ * the other hosts one by one through their getters. A quarter of the hosts are idle. Both
+ * accountings are checked to give exactly the same energy and number of idle hosts.
+ * <p>
+ * Usage: <tt>HostStateStoreBenchmark [hosts [frames]]</tt>. The default is 10,000 hosts on 1,000
+ * time frames.
+ */
+public class HostStateStoreBenchmark {
+
+	/** The length of a time frame, in seconds. */
+	private static final double TIME_FRAME = 300;
+
+	/**
+	 * Creates main() to run this example.
+	 *
+	 * @param args the number of hosts and time frames
+	 */
+	public static void main(String[] args) {
+		int hosts = args.length > 0 ? Integer.parseInt(args[0]) : 10000;
+		int frames = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+
+		List<BenchmarkHost> hostList = createHosts(hosts);
+		List<BenchmarkHost> storeHostList = createHosts(hosts);
+		PowerHostStateStore store = new PowerHostStateStore(storeHostList);
+		Random random = new Random(BenchmarkHelper.SEED);
+		double[][] utilizations = new double[frames][hosts];
+		for (double[] frame : utilizations) {
+			for (int i = 0; i < hosts; i++) {
+				frame[i] = random.nextInt(4) == 0 ? 0 : random.nextDouble();
+			}
+		}
+
+		// warm up the JIT compiler
+		for (int i = 0; i < 3; i++) {
+			account(hostList, utilizations);
+			account(storeHostList, store, utilizations);
+		}
+
+		long startTime = System.nanoTime();
+		double[] result = account(hostList, utilizations);
+		double seconds = (System.nanoTime() - startTime) / 1e9;
+
+		startTime = System.nanoTime();
+		double[] storeResult = account(storeHostList, store, utilizations);
+		double storeSeconds = (System.nanoTime() - startTime) / 1e9;
+
+		if (Double.compare(result[0], storeResult[0]) != 0 || result[1] != storeResult[1]) {
+			throw new IllegalStateException("The accountings gave different results");
+		}
+		System.out.println(String.format("%d hosts, %d time frames, %.6g W*sec, %.0f idle host frames", hosts,
+				frames, result[0], result[1]));
+		System.out.println(String.format("Host objects: %.3f s, %.2f ns per host and frame", seconds, seconds * 1e9
+				/ hosts / frames));
+		System.out.println(String.format("State store:  %.3f s, %.2f ns per host and frame", storeSeconds,
+				storeSeconds * 1e9 / hosts / frames));
+	}
+
+	/**
+	 * Accounts the energy of the time frames through the getters of the hosts.
+	 *
+	 * @param hostList the hosts
+	 * @param utilizations the utilizations of the hosts at the end of each time frame
+	 * @return the energy and the number of idle hosts over the time frames
+	 */
+	private static double[] account(List<BenchmarkHost> hostList, double[][] utilizations) {
+		double energy = 0;
+		int idleHosts = 0;
+		for (double[] frame : utilizations) {
+			update(hostList, frame);
+			for (PowerHost host : hostList) {
+				double previousUtilizationOfCpu = host.getPreviousUtilizationOfCpu();
+				double utilizationOfCpu = host.getUtilizationOfCpu();
+				energy += host.getEnergyLinearInterpolation(previousUtilizationOfCpu, utilizationOfCpu, TIME_FRAME);
+				if (utilizationOfCpu == 0) {
+					idleHosts++;
+				}
+			}
+		}
+		return new double[] { energy, idleHosts };
+	}
+
+	/**
+	 * Accounts the energy of the time frames through the columns of the state store.
+	 *
+	 * @param hostList the hosts, attached to the store
+	 * @param store the state store
+	 * @param utilizations the utilizations of the hosts at the end of each time frame
+	 * @return the energy and the number of idle hosts over the time frames
+	 */
+	private static double[] account(List<BenchmarkHost> hostList, PowerHostStateStore store,
+			double[][] utilizations) {
+		double energy = 0;
+		int idleHosts = 0;
+		for (double[] frame : utilizations) {
+			update(hostList, frame);
+			store.computeEnergyLinearInterpolation(TIME_FRAME);
+			for (int i = 0; i < store.size(); i++) {
+				energy += store.getEnergy(i);
+			}
+			idleHosts += store.getNumberOfIdleHosts();
+		}
+		return new double[] { energy, idleHosts };
+	}
+
+	/**
+	 * Sets the utilization of the hosts at the end of a time frame.
+	 *
+	 * @param hostList the hosts
+	 * @param frame the utilizations of the hosts
+	 */
+	private static void update(List<BenchmarkHost> hostList, double[] frame) {
+		for (int i = 0; i < frame.length; i++) {
+			BenchmarkHost host = hostList.get(i);
+			host.setUtilization(host.getUtilizationMips(), frame[i] * host.getTotalMips());
+		}
+	}
+
+	/**
+	 * Creates the hosts.
+	 *
+	 * @param hostsNumber the number of hosts
+	 * @return the hosts
+	 */
+	private static List<BenchmarkHost> createHosts(int hostsNumber) {
+		List<BenchmarkHost> hostList = new ArrayList<BenchmarkHost>();
+		for (int i = 0; i < hostsNumber; i++) {
+			int hostType = i % BenchmarkHelper.HOST_MIPS.length;
+			hostList.add(new BenchmarkHost(i, BenchmarkHelper.createPeList(hostType),
+					BenchmarkHelper.HOST_POWER[hostType]));
+		}
+		return hostList;
+	}
+
+	/**
+	 * A host of which the utilization is set directly.
+	 */
+	private static class BenchmarkHost extends PowerHost {
+
+		/**
+		 * Instantiates a new host.
+		 *
+		 * @param id the id
+		 * @param peList the PEs
+		 * @param powerModel the power model
+		 */
+		public BenchmarkHost(int id, List<Pe> peList, PowerModel powerModel) {
+			super(id, new RamProvisionerSimple(BenchmarkHelper.HOST_RAM), new BwProvisionerSimple(
+					BenchmarkHelper.HOST_BW), BenchmarkHelper.HOST_STORAGE, peList,
+					new VmSchedulerTimeSharedOverSubscription(peList), powerModel);
+		}
+
+		/**
+		 * Sets the previous and current utilization of the CPU.
+		 *
+		 * @param previousMips the previous utilization in MIPS
+		 * @param mips the current utilization in MIPS
+		 */
+		public void setUtilization(double previousMips, double mips) {
+			setPreviousUtilizationMips(previousMips);
+			setUtilizationMips(mips);
+		}
+
+	}
+
+}
@@ -0,0 +1,141 @@
+package org.cloudbus.cloudsim.examples.benchmark;
+
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation
+ *               of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.apache.commons.math3.stat.regression.SimpleRegression;
+import org.cloudbus.cloudsim.util.MathUtil;
+
+/**
+ * A micro-benchmark of the parameter estimates of the local regression policies, i.e. of
+ * {@link MathUtil#getLoessParameterEstimates(double[])} and
+ * {@link MathUtil#getRobustLoessParameterEstimates(double[])}, against the former estimation that
+ * built weighted {@link SimpleRegression}s on every call. The histories have the length of the
+ * policies; some of them are flat with a few spikes, as outliers for the robust estimation. Both
+ * estimations are checked to give exactly the same estimates.
+ * <p>
+ * Usage: <tt>LoessEstimationBenchmark [histories [length]]</tt>. The default is 1,000,000
+ * histories of 10 values.
+ */
+public class LoessEstimationBenchmark {
+
+	/** The seed of the random histories. */
+	private static final long SEED = 42;
+
+	/**
+	 * Creates main() to run this example.
+	 *
+	 * @param args the number of histories and their length
+	 */
+	public static void main(String[] args) {
+		int histories = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+		int length = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+
+		Random random = new Random(SEED);
+		double[][] data = new double[histories][length];
+		for (int i = 0; i < histories; i++) {
+			double level = random.nextDouble();
+			for (int j = 0; j < length; j++) {
+				if (i % 10 == 0) {
+					// a flat history with a few spikes
+					data[i][j] = random.nextInt(4) == 0 ? random.nextDouble() : level;
+				} else {
+					data[i][j] = Math.min(1, Math.max(0, level + 0.2 * (random.nextDouble() - 0.5)));
+				}
+			}
+		}
+
+		// warm up the JIT compiler
+		for (int i = 0; i < 3; i++) {
+			check(data, false);
+			check(data, true);
+		}
+
+		for (int robust = 0; robust < 2; robust++) {
+			long startTime = System.nanoTime();
+			double formerChecksum = 0;
+			for (double[] y : data) {
+				formerChecksum += getFormerEstimates(y, robust == 1)[1];
+			}
+			double formerSeconds = (System.nanoTime() - startTime) / 1e9;
+
+			startTime = System.nanoTime();
+			double checksum = 0;
+			for (double[] y : data) {
+				checksum += getEstimates(y, robust == 1)[1];
+			}
+			double seconds = (System.nanoTime() - startTime) / 1e9;
+
+			if (Double.compare(formerChecksum, checksum) != 0) {
+				throw new IllegalStateException("The estimations gave different checksums");
+			}
+			System.out.println(String.format("%s, %d histories of %d values", robust == 1 ? "Robust loess" : "Loess",
+					histories, length));
+			System.out.println(String.format("SimpleRegression: %.3f s, %.3f us per history", formerSeconds,
+					formerSeconds * 1e6 / histories));
+			System.out.println(String.format("Closed form:      %.3f s, %.3f us per history", seconds, seconds
+					* 1e6 / histories));
+		}
+	}
+
+	/**
+	 * Checks that both estimations give exactly the same estimates.
+	 *
+	 * @param data the histories
+	 * @param robust whether the robust estimation is checked
+	 */
+	private static void check(double[][] data, boolean robust) {
+		for (double[] y : data) {
+			if (!Arrays.equals(getFormerEstimates(y, robust), getEstimates(y, robust))) {
+				throw new IllegalStateException("The estimations differ for " + Arrays.toString(y));
+			}
+		}
+	}
+
+	/**
+	 * Gets the parameter estimates of {@link MathUtil}.
+	 *
+	 * @param y the history
+	 * @param robust whether the robust estimation is used
+	 * @return the estimates
+	 */
+	private static double[] getEstimates(double[] y, boolean robust) {
+		return robust ? MathUtil.getRobustLoessParameterEstimates(y) : MathUtil.getLoessParameterEstimates(y);
+	}
+
+	/**
+	 * Gets the parameter estimates as they were computed before, with weighted regressions.
+	 *
+	 * @param y the history
+	 * @param robust whether the robust estimation is used
+	 * @return the estimates
+	 */
+	private static double[] getFormerEstimates(double[] y, boolean robust) {
+		int n = y.length;
+		double[] x = new double[n];
+		for (int i = 0; i < n; i++) {
+			x[i] = i + 1;
+		}
+		SimpleRegression tricubeRegression = MathUtil.createWeigthedLinearRegression(x, y,
+				MathUtil.getTricubeWeigts(n));
+		if (!robust) {
+			return tricubeRegression.regress().getParameterEstimates();
+		}
+		double[] residuals = new double[n];
+		for (int i = 0; i < n; i++) {
+			residuals[i] = y[i] - tricubeRegression.predict(x[i]);
+		}
+		return MathUtil.createWeigthedLinearRegression(x, y, MathUtil.getTricubeBisquareWeigts(residuals))
+				.regress().getParameterEstimates();
+	}
+
+}
@@ -0,0 +1,156 @@
+package org.cloudbus.cloudsim.examples.benchmark;
+
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation
+ *               of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.cloudbus.cloudsim.Log;
+import org.cloudbus.cloudsim.Vm;
+import org.cloudbus.cloudsim.power.PowerHost;
+import org.cloudbus.cloudsim.power.PowerVmAllocationPolicyMigrationAbstract;
+import org.cloudbus.cloudsim.power.PowerVmAllocationPolicyMigrationStaticThreshold;
+import org.cloudbus.cloudsim.power.PowerVmSelectionPolicyMinimumMigrationTime;
+
+/**
+ * A benchmark of the anytime planning of the migrations of a scheduling interval, i.e. of
+ * {@link PowerVmAllocationPolicyMigrationAbstract#optimizeAllocation(List)} with a static
+ * threshold and a planning time budget (see
+ * {@link PowerVmAllocationPolicyMigrationAbstract#setPlanningTimeBudget(double)}). The datacenter
+ * is the one of {@link HostPlacementBenchmark}, with the consolidation of the under-utilized hosts.
+ * For each budget, the benchmark reports the planning time, the number of migrations, and the
+ * power of the hosts once the migrations are done; an unbudgeted planning, i.e. the greedy one,
+ * comes first, and an unbounded local search last.
+ * <p>
+ * Usage: <tt>MigrationPlanningBenchmark [hosts [vms [budget...]]]</tt>, with the budgets in
+ * milliseconds. The default is 1,000 hosts and 4,000 VMs, with budgets of 10, 50 and 250 ms.
+ */
+public class MigrationPlanningBenchmark {
+
+	/**
+	 * Creates main() to run this example.
+	 *
+	 * @param args the number of hosts and VMs, and the budgets in milliseconds
+	 */
+	public static void main(String[] args) {
+		int hosts = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+		int vms = args.length > 1 ? Integer.parseInt(args[1]) : 4000;
+		List<Double> budgets = new ArrayList<Double>();
+		for (int i = 2; i < args.length; i++) {
+			budgets.add(Double.parseDouble(args[i]) / 1000);
+		}
+		if (budgets.isEmpty()) {
+			budgets.add(0.01);
+			budgets.add(0.05);
+			budgets.add(0.25);
+		}
+
+		Log.disable();
+
+		List<Vm> vmList = new ArrayList<Vm>();
+		PowerVmAllocationPolicyMigrationAbstract policy = createDatacenter(hosts, vms, vmList);
+
+		// warm up the JIT compiler
+		for (int i = 0; i < 3; i++) {
+			plan(policy, vmList, 0, 0);
+			plan(policy, vmList, 0, 100000);
+		}
+
+		System.out.println(String.format("%d hosts, %d VMs, %.1f W before the migrations", hosts, vms,
+				getPower(policy, new ArrayList<Map<String, Object>>())));
+		System.out.println(plan(policy, vmList, 0, 0));
+		for (double budget : budgets) {
+			System.out.println(plan(policy, vmList, budget, 0));
+		}
+		System.out.println(plan(policy, vmList, 0, Long.MAX_VALUE));
+	}
+
+	/**
+	 * Plans the migrations with a budget.
+	 *
+	 * @param policy the allocation policy
+	 * @param vmList the VMs
+	 * @param timeBudget the time budget in seconds, or 0
+	 * @param operationBudget the operation budget, or 0
+	 * @return the planning time, the number of migrations and the power after the migrations
+	 */
+	private static String plan(PowerVmAllocationPolicyMigrationAbstract policy, List<Vm> vmList, double timeBudget,
+			long operationBudget) {
+		policy.setPlanningTimeBudget(timeBudget);
+		policy.setPlanningOperationBudget(operationBudget);
+		long startTime = System.nanoTime();
+		List<Map<String, Object>> migrationMap = policy.optimizeAllocation(vmList);
+		double seconds = (System.nanoTime() - startTime) / 1e9;
+
+		String planning;
+		if (timeBudget > 0) {
+			planning = String.format("Budget of %.0f ms:", timeBudget * 1000);
+		} else if (operationBudget > 0) {
+			planning = "Unbounded search:";
+		} else {
+			planning = "Greedy:";
+		}
+		return String.format("%-19s %.3f s, %d migrations, %.1f W", planning, seconds, migrationMap.size(),
+				getPower(policy, migrationMap));
+	}
+
+	/**
+	 * Gets the power of the hosts once the migrations of a migration map are done, with the hosts
+	 * without load switched off.
+	 *
+	 * @param policy the allocation policy
+	 * @param migrationMap the migration map
+	 * @return the power, in W
+	 */
+	private static double getPower(PowerVmAllocationPolicyMigrationAbstract policy,
+			List<Map<String, Object>> migrationMap) {
+		Map<Vm, PowerHost> placement = new HashMap<Vm, PowerHost>();
+		for (PowerHost host : policy.<PowerHost> getHostList()) {
+			for (Vm vm : host.getVmList()) {
+				placement.put(vm, host);
+			}
+		}
+		for (Map<String, Object> migrate : migrationMap) {
+			placement.put((Vm) migrate.get("vm"), (PowerHost) migrate.get("host"));
+		}
+		Map<PowerHost, Double> mips = new HashMap<PowerHost, Double>();
+		for (Map.Entry<Vm, PowerHost> entry : placement.entrySet()) {
+			Double hostMips = mips.get(entry.getValue());
+			mips.put(entry.getValue(), (hostMips == null ? 0 : hostMips)
+					+ entry.getKey().getCurrentRequestedTotalMips());
+		}
+		double power = 0;
+		for (Map.Entry<PowerHost, Double> entry : mips.entrySet()) {
+			PowerHost host = entry.getKey();
+			if (entry.getValue() > 0) {
+				power += host.getPowerModel().getPower(Math.min(1, entry.getValue() / host.getTotalMips()));
+			}
+		}
+		return power;
+	}
+
+	/**
+	 * Creates the consolidated datacenter of {@link BenchmarkHelper}.
+	 *
+	 * @param hostsNumber the number of hosts
+	 * @param vmsNumber the number of VMs
+	 * @param vmList the list to which the VMs are added
+	 * @return the allocation policy
+	 */
+	private static PowerVmAllocationPolicyMigrationAbstract createDatacenter(int hostsNumber, int vmsNumber,
+			List<Vm> vmList) {
+		List<PowerHost> hostList = BenchmarkHelper.createConsolidatedHostList(hostsNumber, vmsNumber, vmList);
+		return new PowerVmAllocationPolicyMigrationStaticThreshold(hostList,
+				new PowerVmSelectionPolicyMinimumMigrationTime(), BenchmarkHelper.UTILIZATION_THRESHOLD);
+	}
+
+}
@@ -0,0 +1,156 @@
+package org.cloudbus.cloudsim.examples.benchmark;
+
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation
+ *               of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+import java.util.Random;
+
+import org.cloudbus.cloudsim.power.models.PowerModelSpecPower;
+import org.cloudbus.cloudsim.power.models.PowerModelSpecPowerHpProLiantMl110G4Xeon3040;
+import org.cloudbus.cloudsim.power.models.PowerModelSpecPowerHpProLiantMl110G5Xeon3075;
+import org.cloudbus.cloudsim.power.models.PowerModelSpecPowerIbmX3550XeonX5670;
+import org.cloudbus.cloudsim.power.models.PowerModelSpecPowerIbmX3550XeonX5675;
+
+/**
+ * A micro-benchmark of the energy computation of a time frame for the hosts of a datacenter, with
+ * the power tables of the SPECpower models in one call
+ * ({@link PowerModelSpecPower#getEnergyLinearInterpolation(double[][], double[], double[], double, double[], int)}),
+ * against the former interpolation of the power data for each host. A quarter of the utilizations
+ * are multiples of 10%, as for idle and fully loaded hosts. Both computations are checked to give
+ * exactly the same energy.
+ * <p>
+ * Usage: <tt>PowerModelBenchmark [hosts [frames]]</tt>. The default is 10,000 hosts on 1,000 time
+ * frames.
+ */
+public class PowerModelBenchmark {
+
+	/** The seed of the random utilizations. */
+	private static final long SEED = 42;
+
+	/** The length of a time frame, in seconds. */
+	private static final double TIME_FRAME = 300;
+
+	/**
+	 * Creates main() to run this example.
+	 *
+	 * @param args the number of hosts and time frames
+	 */
+	public static void main(String[] args) {
+		int hosts = args.length > 0 ? Integer.parseInt(args[0]) : 10000;
+		int frames = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+
+		PowerModelSpecPower[] types = { new PowerModelSpecPowerIbmX3550XeonX5670(),
+				new PowerModelSpecPowerIbmX3550XeonX5675(), new PowerModelSpecPowerHpProLiantMl110G4Xeon3040(),
+				new PowerModelSpecPowerHpProLiantMl110G5Xeon3075() };
+		PowerModelSpecPower[] models = new PowerModelSpecPower[hosts];
+		double[][] tables = new double[hosts][];
+		for (int i = 0; i < hosts; i++) {
+			models[i] = types[i % types.length];
+			tables[i] = models[i].getPowerTable();
+		}
+		Random random = new Random(SEED);
+		double[][] utilizations = new double[frames + 1][hosts];
+		for (double[] frame : utilizations) {
+			for (int i = 0; i < hosts; i++) {
+				frame[i] = random.nextInt(4) == 0 ? random.nextInt(11) / 10.0 : random.nextDouble();
+			}
+		}
+		double[] energy = new double[hosts];
+
+		// warm up the JIT compiler
+		for (int i = 0; i < 3; i++) {
+			if (Double.compare(getFormerEnergy(models, utilizations), getEnergy(tables, utilizations, energy)) != 0) {
+				throw new IllegalStateException("The computations gave different energy");
+			}
+		}
+
+		long startTime = System.nanoTime();
+		double formerEnergy = getFormerEnergy(models, utilizations);
+		double formerSeconds = (System.nanoTime() - startTime) / 1e9;
+
+		startTime = System.nanoTime();
+		double tableEnergy = getEnergy(tables, utilizations, energy);
+		double seconds = (System.nanoTime() - startTime) / 1e9;
+
+		System.out.println(String.format("%d hosts, %d time frames, %.6g W*sec", hosts, frames, tableEnergy));
+		System.out.println(String.format("Interpolation per host: %.3f s, %.2f ns per host and frame", formerSeconds,
+				formerSeconds * 1e9 / hosts / frames));
+		System.out.println(String.format("Power tables in batch:  %.3f s, %.2f ns per host and frame", seconds,
+				seconds * 1e9 / hosts / frames));
+		if (Double.compare(formerEnergy, tableEnergy) != 0) {
+			throw new IllegalStateException("The computations gave different energy");
+		}
+	}
+
+	/**
+	 * Gets the energy of the hosts over the time frames with the power tables, in one call per
+	 * time frame.
+	 *
+	 * @param tables the power tables of the hosts
+	 * @param utilizations the utilizations of the hosts at the start of each time frame
+	 * @param energy the array to which the energy of the hosts is written
+	 * @return the energy
+	 */
+	private static double getEnergy(double[][] tables, double[][] utilizations, double[] energy) {
+		double totalEnergy = 0;
+		for (int t = 1; t < utilizations.length; t++) {
+			PowerModelSpecPower.getEnergyLinearInterpolation(tables, utilizations[t - 1], utilizations[t],
+					TIME_FRAME, energy, energy.length);
+			for (double hostEnergy : energy) {
+				totalEnergy += hostEnergy;
+			}
+		}
+		return totalEnergy;
+	}
+
+	/**
+	 * Gets the energy of the hosts over the time frames as it was computed before, with the power
+	 * data interpolated for each host.
+	 *
+	 * @param models the power models of the hosts
+	 * @param utilizations the utilizations of the hosts at the start of each time frame
+	 * @return the energy
+	 */
+	private static double getFormerEnergy(PowerModelSpecPower[] models, double[][] utilizations) {
+		double totalEnergy = 0;
+		for (int t = 1; t < utilizations.length; t++) {
+			for (int i = 0; i < models.length; i++) {
+				double fromUtilization = utilizations[t - 1][i];
+				if (fromUtilization == 0) {
+					continue;
+				}
+				double fromPower = getFormerPower(models[i], fromUtilization);
+				double toPower = getFormerPower(models[i], utilizations[t][i]);
+				totalEnergy += (fromPower + (toPower - fromPower) / 2) * TIME_FRAME;
+			}
+		}
+		return totalEnergy;
+	}
+
+	/**
+	 * Gets the power as it was computed before, by interpolating the power data.
+	 *
+	 * @param model the power model
+	 * @param utilization the utilization
+	 * @return the power
+	 */
+	private static double getFormerPower(PowerModelSpecPower model, double utilization) {
+		double[] table = model.getPowerTable();
+		if (utilization % 0.1 == 0) {
+			return table[2 * (int) (utilization * 10)];
+		}
+		int utilization1 = (int) Math.floor(utilization * 10);
+		int utilization2 = (int) Math.ceil(utilization * 10);
+		double power1 = table[2 * utilization1];
+		double power2 = table[2 * utilization2];
+		double delta = (power2 - power1) / 10;
+		return power1 + delta * (utilization - (double) utilization1 / 10) * 100;
+	}
+
+}
@@ -0,0 +1,182 @@
+package org.cloudbus.cloudsim.examples.benchmark;
+
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation
+ *               of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.Random;
+
+import org.cloudbus.cloudsim.util.ResultsReader;
+import org.cloudbus.cloudsim.util.ResultsWriter;
+
+/**
+ * A micro-benchmark of the output of the state histories of the hosts with {@link ResultsWriter},
+ * into one binary file, against the former output of one text file per host. The histories have a
+ * sample per time frame of a day, with a utilization that drifts randomly. The binary file is read
+ * back by {@link ResultsReader} and checked to hold exactly the written values.
+ * <p>
+ * Usage: <tt>ResultsWriterBenchmark [hosts [frames]]</tt>. The default is 10,000 hosts on 288 time
+ * frames.
+ */
+public class ResultsWriterBenchmark {
+
+	/** The seed of the random histories. */
+	private static final long SEED = 42;
+
+	/** The MIPS of the hosts. */
+	private static final double HOST_MIPS = 2 * 2660;
+
+	/**
+	 * Creates main() to run this example.
+	 *
+	 * @param args the number of hosts and of time frames
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	public static void main(String[] args) throws IOException {
+		int hosts = args.length > 0 ? Integer.parseInt(args[0]) : 10000;
+		int frames = args.length > 1 ? Integer.parseInt(args[1]) : 288;
+
+		Random random = new Random(SEED);
+		double[][] allocatedMips = new double[hosts][frames];
+		double[][] requestedMips = new double[hosts][frames];
+		for (int i = 0; i < hosts; i++) {
+			double utilization = random.nextDouble();
+			for (int t = 0; t < frames; t++) {
+				utilization = Math.min(1, Math.max(0, utilization + 0.1 * (random.nextDouble() - 0.5)));
+				requestedMips[i][t] = utilization * HOST_MIPS;
+				allocatedMips[i][t] = Math.min(requestedMips[i][t], 0.9 * HOST_MIPS);
+			}
+		}
+
+		File folder = File.createTempFile("results", "");
+		folder.delete();
+		folder.mkdir();
+		File textFolder = new File(folder, "text");
+		textFolder.mkdir();
+		File binaryFile = new File(folder, "results.results");
+
+		// warm up the JIT compiler
+		for (int i = 0; i < 3; i++) {
+			writeText(textFolder, allocatedMips, requestedMips, Math.max(1, hosts / 10));
+			writeBinary(binaryFile, allocatedMips, requestedMips, Math.max(1, hosts / 10));
+		}
+
+		long startTime = System.nanoTime();
+		long textSize = writeText(textFolder, allocatedMips, requestedMips, hosts);
+		double textSeconds = (System.nanoTime() - startTime) / 1e9;
+
+		startTime = System.nanoTime();
+		writeBinary(binaryFile, allocatedMips, requestedMips, hosts);
+		double binarySeconds = (System.nanoTime() - startTime) / 1e9;
+		long binarySize = binaryFile.length();
+
+		startTime = System.nanoTime();
+		ResultsReader.Table table = new ResultsReader(binaryFile.getPath()).getTable("host_state");
+		double readSeconds = (System.nanoTime() - startTime) / 1e9;
+		int[] hostIds = table.getIntColumn(table.getColumnIndex("host"));
+		double[] times = table.getDoubleColumn(table.getColumnIndex("time"));
+		double[] allocated = table.getDoubleColumn(table.getColumnIndex("allocated_mips"));
+		double[] requested = table.getDoubleColumn(table.getColumnIndex("requested_mips"));
+		if (table.getRowCount() != hosts * frames) {
+			throw new IllegalStateException("The results file has " + table.getRowCount() + " rows");
+		}
+		for (int row = 0; row < table.getRowCount(); row++) {
+			int i = row / frames;
+			int t = row % frames;
+			if (hostIds[row] != i || times[row] != getTime(t) || allocated[row] != allocatedMips[i][t]
+					|| requested[row] != requestedMips[i][t]) {
+				throw new IllegalStateException("The results file differs at row " + row);
+			}
+		}
+
+		for (File file : textFolder.listFiles()) {
+			file.delete();
+		}
+		textFolder.delete();
+		binaryFile.delete();
+		folder.delete();
+
+		System.out.println(String.format("%d hosts, %d time frames", hosts, frames));
+		System.out.println(String.format("Text file per host: %.3f s, %.1f MB in %d files", textSeconds,
+				textSize / 1e6, hosts));
+		System.out.println(String.format("Binary file:        %.3f s, %.1f MB, read back in %.3f s", binarySeconds,
+				binarySize / 1e6, readSeconds));
+	}
+
+	/**
+	 * Writes the histories as before, with one text file per host.
+	 *
+	 * @param folder the output folder
+	 * @param allocatedMips the allocated MIPS of the hosts
+	 * @param requestedMips the requested MIPS of the hosts
+	 * @param hosts the number of hosts to write
+	 * @return the total size of the files
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	private static long writeText(File folder, double[][] allocatedMips, double[][] requestedMips, int hosts)
+			throws IOException {
+		long size = 0;
+		for (int i = 0; i < hosts; i++) {
+			File file = new File(folder, "host_" + i + ".csv");
+			BufferedWriter writer = new BufferedWriter(new FileWriter(file));
+			for (int t = 0; t < allocatedMips[i].length; t++) {
+				writer.write(String.format("%.2f,%.2f,%.2f\n", getTime(t), allocatedMips[i][t], requestedMips[i][t]));
+			}
+			writer.close();
+			size += file.length();
+		}
+		return size;
+	}
+
+	/**
+	 * Writes the histories into one binary file.
+	 *
+	 * @param file the output file
+	 * @param allocatedMips the allocated MIPS of the hosts
+	 * @param requestedMips the requested MIPS of the hosts
+	 * @param hosts the number of hosts to write
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	private static void writeBinary(File file, double[][] allocatedMips, double[][] requestedMips, int hosts)
+			throws IOException {
+		ResultsWriter writer = new ResultsWriter(file.getPath());
+		try {
+			ResultsWriter.Table table = writer.createTable("host_state");
+			int hostId = table.addIntColumn("host");
+			int time = table.addDoubleColumn("time");
+			int allocated = table.addDoubleColumn("allocated_mips");
+			int requested = table.addDoubleColumn("requested_mips");
+			for (int i = 0; i < hosts; i++) {
+				for (int t = 0; t < allocatedMips[i].length; t++) {
+					table.setInt(hostId, i);
+					table.setDouble(time, getTime(t));
+					table.setDouble(allocated, allocatedMips[i][t]);
+					table.setDouble(requested, requestedMips[i][t]);
+					table.endRow();
+				}
+			}
+		} finally {
+			writer.close();
+		}
+	}
+
+	/**
+	 * Gets the time of a time frame.
+	 *
+	 * @param frame the index of the time frame
+	 * @return the time
+	 */
+	private static double getTime(int frame) {
+		return frame * 300 + 0.1;
+	}
+
+}
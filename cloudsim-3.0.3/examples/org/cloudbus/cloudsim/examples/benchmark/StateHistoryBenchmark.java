@@ -0,0 +1,237 @@
+package org.cloudbus.cloudsim.examples.benchmark;
+
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation
+ *               of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Random;
+
+import org.cloudbus.cloudsim.VmStateHistory;
+import org.cloudbus.cloudsim.VmStateHistoryEntry;
+
+/**
+ * A micro-benchmark of the recording of the state histories of the VMs with {@link VmStateHistory},
+ * against the former linked list of entry objects, on a week of time frames. The histories are
+ * recorded in full, with their last entries only, and downsampled to an entry per hour; the time
+ * and the heap used are measured for each of them. The full history is checked to hold the former
+ * entries, and the totals of the SLA metrics of the bounded histories are checked to be exactly the
+ * ones computed from the former entries.
+ * <p>
+ * Usage: <tt>StateHistoryBenchmark [vms [frames [entries]]]</tt>. The default is 1,000 VMs on 2,016
+ * time frames of 5 minutes, with the last 288 entries kept.
+ */
+public class StateHistoryBenchmark {
+
+	/** The seed of the random histories. */
+	private static final long SEED = 42;
+
+	/** The MIPS of the VMs. */
+	private static final double VM_MIPS = 1000;
+
+	/** The sampling interval of the downsampled histories. */
+	private static final double SAMPLING_INTERVAL = 3600;
+
+	/**
+	 * Creates main() to run this example.
+	 *
+	 * @param args the number of VMs, of time frames and of entries kept
+	 */
+	public static void main(String[] args) {
+		int vms = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+		int frames = args.length > 1 ? Integer.parseInt(args[1]) : 2016;
+		int entries = args.length > 2 ? Integer.parseInt(args[2]) : 288;
+
+		// warm up the JIT compiler
+		for (int i = 0; i < 3; i++) {
+			recordFormer(vms / 10, frames);
+			record(vms / 10, frames, 0, 0);
+			record(vms / 10, frames, entries, 0);
+			record(vms / 10, frames, 0, SAMPLING_INTERVAL);
+		}
+
+		long usedMemory = getUsedMemory();
+		long startTime = System.nanoTime();
+		List<List<VmStateHistoryEntry>> former = recordFormer(vms, frames);
+		double formerSeconds = (System.nanoTime() - startTime) / 1e9;
+		long formerBytes = getUsedMemory() - usedMemory;
+
+		usedMemory = getUsedMemory();
+		startTime = System.nanoTime();
+		VmStateHistory[] full = record(vms, frames, 0, 0);
+		double fullSeconds = (System.nanoTime() - startTime) / 1e9;
+		long fullBytes = getUsedMemory() - usedMemory;
+
+		usedMemory = getUsedMemory();
+		startTime = System.nanoTime();
+		VmStateHistory[] last = record(vms, frames, entries, 0);
+		double lastSeconds = (System.nanoTime() - startTime) / 1e9;
+		long lastBytes = getUsedMemory() - usedMemory;
+
+		usedMemory = getUsedMemory();
+		startTime = System.nanoTime();
+		VmStateHistory[] downsampled = record(vms, frames, 0, SAMPLING_INTERVAL);
+		double downsampledSeconds = (System.nanoTime() - startTime) / 1e9;
+		long downsampledBytes = getUsedMemory() - usedMemory;
+
+		for (int i = 0; i < vms; i++) {
+			List<VmStateHistoryEntry> formerHistory = former.get(i);
+			if (formerHistory.size() != full[i].size()) {
+				throw new IllegalStateException("The history of VM #" + i + " has " + full[i].size() + " entries");
+			}
+			int j = 0;
+			for (VmStateHistoryEntry entry : formerHistory) {
+				VmStateHistoryEntry fullEntry = full[i].get(j++);
+				if (entry.getTime() != fullEntry.getTime() || entry.getAllocatedMips() != fullEntry.getAllocatedMips()
+						|| entry.getRequestedMips() != fullEntry.getRequestedMips()
+						|| entry.isInMigration() != fullEntry.isInMigration()) {
+					throw new IllegalStateException("The history of VM #" + i + " differs at entry " + j);
+				}
+			}
+			checkTotals(i, formerHistory, last[i]);
+			checkTotals(i, formerHistory, downsampled[i]);
+		}
+
+		long recorded = (long) vms * frames;
+		System.out.println(String.format("%d VMs, %d time frames, %d entries", vms, frames, recorded));
+		System.out.println(String.format("Linked list of entries: %.3f s, %.1f MB, %.1f bytes per entry", formerSeconds,
+				formerBytes / 1e6, (double) formerBytes / recorded));
+		System.out.println(String.format("Full history:           %.3f s, %.1f MB, %.1f bytes per entry", fullSeconds,
+				fullBytes / 1e6, (double) fullBytes / recorded));
+		System.out.println(String.format("Last %d entries:       %.3f s, %.1f MB, %.1f bytes per entry", entries,
+				lastSeconds, lastBytes / 1e6, (double) lastBytes / recorded));
+		System.out.println(String.format("Entry per hour:         %.3f s, %.1f MB, %.1f bytes per entry",
+				downsampledSeconds, downsampledBytes / 1e6, (double) downsampledBytes / recorded));
+	}
+
+	/**
+	 * Records the histories as before, in linked lists of entries.
+	 *
+	 * @param vms the number of VMs
+	 * @param frames the number of time frames
+	 * @return the histories
+	 */
+	private static List<List<VmStateHistoryEntry>> recordFormer(int vms, int frames) {
+		List<List<VmStateHistoryEntry>> histories = new LinkedList<List<VmStateHistoryEntry>>();
+		for (int i = 0; i < vms; i++) {
+			histories.add(new LinkedList<VmStateHistoryEntry>());
+		}
+		Random random = new Random(SEED);
+		for (int t = 0; t < frames; t++) {
+			for (List<VmStateHistoryEntry> history : histories) {
+				double requestedMips = random.nextDouble() * VM_MIPS;
+				double allocatedMips = Math.min(requestedMips, 0.9 * VM_MIPS);
+				boolean inMigration = random.nextInt(50) == 0;
+				VmStateHistoryEntry newState = new VmStateHistoryEntry(
+						getTime(t),
+						allocatedMips,
+						requestedMips,
+						inMigration);
+				if (!history.isEmpty()) {
+					VmStateHistoryEntry previousState = history.get(history.size() - 1);
+					if (previousState.getTime() == getTime(t)) {
+						history.set(history.size() - 1, newState);
+						continue;
+					}
+				}
+				history.add(newState);
+			}
+		}
+		return histories;
+	}
+
+	/**
+	 * Records the histories with the state history of the VMs.
+	 *
+	 * @param vms the number of VMs
+	 * @param frames the number of time frames
+	 * @param entries the number of entries kept, or 0 to keep all of them
+	 * @param samplingInterval the sampling interval, or 0 to keep every entry
+	 * @return the histories
+	 */
+	private static VmStateHistory[] record(int vms, int frames, int entries, double samplingInterval) {
+		VmStateHistory[] histories = new VmStateHistory[vms];
+		for (int i = 0; i < vms; i++) {
+			histories[i] = new VmStateHistory();
+			histories[i].setRetainedEntries(entries);
+			histories[i].setSamplingInterval(samplingInterval);
+		}
+		Random random = new Random(SEED);
+		for (int t = 0; t < frames; t++) {
+			for (VmStateHistory history : histories) {
+				double requestedMips = random.nextDouble() * VM_MIPS;
+				double allocatedMips = Math.min(requestedMips, 0.9 * VM_MIPS);
+				boolean inMigration = random.nextInt(50) == 0;
+				history.addEntry(getTime(t), allocatedMips, requestedMips, inMigration);
+			}
+		}
+		return histories;
+	}
+
+	/**
+	 * Checks that the totals of a history are the ones computed from the former entries, as the SLA
+	 * metrics did.
+	 *
+	 * @param vm the index of the VM
+	 * @param formerHistory the former entries
+	 * @param history the history
+	 */
+	private static void checkTotals(int vm, List<VmStateHistoryEntry> formerHistory, VmStateHistory history) {
+		double totalAllocated = 0;
+		double totalRequested = 0;
+		double underAllocatedDueToMigration = 0;
+		double previousTime = -1;
+		double previousAllocated = 0;
+		double previousRequested = 0;
+		boolean previousIsInMigration = false;
+		for (VmStateHistoryEntry entry : formerHistory) {
+			if (previousTime != -1) {
+				double timeDiff = entry.getTime() - previousTime;
+				totalAllocated += previousAllocated * timeDiff;
+				totalRequested += previousRequested * timeDiff;
+				if (previousAllocated < previousRequested && previousIsInMigration) {
+					underAllocatedDueToMigration += (previousRequested - previousAllocated) * timeDiff;
+				}
+			}
+			previousAllocated = entry.getAllocatedMips();
+			previousRequested = entry.getRequestedMips();
+			previousTime = entry.getTime();
+			previousIsInMigration = entry.isInMigration();
+		}
+		if (totalAllocated != history.getTotalAllocatedMips() || totalRequested != history.getTotalRequestedMips()
+				|| underAllocatedDueToMigration != history.getUnderAllocatedMipsDueToMigration()
+				|| previousRequested != history.getLastRequestedMips()) {
+			throw new IllegalStateException("The totals of the history of VM #" + vm + " differ");
+		}
+	}
+
+	/**
+	 * Gets the heap used, after a garbage collection.
+	 *
+	 * @return the heap used
+	 */
+	private static long getUsedMemory() {
+		Runtime runtime = Runtime.getRuntime();
+		for (int i = 0; i < 3; i++) {
+			System.gc();
+		}
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+
+	/**
+	 * Gets the time of a time frame.
+	 *
+	 * @param frame the index of the time frame
+	 * @return the time
+	 */
+	private static double getTime(int frame) {
+		return frame * 300 + 0.1;
+	}
+
+}
@@ -0,0 +1,322 @@
+package org.cloudbus.cloudsim.examples.benchmark;
+
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation
+ *               of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.IdentityHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.cloudbus.cloudsim.DatacenterCharacteristics;
+import org.cloudbus.cloudsim.Log;
+import org.cloudbus.cloudsim.Pe;
+import org.cloudbus.cloudsim.Storage;
+import org.cloudbus.cloudsim.VmSchedulerTimeShared;
+import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.core.CloudSimTags;
+import org.cloudbus.cloudsim.core.SimEntity;
+import org.cloudbus.cloudsim.core.SimEvent;
+import org.cloudbus.cloudsim.core.predicates.PredicateType;
+import org.cloudbus.cloudsim.network.datacenter.AggregateSwitch;
+import org.cloudbus.cloudsim.network.datacenter.HostPacket;
+import org.cloudbus.cloudsim.network.datacenter.NetworkConstants;
+import org.cloudbus.cloudsim.network.datacenter.NetworkDatacenter;
+import org.cloudbus.cloudsim.network.datacenter.NetworkHost;
+import org.cloudbus.cloudsim.network.datacenter.NetworkPacket;
+import org.cloudbus.cloudsim.network.datacenter.NetworkVmAllocationPolicy;
+import org.cloudbus.cloudsim.network.datacenter.Switch;
+import org.cloudbus.cloudsim.provisioners.BwProvisionerSimple;
+import org.cloudbus.cloudsim.provisioners.PeProvisionerSimple;
+import org.cloudbus.cloudsim.provisioners.RamProvisionerSimple;
+
+/**
+ * A micro-benchmark of the forwarding of the packets by the switches of a network datacenter: an
+ * aggregate switch receives bursts of packets from up and down, and forwards them to an edge and a
+ * root switch. The switch is run with its single live forward event, and as before, cancelling and
+ * rescheduling its forward event with
+ * {@link CloudSim#cancelAll(int, org.cloudbus.cloudsim.core.predicates.Predicate)} for each packet.
+ * The packets received by the edge and the root switches, and their times, are checked to be the
+ * same.
+ * <p>
+ * Usage: <tt>SwitchForwardingBenchmark [bursts [packetsPerBurst]]</tt>. The default is 1,000
+ * bursts of 1,000 packets, one every 10 ms, i.e. 100,000 packets per second of simulated time.
+ */
+public class SwitchForwardingBenchmark {
+
+	/** The seed of the random packets. */
+	private static final long SEED = 42;
+
+	/** The number of VMs the packets are sent to. */
+	private static final int VMS = 64;
+
+	/** The time between the starts of two bursts. */
+	private static final double BURST_INTERVAL = 0.01;
+
+	/** The time between two packets of a burst, below the delay of the switch. */
+	private static final double PACKET_INTERVAL = 0.000005;
+
+	/** The tag of the bursts. */
+	private static final int BURST = 1000003;
+
+	/**
+	 * Creates main() to run this example.
+	 *
+	 * @param args the number of bursts and of packets per burst
+	 * @throws Exception if the datacenter cannot be created
+	 */
+	public static void main(String[] args) throws Exception {
+		int bursts = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+		int packets = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+
+		Log.disable();
+
+		// warm up the JIT compiler
+		for (int i = 0; i < 3; i++) {
+			run(bursts / 10, packets, true);
+			run(bursts / 10, packets, false);
+		}
+
+		long startTime = System.nanoTime();
+		List<String> former = run(bursts, packets, true);
+		double formerSeconds = (System.nanoTime() - startTime) / 1e9;
+
+		startTime = System.nanoTime();
+		List<String> received = run(bursts, packets, false);
+		double seconds = (System.nanoTime() - startTime) / 1e9;
+
+		if (!former.equals(received)) {
+			throw new IllegalStateException("The packets are not forwarded as before");
+		}
+
+		long sent = (long) bursts * packets;
+		System.out.println(String.format("%d bursts of %d packets, %.0f packets per second of simulated time",
+				bursts, packets, packets / BURST_INTERVAL));
+		System.out.println(String.format("Cancel and reschedule: %.3f s, %.0f packets/sec", formerSeconds, sent
+				/ formerSeconds));
+		System.out.println(String.format("Live forward event:    %.3f s, %.0f packets/sec", seconds, sent / seconds));
+	}
+
+	/**
+	 * Runs one simulation.
+	 *
+	 * @param bursts the number of bursts
+	 * @param packets the number of packets per burst
+	 * @param former whether the switch cancels and reschedules its forward event for each packet
+	 * @return the packets received, with their times and receivers, in order
+	 * @throws Exception if the datacenter cannot be created
+	 */
+	private static List<String> run(int bursts, int packets, boolean former) throws Exception {
+		CloudSim.init(0, Calendar.getInstance(), false);
+		NetworkDatacenter datacenter = createDatacenter();
+
+		AggregateSwitch aggregateSwitch = former
+				? new FormerAggregateSwitch("Aggregate", datacenter)
+				: new AggregateSwitch("Aggregate", NetworkConstants.Agg_LEVEL, datacenter);
+		// the aggregate switches do not set their switching delay, which is 0 otherwise
+		aggregateSwitch.switching_delay = NetworkConstants.SwitchingDelayAgg;
+
+		List<String> received = new ArrayList<String>();
+		Map<NetworkPacket, Integer> indexes = new IdentityHashMap<NetworkPacket, Integer>();
+		SinkSwitch edgeSwitch = new SinkSwitch("Edge", NetworkConstants.EDGE_LEVEL, datacenter, indexes, received);
+		SinkSwitch rootSwitch = new SinkSwitch("Root", NetworkConstants.ROOT_LEVEL, datacenter, indexes, received);
+		aggregateSwitch.downlinkswitches.add(edgeSwitch);
+		aggregateSwitch.uplinkswitches.add(rootSwitch);
+		for (int vm = 0; vm < VMS; vm++) {
+			// half of the VMs are below the aggregate switch, the others are reached through the root
+			datacenter.VmToSwitchid.put(vm, vm % 2 == 0 ? edgeSwitch.getId() : rootSwitch.getId());
+		}
+
+		new SourceEntity("Source", aggregateSwitch.getId(), bursts, packets, indexes);
+		CloudSim.startSimulation();
+		return received;
+	}
+
+	/**
+	 * Creates a network datacenter with a single host, whose VM to switch map is filled by the
+	 * benchmark.
+	 *
+	 * @return the datacenter
+	 * @throws Exception if the datacenter cannot be created
+	 */
+	private static NetworkDatacenter createDatacenter() throws Exception {
+		List<Pe> peList = new ArrayList<Pe>();
+		peList.add(new Pe(0, new PeProvisionerSimple(1000)));
+		List<NetworkHost> hostList = new ArrayList<NetworkHost>();
+		hostList.add(new NetworkHost(
+				0,
+				new RamProvisionerSimple(2048),
+				new BwProvisionerSimple(10000),
+				1000000,
+				peList,
+				new VmSchedulerTimeShared(peList)));
+		DatacenterCharacteristics characteristics = new DatacenterCharacteristics(
+				"x86",
+				"Linux",
+				"Xen",
+				hostList,
+				10.0,
+				3.0,
+				0.05,
+				0.001,
+				0.0);
+		return new NetworkDatacenter(
+				"Datacenter",
+				characteristics,
+				new NetworkVmAllocationPolicy(hostList),
+				new LinkedList<Storage>(),
+				0);
+	}
+
+	/**
+	 * An aggregate switch that cancels and reschedules its forward event for each packet, as the
+	 * switches did before.
+	 */
+	private static class FormerAggregateSwitch extends AggregateSwitch {
+
+		/**
+		 * Instantiates a new former aggregate switch.
+		 *
+		 * @param name the name
+		 * @param dc the datacenter
+		 */
+		public FormerAggregateSwitch(String name, NetworkDatacenter dc) {
+			super(name, NetworkConstants.Agg_LEVEL, dc);
+		}
+
+		@Override
+		protected void scheduleForward(double delay) {
+			CloudSim.cancelAll(getId(), new PredicateType(CloudSimTags.Network_Event_send));
+			schedule(getId(), delay, CloudSimTags.Network_Event_send);
+		}
+
+		@Override
+		protected void processForwardEvent(SimEvent ev) {
+			processpacketforward(ev);
+		}
+
+	}
+
+	/**
+	 * A switch that records the packets it receives.
+	 */
+	private static class SinkSwitch extends Switch {
+
+		/** The indexes of the packets sent. */
+		private final Map<NetworkPacket, Integer> indexes;
+
+		/** The packets received. */
+		private final List<String> received;
+
+		/**
+		 * Instantiates a new sink switch.
+		 *
+		 * @param name the name
+		 * @param level the level
+		 * @param dc the datacenter
+		 * @param indexes the indexes of the packets sent
+		 * @param received the packets received
+		 */
+		public SinkSwitch(
+				String name,
+				int level,
+				NetworkDatacenter dc,
+				Map<NetworkPacket, Integer> indexes,
+				List<String> received) {
+			super(name, level, dc);
+			this.indexes = indexes;
+			this.received = received;
+		}
+
+		@Override
+		public void startEntity() {
+		}
+
+		@Override
+		public void processEvent(SimEvent ev) {
+			received.add(getName() + " " + ev.getTag() + " " + indexes.get(ev.getData()) + " " + ev.eventTime());
+		}
+
+	}
+
+	/**
+	 * An entity that sends bursts of packets to a switch, from up and down.
+	 */
+	private static class SourceEntity extends SimEntity {
+
+		/** The id of the switch. */
+		private final int switchId;
+
+		/** The number of bursts left. */
+		private int bursts;
+
+		/** The number of packets per burst. */
+		private final int packets;
+
+		/** The indexes of the packets sent. */
+		private final Map<NetworkPacket, Integer> indexes;
+
+		/** The random generator of the packets. */
+		private final Random random = new Random(SEED);
+
+		/**
+		 * Instantiates a new source entity.
+		 *
+		 * @param name the name
+		 * @param switchId the id of the switch
+		 * @param bursts the number of bursts
+		 * @param packets the number of packets per burst
+		 * @param indexes the indexes of the packets sent
+		 */
+		public SourceEntity(
+				String name,
+				int switchId,
+				int bursts,
+				int packets,
+				Map<NetworkPacket, Integer> indexes) {
+			super(name);
+			this.switchId = switchId;
+			this.bursts = bursts;
+			this.packets = packets;
+			this.indexes = indexes;
+		}
+
+		@Override
+		public void startEntity() {
+			schedule(getId(), 0, BURST);
+		}
+
+		@Override
+		public void processEvent(SimEvent ev) {
+			if (ev.getTag() != BURST) {
+				return;
+			}
+			for (int i = 0; i < packets; i++) {
+				int vm = random.nextInt(VMS);
+				HostPacket hostPacket = new HostPacket(0, vm, 1 + random.nextInt(1000), CloudSim.clock(), -1, 0, 0);
+				NetworkPacket packet = new NetworkPacket(0, hostPacket, 0, 0);
+				indexes.put(packet, indexes.size());
+				int tag = random.nextBoolean() ? CloudSimTags.Network_Event_UP : CloudSimTags.Network_Event_DOWN;
+				send(switchId, i * PACKET_INTERVAL, tag, packet);
+			}
+			if (--bursts > 0) {
+				schedule(getId(), BURST_INTERVAL, BURST);
+			}
+		}
+
+		@Override
+		public void shutdownEntity() {
+		}
+
+	}
+
+}
@@ -0,0 +1,174 @@
+package org.cloudbus.cloudsim.examples.benchmark;
+
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation
+ *               of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.cloudbus.cloudsim.CloudletSchedulerDynamicWorkload;
+import org.cloudbus.cloudsim.Pe;
+import org.cloudbus.cloudsim.Vm;
+import org.cloudbus.cloudsim.VmScheduler;
+import org.cloudbus.cloudsim.VmSchedulerTimeShared;
+import org.cloudbus.cloudsim.VmSchedulerTimeSharedOverSubscription;
+import org.cloudbus.cloudsim.provisioners.PeProvisionerSimple;
+
+/**
+ * A micro-benchmark of the provisioning of the PEs of a host at each time frame, with
+ * {@link VmScheduler#allocatePesForVms(Map)} against the former release and allocation of the VMs
+ * one by one. The requests of the VMs change randomly at each time frame; with the
+ * over-subscription, they may exceed the capacity of the host. Both provisionings are checked to
+ * give the same MIPS and PEs to each VM.
+ * <p>
+ * Usage: <tt>VmProvisioningBenchmark [vms [frames]]</tt>. The default is 40 VMs on a host of 8
+ * PEs, on 20,000 time frames: half of them check the provisionings and warm up the JIT
+ * compiler, and the others are timed.
+ */
+public class VmProvisioningBenchmark {
+
+	/** The seed of the random requests. */
+	private static final long SEED = 42;
+
+	/** The number of PEs of the host. */
+	private static final int HOST_PES = 8;
+
+	/** The MIPS of the PEs of the host. */
+	private static final int HOST_MIPS = 2660;
+
+	/** The MIPS of the VMs. */
+	private static final int VM_MIPS = 1000;
+
+	/**
+	 * Creates main() to run this example.
+	 *
+	 * @param args the number of VMs and time frames
+	 */
+	public static void main(String[] args) {
+		int vms = args.length > 0 ? Integer.parseInt(args[0]) : 40;
+		int frames = args.length > 1 ? Integer.parseInt(args[1]) : 20000;
+
+		List<Vm> vmList = new ArrayList<Vm>();
+		for (int i = 0; i < vms; i++) {
+			vmList.add(new Vm(i, 0, VM_MIPS, 1, 512, 1000, 1000, "Xen", new CloudletSchedulerDynamicWorkload(
+					VM_MIPS, 1)));
+		}
+		for (boolean overSubscription : new boolean[] { false, true }) {
+			// without over-subscription, the VMs request half of the host on average
+			double maxRequest = overSubscription ? VM_MIPS : 2.0 * HOST_PES * HOST_MIPS / 2 / vms;
+			Random random = new Random(SEED);
+			List<List<Map<Vm, List<Double>>>> requests = new ArrayList<List<Map<Vm, List<Double>>>>();
+			for (int i = 0; i < 2; i++) {
+				requests.add(new ArrayList<Map<Vm, List<Double>>>());
+			}
+			for (int t = 0; t < frames; t++) {
+				Map<Vm, List<Double>> frame = new LinkedHashMap<Vm, List<Double>>();
+				for (Vm vm : vmList) {
+					List<Double> mipsShare = new ArrayList<Double>(1);
+					mipsShare.add(Math.min(VM_MIPS, random.nextDouble() * maxRequest));
+					frame.put(vm, mipsShare);
+				}
+				requests.get(t % 2).add(frame);
+			}
+
+			// warm up the JIT compiler, and check that both provisionings give the same allocation
+			for (int i = 0; i < 3; i++) {
+				VmScheduler scheduler = createScheduler(overSubscription);
+				VmScheduler batchScheduler = createScheduler(overSubscription);
+				for (Map<Vm, List<Double>> frame : requests.get(0)) {
+					provision(scheduler, frame);
+					batchScheduler.allocatePesForVms(frame);
+					for (Vm vm : vmList) {
+						if (!String.valueOf(scheduler.getAllocatedMipsForVm(vm)).equals(
+								String.valueOf(batchScheduler.getAllocatedMipsForVm(vm)))
+								|| !String.valueOf(getPeIds(scheduler, vm)).equals(String.valueOf(getPeIds(batchScheduler, vm)))) {
+							throw new IllegalStateException("The provisionings differ for VM #" + vm.getId());
+						}
+					}
+				}
+			}
+
+			VmScheduler scheduler = createScheduler(overSubscription);
+			long startTime = System.nanoTime();
+			for (Map<Vm, List<Double>> frame : requests.get(1)) {
+				provision(scheduler, frame);
+			}
+			double seconds = (System.nanoTime() - startTime) / 1e9;
+
+			VmScheduler batchScheduler = createScheduler(overSubscription);
+			startTime = System.nanoTime();
+			for (Map<Vm, List<Double>> frame : requests.get(1)) {
+				batchScheduler.allocatePesForVms(frame);
+			}
+			double batchSeconds = (System.nanoTime() - startTime) / 1e9;
+
+			System.out.println(String.format("%s, %d VMs, %d time frames", scheduler.getClass().getSimpleName(), vms,
+					requests.get(1).size()));
+			System.out.println(String.format("VM by VM: %.3f s, %.2f us per time frame", seconds, seconds * 1e6
+					/ requests.get(1).size()));
+			System.out.println(String.format("Batch:    %.3f s, %.2f us per time frame", batchSeconds, batchSeconds
+					* 1e6 / requests.get(1).size()));
+		}
+	}
+
+	/**
+	 * Provisions the PEs as before, by releasing and then allocating the VMs one by one.
+	 *
+	 * @param scheduler the scheduler
+	 * @param frame the requests of the VMs
+	 */
+	private static void provision(VmScheduler scheduler, Map<Vm, List<Double>> frame) {
+		for (Vm vm : frame.keySet()) {
+			scheduler.deallocatePesForVm(vm);
+		}
+		for (Map.Entry<Vm, List<Double>> entry : frame.entrySet()) {
+			scheduler.allocatePesForVm(entry.getKey(), entry.getValue());
+		}
+	}
+
+	/**
+	 * Gets the ids of the PEs allocated to a VM.
+	 *
+	 * @param scheduler the scheduler
+	 * @param vm the VM
+	 * @return the ids of the PEs, or null if the VM has no PE
+	 */
+	private static List<Integer> getPeIds(VmScheduler scheduler, Vm vm) {
+		List<Pe> peList = scheduler.getPesAllocatedForVM(vm);
+		if (peList == null) {
+			return null;
+		}
+		List<Integer> peIds = new ArrayList<Integer>();
+		for (Pe pe : peList) {
+			peIds.add(pe.getId());
+		}
+		return peIds;
+	}
+
+	/**
+	 * Creates the scheduler of a host.
+	 *
+	 * @param overSubscription whether the scheduler allows over-subscription
+	 * @return the scheduler
+	 */
+	private static VmScheduler createScheduler(boolean overSubscription) {
+		List<Pe> peList = new ArrayList<Pe>();
+		for (int i = 0; i < HOST_PES; i++) {
+			peList.add(new Pe(i, new PeProvisionerSimple(HOST_MIPS)));
+		}
+		if (overSubscription) {
+			return new VmSchedulerTimeSharedOverSubscription(peList);
+		}
+		return new VmSchedulerTimeShared(peList);
+	}
+
+}
@@ -0,0 +1,228 @@
+package org.cloudbus.cloudsim.examples.benchmark;
+
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation
+ *               of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.cloudbus.cloudsim.CloudletSchedulerDynamicWorkload;
+import org.cloudbus.cloudsim.Pe;
+import org.cloudbus.cloudsim.Vm;
+import org.cloudbus.cloudsim.VmSchedulerTimeSharedOverSubscription;
+import org.cloudbus.cloudsim.power.PowerHost;
+import org.cloudbus.cloudsim.power.PowerHostUtilizationHistory;
+import org.cloudbus.cloudsim.power.PowerVm;
+import org.cloudbus.cloudsim.power.PowerVmSelectionPolicyMaximumCorrelation;
+import org.cloudbus.cloudsim.power.PowerVmSelectionPolicyMaximumCorrelationCovariance;
+import org.cloudbus.cloudsim.power.PowerVmSelectionPolicyMinimumMigrationTime;
+import org.cloudbus.cloudsim.power.models.PowerModelSpecPowerIbmX3550XeonX5670;
+import org.cloudbus.cloudsim.provisioners.BwProvisionerSimple;
+import org.cloudbus.cloudsim.provisioners.PeProvisionerSimple;
+import org.cloudbus.cloudsim.provisioners.RamProvisionerSimple;
+
+/**
+ * A correctness check and micro-benchmark of the Maximum Correlation VM selection computed from
+ * the covariance matrix of the VMs ({@link PowerVmSelectionPolicyMaximumCorrelationCovariance}),
+ * against the regression per VM of {@link PowerVmSelectionPolicyMaximumCorrelation}. The VMs of
+ * each host follow a few common random factors, and several VMs are selected and removed in turn
+ * on each host, as for an over-utilized host. The check reports the largest difference of the
+ * coefficients of determination and the number of selections that differ; the timing compares
+ * the whole selection on a copy of the hosts for each policy.
+ * <p>
+ * Usage: <tt>VmSelectionCorrelationBenchmark [hosts [vms [selections]]]</tt>. The default is 500
+ * hosts of 12 VMs, of which 4 are selected in turn.
+ */
+public class VmSelectionCorrelationBenchmark {
+
+	/** The seed of the random histories. */
+	private static final long SEED = 42;
+
+	/** The number of common factors of the VMs of a host. */
+	private static final int FACTORS = 3;
+
+	/**
+	 * Creates main() to run this example.
+	 *
+	 * @param args the number of hosts, of VMs per host and of selections per host
+	 */
+	public static void main(String[] args) {
+		int hosts = args.length > 0 ? Integer.parseInt(args[0]) : 500;
+		int vms = args.length > 1 ? Integer.parseInt(args[1]) : 12;
+		int selections = args.length > 2 ? Integer.parseInt(args[2]) : 4;
+
+		ReferencePolicy referencePolicy = new ReferencePolicy();
+		CovariancePolicy covariancePolicy = new CovariancePolicy();
+
+		double maxError = 0;
+		int differentSelections = 0;
+		int comparedSelections = 0;
+		for (PowerHost host : createHosts(hosts, vms)) {
+			for (int i = 0; i < selections; i++) {
+				double[] reference = referencePolicy.getCoefficients(host);
+				double[] coefficients = covariancePolicy.getCoefficients(host);
+				if (reference != null && coefficients != null) {
+					for (int j = 0; j < reference.length; j++) {
+						maxError = Math.max(maxError, Math.abs(reference[j] - coefficients[j]));
+					}
+					comparedSelections++;
+				}
+				Vm vm = referencePolicy.getVmToMigrate(host);
+				if (vm != covariancePolicy.getVmToMigrate(host)) {
+					differentSelections++;
+				}
+				host.getVmList().remove(vm);
+			}
+		}
+
+		// warm up the JIT compiler
+		for (int i = 0; i < 3; i++) {
+			select(referencePolicy, createHosts(hosts, vms), selections);
+			select(covariancePolicy, createHosts(hosts, vms), selections);
+		}
+
+		List<PowerHost> hostList = createHosts(hosts, vms);
+		long startTime = System.nanoTime();
+		select(referencePolicy, hostList, selections);
+		double referenceSeconds = (System.nanoTime() - startTime) / 1e9;
+
+		hostList = createHosts(hosts, vms);
+		startTime = System.nanoTime();
+		select(covariancePolicy, hostList, selections);
+		double covarianceSeconds = (System.nanoTime() - startTime) / 1e9;
+
+		System.out.println(String.format("%d hosts of %d VMs, %d selections per host", hosts, vms, selections));
+		System.out.println(String.format("Largest difference of R2: %.3g over %d selections, %d different VMs",
+				maxError, comparedSelections, differentSelections));
+		System.out.println(String.format("Regression per VM:  %.3f s, %.2f us per selection", referenceSeconds,
+				referenceSeconds * 1e6 / hosts / selections));
+		System.out.println(String.format("Covariance inverse: %.3f s, %.2f us per selection", covarianceSeconds,
+				covarianceSeconds * 1e6 / hosts / selections));
+	}
+
+	/**
+	 * Selects and removes VMs in turn on each host.
+	 *
+	 * @param policy the selection policy
+	 * @param hostList the hosts
+	 * @param selections the number of selections per host
+	 */
+	private static void select(PowerVmSelectionPolicyMaximumCorrelation policy, List<PowerHost> hostList,
+			int selections) {
+		for (PowerHost host : hostList) {
+			for (int i = 0; i < selections; i++) {
+				host.getVmList().remove(policy.getVmToMigrate(host));
+			}
+		}
+	}
+
+	/**
+	 * Creates the hosts and their VMs, with full utilization histories.
+	 *
+	 * @param hostsNumber the number of hosts
+	 * @param vmsNumber the number of VMs per host
+	 * @return the hosts
+	 */
+	private static List<PowerHost> createHosts(int hostsNumber, int vmsNumber) {
+		Random random = new Random(SEED);
+		List<PowerHost> hostList = new ArrayList<PowerHost>();
+		for (int i = 0; i < hostsNumber; i++) {
+			List<Pe> peList = new ArrayList<Pe>();
+			peList.add(new Pe(0, new PeProvisionerSimple(100000)));
+			PowerHost host = new PowerHostUtilizationHistory(i, new RamProvisionerSimple(1000000),
+					new BwProvisionerSimple(1000000), 1000000, peList, new VmSchedulerTimeSharedOverSubscription(
+							peList), new PowerModelSpecPowerIbmX3550XeonX5670());
+
+			double[][] factors = new double[FACTORS][PowerVm.HISTORY_LENGTH];
+			for (double[] factor : factors) {
+				for (int t = 0; t < factor.length; t++) {
+					factor[t] = random.nextDouble() - 0.5;
+				}
+			}
+			for (int j = 0; j < vmsNumber; j++) {
+				double[] weights = new double[FACTORS];
+				for (int k = 0; k < FACTORS; k++) {
+					weights[k] = random.nextDouble();
+				}
+				PowerVm vm = new PowerVm(i * vmsNumber + j, 0, 1000, 1, 512, 1000, 1000, 1, "Xen",
+						new CloudletSchedulerDynamicWorkload(1000, 1), 300);
+				for (int t = 0; t < PowerVm.HISTORY_LENGTH; t++) {
+					double utilization = 0.5 + 0.05 * (random.nextDouble() - 0.5);
+					for (int k = 0; k < FACTORS; k++) {
+						utilization += 0.3 * weights[k] * factors[k][t];
+					}
+					vm.addUtilizationHistoryValue(Math.min(1, Math.max(0, utilization)));
+				}
+				host.getVmList().add(vm);
+			}
+			hostList.add(host);
+		}
+		return hostList;
+	}
+
+	/**
+	 * The Maximum Correlation policy, of which the coefficients are exposed.
+	 */
+	private static class ReferencePolicy extends PowerVmSelectionPolicyMaximumCorrelation {
+
+		/**
+		 * Instantiates a new reference policy.
+		 */
+		public ReferencePolicy() {
+			super(new PowerVmSelectionPolicyMinimumMigrationTime());
+		}
+
+		/**
+		 * Gets the coefficients of determination of the VMs of a host.
+		 *
+		 * @param host the host
+		 * @return the coefficients, or null if they cannot be computed
+		 */
+		public double[] getCoefficients(PowerHost host) {
+			try {
+				List<Double> metrics = getCorrelationCoefficients(getUtilizationMatrix(getMigratableVms(host)));
+				double[] coefficients = new double[metrics.size()];
+				for (int i = 0; i < coefficients.length; i++) {
+					coefficients[i] = metrics.get(i);
+				}
+				return coefficients;
+			} catch (IllegalArgumentException e) {
+				return null;
+			}
+		}
+
+	}
+
+	/**
+	 * The Maximum Correlation policy from the covariance matrix, of which the coefficients are
+	 * exposed.
+	 */
+	private static class CovariancePolicy extends PowerVmSelectionPolicyMaximumCorrelationCovariance {
+
+		/**
+		 * Instantiates a new covariance policy.
+		 */
+		public CovariancePolicy() {
+			super(new PowerVmSelectionPolicyMinimumMigrationTime());
+		}
+
+		/**
+		 * Gets the coefficients of determination of the VMs of a host.
+		 *
+		 * @param host the host
+		 * @return the coefficients, or null if they cannot be computed
+		 */
+		public double[] getCoefficients(PowerHost host) {
+			return getCorrelationCoefficients(host, getMigratableVms(host));
+		}
+
+	}
+
+}
@@ -22,6 +22,12 @@ public class Constants {
 
 	public final static boolean ENABLE_OUTPUT = true;
 	public final static boolean OUTPUT_CSV    = false;
+	public final static boolean OUTPUT_BINARY = false;
+
+	// the state histories of the hosts and the VMs keep all their entries by default; with a bounded
+	// retention and OUTPUT_BINARY, the dropped entries are spilled into the results file
+	public final static int STATE_HISTORY_ENTRIES = 0;
+	public final static double STATE_HISTORY_INTERVAL = 0;
 
 	public final static double SCHEDULING_INTERVAL = 300;
 	public final static double SIMULATION_LIMIT = 24 * 60 * 60;
@@ -22,14 +22,14 @@ import org.cloudbus.cloudsim.DatacenterBroker;
 import org.cloudbus.cloudsim.DatacenterCharacteristics;
 import org.cloudbus.cloudsim.Host;
 import org.cloudbus.cloudsim.HostDynamicWorkload;
-import org.cloudbus.cloudsim.HostStateHistoryEntry;
+import org.cloudbus.cloudsim.HostStateHistory;
 import org.cloudbus.cloudsim.Log;
 import org.cloudbus.cloudsim.Pe;
 import org.cloudbus.cloudsim.Storage;
 import org.cloudbus.cloudsim.Vm;
 import org.cloudbus.cloudsim.VmAllocationPolicy;
 import org.cloudbus.cloudsim.VmSchedulerTimeSharedOverSubscription;
-import org.cloudbus.cloudsim.VmStateHistoryEntry;
+import org.cloudbus.cloudsim.VmStateHistory;
 import org.cloudbus.cloudsim.power.PowerDatacenter;
 import org.cloudbus.cloudsim.power.PowerDatacenterBroker;
 import org.cloudbus.cloudsim.power.PowerHost;
@@ -40,6 +40,8 @@ import org.cloudbus.cloudsim.provisioners.BwProvisionerSimple;
 import org.cloudbus.cloudsim.provisioners.PeProvisionerSimple;
 import org.cloudbus.cloudsim.provisioners.RamProvisionerSimple;
 import org.cloudbus.cloudsim.util.MathUtil;
+import org.cloudbus.cloudsim.util.ResultsReader;
+import org.cloudbus.cloudsim.util.ResultsWriter;
 
 import com.cloudbus.cloudsim.examples.power.brownout.BrownoutConstants;
 
@@ -199,16 +201,8 @@ public class Helper {
 	public static List<Double> getTimesBeforeHostShutdown(List<Host> hosts) {
 		List<Double> timeBeforeShutdown = new LinkedList<Double>();
 		for (Host host : hosts) {
-			boolean previousIsActive = true;
-			double lastTimeSwitchedOn = 0;
-			for (HostStateHistoryEntry entry : ((HostDynamicWorkload) host).getStateHistory()) {
-				if (previousIsActive == true && entry.isActive() == false) {
-					timeBeforeShutdown.add(entry.getTime() - lastTimeSwitchedOn);
-				}
-				if (previousIsActive == false && entry.isActive() == true) {
-					lastTimeSwitchedOn = entry.getTime();
-				}
-				previousIsActive = entry.isActive();
+			for (double time : ((HostDynamicWorkload) host).getStateHistory().getTimesBeforeShutdown()) {
+				timeBeforeShutdown.add(time);
 			}
 		}
 		return timeBeforeShutdown;
@@ -223,16 +217,8 @@ public class Helper {
 	public static List<Double> getTimesBeforeVmMigration(List<Vm> vms) {
 		List<Double> timeBeforeVmMigration = new LinkedList<Double>();
 		for (Vm vm : vms) {
-			boolean previousIsInMigration = false;
-			double lastTimeMigrationFinished = 0;
-			for (VmStateHistoryEntry entry : vm.getStateHistory()) {
-				if (previousIsInMigration == true && entry.isInMigration() == false) {
-					timeBeforeVmMigration.add(entry.getTime() - lastTimeMigrationFinished);
-				}
-				if (previousIsInMigration == false && entry.isInMigration() == true) {
-					lastTimeMigrationFinished = entry.getTime();
-				}
-				previousIsInMigration = entry.isInMigration();
+			for (double time : vm.getStateHistory().getTimesBeforeMigration()) {
+				timeBeforeVmMigration.add(time);
 			}
 		}
 		return timeBeforeVmMigration;
@@ -271,40 +257,31 @@ public class Helper {
 			String outputFolder) {
 		Log.enable();
 		List<Host> hosts = datacenter.getHostList();
-		
-		int numberOfHosts = hosts.size();
-		int numberOfVms = vms.size();
-
-		double totalSimulationTime = lastClock;
-		double energy = datacenter.getPower() / (3600 * 1000);
-		int numberOfMigrations = datacenter.getMigrationCount();
+		Map<String, Double> results = getResults(datacenter, vms, lastClock);
 
-		Map<String, Double> slaMetrics = getSlaMetrics(vms);
+		int numberOfHosts = results.get("hosts").intValue();
+		int numberOfVms = results.get("vms").intValue();
 
-		double slaOverall = slaMetrics.get("overall");
-		double slaAverage = slaMetrics.get("average");
-		double slaDegradationDueToMigration = slaMetrics.get("underallocated_migration");
-		// double slaTimePerVmWithMigration = slaMetrics.get("sla_time_per_vm_with_migration");
-		// double slaTimePerVmWithoutMigration =
-		// slaMetrics.get("sla_time_per_vm_without_migration");
-		// double slaTimePerHost = getSlaTimePerHost(hosts);
-		double slaTimePerActiveHost = getSlaTimePerActiveHost(hosts);
+		double totalSimulationTime = results.get("simulation_time");
+		double energy = results.get("energy");
+		int numberOfMigrations = results.get("migrations").intValue();
 
-		double sla = slaTimePerActiveHost * slaDegradationDueToMigration;
+		double slaOverall = results.get("sla_overall");
+		double slaAverage = results.get("sla_average");
+		double slaDegradationDueToMigration = results.get("sla_degradation_due_to_migration");
+		double slaTimePerActiveHost = results.get("sla_time_per_active_host");
+		double sla = results.get("sla");
 
 		List<Double> timeBeforeHostShutdown = getTimesBeforeHostShutdown(hosts);
-		
-		double totalShutdownTime = getTotalShutdownTime(timeBeforeHostShutdown);
 
-		int numberOfHostShutdowns = timeBeforeHostShutdown.size();
-		
-		int DimmerTime = datacenter.getDimmerTime();
-		
-		
-		double DimmerTimeRate = (double) DimmerTime /  datacenter.getTimesMayTriggerDimmer();
-		
-//		double totalDeactivatedComponentRatio = datacenter.getDataCenterTotalDeactivatedComponentRatio() / datacenter.getTimesMayTriggerDimmer();
-		double totalDeactivatedComponentRatio = datacenter.getDataCenterTotalDeactivatedComponentRatio() / 288 / BrownoutConstants.NUMBER_OF_VMS;
+		int numberOfHostShutdowns = results.get("host_shutdowns").intValue();
+		double totalShutdownTime = results.get("total_shutdown_time");
+
+		int DimmerTime = results.get("dimmer_times").intValue();
+		double DimmerTimeRate = results.get("dimmer_rate");
+		double totalDeactivatedComponentRatio = results.get("deactivated_component_ratio");
+		double revenueLossRatio = results.get("revenue_loss");
+		double efficiency = results.get("efficiency");
 		
 		double meanTimeBeforeHostShutdown = Double.NaN;
 		double stDevTimeBeforeHostShutdown = Double.NaN;
@@ -321,9 +298,6 @@ public class Helper {
 			stDevTimeBeforeVmMigration = MathUtil.stDev(timeBeforeVmMigration);
 		}
 
-		double revenueLoss = datacenter.getDataCenterRevenueLoss();
-		double revenue = datacenter.getDataCenterObainedRevenue() + 0.0001;
-		
 		if (outputInCsv) {
 			File folder = new File(outputFolder);
 			if (!folder.exists()) {
@@ -371,7 +345,7 @@ public class Helper {
 			data.append(String.format("%.2f", stDevTimeBeforeVmMigration) + delimeter);
 //			data.append(String.format("%.2f", revenueLoss) + delimeter);
 //			data.append(String.format("%.2f", revenue) + delimeter);
-			data.append(String.format("%.2f", revenueLoss / revenue) + delimeter);
+			data.append(String.format("%.2f", revenueLossRatio) + delimeter);
 
 			if (datacenter.getVmAllocationPolicy() instanceof PowerVmAllocationPolicyMigrationAbstract) {
 				PowerVmAllocationPolicyMigrationAbstract vmAllocationPolicy = (PowerVmAllocationPolicyMigrationAbstract) datacenter
@@ -439,22 +413,22 @@ public class Helper {
 
 //			Log.printLine(String.format("Number of host shutdowns: %d", numberOfHostShutdowns));
 			Log.printLine(String.format("Energy consumption: %.2f kWh", energy));
-			Log.printLine(String.format("Total Shutdown Time (Time Unit): %f", totalShutdownTime / 300));
+			Log.printLine(String.format("Total Shutdown Time (Time Unit): %f", totalShutdownTime));
 			Log.printLine(String.format(
-					"Revenue loss of data center: %.4f", revenueLoss / revenue));
+					"Revenue loss of data center: %.4f", revenueLossRatio));
 			Log.printLine(String.format("Times of Dimmer Triggered: %d", DimmerTime));
 			Log.printLine(String.format("Rate of Dimmer Triggered: %f", DimmerTimeRate));
 			Log.printLine(String.format("Total Deactivated Component Ratio: %f", totalDeactivatedComponentRatio));
 			Log.printLine(String.format("" + energy));
-			Log.printLine(String.format("" + (totalShutdownTime / 300)));
-			Log.printLine(String.format("" +  (revenueLoss / revenue)));
+			Log.printLine(String.format("" + totalShutdownTime));
+			Log.printLine(String.format("" + revenueLossRatio));
 			Log.printLine(String.format(""+ DimmerTime));
 			Log.printLine(String.format("" + DimmerTimeRate));
 			Log.printLine(String.format(""+ totalDeactivatedComponentRatio));
 			
-			Log.printLine(String.format("LowestDimmerValue"+ datacenter.getLowestDimmerValue()));
+			Log.printLine(String.format("LowestDimmerValue"+ results.get("lowest_dimmer_value")));
 			
-			Log.printLine(String.format("HighestDimmerValue"+ datacenter.getHighestDimmerValue()));
+			Log.printLine(String.format("HighestDimmerValue"+ results.get("highest_dimmer_value")));
 			
 //			System.out.println("LowestDimmerValue"+ datacenter.getLowestDimmerValue());
 			
@@ -465,13 +439,10 @@ public class Helper {
 			System.out.println(String.format("" + energy));
 //			System.out.println(String.format("" + (totalShutdownTime / 300)));
 //			System.out.println(String.format("" +  (revenueLoss / 1)));
-			System.out.println(String.format("" +  (revenueLoss / revenue)));
+			System.out.println(String.format("" + revenueLossRatio));
 //			System.out.println(String.format(""+ DimmerTime));
 //			System.out.println(String.format("" + DimmerTimeRate));
 			System.out.println(String.format(""+ totalDeactivatedComponentRatio));
-			double baseline = 353.66;
-			double efficiency = energy / baseline + revenueLoss / revenue;
-			
 			System.out.println(String.format(""+ efficiency));
 
 			
@@ -539,6 +510,236 @@ public class Helper {
 		Log.setDisabled(true);
 	}
 
+	/**
+	 * Gets the results of a simulation, i.e. the metrics reported by
+	 * {@link #printResults(PowerDatacenter, List, double, String, boolean, String)}, in a fixed
+	 * order.
+	 * 
+	 * @param datacenter the datacenter
+	 * @param vms the vms
+	 * @param lastClock the last clock
+	 * @return the metrics by name
+	 */
+	public static Map<String, Double> getResults(PowerDatacenter datacenter, List<Vm> vms, double lastClock) {
+		List<Host> hosts = datacenter.getHostList();
+		Map<String, Double> slaMetrics = getSlaMetrics(vms);
+		double slaTimePerActiveHost = getSlaTimePerActiveHost(hosts);
+		double slaDegradationDueToMigration = slaMetrics.get("underallocated_migration");
+		List<Double> timeBeforeHostShutdown = getTimesBeforeHostShutdown(hosts);
+		double energy = datacenter.getPower() / (3600 * 1000);
+		double revenueLoss = datacenter.getDataCenterRevenueLoss();
+		double revenue = datacenter.getDataCenterObainedRevenue() + 0.0001;
+		double baseline = 353.66;
+
+		Map<String, Double> results = new LinkedHashMap<String, Double>();
+		results.put("hosts", (double) hosts.size());
+		results.put("vms", (double) vms.size());
+		results.put("simulation_time", lastClock);
+		results.put("energy", energy);
+		results.put("migrations", (double) datacenter.getMigrationCount());
+		results.put("sla", slaTimePerActiveHost * slaDegradationDueToMigration);
+		results.put("sla_time_per_active_host", slaTimePerActiveHost);
+		results.put("sla_degradation_due_to_migration", slaDegradationDueToMigration);
+		results.put("sla_overall", slaMetrics.get("overall"));
+		results.put("sla_average", slaMetrics.get("average"));
+		results.put("host_shutdowns", (double) timeBeforeHostShutdown.size());
+		results.put("total_shutdown_time", getTotalShutdownTime(timeBeforeHostShutdown) / 300);
+		results.put("revenue_loss", revenueLoss / revenue);
+		results.put("dimmer_times", (double) datacenter.getDimmerTime());
+		results.put("dimmer_rate", (double) datacenter.getDimmerTime() / datacenter.getTimesMayTriggerDimmer());
+		results.put("deactivated_component_ratio", datacenter.getDataCenterTotalDeactivatedComponentRatio() / 288
+				/ BrownoutConstants.NUMBER_OF_VMS);
+		results.put("efficiency", energy / baseline + revenueLoss / revenue);
+		results.put("lowest_dimmer_value", datacenter.getLowestDimmerValue());
+		results.put("highest_dimmer_value", datacenter.getHighestDimmerValue());
+		return results;
+	}
+
+	/**
+	 * Writes the results of a simulation into one binary file (see {@link ResultsWriter}), instead of
+	 * one text file per metric and per host: the metrics of
+	 * {@link #getResults(PowerDatacenter, List, double)}, the state histories of the hosts and the
+	 * VMs, the number of active hosts, the revenue loss of the hosts, the times before a host
+	 * shutdown and before a VM migration, and the metric histories of the migration policy. The file
+	 * is read back by {@link ResultsReader}, e.g. to export the tables as CSV.
+	 * 
+	 * @param datacenter the datacenter
+	 * @param vms the vms
+	 * @param lastClock the last clock
+	 * @param experimentName the experiment name
+	 * @param outputFolder the output folder
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	public static void writeResults(
+			PowerDatacenter datacenter,
+			List<Vm> vms,
+			double lastClock,
+			String experimentName,
+			String outputFolder) throws IOException {
+		writeResults(createResultsWriter(experimentName, outputFolder), datacenter, vms, lastClock);
+	}
+
+	/**
+	 * Creates the writer of the results file of a simulation, in the results folder.
+	 * 
+	 * @param experimentName the experiment name
+	 * @param outputFolder the output folder
+	 * @return the writer
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	public static ResultsWriter createResultsWriter(String experimentName, String outputFolder) throws IOException {
+		File folder = new File(outputFolder + "/results");
+		if (!folder.exists()) {
+			folder.mkdirs();
+		}
+		return new ResultsWriter(outputFolder + "/results/" + experimentName + ".results");
+	}
+
+	/**
+	 * Sets the retention of the state histories of the hosts and the VMs, before the simulation
+	 * starts. If the retention is bounded and a writer is given, the entries dropped from the
+	 * histories are spilled into the state history tables of the results file, so that the file
+	 * still holds the whole histories; the tables are then completed by
+	 * {@link #writeResults(ResultsWriter, PowerDatacenter, List, double)}.
+	 * 
+	 * @param hosts the hosts
+	 * @param vms the vms
+	 * @param retainedEntries the number of entries kept by each history, or 0 to keep all of them
+	 * @param samplingInterval the minimum time between two entries kept, or 0 to keep every entry
+	 * @param writer the writer of the results file, or null to discard the dropped entries
+	 */
+	public static void configureStateHistories(
+			List<? extends HostDynamicWorkload> hosts,
+			List<? extends Vm> vms,
+			int retainedEntries,
+			double samplingInterval,
+			ResultsWriter writer) {
+		ResultsWriter.Table hostState = null;
+		ResultsWriter.Table vmState = null;
+		if (writer != null && (retainedEntries > 0 || samplingInterval > 0)) {
+			hostState = HostStateHistory.createTable(writer);
+			vmState = VmStateHistory.createTable(writer);
+		}
+		for (HostDynamicWorkload host : hosts) {
+			host.getStateHistory().setRetainedEntries(retainedEntries);
+			host.getStateHistory().setSamplingInterval(samplingInterval);
+			host.getStateHistory().setSpillTable(hostState, host.getId());
+		}
+		for (Vm vm : vms) {
+			vm.getStateHistory().setRetainedEntries(retainedEntries);
+			vm.getStateHistory().setSamplingInterval(samplingInterval);
+			vm.getStateHistory().setSpillTable(vmState, vm.getId());
+		}
+	}
+
+	/**
+	 * Writes the results of a simulation into a results file, and closes it. The entries kept by
+	 * the state histories are appended to the state history tables, which already hold the spilled
+	 * entries if the histories were configured by
+	 * {@link #configureStateHistories(List, List, int, double, ResultsWriter)}.
+	 * 
+	 * @param writer the writer of the results file
+	 * @param datacenter the datacenter
+	 * @param vms the vms
+	 * @param lastClock the last clock
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	public static void writeResults(ResultsWriter writer, PowerDatacenter datacenter, List<Vm> vms, double lastClock)
+			throws IOException {
+		List<Host> hosts = datacenter.getHostList();
+		try {
+			Map<String, Double> results = getResults(datacenter, vms, lastClock);
+			ResultsWriter.Table stats = writer.createTable("stats");
+			for (String name : results.keySet()) {
+				stats.addDoubleColumn(name);
+			}
+			int column = 0;
+			for (double value : results.values()) {
+				stats.setDouble(column++, value);
+			}
+			stats.endRow();
+
+			ResultsWriter.Table hostState = writer.getTable(HostStateHistory.TABLE_NAME);
+			if (hostState == null) {
+				hostState = HostStateHistory.createTable(writer);
+			}
+			ResultsWriter.Table hostRevenueLoss = writer.createTable("host_revenue_loss");
+			int revenueLossHostId = hostRevenueLoss.addIntColumn("host");
+			int revenueLoss = hostRevenueLoss.addDoubleColumn("revenue_loss");
+			for (Host host : hosts) {
+				((HostDynamicWorkload) host).getStateHistory().writeTo(hostState, host.getId());
+				hostRevenueLoss.setInt(revenueLossHostId, host.getId());
+				hostRevenueLoss.setDouble(revenueLoss, ((PowerHost) host).getRevenueLoss());
+				hostRevenueLoss.endRow();
+			}
+
+			ResultsWriter.Table vmState = writer.getTable(VmStateHistory.TABLE_NAME);
+			if (vmState == null) {
+				vmState = VmStateHistory.createTable(writer);
+			}
+			for (Vm vm : vms) {
+				vm.getStateHistory().writeTo(vmState, vm.getId());
+			}
+
+			ResultsWriter.Table activeHosts = writer.createTable("number_of_active_hosts");
+			int activeHostsTime = activeHosts.addDoubleColumn("time");
+			int numberOfActiveHosts = activeHosts.addIntColumn("hosts");
+			for (Entry<Double, Integer> entry : datacenter.getNumberOfActiveHostsMap().entrySet()) {
+				activeHosts.setDouble(activeHostsTime, entry.getKey());
+				activeHosts.setInt(numberOfActiveHosts, entry.getValue());
+				activeHosts.endRow();
+			}
+
+			writeResultsColumn(writer, "time_before_host_shutdown", getTimesBeforeHostShutdown(hosts));
+			writeResultsColumn(writer, "time_before_vm_migration", getTimesBeforeVmMigration(vms));
+
+			if (datacenter.getVmAllocationPolicy() instanceof PowerVmAllocationPolicyMigrationAbstract) {
+				PowerVmAllocationPolicyMigrationAbstract vmAllocationPolicy = (PowerVmAllocationPolicyMigrationAbstract) datacenter
+						.getVmAllocationPolicy();
+				ResultsWriter.Table metricHistory = writer.createTable("metric_history");
+				int metricHostId = metricHistory.addIntColumn("host");
+				int metricTime = metricHistory.addDoubleColumn("time");
+				int utilization = metricHistory.addDoubleColumn("utilization");
+				int metric = metricHistory.addDoubleColumn("metric");
+				for (Host host : hosts) {
+					List<Double> timeData = vmAllocationPolicy.getTimeHistory().get(host.getId());
+					if (timeData == null) {
+						continue;
+					}
+					List<Double> utilizationData = vmAllocationPolicy.getUtilizationHistory().get(host.getId());
+					List<Double> metricData = vmAllocationPolicy.getMetricHistory().get(host.getId());
+					for (int i = 0; i < timeData.size(); i++) {
+						metricHistory.setInt(metricHostId, host.getId());
+						metricHistory.setDouble(metricTime, timeData.get(i));
+						metricHistory.setDouble(utilization, utilizationData.get(i));
+						metricHistory.setDouble(metric, metricData.get(i));
+						metricHistory.endRow();
+					}
+				}
+			}
+		} finally {
+			writer.close();
+		}
+	}
+
+	/**
+	 * Writes a table of one double column to a results file.
+	 * 
+	 * @param writer the writer of the results file
+	 * @param name the name of the table and of its column
+	 * @param data the data
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	private static void writeResultsColumn(ResultsWriter writer, String name, List<? extends Number> data)
+			throws IOException {
+		ResultsWriter.Table table = writer.createTable(name);
+		int column = table.addDoubleColumn(name);
+		for (Number value : data) {
+			table.setDouble(column, value.doubleValue());
+			table.endRow();
+		}
+	}
+
 	/**
 	 * Parses the experiment name.
 	 * 
@@ -561,7 +762,10 @@ public class Helper {
 	}
 
 	/**
-	 * Gets the sla time per active host.
+	 * Gets the sla time per active host. The times are the totals accumulated by the state histories
+	 * over all their entries, so that they do not depend on the retention of the histories. As the
+	 * times are summed per host before they are summed over the hosts, the result, and the sla
+	 * metric computed from it, may differ in the last bits from a single sum over all the entries.
 	 * 
 	 * @param hosts the hosts
 	 * @return the sla time per active host
@@ -570,34 +774,18 @@ public class Helper {
 		double slaViolationTimePerHost = 0;
 		double totalTime = 0;
 
-		for (Host _host : hosts) {
-			HostDynamicWorkload host = (HostDynamicWorkload) _host;
-			double previousTime = -1;
-			double previousAllocated = 0;
-			double previousRequested = 0;
-			boolean previousIsActive = true;
-
-			for (HostStateHistoryEntry entry : host.getStateHistory()) {
-				if (previousTime != -1 && previousIsActive) {
-					double timeDiff = entry.getTime() - previousTime;
-					totalTime += timeDiff;
-					if (previousAllocated < previousRequested) {
-						slaViolationTimePerHost += timeDiff;
-					}
-				}
-
-				previousAllocated = entry.getAllocatedMips();
-				previousRequested = entry.getRequestedMips();
-				previousTime = entry.getTime();
-				previousIsActive = entry.isActive();
-			}
+		for (Host host : hosts) {
+			HostStateHistory stateHistory = ((HostDynamicWorkload) host).getStateHistory();
+			totalTime += stateHistory.getActiveTime();
+			slaViolationTimePerHost += stateHistory.getActiveUnderAllocatedTime();
 		}
 
 		return slaViolationTimePerHost / totalTime;
 	}
 
 	/**
-	 * Gets the sla time per host.
+	 * Gets the sla time per host. The times are the totals accumulated by the state histories over
+	 * all their entries, summed per host first.
 	 * 
 	 * @param hosts the hosts
 	 * @return the sla time per host
@@ -606,83 +794,46 @@ public class Helper {
 		double slaViolationTimePerHost = 0;
 		double totalTime = 0;
 
-		for (Host _host : hosts) {
-			HostDynamicWorkload host = (HostDynamicWorkload) _host;
-			double previousTime = -1;
-			double previousAllocated = 0;
-			double previousRequested = 0;
-
-			for (HostStateHistoryEntry entry : host.getStateHistory()) {
-				if (previousTime != -1) {
-					double timeDiff = entry.getTime() - previousTime;
-					totalTime += timeDiff;
-					if (previousAllocated < previousRequested) {
-						slaViolationTimePerHost += timeDiff;
-					}
-				}
-
-				previousAllocated = entry.getAllocatedMips();
-				previousRequested = entry.getRequestedMips();
-				previousTime = entry.getTime();
-			}
+		for (Host host : hosts) {
+			HostStateHistory stateHistory = ((HostDynamicWorkload) host).getStateHistory();
+			totalTime += stateHistory.getTotalTime();
+			slaViolationTimePerHost += stateHistory.getUnderAllocatedTime();
 		}
 
 		return slaViolationTimePerHost / totalTime;
 	}
 
 	/**
-	 * Gets the sla metrics.
+	 * Gets the sla metrics. The metrics are computed from the totals accumulated by the state
+	 * histories over all their entries, so that they do not depend on the retention of the
+	 * histories. The SLA violations are summed per VM before they are averaged over all the VMs, so
+	 * the average may differ in the last bits from the mean of a single list of the violations.
 	 * 
 	 * @param vms the vms
 	 * @return the sla metrics
 	 */
 	protected static Map<String, Double> getSlaMetrics(List<Vm> vms) {
 		Map<String, Double> metrics = new HashMap<String, Double>();
-		List<Double> slaViolation = new LinkedList<Double>();
+		double slaViolationSum = 0;
+		int slaViolationCount = 0;
 		double totalAllocated = 0;
 		double totalRequested = 0;
 		double totalUnderAllocatedDueToMigration = 0;
 
 		for (Vm vm : vms) {
-			double vmTotalAllocated = 0;
-			double vmTotalRequested = 0;
-			double vmUnderAllocatedDueToMigration = 0;
-			double previousTime = -1;
-			double previousAllocated = 0;
-			double previousRequested = 0;
-			boolean previousIsInMigration = false;
-
-			for (VmStateHistoryEntry entry : vm.getStateHistory()) {
-				if (previousTime != -1) {
-					double timeDiff = entry.getTime() - previousTime;
-					vmTotalAllocated += previousAllocated * timeDiff;
-					vmTotalRequested += previousRequested * timeDiff;
-
-					if (previousAllocated < previousRequested) {
-						slaViolation.add((previousRequested - previousAllocated) / previousRequested);
-						if (previousIsInMigration) {
-							vmUnderAllocatedDueToMigration += (previousRequested - previousAllocated)
-									* timeDiff;
-						}
-					}
-				}
-
-				previousAllocated = entry.getAllocatedMips();
-				previousRequested = entry.getRequestedMips();
-				previousTime = entry.getTime();
-				previousIsInMigration = entry.isInMigration();
-			}
-
-			totalAllocated += vmTotalAllocated;
-			totalRequested += vmTotalRequested;
-			totalUnderAllocatedDueToMigration += vmUnderAllocatedDueToMigration;
+			VmStateHistory stateHistory = vm.getStateHistory();
+			totalAllocated += stateHistory.getTotalAllocatedMips();
+			totalRequested += stateHistory.getTotalRequestedMips();
+			totalUnderAllocatedDueToMigration += stateHistory.getUnderAllocatedMipsDueToMigration();
+			slaViolationSum += stateHistory.getSlaViolationSum();
+			slaViolationCount += stateHistory.getSlaViolationCount();
 		}
 
 		metrics.put("overall", (totalRequested - totalAllocated) / totalRequested);
-		if (slaViolation.isEmpty()) {
+		if (slaViolationCount == 0) {
 			metrics.put("average", 0.);
 		} else {
-			metrics.put("average", MathUtil.mean(slaViolation));
+			metrics.put("average", slaViolationSum / slaViolationCount);
 		}
 		metrics.put("underallocated_migration", totalUnderAllocatedDueToMigration / totalRequested);
 		// metrics.put("sla_time_per_vm_with_migration", slaViolationTimePerVmWithMigration /
@@ -0,0 +1,97 @@
+package org.cloudbus.cloudsim.examples.power;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.cloudbus.cloudsim.util.ResultsReader;
+
+/**
+ * Exports the tables of a results file written by
+ * {@link Helper#writeResults(org.cloudbus.cloudsim.power.PowerDatacenter, java.util.List, double, String, String)}
+ * as CSV files, one per table, named after the table, e.g. <tt>host_state.csv</tt>.
+ * <p>
+ * Usage: <tt>ResultsCsvExporter input output [table]</tt>, where input is a results file, output
+ * the folder of the CSV files, and table the only table to export.
+ *
+ * If you are using any algorithms, policies or workload included in the power package please cite
+ * the following paper:
+ *
+ * Anton Beloglazov, and Rajkumar Buyya, "Optimal Online Deterministic Algorithms and Adaptive
+ * Heuristics for Energy and Performance Efficient Dynamic Consolidation of Virtual Machines in
+ * Cloud Data Centers", Concurrency and Computation: Practice and Experience (CCPE), Volume 24,
+ * Issue 13, Pages: 1397-1420, John Wiley & Sons, Ltd, New York, USA, 2012
+ */
+public class ResultsCsvExporter {
+
+	/**
+	 * The main method.
+	 *
+	 * @param args the input file, the output folder and optionally the table
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length != 2 && args.length != 3) {
+			System.out.println("Usage: ResultsCsvExporter input output [table]");
+			System.exit(1);
+		}
+		long startTime = System.currentTimeMillis();
+		int exported = export(args[0], new File(args[1]), args.length == 3 ? args[2] : null);
+		System.out.println(String.format(
+				"Exported %d tables in %.2f sec",
+				exported,
+				(System.currentTimeMillis() - startTime) / 1000.0));
+	}
+
+	/**
+	 * Exports the tables of a results file. The file is read chunk by chunk, and the rows of each
+	 * chunk are appended to the CSV file of its table, so that a results file larger than the heap
+	 * can be exported.
+	 *
+	 * @param input the path of the results file
+	 * @param output the output folder
+	 * @param tableName the only table to export, or null to export all the tables
+	 * @return the number of exported tables
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	public static int export(String input, File output, String tableName) throws IOException {
+		if (!output.exists() && !output.mkdirs()) {
+			throw new IOException("Cannot create the folder " + output);
+		}
+		Map<String, Writer> writers = new LinkedHashMap<String, Writer>();
+		InputStream inputStream = new BufferedInputStream(new FileInputStream(input));
+		ResultsReader.ChunkReader chunkReader = null;
+		try {
+			chunkReader = new ResultsReader.ChunkReader(inputStream);
+			for (ResultsReader.Table chunk = chunkReader.next(); chunk != null; chunk = chunkReader.next()) {
+				if (tableName != null && !tableName.equals(chunk.getName())) {
+					continue;
+				}
+				Writer writer = writers.get(chunk.getName());
+				if (writer == null) {
+					writer = new BufferedWriter(new FileWriter(new File(output, chunk.getName() + ".csv")));
+					writers.put(chunk.getName(), writer);
+					chunk.writeCsvHeader(writer);
+				}
+				chunk.writeCsvRows(writer);
+			}
+		} finally {
+			if (chunkReader != null) {
+				chunkReader.close();
+			}
+			inputStream.close();
+			for (Writer writer : writers.values()) {
+				writer.close();
+			}
+		}
+		return writers.size();
+	}
+
+}
@@ -24,9 +24,11 @@ import org.cloudbus.cloudsim.power.PowerVmAllocationPolicyMigrationUtilizationBa
 import org.cloudbus.cloudsim.power.PowerVmAllocationPolicySimple;
 import org.cloudbus.cloudsim.power.PowerVmSelectionPolicy;
 import org.cloudbus.cloudsim.power.PowerVmSelectionPolicyMaximumCorrelation;
+import org.cloudbus.cloudsim.power.PowerVmSelectionPolicyMaximumCorrelationCovariance;
 import org.cloudbus.cloudsim.power.PowerVmSelectionPolicyMinimumMigrationTime;
 import org.cloudbus.cloudsim.power.PowerVmSelectionPolicyMinimumUtilization;
 import org.cloudbus.cloudsim.power.PowerVmSelectionPolicyRandomSelection;
+import org.cloudbus.cloudsim.util.ResultsWriter;
 
 /**
  * The Class RunnerAbstract.
@@ -166,6 +168,19 @@ public abstract class RunnerAbstract {
 					vmAllocationPolicy);
 
 			datacenter.setDisableMigrations(false);
+			datacenter.setProgressPrinted(true);
+			configureDatacenter(datacenter);
+
+			ResultsWriter resultsWriter = null;
+			if (Constants.OUTPUT_BINARY) {
+				resultsWriter = Helper.createResultsWriter(experimentName, outputFolder);
+			}
+			Helper.configureStateHistories(
+					hostList,
+					vmList,
+					Constants.STATE_HISTORY_ENTRIES,
+					Constants.STATE_HISTORY_INTERVAL,
+					resultsWriter);
 
 			broker.submitVmList(vmList);
 			broker.submitCloudletList(cloudletList);
@@ -178,13 +193,19 @@ public abstract class RunnerAbstract {
 
 			CloudSim.stopSimulation();
 
+			// the binary results replace the text files of the metrics and the histories
 			Helper.printResults(
 					datacenter,
 					vmList,
 					lastClock,
 					experimentName,
-					Constants.OUTPUT_CSV,
+					Constants.OUTPUT_CSV && !Constants.OUTPUT_BINARY,
 					outputFolder);
+			if (Constants.OUTPUT_BINARY) {
+				Helper.writeResults(resultsWriter, datacenter, vmList, lastClock);
+			}
+
+			processResults(datacenter, lastClock, experimentName);
 
 		} catch (Exception e) {
 			e.printStackTrace();
@@ -195,6 +216,26 @@ public abstract class RunnerAbstract {
 		Log.printLine("Finished " + experimentName);
 	}
 
+	/**
+	 * Configures the datacenter before the simulation starts. Does nothing by default; runners that
+	 * need more than the default datacenter override it.
+	 * 
+	 * @param datacenter the datacenter
+	 */
+	protected void configureDatacenter(PowerDatacenter datacenter) {
+	}
+
+	/**
+	 * Processes the results of the simulation once they have been printed. Does nothing by
+	 * default; runners that collect the results override it.
+	 * 
+	 * @param datacenter the datacenter
+	 * @param lastClock the last clock
+	 * @param experimentName the experiment name
+	 */
+	protected void processResults(PowerDatacenter datacenter, double lastClock, String experimentName) {
+	}
+
 	/**
 	 * Gets the experiment name.
 	 * 
@@ -309,6 +350,9 @@ public abstract class RunnerAbstract {
 		if (vmSelectionPolicyName.equals("mc")) {
 			vmSelectionPolicy = new PowerVmSelectionPolicyMaximumCorrelation(
 					new PowerVmSelectionPolicyMinimumMigrationTime());
+		} else if (vmSelectionPolicyName.equals("mcc")) {
+			vmSelectionPolicy = new PowerVmSelectionPolicyMaximumCorrelationCovariance(
+					new PowerVmSelectionPolicyMinimumMigrationTime());
 		} else if (vmSelectionPolicyName.equals("mmt")) {
 			vmSelectionPolicy = new PowerVmSelectionPolicyMinimumMigrationTime();
 		} else if (vmSelectionPolicyName.equals("mu")) {
@@ -0,0 +1,72 @@
+package org.cloudbus.cloudsim.examples.power;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.cloudbus.cloudsim.util.TraceRepository;
+
+/**
+ * Converts text utilization traces, such as the PlanetLab traces, into the binary format of the
+ * {@link TraceRepository}, which is loaded with no parsing. A folder is converted into a folder
+ * with the same structure and file names, so the converted folder can be used as the input folder
+ * of the PlanetLab examples.
+ * <p>
+ * Usage: <tt>TraceConverter input output</tt>, where input is a trace file or a folder of traces.
+ *
+ * If you are using any algorithms, policies or workload included in the power package please cite
+ * the following paper:
+ *
+ * Anton Beloglazov, and Rajkumar Buyya, "Optimal Online Deterministic Algorithms and Adaptive
+ * Heuristics for Energy and Performance Efficient Dynamic Consolidation of Virtual Machines in
+ * Cloud Data Centers", Concurrency and Computation: Practice and Experience (CCPE), Volume 24,
+ * Issue 13, Pages: 1397-1420, John Wiley & Sons, Ltd, New York, USA, 2012
+ */
+public class TraceConverter {
+
+	/**
+	 * The main method.
+	 *
+	 * @param args the input and output paths
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length != 2) {
+			System.out.println("Usage: TraceConverter input output");
+			System.exit(1);
+		}
+		long startTime = System.currentTimeMillis();
+		int converted = convert(new File(args[0]), new File(args[1]));
+		System.out.println(String.format(
+				"Converted %d traces in %.2f sec",
+				converted,
+				(System.currentTimeMillis() - startTime) / 1000.0));
+	}
+
+	/**
+	 * Converts a trace file or a folder of traces.
+	 *
+	 * @param input the input file or folder
+	 * @param output the output file or folder
+	 * @return the number of converted traces
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	public static int convert(File input, File output) throws IOException {
+		if (!input.isDirectory()) {
+			if (TraceRepository.isBinary(input.getPath())) {
+				return 0;
+			}
+			TraceRepository.convert(input.getPath(), output.getPath());
+			return 1;
+		}
+
+		if (!output.exists() && !output.mkdirs()) {
+			throw new IOException("Cannot create the folder " + output);
+		}
+		int converted = 0;
+		for (File file : input.listFiles()) {
+			converted += convert(file, new File(output, file.getName()));
+		}
+		return converted;
+	}
+
+}
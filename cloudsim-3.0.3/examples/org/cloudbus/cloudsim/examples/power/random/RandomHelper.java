@@ -63,7 +63,7 @@ public class RandomHelper {
 						Constants.CLOUDLET_PES,
 						fileSize,
 						outputSize,
-						new UtilizationModelStochastic(seed * i),
+						new UtilizationModelStochastic(seed * i, Constants.SCHEDULING_INTERVAL),
 						utilizationModelNull,
 						utilizationModelNull);
 			}
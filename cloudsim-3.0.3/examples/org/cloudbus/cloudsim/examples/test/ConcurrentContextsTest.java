@@ -0,0 +1,150 @@
+package org.cloudbus.cloudsim.examples.test;
+
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation
+ *               of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.cloudbus.cloudsim.Cloudlet;
+import org.cloudbus.cloudsim.DatacenterBroker;
+import org.cloudbus.cloudsim.Log;
+import org.cloudbus.cloudsim.Vm;
+import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.core.SimulationContext;
+import org.cloudbus.cloudsim.examples.power.Constants;
+import org.cloudbus.cloudsim.examples.power.Helper;
+import org.cloudbus.cloudsim.examples.power.random.RandomConstants;
+import org.cloudbus.cloudsim.examples.power.random.RandomHelper;
+import org.cloudbus.cloudsim.power.PowerDatacenter;
+import org.cloudbus.cloudsim.power.PowerHost;
+import org.cloudbus.cloudsim.power.PowerVmAllocationPolicyMigrationStaticThreshold;
+import org.cloudbus.cloudsim.power.PowerVmSelectionPolicyMinimumUtilization;
+
+/**
+ * Checks that two simulations run at the same time in their own simulation contexts, on two
+ * threads, give the same results as when they are run one after the other. The simulations are the
+ * random workload of the power examples with two different numbers of VMs, so that any state
+ * shared between the contexts changes the results of one of them. It
+ * throws an {@link IllegalStateException} if the results differ.
+ * <p>
+ * Usage: <tt>ConcurrentContextsTest</tt>.
+ */
+public class ConcurrentContextsTest {
+
+	/** The numbers of VMs of the simulations. */
+	private static final int[] VMS = { RandomConstants.NUMBER_OF_VMS, RandomConstants.NUMBER_OF_VMS / 2 };
+
+	/**
+	 * Creates main() to run this example.
+	 *
+	 * @param args the args
+	 * @throws Exception if a simulation fails
+	 */
+	public static void main(String[] args) throws Exception {
+		Log.disable();
+
+		List<Map<String, Double>> sequential = new ArrayList<Map<String, Double>>();
+		for (int i = 0; i < VMS.length; i++) {
+			sequential.add(runInNewContext(i));
+		}
+
+		final CountDownLatch start = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(VMS.length);
+		List<Future<Map<String, Double>>> concurrent = new ArrayList<Future<Map<String, Double>>>();
+		try {
+			for (int i = 0; i < VMS.length; i++) {
+				final int simulation = i;
+				concurrent.add(executor.submit(new Callable<Map<String, Double>>() {
+
+					@Override
+					public Map<String, Double> call() throws Exception {
+						start.await();
+						return runInNewContext(simulation);
+					}
+				}));
+			}
+			start.countDown();
+			for (int i = 0; i < VMS.length; i++) {
+				Map<String, Double> results = concurrent.get(i).get();
+				if (!results.equals(sequential.get(i))) {
+					throw new IllegalStateException("The concurrent simulation #" + i + " gives " + results
+							+ " instead of " + sequential.get(i));
+				}
+			}
+		} finally {
+			executor.shutdown();
+		}
+
+		if (sequential.get(0).equals(sequential.get(1))) {
+			throw new IllegalStateException("The simulations are not different");
+		}
+		System.out.println(String.format("OK: %d concurrent simulations give the results of the sequential ones",
+				VMS.length));
+	}
+
+	/**
+	 * Runs a simulation in a new context bound to the calling thread.
+	 *
+	 * @param simulation the index of the simulation
+	 * @return the results of the simulation
+	 * @throws Exception if the simulation fails
+	 */
+	private static Map<String, Double> runInNewContext(int simulation) throws Exception {
+		SimulationContext previous = CloudSim.bindContext(new SimulationContext());
+		try {
+			return run(simulation);
+		} finally {
+			CloudSim.bindContext(previous);
+		}
+	}
+
+	/**
+	 * Runs a simulation of the random workload in the current context.
+	 *
+	 * @param simulation the index of the simulation
+	 * @return the results of the simulation
+	 * @throws Exception if the simulation fails
+	 */
+	private static Map<String, Double> run(int simulation) throws Exception {
+		CloudSim.init(1, Calendar.getInstance(), false);
+
+		DatacenterBroker broker = Helper.createBroker();
+		List<Cloudlet> cloudletList = RandomHelper.createCloudletList(broker.getId(), VMS[simulation]);
+		List<Vm> vmList = Helper.createVmList(broker.getId(), cloudletList.size());
+		List<PowerHost> hostList = Helper.createHostList(RandomConstants.NUMBER_OF_HOSTS);
+
+		PowerDatacenter datacenter = (PowerDatacenter) Helper.createDatacenter(
+				"Datacenter",
+				PowerDatacenter.class,
+				hostList,
+				new PowerVmAllocationPolicyMigrationStaticThreshold(
+						hostList,
+						new PowerVmSelectionPolicyMinimumUtilization(),
+						0.8));
+		datacenter.setDisableMigrations(false);
+
+		broker.submitVmList(vmList);
+		broker.submitCloudletList(cloudletList);
+
+		CloudSim.terminateSimulation(Constants.SIMULATION_LIMIT);
+		double lastClock = CloudSim.startSimulation();
+		CloudSim.stopSimulation();
+
+		return Helper.getResults(datacenter, vmList, lastClock);
+	}
+
+}
@@ -0,0 +1,155 @@
+package org.cloudbus.cloudsim.examples.test;
+
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation
+ *               of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+import java.util.Map;
+
+import org.cloudbus.cloudsim.Cloudlet;
+import org.cloudbus.cloudsim.DatacenterBroker;
+import org.cloudbus.cloudsim.Host;
+import org.cloudbus.cloudsim.Log;
+import org.cloudbus.cloudsim.Vm;
+import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.examples.power.Constants;
+import org.cloudbus.cloudsim.examples.power.Helper;
+import org.cloudbus.cloudsim.examples.power.random.RandomConstants;
+import org.cloudbus.cloudsim.examples.power.random.RandomHelper;
+import org.cloudbus.cloudsim.power.PowerDatacenter;
+import org.cloudbus.cloudsim.power.PowerHost;
+import org.cloudbus.cloudsim.power.PowerVmAllocationPolicyMigrationMedianAbsoluteDeviation;
+import org.cloudbus.cloudsim.power.PowerVmAllocationPolicyMigrationUtilizationBasedProbability;
+import org.cloudbus.cloudsim.power.PowerVmSelectionPolicy;
+import org.cloudbus.cloudsim.power.PowerVmSelectionPolicyMinimumUtilization;
+
+/**
+ * Checks that a MAD policy whose fallback policy draws random numbers gives the same migrations
+ * when the same simulation is run twice: the hosts checked by the fallback policy must not be
+ * checked in parallel, otherwise the order of the draws depends on the scheduling of the threads.
+ * It throws an {@link IllegalStateException} if the migrations differ.
+ * <p>
+ * Usage: <tt>FallbackDetectionReproducibilityTest</tt>.
+ */
+public class FallbackDetectionReproducibilityTest {
+
+	/** The number of runs of the simulation. */
+	private static final int RUNS = 2;
+
+	/**
+	 * Creates main() to run this example.
+	 *
+	 * @param args the args
+	 * @throws Exception if a simulation fails
+	 */
+	public static void main(String[] args) throws Exception {
+		Log.disable();
+
+		List<List<String>> migrations = new ArrayList<List<String>>();
+		for (int i = 0; i < RUNS; i++) {
+			migrations.add(run());
+		}
+		if (migrations.get(0).isEmpty()) {
+			throw new IllegalStateException("No VM has been migrated");
+		}
+		for (int i = 1; i < RUNS; i++) {
+			if (!migrations.get(i).equals(migrations.get(0))) {
+				throw new IllegalStateException("The run #" + i + " migrates " + migrations.get(i)
+						+ " instead of " + migrations.get(0));
+			}
+		}
+		System.out.println(String.format("OK: %d runs give the same %d migrations", RUNS, migrations.get(0)
+				.size()));
+	}
+
+	/**
+	 * Runs a simulation of the random workload with a MAD policy and a utilization based
+	 * probability fallback policy.
+	 *
+	 * @return the migrations of the simulation, in order
+	 * @throws Exception if the simulation fails
+	 */
+	private static List<String> run() throws Exception {
+		CloudSim.init(1, Calendar.getInstance(), false);
+
+		DatacenterBroker broker = Helper.createBroker();
+		List<Cloudlet> cloudletList = RandomHelper.createCloudletList(broker.getId(), RandomConstants.NUMBER_OF_VMS);
+		List<Vm> vmList = Helper.createVmList(broker.getId(), cloudletList.size());
+		List<PowerHost> hostList = Helper.createHostList(RandomConstants.NUMBER_OF_HOSTS);
+
+		PowerVmSelectionPolicy vmSelectionPolicy = new PowerVmSelectionPolicyMinimumUtilization();
+		RecordingPolicy policy = new RecordingPolicy(
+				hostList,
+				vmSelectionPolicy,
+				new PowerVmAllocationPolicyMigrationUtilizationBasedProbability(hostList, vmSelectionPolicy, 0.7));
+		PowerDatacenter datacenter = (PowerDatacenter) Helper.createDatacenter(
+				"Datacenter",
+				PowerDatacenter.class,
+				hostList,
+				policy);
+		datacenter.setDisableMigrations(false);
+
+		broker.submitVmList(vmList);
+		broker.submitCloudletList(cloudletList);
+
+		CloudSim.terminateSimulation(Constants.SIMULATION_LIMIT);
+		CloudSim.startSimulation();
+		CloudSim.stopSimulation();
+
+		return policy.getMigrations();
+	}
+
+	/**
+	 * A MAD policy that records the migrations it plans.
+	 */
+	private static class RecordingPolicy extends PowerVmAllocationPolicyMigrationMedianAbsoluteDeviation {
+
+		/** The migrations, as "time vm host". */
+		private final List<String> migrations = new ArrayList<String>();
+
+		/**
+		 * Instantiates a new recording policy.
+		 *
+		 * @param hostList the host list
+		 * @param vmSelectionPolicy the vm selection policy
+		 * @param fallbackVmAllocationPolicy the fallback vm allocation policy
+		 */
+		public RecordingPolicy(
+				List<? extends Host> hostList,
+				PowerVmSelectionPolicy vmSelectionPolicy,
+				PowerVmAllocationPolicyMigrationUtilizationBasedProbability fallbackVmAllocationPolicy) {
+			super(hostList, vmSelectionPolicy, 2.5, fallbackVmAllocationPolicy);
+		}
+
+		@Override
+		public List<Map<String, Object>> optimizeAllocation(List<? extends Vm> vmList) {
+			List<Map<String, Object>> migrationMap = super.optimizeAllocation(vmList);
+			if (migrationMap != null) {
+				for (Map<String, Object> migrate : migrationMap) {
+					migrations.add(CloudSim.clock() + " " + ((Vm) migrate.get("vm")).getId() + " "
+							+ ((Host) migrate.get("host")).getId());
+				}
+			}
+			return migrationMap;
+		}
+
+		/**
+		 * Gets the migrations.
+		 *
+		 * @return the migrations
+		 */
+		public List<String> getMigrations() {
+			return migrations;
+		}
+
+	}
+
+}
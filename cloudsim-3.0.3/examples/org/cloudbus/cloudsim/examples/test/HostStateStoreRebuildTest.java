@@ -0,0 +1,84 @@
+package org.cloudbus.cloudsim.examples.test;
+
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation
+ *               of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.List;
+
+import org.cloudbus.cloudsim.Log;
+import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.examples.power.Helper;
+import org.cloudbus.cloudsim.power.PowerDatacenter;
+import org.cloudbus.cloudsim.power.PowerHost;
+import org.cloudbus.cloudsim.power.PowerHostStateStore;
+import org.cloudbus.cloudsim.power.PowerVmAllocationPolicySimple;
+
+/**
+ * Checks that the state store of the hosts of a power datacenter is created again when a host of
+ * the datacenter is replaced or the hosts are reordered, although the number of hosts does not
+ * change, and that it is kept otherwise. It throws an {@link IllegalStateException} if it is not.
+ * <p>
+ * Usage: <tt>HostStateStoreRebuildTest</tt>.
+ */
+public class HostStateStoreRebuildTest {
+
+	/** The number of hosts. */
+	private static final int HOSTS = 4;
+
+	/**
+	 * Creates main() to run this example.
+	 *
+	 * @param args the args
+	 * @throws Exception if the datacenter cannot be created
+	 */
+	public static void main(String[] args) throws Exception {
+		Log.disable();
+		CloudSim.init(1, Calendar.getInstance(), false);
+		List<PowerHost> hostList = Helper.createHostList(HOSTS);
+		PowerDatacenter datacenter = (PowerDatacenter) Helper.createDatacenter(
+				"Datacenter",
+				PowerDatacenter.class,
+				hostList,
+				new PowerVmAllocationPolicySimple(hostList));
+		List<PowerHost> datacenterHosts = datacenter.getHostList();
+
+		PowerHostStateStore store = datacenter.getHostStateStore();
+		check(datacenter, datacenterHosts);
+		if (datacenter.getHostStateStore() != store) {
+			throw new IllegalStateException("The store is created again although the hosts did not change");
+		}
+
+		datacenterHosts.set(0, Helper.createHostList(HOSTS + 1).get(HOSTS));
+		check(datacenter, datacenterHosts);
+
+		Collections.reverse(datacenterHosts);
+		check(datacenter, datacenterHosts);
+
+		System.out.println("OK: the state store follows the replaced and reordered hosts");
+	}
+
+	/**
+	 * Checks that the state store of a datacenter holds its hosts in order.
+	 *
+	 * @param datacenter the datacenter
+	 * @param hostList the hosts of the datacenter
+	 */
+	private static void check(PowerDatacenter datacenter, List<PowerHost> hostList) {
+		PowerHostStateStore store = datacenter.getHostStateStore();
+		for (int i = 0; i < hostList.size(); i++) {
+			if (store.getHost(i) != hostList.get(i)) {
+				throw new IllegalStateException("The store holds host #" + store.getHost(i).getId() + " at " + i
+						+ " instead of host #" + hostList.get(i).getId());
+			}
+		}
+	}
+
+}
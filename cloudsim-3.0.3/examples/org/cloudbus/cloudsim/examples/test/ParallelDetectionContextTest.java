@@ -0,0 +1,152 @@
+package org.cloudbus.cloudsim.examples.test;
+
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation
+ *               of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+import java.util.Calendar;
+import java.util.List;
+import java.util.Map;
+
+import org.cloudbus.cloudsim.Log;
+import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.core.SimEntity;
+import org.cloudbus.cloudsim.core.SimEvent;
+import org.cloudbus.cloudsim.core.SimulationContext;
+import org.cloudbus.cloudsim.examples.power.Helper;
+import org.cloudbus.cloudsim.power.PowerHost;
+import org.cloudbus.cloudsim.power.PowerVmAllocationPolicyMigrationStaticThreshold;
+import org.cloudbus.cloudsim.power.PowerVmSelectionPolicyMinimumUtilization;
+
+/**
+ * Checks that the parallel detection of the over-utilized hosts runs in the simulation context of
+ * the datacenter: the detection is run at a given time of a simulation in its own context, while
+ * the default context stays at time 0, and the times recorded in the histories of the policy are
+ * checked to be the time of the simulation. It throws an {@link IllegalStateException} if they are
+ * not.
+ * <p>
+ * Usage: <tt>ParallelDetectionContextTest</tt>.
+ */
+public class ParallelDetectionContextTest {
+
+	/** The number of hosts, enough for the detection to be parallel. */
+	private static final int HOSTS = 256;
+
+	/** The time of the detection. */
+	private static final double DETECTION_TIME = 123.4;
+
+	/** The tag of the detection event. */
+	private static final int DETECT = 1000004;
+
+	/**
+	 * Creates main() to run this example.
+	 *
+	 * @param args the args
+	 */
+	public static void main(String[] args) {
+		Log.disable();
+		if (Runtime.getRuntime().availableProcessors() < 2) {
+			System.out.println("Skipped: the detection is not parallel on a single processor");
+			return;
+		}
+
+		SimulationContext context = new SimulationContext();
+		SimulationContext previous = CloudSim.bindContext(context);
+		DetectionPolicy policy;
+		try {
+			CloudSim.init(0, Calendar.getInstance(), false);
+			List<PowerHost> hosts = Helper.createHostList(HOSTS);
+			policy = new DetectionPolicy(hosts);
+			new DetectionEntity("Detection", policy);
+			CloudSim.startSimulation();
+		} finally {
+			CloudSim.bindContext(previous);
+		}
+
+		if (CloudSim.getDefaultContext().clock() == DETECTION_TIME) {
+			throw new IllegalStateException("The default context has run the simulation");
+		}
+		Map<Integer, List<Double>> timeHistory = policy.getTimeHistory();
+		if (timeHistory.size() != HOSTS) {
+			throw new IllegalStateException(timeHistory.size() + " hosts have been checked instead of " + HOSTS);
+		}
+		for (Map.Entry<Integer, List<Double>> entry : timeHistory.entrySet()) {
+			for (double time : entry.getValue()) {
+				if (time != DETECTION_TIME) {
+					throw new IllegalStateException("Host #" + entry.getKey() + " has been checked at time " + time
+							+ " instead of " + DETECTION_TIME);
+				}
+			}
+		}
+		System.out.println(String.format("OK: %d hosts checked in parallel at time %.1f", HOSTS, DETECTION_TIME));
+	}
+
+	/**
+	 * A static threshold policy whose detection of the over-utilized hosts can be called by the
+	 * test.
+	 */
+	private static class DetectionPolicy extends PowerVmAllocationPolicyMigrationStaticThreshold {
+
+		/**
+		 * Instantiates a new detection policy.
+		 *
+		 * @param hosts the hosts
+		 */
+		public DetectionPolicy(List<PowerHost> hosts) {
+			super(hosts, new PowerVmSelectionPolicyMinimumUtilization(), 0.8);
+		}
+
+		/**
+		 * Detects the over-utilized hosts.
+		 *
+		 * @return the number of over-utilized hosts
+		 */
+		public int detect() {
+			return getOverUtilizedHosts().size();
+		}
+
+	}
+
+	/**
+	 * An entity that runs the detection at the detection time.
+	 */
+	private static class DetectionEntity extends SimEntity {
+
+		/** The policy. */
+		private final DetectionPolicy policy;
+
+		/**
+		 * Instantiates a new detection entity.
+		 *
+		 * @param name the name
+		 * @param policy the policy
+		 */
+		public DetectionEntity(String name, DetectionPolicy policy) {
+			super(name);
+			this.policy = policy;
+		}
+
+		@Override
+		public void startEntity() {
+			schedule(getId(), DETECTION_TIME, DETECT);
+		}
+
+		@Override
+		public void processEvent(SimEvent ev) {
+			if (ev.getTag() == DETECT) {
+				policy.detect();
+			}
+		}
+
+		@Override
+		public void shutdownEntity() {
+		}
+
+	}
+
+}
@@ -0,0 +1,97 @@
+package org.cloudbus.cloudsim.examples.test;
+
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation
+ *               of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.cloudbus.cloudsim.Pe;
+import org.cloudbus.cloudsim.VmSchedulerTimeSharedOverSubscription;
+import org.cloudbus.cloudsim.examples.power.Constants;
+import org.cloudbus.cloudsim.lists.PeList;
+import org.cloudbus.cloudsim.power.PowerHost;
+import org.cloudbus.cloudsim.power.PowerHostStateStore;
+import org.cloudbus.cloudsim.provisioners.BwProvisionerSimple;
+import org.cloudbus.cloudsim.provisioners.PeProvisionerSimple;
+import org.cloudbus.cloudsim.provisioners.RamProvisionerSimple;
+
+/**
+ * Checks that the total MIPS, the utilization and the power of a host attached to a state store
+ * follow a change of the MIPS of one of its PEs. It throws an {@link IllegalStateException} if
+ * they do not.
+ * <p>
+ * Usage: <tt>PeMipsChangeTest</tt>.
+ */
+public class PeMipsChangeTest {
+
+	/**
+	 * Creates main() to run this example.
+	 *
+	 * @param args the args
+	 */
+	public static void main(String[] args) {
+		List<Pe> peList = new ArrayList<Pe>();
+		for (int j = 0; j < Constants.HOST_PES[0]; j++) {
+			peList.add(new Pe(j, new PeProvisionerSimple(Constants.HOST_MIPS[0])));
+		}
+		TestHost host = new TestHost(peList);
+		List<PowerHost> hostList = new ArrayList<PowerHost>();
+		hostList.add(host);
+		PowerHostStateStore store = new PowerHostStateStore(hostList);
+		host.setUtilization(host.getTotalMips() / 2);
+		double power = host.getPower();
+
+		Pe pe = host.getPeList().get(0);
+		pe.setMips(pe.getMips() / 2);
+		int totalMips = PeList.getTotalMips(host.getPeList());
+		if (host.getTotalMips() != totalMips) {
+			throw new IllegalStateException("The total MIPS of the host is " + host.getTotalMips() + " instead of "
+					+ totalMips);
+		}
+		double utilization = host.getUtilizationMips() / totalMips;
+		if (store.getUtilizationOfCpu(0) != utilization) {
+			throw new IllegalStateException("The utilization of the host is " + store.getUtilizationOfCpu(0)
+					+ " instead of " + utilization);
+		}
+		if (host.getPower() == power) {
+			throw new IllegalStateException("The power of the host did not change with its utilization");
+		}
+		System.out.println(String.format("OK: the store follows the MIPS of the PEs, %d MIPS at %.3f utilization",
+				totalMips, utilization));
+	}
+
+	/**
+	 * A host of which the utilization is set directly.
+	 */
+	private static class TestHost extends PowerHost {
+
+		/**
+		 * Instantiates a new host.
+		 *
+		 * @param peList the PEs
+		 */
+		public TestHost(List<Pe> peList) {
+			super(0, new RamProvisionerSimple(Constants.HOST_RAM[0]), new BwProvisionerSimple(Constants.HOST_BW),
+					Constants.HOST_STORAGE[0], peList, new VmSchedulerTimeSharedOverSubscription(peList),
+					Constants.HOST_POWER[0]);
+		}
+
+		/**
+		 * Sets the utilization of the CPU.
+		 *
+		 * @param mips the utilization in MIPS
+		 */
+		public void setUtilization(double mips) {
+			setUtilizationMips(mips);
+		}
+
+	}
+
+}
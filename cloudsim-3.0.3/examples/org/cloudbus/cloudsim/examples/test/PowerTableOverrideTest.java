@@ -0,0 +1,148 @@
+package org.cloudbus.cloudsim.examples.test;
+
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation
+ *               of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.cloudbus.cloudsim.Pe;
+import org.cloudbus.cloudsim.VmSchedulerTimeSharedOverSubscription;
+import org.cloudbus.cloudsim.examples.power.Constants;
+import org.cloudbus.cloudsim.power.PowerHost;
+import org.cloudbus.cloudsim.power.PowerHostStateStore;
+import org.cloudbus.cloudsim.power.PowerHostUtilizationHistory;
+import org.cloudbus.cloudsim.power.models.PowerModel;
+import org.cloudbus.cloudsim.provisioners.BwProvisionerSimple;
+import org.cloudbus.cloudsim.provisioners.PeProvisionerSimple;
+import org.cloudbus.cloudsim.provisioners.RamProvisionerSimple;
+
+/**
+ * Checks that the energy of a host whose class overrides the power or the energy of
+ * {@link PowerHost} is not computed from the power table of its power model by the state store,
+ * but left to the host, while the energy of the other hosts is computed from the table. It throws
+ * an {@link IllegalStateException} if it is not.
+ * <p>
+ * Usage: <tt>PowerTableOverrideTest</tt>.
+ */
+public class PowerTableOverrideTest {
+
+	/**
+	 * Creates main() to run this example.
+	 *
+	 * @param args the args
+	 */
+	public static void main(String[] args) {
+		List<PowerHost> hostList = new ArrayList<PowerHost>();
+		List<Pe> peList = createPeList();
+		hostList.add(new PowerHostUtilizationHistory(0, new RamProvisionerSimple(Constants.HOST_RAM[0]),
+				new BwProvisionerSimple(Constants.HOST_BW), Constants.HOST_STORAGE[0], peList,
+				new VmSchedulerTimeSharedOverSubscription(peList), Constants.HOST_POWER[0]));
+		hostList.add(new DoubledPowerHost(1, createPeList(), Constants.HOST_POWER[0]));
+		hostList.add(new DoubledPowerSubHost(2, createPeList(), Constants.HOST_POWER[0]));
+		hostList.add(new HalvedEnergyHost(3, createPeList(), Constants.HOST_POWER[0]));
+		boolean[] hasTable = { true, false, false, false };
+
+		PowerHostStateStore store = new PowerHostStateStore(hostList);
+		store.computeEnergyLinearInterpolation(300);
+		for (int i = 0; i < hostList.size(); i++) {
+			PowerHost host = hostList.get(i);
+			if ((host.getPowerTable() != null) != hasTable[i]) {
+				throw new IllegalStateException(host.getClass().getSimpleName() + " should "
+						+ (hasTable[i] ? "" : "not ") + "have a power table");
+			}
+			if (Double.isNaN(store.getEnergy(i)) == hasTable[i]) {
+				throw new IllegalStateException("The energy of " + host.getClass().getSimpleName() + " should be "
+						+ (hasTable[i] ? "computed by the store" : "left to the host"));
+			}
+		}
+		System.out.println(String.format("OK: the energy of %d overriding hosts is left to the hosts",
+				hostList.size() - 1));
+	}
+
+	/**
+	 * Creates the PEs of a host.
+	 *
+	 * @return the PEs
+	 */
+	private static List<Pe> createPeList() {
+		List<Pe> peList = new ArrayList<Pe>();
+		for (int j = 0; j < Constants.HOST_PES[0]; j++) {
+			peList.add(new Pe(j, new PeProvisionerSimple(Constants.HOST_MIPS[0])));
+		}
+		return peList;
+	}
+
+	/**
+	 * A host that consumes twice the power of its power model.
+	 */
+	private static class DoubledPowerHost extends PowerHost {
+
+		/**
+		 * Instantiates a new host.
+		 *
+		 * @param id the id
+		 * @param peList the pe list
+		 * @param powerModel the power model
+		 */
+		public DoubledPowerHost(int id, List<Pe> peList, PowerModel powerModel) {
+			super(id, new RamProvisionerSimple(Constants.HOST_RAM[0]), new BwProvisionerSimple(Constants.HOST_BW),
+					Constants.HOST_STORAGE[0], peList, new VmSchedulerTimeSharedOverSubscription(peList), powerModel);
+		}
+
+		@Override
+		protected double getPower(double utilization) {
+			return 2 * super.getPower(utilization);
+		}
+
+	}
+
+	/**
+	 * A subclass of a host that overrides the power, which does not override it itself.
+	 */
+	private static class DoubledPowerSubHost extends DoubledPowerHost {
+
+		/**
+		 * Instantiates a new host.
+		 *
+		 * @param id the id
+		 * @param peList the pe list
+		 * @param powerModel the power model
+		 */
+		public DoubledPowerSubHost(int id, List<Pe> peList, PowerModel powerModel) {
+			super(id, peList, powerModel);
+		}
+
+	}
+
+	/**
+	 * A host that consumes half the energy of its power model.
+	 */
+	private static class HalvedEnergyHost extends PowerHost {
+
+		/**
+		 * Instantiates a new host.
+		 *
+		 * @param id the id
+		 * @param peList the pe list
+		 * @param powerModel the power model
+		 */
+		public HalvedEnergyHost(int id, List<Pe> peList, PowerModel powerModel) {
+			super(id, new RamProvisionerSimple(Constants.HOST_RAM[0]), new BwProvisionerSimple(Constants.HOST_BW),
+					Constants.HOST_STORAGE[0], peList, new VmSchedulerTimeSharedOverSubscription(peList), powerModel);
+		}
+
+		@Override
+		public double getEnergyLinearInterpolation(double fromUtilization, double toUtilization, double time) {
+			return super.getEnergyLinearInterpolation(fromUtilization, toUtilization, time) / 2;
+		}
+
+	}
+
+}
@@ -0,0 +1,82 @@
+package org.cloudbus.cloudsim.examples.test;
+
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation
+ *               of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+import java.util.Arrays;
+
+import org.apache.commons.math3.stat.regression.SimpleRegression;
+import org.cloudbus.cloudsim.util.MathUtil;
+
+/**
+ * Checks that the robust loess estimates of {@link MathUtil} are the ones of the two weighted
+ * regressions when the residuals of the first regression are degenerate: all zero, in which case
+ * the bisquare weights are all positive, or zero for most of the values only, in which case enough
+ * bisquare weights are zero for the second regression to be weighted. It throws an
+ * {@link IllegalStateException} if the estimates differ.
+ * <p>
+ * Usage: <tt>RobustLoessDegenerateTest</tt>.
+ */
+public class RobustLoessDegenerateTest {
+
+	/**
+	 * Creates main() to run this example.
+	 *
+	 * @param args the args
+	 */
+	public static void main(String[] args) {
+		// a constant history, whose residuals are all zero
+		check(new double[] { 0.5, 0.5, 0.5, 0.5, 0.5, 0.5, 0.5, 0.5, 0.5, 0.5 }, false);
+		// a linear history, whose residuals are zero up to rounding
+		check(new double[] { 0.1, 0.2, 0.3, 0.4, 0.5, 0.6, 0.7, 0.8, 0.9, 1.0 }, true);
+		// a flat history with outliers that cancel out, whose residuals are mostly zero
+		check(new double[] { 0, 0, 0.2, -0.2, 0, 0, 0, 0, -0.2, 0.2 }, true);
+		System.out.println("OK: the robust loess estimates of degenerate residuals are the expected ones");
+	}
+
+	/**
+	 * Compares the robust loess estimates of a history to the ones of the two weighted
+	 * regressions.
+	 *
+	 * @param y the history
+	 * @param weighted whether the second regression is expected to be weighted
+	 */
+	private static void check(double[] y, boolean weighted) {
+		int n = y.length;
+		double[] x = new double[n];
+		for (int i = 0; i < n; i++) {
+			x[i] = i + 1;
+		}
+		SimpleRegression tricubeRegression = MathUtil.createWeigthedLinearRegression(x, y, MathUtil
+				.getTricubeWeigts(n));
+		double[] residuals = new double[n];
+		for (int i = 0; i < n; i++) {
+			residuals[i] = y[i] - tricubeRegression.predict(x[i]);
+		}
+		double[] weights = MathUtil.getTricubeBisquareWeigts(residuals);
+		int numZeroWeigths = 0;
+		for (double weight : weights) {
+			if (weight <= 0) {
+				numZeroWeigths++;
+			}
+		}
+		if ((numZeroWeigths >= 0.4 * n) != weighted) {
+			throw new IllegalStateException("The second regression of " + Arrays.toString(y) + " is "
+					+ (weighted ? "not " : "") + "weighted, the bisquare weights are " + Arrays.toString(weights));
+		}
+		double[] expected = MathUtil.createWeigthedLinearRegression(x, y, weights).regress().getParameterEstimates();
+
+		double[] estimates = MathUtil.getRobustLoessParameterEstimates(y);
+		if (!Arrays.equals(estimates, expected)) {
+			throw new IllegalStateException("The estimates of " + Arrays.toString(y) + " are "
+					+ Arrays.toString(estimates) + " instead of " + Arrays.toString(expected));
+		}
+	}
+
+}
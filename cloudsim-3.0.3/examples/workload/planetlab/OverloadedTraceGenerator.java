@@ -1,43 +1,28 @@
 package workload.planetlab;
 
-import java.io.BufferedReader;
-import java.io.File;
-import java.io.FileReader;
-import java.util.ArrayList;
+import java.io.IOException;
+
+import org.cloudbus.cloudsim.util.TraceRepository;
 
 import com.cloudbus.cloudsim.examples.power.brownout.Brownout;
 
 public class OverloadedTraceGenerator {
-	
-//    public static void main(String[] args){	
-	 ArrayList<Double> overloadedArray = new ArrayList<Double>();
-	 
-	 {
-	 
-	try {
-	   
-
-		FileReader fileReader;  
-    	BufferedReader bufferedReader;
 
-	    fileReader = new FileReader("./cloudsim-3.0.3/examples/workload/planetlab/overloadedTrace" + Brownout.workloadId); 
-	    bufferedReader = new BufferedReader(fileReader);  
-	    String line = "";  
-	    while((line = bufferedReader.readLine()) != null){    
-	        overloadedArray.add(Double.parseDouble(line));
-	        }  
-	    
-		bufferedReader.close();  
-		fileReader.close(); 
-	    } catch (Exception e) {  
-	        e.printStackTrace();  
-	    }  
-//	System.out.println(overloadedArray);
+	/** The path of the overloaded traces, to which the workload id is appended. */
+	private static final String TRACE_PATH = "./cloudsim-3.0.3/examples/workload/planetlab/overloadedTrace";
 
+	/**
+	 * Gets the overloaded trace of the current workload. The trace is read once and shared by all
+	 * the cloudlets, so it must not be modified.
+	 * 
+	 * @return the overloaded trace, or an empty trace if it cannot be read
+	 */
+	public static double[] getOverloadedTrace() {
+		try {
+			return TraceRepository.getTrace(TRACE_PATH + Brownout.workloadId);
+		} catch (IOException e) {
+			e.printStackTrace();
+			return new double[0];
+		}
+	}
 }
-	 
-	 public ArrayList<Double> getOverloadedTrace(){
-		 return overloadedArray;
-	 }
-}
-
@@ -10,6 +10,7 @@ package org.cloudbus.cloudsim;
 
 import java.text.DecimalFormat;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.LinkedList;
 import java.util.List;
 
@@ -149,8 +150,11 @@ public class Cloudlet {
 	/** The required files. */
 	private List<String> requiredFiles = null;   // list of required filenames
 
-	/** The optional components of Cloudlet*/
-	private List<CloudletOptionalComponent> optionalComponentsList; 
+	/** The optional components of Cloudlet, shared with other cloudlets. */
+	private CloudletOptionalComponentCatalog optionalComponentCatalog;
+
+	/** The indexes of the optional components of this Cloudlet that are disabled. */
+	private BitSet disabledOptionalComponents;
 	/**
 	 * Allocates a new Cloudlet object. The Cloudlet length, input and output file sizes should be
 	 * greater than or equal to 1. By default this constructor sets the history of this object.
@@ -373,6 +377,48 @@ public class Cloudlet {
 			final UtilizationModel utilizationModelBw,
 			final List<CloudletOptionalComponent> optionalComponentsList,
 			final boolean browoutEnabled) {
+		this(
+				cloudletId,
+				cloudletLength,
+				pesNumber,
+				cloudletFileSize,
+				cloudletOutputSize,
+				utilizationModelCpu,
+				utilizationModelRam,
+				utilizationModelBw,
+				optionalComponentsList == null ? null : new CloudletOptionalComponentCatalog(optionalComponentsList),
+				browoutEnabled);
+	}
+
+	/**
+	 * Allocates a new Cloudlet object with optional components. The catalog of components can be
+	 * shared by many cloudlets, each of them keeping its own enabled state of the components.
+	 * 
+	 * @param cloudletId the unique ID of this Cloudlet
+	 * @param cloudletLength the length or size (in MI) of this cloudlet to be executed in a
+	 *            PowerDatacenter
+	 * @param pesNumber the pes number
+	 * @param cloudletFileSize the file size (in byte) of this cloudlet <tt>BEFORE</tt> submitting
+	 *            to a PowerDatacenter
+	 * @param cloudletOutputSize the file size (in byte) of this cloudlet <tt>AFTER</tt> finish
+	 *            executing by a PowerDatacenter
+	 * @param utilizationModelCpu the utilization model cpu
+	 * @param utilizationModelRam the utilization model ram
+	 * @param utilizationModelBw the utilization model bw
+	 * @param optionalComponentCatalog the catalog of optional components
+	 * @param browoutEnabled whether the brownout is enabled
+	 */
+	public Cloudlet(
+			final int cloudletId,
+			final long cloudletLength,
+			final int pesNumber,
+			final long cloudletFileSize,
+			final long cloudletOutputSize,
+			final UtilizationModel utilizationModelCpu,
+			final UtilizationModel utilizationModelRam,
+			final UtilizationModel utilizationModelBw,
+			final CloudletOptionalComponentCatalog optionalComponentCatalog,
+			final boolean browoutEnabled) {
 		this(
 				cloudletId,
 				cloudletLength,
@@ -388,7 +434,10 @@ public class Cloudlet {
 		costPerBw = 0.0;
 
 		requiredFiles = new LinkedList<String>();
-		this.optionalComponentsList = optionalComponentsList;
+		this.optionalComponentCatalog = optionalComponentCatalog;
+		if (optionalComponentCatalog != null) {
+			disabledOptionalComponents = optionalComponentCatalog.createDisabledSet();
+		}
 	}
 	
 
@@ -1496,8 +1545,58 @@ public class Cloudlet {
 		return getUtilizationModelBw().getUtilization(time);
 	}
 	
+	/**
+	 * Gets the optional components, in the order they were added to the catalog.
+	 * 
+	 * @return the unmodifiable list of optional components, or null if the cloudlet has none
+	 */
 	public List<CloudletOptionalComponent> getCloudletOptionalComponentList(){
-		return optionalComponentsList;
+		if (optionalComponentCatalog == null) {
+			return null;
+		}
+		return optionalComponentCatalog.getComponents();
+	}
+
+	/**
+	 * Gets the catalog of optional components.
+	 * 
+	 * @return the catalog, or null if the cloudlet has no optional components
+	 */
+	public CloudletOptionalComponentCatalog getOptionalComponentCatalog() {
+		return optionalComponentCatalog;
+	}
+
+	/**
+	 * Checks whether an optional component is enabled for this cloudlet.
+	 * 
+	 * @param index the index of the component in the catalog
+	 * @return true, if the component is enabled
+	 */
+	public boolean isOptionalComponentEnabled(int index) {
+		return !disabledOptionalComponents.get(index);
+	}
+
+	/**
+	 * Enables or disables an optional component for this cloudlet.
+	 * 
+	 * @param index the index of the component in the catalog
+	 * @param enabled whether the component is enabled
+	 */
+	public void setOptionalComponentEnabled(int index, boolean enabled) {
+		if (enabled) {
+			disabledOptionalComponents.clear(index);
+		} else {
+			disabledOptionalComponents.set(index);
+		}
+	}
+
+	/**
+	 * Enables all the optional components of this cloudlet.
+	 */
+	public void enableOptionalComponents() {
+		if (disabledOptionalComponents != null) {
+			disabledOptionalComponents.clear();
+		}
 	}
 
 }
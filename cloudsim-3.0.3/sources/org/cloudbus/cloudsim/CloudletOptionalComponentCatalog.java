@@ -0,0 +1,369 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The CloudletOptionalComponentCatalog class is an immutable set of optional components that can
+ * be shared by many cloudlets. The utilization, price and tag of the components are copied when
+ * the catalog is created, and the components and their tag groups are sorted once by each of the orders used by
+ * the brownout policies, so that no sorting is needed when the dimmer is triggered. The enabled state
+ * of the components is not part of the catalog: each cloudlet keeps its own.
+ *
+ * @see Cloudlet#isOptionalComponentEnabled(int)
+ * @since CloudSim Toolkit 3.0
+ */
+public class CloudletOptionalComponentCatalog {
+
+	/** The order in which the components were added to the catalog. */
+	public static final int ORDER_INSERTION = 0;
+
+	/** The ascending order of utilization ({@link CompareByComponentUtilization}). */
+	public static final int ORDER_UTILIZATION = 1;
+
+	/** The ascending order of price ({@link CompareByComponentPrice}). */
+	public static final int ORDER_PRICE = 2;
+
+	/**
+	 * The descending order of utilization and price ratio
+	 * ({@link CompareByComponentUtilizationAndPriceRatio}).
+	 */
+	public static final int ORDER_UTILIZATION_AND_PRICE_RATIO = 3;
+
+	/** The components, in insertion order. */
+	private final List<CloudletOptionalComponent> components;
+
+	/** The utilization of the components. */
+	private final double[] utilizations;
+
+	/** The price of the components. */
+	private final double[] prices;
+
+	/** The tags of the components. */
+	private final String[] tags;
+
+	/** The components that are disabled when a cloudlet is created. */
+	private final BitSet initiallyDisabled;
+
+	/** The indexes of the components in each order. */
+	private final int[][] orders;
+
+	/** The cumulative utilization of the components in each order. */
+	private final double[][] cumulativeUtilizations;
+
+	/** The cumulative price of the components in each order. */
+	private final double[][] cumulativePrices;
+
+	/** The tag group of the components, numbered by first occurrence of the tag. */
+	private final int[] tagGroups;
+
+	/** The number of distinct tags. */
+	private final int tagGroupCount;
+
+	/** The tag groups, by ascending price and utilization ratio. */
+	private final int[] tagGroupOrder;
+
+	/** The utilization of the tag groups, by ascending price and utilization ratio. */
+	private final double[] tagGroupUtilizations;
+
+	/** The price of the tag groups, by ascending price and utilization ratio. */
+	private final double[] tagGroupPrices;
+
+	/** The utilization of the tag groups ranked after each rank. */
+	private final double[] tagGroupSuffixUtilizations;
+
+	/**
+	 * Instantiates a new catalog. Sorting is stable, so the components that compare equal keep
+	 * their insertion order.
+	 *
+	 * @param components the components
+	 */
+	public CloudletOptionalComponentCatalog(List<CloudletOptionalComponent> components) {
+		int size = components.size();
+		this.components = Collections.unmodifiableList(new ArrayList<CloudletOptionalComponent>(components));
+		utilizations = new double[size];
+		prices = new double[size];
+		tags = new String[size];
+		initiallyDisabled = new BitSet(size);
+		for (int i = 0; i < size; i++) {
+			CloudletOptionalComponent component = components.get(i);
+			utilizations[i] = component.getComponentUtilization();
+			prices[i] = component.getComponentPrice();
+			tags[i] = component.getComponentTag();
+			if (!component.isEnabled()) {
+				initiallyDisabled.set(i);
+			}
+		}
+
+		orders = new int[4][];
+		orders[ORDER_INSERTION] = new int[size];
+		for (int i = 0; i < size; i++) {
+			orders[ORDER_INSERTION][i] = i;
+		}
+		orders[ORDER_UTILIZATION] = sort(new CompareByComponentUtilization());
+		orders[ORDER_PRICE] = sort(new CompareByComponentPrice());
+		orders[ORDER_UTILIZATION_AND_PRICE_RATIO] = sort(new CompareByComponentUtilizationAndPriceRatio());
+
+		// the sums are accumulated rank by rank, as the policies used to do, so they are exactly equal
+		cumulativeUtilizations = new double[orders.length][size + 1];
+		cumulativePrices = new double[orders.length][size + 1];
+		for (int order = 0; order < orders.length; order++) {
+			for (int rank = 0; rank < size; rank++) {
+				int index = orders[order][rank];
+				cumulativeUtilizations[order][rank + 1] = cumulativeUtilizations[order][rank] + utilizations[index];
+				cumulativePrices[order][rank + 1] = cumulativePrices[order][rank] + prices[index];
+			}
+		}
+
+		tagGroups = new int[size];
+		Map<String, Integer> groupsByTag = new HashMap<String, Integer>();
+		for (int i = 0; i < size; i++) {
+			Integer group = groupsByTag.get(tags[i]);
+			if (group == null) {
+				group = groupsByTag.size();
+				groupsByTag.put(tags[i], group);
+			}
+			tagGroups[i] = group;
+		}
+		tagGroupCount = groupsByTag.size();
+
+		tagGroupOrder = new int[tagGroupCount];
+		tagGroupUtilizations = new double[tagGroupCount];
+		tagGroupPrices = new double[tagGroupCount];
+		tagGroupSuffixUtilizations = new double[tagGroupCount + 1];
+		sortTagGroups();
+	}
+
+	/**
+	 * Gets the number of components.
+	 *
+	 * @return the number of components
+	 */
+	public int size() {
+		return utilizations.length;
+	}
+
+	/**
+	 * Gets the components, in insertion order.
+	 *
+	 * @return the unmodifiable list of components
+	 */
+	public List<CloudletOptionalComponent> getComponents() {
+		return components;
+	}
+
+	/**
+	 * Gets the index of the component at a given rank of an order.
+	 *
+	 * @param order the order, one of the <tt>ORDER_</tt> constants
+	 * @param rank the rank of the component in the order
+	 * @return the index of the component
+	 */
+	public int getComponentIndex(int order, int rank) {
+		return orders[order][rank];
+	}
+
+	/**
+	 * Gets the utilization of a component.
+	 *
+	 * @param index the index of the component
+	 * @return the utilization
+	 */
+	public double getUtilization(int index) {
+		return utilizations[index];
+	}
+
+	/**
+	 * Gets the price of a component.
+	 *
+	 * @param index the index of the component
+	 * @return the price
+	 */
+	public double getPrice(int index) {
+		return prices[index];
+	}
+
+	/**
+	 * Gets the tag of a component.
+	 *
+	 * @param index the index of the component
+	 * @return the tag
+	 */
+	public String getTag(int index) {
+		return tags[index];
+	}
+
+	/**
+	 * Gets the total utilization of the components ranked before a given rank of an order.
+	 *
+	 * @param order the order, one of the <tt>ORDER_</tt> constants
+	 * @param rank the rank, from 0 to the number of components
+	 * @return the cumulative utilization
+	 */
+	public double getCumulativeUtilization(int order, int rank) {
+		return cumulativeUtilizations[order][rank];
+	}
+
+	/**
+	 * Gets the total price of the components ranked before a given rank of an order.
+	 *
+	 * @param order the order, one of the <tt>ORDER_</tt> constants
+	 * @param rank the rank, from 0 to the number of components
+	 * @return the cumulative price
+	 */
+	public double getCumulativePrice(int order, int rank) {
+		return cumulativePrices[order][rank];
+	}
+
+	/**
+	 * Gets the tag group of a component. The components with the same tag are in the same group,
+	 * and are disabled together.
+	 *
+	 * @param index the index of the component
+	 * @return the tag group, from 0 to the number of tag groups
+	 */
+	public int getTagGroup(int index) {
+		return tagGroups[index];
+	}
+
+	/**
+	 * Gets the number of tag groups, i.e. of distinct tags.
+	 *
+	 * @return the number of tag groups
+	 */
+	public int getTagGroupCount() {
+		return tagGroupCount;
+	}
+
+	/**
+	 * Gets the tag groups, by ascending price and utilization ratio. The groups with no
+	 * utilization come last. The returned array is not copied and must not be modified.
+	 *
+	 * @return the tag groups, by rank
+	 */
+	int[] getTagGroupOrder() {
+		return tagGroupOrder;
+	}
+
+	/**
+	 * Gets the utilization of the tag groups, by ascending price and utilization ratio. The
+	 * returned array is not copied and must not be modified.
+	 *
+	 * @return the utilization of the tag groups, by rank
+	 */
+	double[] getTagGroupUtilizations() {
+		return tagGroupUtilizations;
+	}
+
+	/**
+	 * Gets the price of the tag groups, by ascending price and utilization ratio. The returned
+	 * array is not copied and must not be modified.
+	 *
+	 * @return the price of the tag groups, by rank
+	 */
+	double[] getTagGroupPrices() {
+		return tagGroupPrices;
+	}
+
+	/**
+	 * Gets the utilization of the tag groups ranked after each rank, counting only the groups that
+	 * reduce the utilization. The returned array is not copied and must not be modified.
+	 *
+	 * @return the suffix utilizations, from rank 0 to the number of tag groups
+	 */
+	double[] getTagGroupSuffixUtilizations() {
+		return tagGroupSuffixUtilizations;
+	}
+
+	/**
+	 * Creates the enabled state of the components for a new cloudlet.
+	 *
+	 * @return the set of the indexes of the disabled components
+	 */
+	BitSet createDisabledSet() {
+		return (BitSet) initiallyDisabled.clone();
+	}
+
+	/**
+	 * Sorts the indexes of the components with a comparator of components.
+	 *
+	 * @param comparator the comparator
+	 * @return the sorted indexes
+	 */
+	private int[] sort(final Comparator<Object> comparator) {
+		List<Integer> indexes = new ArrayList<Integer>(size());
+		for (int i = 0; i < size(); i++) {
+			indexes.add(i);
+		}
+		Collections.sort(indexes, new Comparator<Integer>() {
+
+			@Override
+			public int compare(Integer index1, Integer index2) {
+				return comparator.compare(components.get(index1), components.get(index2));
+			}
+		});
+		int[] order = new int[size()];
+		for (int i = 0; i < order.length; i++) {
+			order[i] = indexes.get(i);
+		}
+		return order;
+	}
+
+	/**
+	 * Computes the utilization and price of the tag groups, and sorts the groups by ascending price
+	 * and utilization ratio. The groups with no utilization come last.
+	 */
+	private void sortTagGroups() {
+		final double[] utilizations = new double[tagGroupCount];
+		final double[] prices = new double[tagGroupCount];
+		for (int index = 0; index < size(); index++) {
+			int group = tagGroups[index];
+			utilizations[group] += this.utilizations[index];
+			prices[group] += this.prices[index];
+		}
+
+		Integer[] groups = new Integer[tagGroupCount];
+		for (int group = 0; group < tagGroupCount; group++) {
+			groups[group] = group;
+		}
+		Arrays.sort(groups, new Comparator<Integer>() {
+
+			@Override
+			public int compare(Integer group1, Integer group2) {
+				boolean useful1 = utilizations[group1] > 0;
+				boolean useful2 = utilizations[group2] > 0;
+				if (useful1 != useful2) {
+					return useful1 ? -1 : 1;
+				}
+				if (!useful1) {
+					return 0;
+				}
+				return Double.compare(prices[group1] / utilizations[group1], prices[group2]
+						/ utilizations[group2]);
+			}
+		});
+
+		for (int rank = tagGroupCount - 1; rank >= 0; rank--) {
+			int group = groups[rank];
+			tagGroupOrder[rank] = group;
+			tagGroupUtilizations[rank] = utilizations[group];
+			tagGroupPrices[rank] = prices[group];
+			tagGroupSuffixUtilizations[rank] = tagGroupSuffixUtilizations[rank + 1] + Math.max(0, utilizations[group]);
+		}
+	}
+
+}
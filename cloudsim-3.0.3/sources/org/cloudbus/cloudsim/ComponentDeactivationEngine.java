@@ -0,0 +1,287 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * The ComponentDeactivationEngine class chooses the optional components of a cloudlet to be
+ * disabled when the dimmer requires a utilization reduction. It supports two modes:
+ * <ul>
+ * <li>the cut mode disables the first components of an order of the catalog, until their total
+ * utilization is the nearest to the required reduction. The cut is found by a binary search on the
+ * cumulative utilization of the catalog, in O(log k) for k components;</li>
+ * <li>the knapsack mode disables the tag groups that reach the required reduction with the lowest
+ * revenue loss, i.e. it solves the 0/1 covering knapsack exactly by branch and bound. The groups are
+ * explored by ascending price and utilization ratio, and bounded by the fractional relaxation.</li>
+ * </ul>
+ * The knapsack search is limited to a number of nodes; when the limit is reached, the best
+ * selection found so far is returned, which is never worse than the greedy one.
+ * <p>
+ * An engine keeps working buffers, so it must not be shared between threads.
+ *
+ * @see CloudletOptionalComponentCatalog
+ * @since CloudSim Toolkit 3.0
+ */
+public class ComponentDeactivationEngine {
+
+	/** The default maximum number of nodes of a knapsack search. */
+	public static final int DEFAULT_MAX_NODES = 1 << 20;
+
+	/** The maximum number of nodes of a knapsack search. */
+	private final int maxNodes;
+
+	/** The utilization of the tag groups of the current search, by ascending price and utilization ratio. */
+	private double[] groupUtilizations;
+
+	/** The price of the tag groups of the current search, by ascending price and utilization ratio. */
+	private double[] groupPrices;
+
+	/** The tag groups of the current search, by ascending price and utilization ratio. */
+	private int[] groupOrder;
+
+	/** The utilization of the tag groups of the current search ranked after each rank. */
+	private double[] suffixUtilizations;
+
+	/** The tag groups of the current selection, by rank. */
+	private boolean[] selected = new boolean[0];
+
+	/** The tag groups of the best selection, by rank. */
+	private boolean[] bestSelection = new boolean[0];
+
+	/** The number of tag groups of the current search. */
+	private int groupCount;
+
+	/** The revenue loss of the best selection. */
+	private double bestPrice;
+
+	/** The number of nodes left to the current search. */
+	private int nodesLeft;
+
+	/**
+	 * Instantiates a new engine.
+	 */
+	public ComponentDeactivationEngine() {
+		this(DEFAULT_MAX_NODES);
+	}
+
+	/**
+	 * Instantiates a new engine.
+	 *
+	 * @param maxNodes the maximum number of nodes of a knapsack search
+	 */
+	public ComponentDeactivationEngine(int maxNodes) {
+		if (maxNodes <= 0) {
+			throw new IllegalArgumentException("The maximum number of nodes should be positive, but is:" + maxNodes);
+		}
+		this.maxNodes = maxNodes;
+	}
+
+	/**
+	 * Gets the rank of the last component to be disabled in the cut mode. The components of ranks 0
+	 * to the returned rank are disabled: the first one alone if its utilization reaches the
+	 * required reduction, otherwise the ones whose total utilization is the nearest to it, keeping
+	 * the smaller total on a tie, and all of them if their total is below it.
+	 *
+	 * @param catalog the catalog of the components
+	 * @param order the order of the components, one of the
+	 *            <tt>CloudletOptionalComponentCatalog.ORDER_</tt> constants
+	 * @param configuredUtilization the required utilization reduction
+	 * @return the rank of the last component to be disabled, or -1 if there are no components
+	 */
+	public int getCutRank(CloudletOptionalComponentCatalog catalog, int order, double configuredUtilization) {
+		int size = catalog.size();
+		if (size == 0) {
+			return -1;
+		}
+		if (catalog.getCumulativeUtilization(order, 1) >= configuredUtilization) {
+			return 0;
+		}
+
+		// finds the first rank whose cumulative utilization, the rank included, exceeds the reduction
+		int low = 1;
+		int high = size;
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (catalog.getCumulativeUtilization(order, middle + 1) > configuredUtilization) {
+				high = middle;
+			} else {
+				low = middle + 1;
+			}
+		}
+		if (low == size) {
+			return size - 1;
+		}
+		double utilizationBefore = catalog.getCumulativeUtilization(order, low);
+		double utilizationAfter = catalog.getCumulativeUtilization(order, low + 1);
+		if ((configuredUtilization - utilizationBefore) <= (utilizationAfter - configuredUtilization)) {
+			return low - 1;
+		}
+		return low;
+	}
+
+	/**
+	 * Disables the components of a cloudlet in the cut mode, together with the components sharing
+	 * a tag with them.
+	 *
+	 * @param cloudlet the cloudlet
+	 * @param order the order of the components
+	 * @param configuredUtilization the required utilization reduction
+	 * @return the number of disabled tag groups
+	 */
+	public int disableByCut(Cloudlet cloudlet, int order, double configuredUtilization) {
+		CloudletOptionalComponentCatalog catalog = cloudlet.getOptionalComponentCatalog();
+		int cutRank = getCutRank(catalog, order, configuredUtilization);
+		BitSet groups = new BitSet(catalog.getTagGroupCount());
+		for (int rank = 0; rank <= cutRank; rank++) {
+			groups.set(catalog.getTagGroup(catalog.getComponentIndex(order, rank)));
+		}
+		disableGroups(cloudlet, groups);
+		return groups.cardinality();
+	}
+
+	/**
+	 * Gets the tag groups to be disabled in the knapsack mode: the ones whose total utilization
+	 * reaches the required reduction with the lowest total price. If all the groups together do not
+	 * reach it, all the groups that reduce the utilization are returned; the groups without
+	 * utilization would only lose revenue.
+	 *
+	 * @param catalog the catalog of the components
+	 * @param configuredUtilization the required utilization reduction
+	 * @return the tag groups to be disabled
+	 */
+	public BitSet getMinimumRevenueLossGroups(CloudletOptionalComponentCatalog catalog, double configuredUtilization) {
+		prepareGroups(catalog);
+		BitSet groups = new BitSet(groupCount);
+		if (suffixUtilizations[0] < configuredUtilization) {
+			// the groups with a utilization are ranked first
+			for (int rank = 0; rank < groupCount && groupUtilizations[rank] > 0; rank++) {
+				groups.set(groupOrder[rank]);
+			}
+			return groups;
+		}
+
+		// the greedy selection is the initial best one, so that the search can stop at any time
+		bestPrice = 0;
+		double utilization = 0;
+		for (int rank = 0; rank < groupCount; rank++) {
+			bestSelection[rank] = utilization < configuredUtilization;
+			if (bestSelection[rank]) {
+				utilization += groupUtilizations[rank];
+				bestPrice += groupPrices[rank];
+			}
+		}
+		Arrays.fill(selected, 0, groupCount, false);
+		nodesLeft = maxNodes;
+		search(0, configuredUtilization, 0, 0);
+
+		for (int rank = 0; rank < groupCount; rank++) {
+			if (bestSelection[rank]) {
+				groups.set(groupOrder[rank]);
+			}
+		}
+		return groups;
+	}
+
+	/**
+	 * Disables the components of a cloudlet in the knapsack mode.
+	 *
+	 * @param cloudlet the cloudlet
+	 * @param configuredUtilization the required utilization reduction
+	 * @return the number of disabled tag groups
+	 */
+	public int disableByMinimumRevenueLoss(Cloudlet cloudlet, double configuredUtilization) {
+		BitSet groups = getMinimumRevenueLossGroups(cloudlet.getOptionalComponentCatalog(), configuredUtilization);
+		disableGroups(cloudlet, groups);
+		return groups.cardinality();
+	}
+
+	/**
+	 * Disables the components of a cloudlet that belong to some tag groups.
+	 *
+	 * @param cloudlet the cloudlet
+	 * @param groups the tag groups
+	 */
+	protected void disableGroups(Cloudlet cloudlet, BitSet groups) {
+		CloudletOptionalComponentCatalog catalog = cloudlet.getOptionalComponentCatalog();
+		for (int index = 0; index < catalog.size(); index++) {
+			if (groups.get(catalog.getTagGroup(index))) {
+				cloudlet.setOptionalComponentEnabled(index, false);
+			}
+		}
+	}
+
+	/**
+	 * Explores the selections of the tag groups from a given rank, depth first, including each
+	 * group before excluding it.
+	 *
+	 * @param rank the rank of the group to be decided
+	 * @param configuredUtilization the required utilization reduction
+	 * @param utilization the utilization of the groups selected so far
+	 * @param price the price of the groups selected so far
+	 */
+	private void search(int rank, double configuredUtilization, double utilization, double price) {
+		if (utilization >= configuredUtilization) {
+			if (price < bestPrice) {
+				bestPrice = price;
+				System.arraycopy(selected, 0, bestSelection, 0, groupCount);
+			}
+			return;
+		}
+		if (rank == groupCount || nodesLeft-- <= 0
+				|| utilization + suffixUtilizations[rank] < configuredUtilization
+				|| price + getFractionalPrice(rank, configuredUtilization - utilization) >= bestPrice) {
+			return;
+		}
+		selected[rank] = true;
+		search(rank + 1, configuredUtilization, utilization + groupUtilizations[rank], price + groupPrices[rank]);
+		selected[rank] = false;
+		search(rank + 1, configuredUtilization, utilization, price);
+	}
+
+	/**
+	 * Gets the lowest price of a utilization reduction from a given rank when fractions of groups
+	 * may be disabled, which is a lower bound of the price of the selections from that rank.
+	 *
+	 * @param rank the rank of the first group
+	 * @param requiredUtilization the utilization still to be reduced
+	 * @return the lower bound of the price
+	 */
+	private double getFractionalPrice(int rank, double requiredUtilization) {
+		double price = 0;
+		for (int i = rank; i < groupCount; i++) {
+			if (groupUtilizations[i] >= requiredUtilization) {
+				return price + groupPrices[i] * (requiredUtilization / groupUtilizations[i]);
+			}
+			requiredUtilization -= groupUtilizations[i];
+			price += groupPrices[i];
+		}
+		return price;
+	}
+
+	/**
+	 * Gets the tag groups of a catalog, ranked once by the catalog, and grows the selection buffers
+	 * to their number.
+	 *
+	 * @param catalog the catalog
+	 */
+	private void prepareGroups(CloudletOptionalComponentCatalog catalog) {
+		groupCount = catalog.getTagGroupCount();
+		groupOrder = catalog.getTagGroupOrder();
+		groupUtilizations = catalog.getTagGroupUtilizations();
+		groupPrices = catalog.getTagGroupPrices();
+		suffixUtilizations = catalog.getTagGroupSuffixUtilizations();
+		if (selected.length < groupCount) {
+			selected = new boolean[groupCount];
+			bestSelection = new boolean[groupCount];
+		}
+	}
+
+}
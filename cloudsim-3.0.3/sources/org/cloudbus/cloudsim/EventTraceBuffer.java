@@ -0,0 +1,149 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * The EventTraceBuffer class keeps the last events recorded by the {@link EventTracer} in a binary
+ * ring buffer of fixed-size records: when the buffer is full, the oldest records are overwritten.
+ * A record is written with absolute puts into a preallocated array, so that recording an event
+ * allocates nothing. The records are rendered as text by {@link EventTraceDecoder}, from the
+ * buffer or from a dump written by {@link #writeTo(OutputStream)}.
+ * <p>
+ * A record holds the type of the event, three integers (e.g. the ids of a host and a VM), the time
+ * and four values, in big-endian order.
+ *
+ * @see EventTracer
+ * @see EventTraceDecoder
+ * @since CloudSim Toolkit 3.0
+ */
+public class EventTraceBuffer {
+
+	/** The magic number of the dumps ("\u0089EVT"). */
+	static final int MAGIC = 0x89455654;
+
+	/** The size of a record: the type, three integers, the time and four values. */
+	static final int RECORD_SIZE = 4 * 4 + 5 * 8;
+
+	/** The records. */
+	private final ByteBuffer records;
+
+	/** The capacity, in records. */
+	private final int capacity;
+
+	/** The number of records written since the buffer was created or cleared. */
+	private long writtenRecords;
+
+	/**
+	 * Instantiates a new buffer.
+	 *
+	 * @param capacity the number of records kept
+	 */
+	public EventTraceBuffer(int capacity) {
+		if (capacity <= 0) {
+			throw new IllegalArgumentException("The capacity of the buffer must be positive");
+		}
+		this.capacity = capacity;
+		records = ByteBuffer.allocate(capacity * RECORD_SIZE);
+	}
+
+	/**
+	 * Writes a record, over the oldest one if the buffer is full.
+	 *
+	 * @param type the type of the event
+	 * @param time the time of the event
+	 * @param a the first integer
+	 * @param b the second integer
+	 * @param c the third integer
+	 * @param d0 the first value
+	 * @param d1 the second value
+	 * @param d2 the third value
+	 * @param d3 the fourth value
+	 */
+	void write(int type, double time, int a, int b, int c, double d0, double d1, double d2, double d3) {
+		int position = (int) (writtenRecords % capacity) * RECORD_SIZE;
+		records.putInt(position, type);
+		records.putInt(position + 4, a);
+		records.putInt(position + 8, b);
+		records.putInt(position + 12, c);
+		records.putDouble(position + 16, time);
+		records.putDouble(position + 24, d0);
+		records.putDouble(position + 32, d1);
+		records.putDouble(position + 40, d2);
+		records.putDouble(position + 48, d3);
+		writtenRecords++;
+	}
+
+	/**
+	 * Gets the capacity of the buffer.
+	 *
+	 * @return the number of records kept
+	 */
+	public int getCapacity() {
+		return capacity;
+	}
+
+	/**
+	 * Gets the number of records in the buffer.
+	 *
+	 * @return the number of records
+	 */
+	public int size() {
+		return (int) Math.min(writtenRecords, capacity);
+	}
+
+	/**
+	 * Gets the number of records written since the buffer was created or cleared.
+	 *
+	 * @return the number of written records
+	 */
+	public long getWrittenRecords() {
+		return writtenRecords;
+	}
+
+	/**
+	 * Gets the number of records that have been overwritten.
+	 *
+	 * @return the number of lost records
+	 */
+	public long getLostRecords() {
+		return writtenRecords - size();
+	}
+
+	/**
+	 * Removes all the records.
+	 */
+	public void clear() {
+		writtenRecords = 0;
+	}
+
+	/**
+	 * Writes the records, from the oldest to the newest, after a header with the magic number and
+	 * the number of records. The dump is read by {@link EventTraceDecoder#decode(java.io.InputStream,
+	 * Appendable)}.
+	 *
+	 * @param output the output stream, which is not closed
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	public void writeTo(OutputStream output) throws IOException {
+		DataOutputStream dataOutput = new DataOutputStream(output);
+		dataOutput.writeInt(MAGIC);
+		dataOutput.writeInt(size());
+		int first = writtenRecords > capacity ? (int) (writtenRecords % capacity) : 0;
+		byte[] array = records.array();
+		dataOutput.write(array, first * RECORD_SIZE, (size() - first) * RECORD_SIZE);
+		dataOutput.write(array, 0, first * RECORD_SIZE);
+		dataOutput.flush();
+	}
+
+}
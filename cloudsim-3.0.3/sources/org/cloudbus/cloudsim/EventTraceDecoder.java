@@ -0,0 +1,175 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * The EventTraceDecoder class renders the events recorded by the {@link EventTracer} with the text
+ * the datacenters and the hosts logged before, e.g. <tt>300.10: [Host #0] utilization is
+ * 12.50%</tt>. The events of a buffer are rendered from the oldest to the newest; when the oldest
+ * events have been overwritten, the rest of a line cut by the ring buffer is skipped.
+ *
+ * @see EventTracer
+ * @see EventTraceBuffer
+ * @since CloudSim Toolkit 3.0
+ */
+public class EventTraceDecoder {
+
+	/** The Constant LINE_SEPARATOR, as in {@link Log}. */
+	private static final String LINE_SEPARATOR = System.getProperty("line.separator");
+
+	/**
+	 * Renders the events of a buffer.
+	 *
+	 * @param buffer the buffer
+	 * @param output the output of the text
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	public static void decode(EventTraceBuffer buffer, Appendable output) throws IOException {
+		ByteArrayOutputStream dump = new ByteArrayOutputStream((buffer.size() + 1) * EventTraceBuffer.RECORD_SIZE);
+		buffer.writeTo(dump);
+		decode(new ByteArrayInputStream(dump.toByteArray()), output);
+	}
+
+	/**
+	 * Renders the events of a dump written by {@link EventTraceBuffer#writeTo(java.io.OutputStream)}.
+	 *
+	 * @param input the input stream of the dump, which is not closed
+	 * @param output the output of the text
+	 * @throws IOException Signals that an I/O exception has occurred, or the input is not a dump.
+	 */
+	public static void decode(InputStream input, Appendable output) throws IOException {
+		DataInputStream dataInput = new DataInputStream(input);
+		if (dataInput.readInt() != EventTraceBuffer.MAGIC) {
+			throw new IOException("The input is not a dump of events");
+		}
+		int size = dataInput.readInt();
+		StringBuilder text = new StringBuilder();
+		boolean lineStarted = false;
+		for (int i = 0; i < size; i++) {
+			int type = dataInput.readInt();
+			int a = dataInput.readInt();
+			int b = dataInput.readInt();
+			int c = dataInput.readInt();
+			double time = dataInput.readDouble();
+			double d0 = dataInput.readDouble();
+			double d1 = dataInput.readDouble();
+			double d2 = dataInput.readDouble();
+			double d3 = dataInput.readDouble();
+			if (type == EventTracer.VM_PE || type == EventTracer.VM_PES_END) {
+				// the start of the line may have been overwritten
+				if (!lineStarted) {
+					continue;
+				}
+				lineStarted = type == EventTracer.VM_PE;
+			} else {
+				lineStarted = type == EventTracer.VM_PES;
+			}
+			text.setLength(0);
+			render(text, type, time, a, b, c, d0, d1, d2, d3);
+			output.append(text);
+		}
+	}
+
+	/**
+	 * Renders an event.
+	 *
+	 * @param text the text to append to
+	 * @param type the type of the event
+	 * @param time the time of the event
+	 * @param a the first integer
+	 * @param b the second integer
+	 * @param c the third integer
+	 * @param d0 the first value
+	 * @param d1 the second value
+	 * @param d2 the third value
+	 * @param d3 the fourth value
+	 */
+	static void render(StringBuilder text, int type, double time, int a, int b, int c, double d0, double d1,
+			double d2, double d3) {
+		switch (type) {
+			case EventTracer.TIME_FRAME:
+				text.append("\n\n--------------------------------------------------------------\n\n");
+				text.append(LINE_SEPARATOR);
+				line(text, String.format("New resource usage for the time frame starting at %.2f:", time));
+				break;
+			case EventTracer.VM_ALLOCATION:
+				line(text, String.format("%.2f: [Host #" + a + "] Total allocated MIPS for VM #" + b + " (Host #" + c
+						+ ") is %.2f, was requested %.2f out of total %.2f (%.2f%%)", time, d0, d1, d2, d1 / d2 * 100));
+				break;
+			case EventTracer.VM_PES:
+				text.append(String.format("%.2f: [Host #" + a + "] MIPS for VM #" + b + " by PEs (" + c + " * " + d0
+						+ ").", time));
+				break;
+			case EventTracer.VM_PE:
+				text.append(String.format(" PE #" + c + ": %.2f.", d0));
+				break;
+			case EventTracer.VM_PES_END:
+				text.append(LINE_SEPARATOR);
+				break;
+			case EventTracer.VM_MIGRATING_IN:
+				line(text, String.format("%.2f: [Host #" + a + "] VM #" + b + " is being migrated to Host #" + a, time));
+				break;
+			case EventTracer.VM_UNDER_ALLOCATED:
+				line(text, String.format("%.2f: [Host #" + a + "] Under allocated MIPS for VM #" + b + ": %.2f", time,
+						d0));
+				break;
+			case EventTracer.VM_IN_MIGRATION:
+				line(text, String.format("%.2f: [Host #" + a + "] VM #" + b + " is in migration", time));
+				break;
+			case EventTracer.HOST_UTILIZATION:
+				line(text, String.format("%.2f: [Host #%d] utilization is %.2f%%", time, a, d0 * 100));
+				break;
+			case EventTracer.ENERGY_TIME_FRAME:
+				line(text, String.format("\nEnergy consumption for the last time frame from %.2f to %.2f:", d0, time));
+				break;
+			case EventTracer.HOST_ENERGY:
+				text.append(LINE_SEPARATOR);
+				line(text, String.format("%.2f: [Host #%d] utilization at %.2f was %.2f%%, now is %.2f%%", time, a, d0,
+						d1 * 100, d2 * 100));
+				line(text, String.format("%.2f: [Host #%d] energy is %.2f W*sec", time, a, d3));
+				break;
+			case EventTracer.DATACENTER_ENERGY:
+				line(text, String.format("\n%.2f: Data center's energy is %.2f W*sec\n", time, d0));
+				break;
+			case EventTracer.DIMMER_TRIGGERED:
+				line(text, String.format("Dimmer is triggered at %.2f, The dimmer value is %.2f", time, d0));
+				break;
+			case EventTracer.VM_DIMMED:
+				line(text, String.format("VM #%d utilizaiton after deactivation %.2f:", a, d0));
+				break;
+			case EventTracer.MIGRATION_STARTED:
+				if (b < 0) {
+					line(text, String.format("%.2f: Migration of VM #%d to Host #%d is started", time, a, c));
+				} else {
+					line(text, String.format("%.2f: Migration of VM #%d from Host #%d to Host #%d is started", time, a,
+							b, c));
+				}
+				break;
+			default:
+				throw new IllegalArgumentException("Unknown event type " + type);
+		}
+	}
+
+	/**
+	 * Appends a line.
+	 *
+	 * @param text the text to append to
+	 * @param line the line
+	 */
+	private static void line(StringBuilder text, String line) {
+		text.append(line).append(LINE_SEPARATOR);
+	}
+
+}
@@ -0,0 +1,413 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim;
+
+import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.core.SimulationContext;
+
+/**
+ * The EventTracer class records the events that the datacenters and the hosts log at each time
+ * frame, such as the utilization of the hosts, the allocation of the VMs, the energy and the
+ * triggering of the dimmer. Each event has a typed method with primitive arguments, so that
+ * nothing is formatted, concatenated or boxed when the event is not recorded.
+ * <p>
+ * An event is recorded if its level is not above the level of the tracer, and then either written
+ * to the {@link EventTraceBuffer} of the tracer, if there is one, or rendered by
+ * {@link EventTraceDecoder} to the {@link Log}, with the text the simulation logged before, if the
+ * log is enabled. The code that collects the arguments of an event should be guarded by
+ * {@link #isEnabled(int)}.
+ * <p>
+ * The level and the buffer are held by an instance of the tracer per {@link SimulationContext}, so
+ * that simulations running concurrently in their own contexts neither share a buffer nor
+ * interleave their records; the static methods act on the tracer of the context bound to the
+ * calling thread.
+ *
+ * @see EventTraceBuffer
+ * @see EventTraceDecoder
+ * @since CloudSim Toolkit 3.0
+ */
+public class EventTracer {
+
+	/** The level with no event. */
+	public static final int OFF = 0;
+
+	/** The level of the events of the datacenters and the hosts. */
+	public static final int INFO = 1;
+
+	/** The level of all the events, including the ones of each VM. */
+	public static final int DEBUG = 2;
+
+	/** The event of the start of a time frame. */
+	static final int TIME_FRAME = 1;
+
+	/** The event of the allocated and requested MIPS of a VM. */
+	static final int VM_ALLOCATION = 2;
+
+	/** The event of the start of the MIPS of a VM by PE. */
+	static final int VM_PES = 3;
+
+	/** The event of the MIPS of a VM on a PE. */
+	static final int VM_PE = 4;
+
+	/** The event of the end of the MIPS of a VM by PE. */
+	static final int VM_PES_END = 5;
+
+	/** The event of a VM migrating in. */
+	static final int VM_MIGRATING_IN = 6;
+
+	/** The event of a VM under allocated. */
+	static final int VM_UNDER_ALLOCATED = 7;
+
+	/** The event of a VM in migration. */
+	static final int VM_IN_MIGRATION = 8;
+
+	/** The event of the utilization of a host. */
+	static final int HOST_UTILIZATION = 9;
+
+	/** The event of the start of the energy of a time frame. */
+	static final int ENERGY_TIME_FRAME = 10;
+
+	/** The event of the utilization and energy of a host over a time frame. */
+	static final int HOST_ENERGY = 11;
+
+	/** The event of the energy of a datacenter over a time frame. */
+	static final int DATACENTER_ENERGY = 12;
+
+	/** The event of the triggering of the dimmer. */
+	static final int DIMMER_TRIGGERED = 13;
+
+	/** The event of the utilization of a VM after the deactivation of optional components. */
+	static final int VM_DIMMED = 14;
+
+	/** The event of the start of a migration. */
+	static final int MIGRATION_STARTED = 15;
+
+	/** The level of the tracer. */
+	private int level = DEBUG;
+
+	/** The buffer of the events, or null if the events are rendered to the log. */
+	private EventTraceBuffer buffer;
+
+	/** The text of an event rendered to the log, reused by all the events of the context. */
+	private final StringBuilder text = new StringBuilder();
+
+	/**
+	 * Instantiates the tracer of a simulation context. The events are recorded with the static
+	 * methods, which use the tracer of the context bound to the calling thread.
+	 *
+	 * @see SimulationContext#getEventTracer()
+	 */
+	public EventTracer() {
+	}
+
+	/**
+	 * Sets the level of the tracer of the current simulation context.
+	 *
+	 * @param _level the level, i.e. {@link #OFF}, {@link #INFO} or {@link #DEBUG}
+	 */
+	public static void setLevel(int _level) {
+		getTracer().level = _level;
+	}
+
+	/**
+	 * Gets the level of the tracer of the current simulation context.
+	 *
+	 * @return the level
+	 */
+	public static int getLevel() {
+		return getTracer().level;
+	}
+
+	/**
+	 * Sets the buffer of the events of the current simulation context.
+	 *
+	 * @param _buffer the buffer, or null to render the events to the log
+	 */
+	public static void setBuffer(EventTraceBuffer _buffer) {
+		getTracer().buffer = _buffer;
+	}
+
+	/**
+	 * Gets the buffer of the events of the current simulation context.
+	 *
+	 * @return the buffer, or null if the events are rendered to the log
+	 */
+	public static EventTraceBuffer getBuffer() {
+		return getTracer().buffer;
+	}
+
+	/**
+	 * Checks if the events of a level are recorded in the current simulation context.
+	 *
+	 * @param eventLevel the level of the events
+	 * @return true, if the events are recorded
+	 */
+	public static boolean isEnabled(int eventLevel) {
+		return getTracer().records(eventLevel);
+	}
+
+	/**
+	 * Records the start of a time frame.
+	 *
+	 * @param time the current time
+	 */
+	public static void timeFrame(double time) {
+		EventTracer tracer = getTracer();
+		if (tracer.records(INFO)) {
+			tracer.record(TIME_FRAME, time, 0, 0, 0, 0, 0, 0, 0);
+		}
+	}
+
+	/**
+	 * Records the allocated and requested MIPS of a VM.
+	 *
+	 * @param time the current time
+	 * @param hostId the id of the host that logs the VM
+	 * @param vmId the id of the VM
+	 * @param vmHostId the id of the host of the VM
+	 * @param allocatedMips the total allocated MIPS
+	 * @param requestedMips the total requested MIPS
+	 * @param vmMips the MIPS of the VM
+	 */
+	public static void vmAllocation(double time, int hostId, int vmId, int vmHostId, double allocatedMips,
+			double requestedMips, double vmMips) {
+		EventTracer tracer = getTracer();
+		if (tracer.records(DEBUG)) {
+			tracer.record(VM_ALLOCATION, time, hostId, vmId, vmHostId, allocatedMips, requestedMips, vmMips, 0);
+		}
+	}
+
+	/**
+	 * Records the start of the MIPS of a VM by PE, which are recorded by {@link #vmPe(int, int, int,
+	 * double)} and ended by {@link #vmPesEnd()}.
+	 *
+	 * @param time the current time
+	 * @param hostId the id of the host
+	 * @param vmId the id of the VM
+	 * @param numberOfPes the number of PEs of the host
+	 * @param peCapacity the capacity of the PEs of the host
+	 */
+	public static void vmPes(double time, int hostId, int vmId, int numberOfPes, double peCapacity) {
+		EventTracer tracer = getTracer();
+		if (tracer.records(DEBUG)) {
+			tracer.record(VM_PES, time, hostId, vmId, numberOfPes, peCapacity, 0, 0, 0);
+		}
+	}
+
+	/**
+	 * Records the MIPS of a VM on a PE.
+	 *
+	 * @param hostId the id of the host
+	 * @param vmId the id of the VM
+	 * @param peId the id of the PE
+	 * @param mips the MIPS allocated to the VM on the PE
+	 */
+	public static void vmPe(int hostId, int vmId, int peId, double mips) {
+		EventTracer tracer = getTracer();
+		if (tracer.records(DEBUG)) {
+			tracer.record(VM_PE, 0, hostId, vmId, peId, mips, 0, 0, 0);
+		}
+	}
+
+	/**
+	 * Records the end of the MIPS of a VM by PE.
+	 */
+	public static void vmPesEnd() {
+		EventTracer tracer = getTracer();
+		if (tracer.records(DEBUG)) {
+			tracer.record(VM_PES_END, 0, 0, 0, 0, 0, 0, 0, 0);
+		}
+	}
+
+	/**
+	 * Records a VM migrating in.
+	 *
+	 * @param time the current time
+	 * @param hostId the id of the destination host
+	 * @param vmId the id of the VM
+	 */
+	public static void vmMigratingIn(double time, int hostId, int vmId) {
+		EventTracer tracer = getTracer();
+		if (tracer.records(DEBUG)) {
+			tracer.record(VM_MIGRATING_IN, time, hostId, vmId, 0, 0, 0, 0, 0);
+		}
+	}
+
+	/**
+	 * Records a VM under allocated.
+	 *
+	 * @param time the current time
+	 * @param hostId the id of the host
+	 * @param vmId the id of the VM
+	 * @param mips the MIPS requested but not allocated
+	 */
+	public static void vmUnderAllocated(double time, int hostId, int vmId, double mips) {
+		EventTracer tracer = getTracer();
+		if (tracer.records(DEBUG)) {
+			tracer.record(VM_UNDER_ALLOCATED, time, hostId, vmId, 0, mips, 0, 0, 0);
+		}
+	}
+
+	/**
+	 * Records a VM in migration.
+	 *
+	 * @param time the current time
+	 * @param hostId the id of the host
+	 * @param vmId the id of the VM
+	 */
+	public static void vmInMigration(double time, int hostId, int vmId) {
+		EventTracer tracer = getTracer();
+		if (tracer.records(DEBUG)) {
+			tracer.record(VM_IN_MIGRATION, time, hostId, vmId, 0, 0, 0, 0, 0);
+		}
+	}
+
+	/**
+	 * Records the utilization of a host.
+	 *
+	 * @param time the current time
+	 * @param hostId the id of the host
+	 * @param utilization the utilization of the CPU, in [0, 1]
+	 */
+	public static void hostUtilization(double time, int hostId, double utilization) {
+		EventTracer tracer = getTracer();
+		if (tracer.records(INFO)) {
+			tracer.record(HOST_UTILIZATION, time, hostId, 0, 0, utilization, 0, 0, 0);
+		}
+	}
+
+	/**
+	 * Records the start of the energy of a time frame.
+	 *
+	 * @param startTime the start of the time frame
+	 * @param time the current time
+	 */
+	public static void energyTimeFrame(double startTime, double time) {
+		EventTracer tracer = getTracer();
+		if (tracer.records(INFO)) {
+			tracer.record(ENERGY_TIME_FRAME, time, 0, 0, 0, startTime, 0, 0, 0);
+		}
+	}
+
+	/**
+	 * Records the utilization and energy of a host over a time frame.
+	 *
+	 * @param time the current time
+	 * @param hostId the id of the host
+	 * @param startTime the start of the time frame
+	 * @param previousUtilization the utilization of the CPU at the start of the time frame
+	 * @param utilization the current utilization of the CPU
+	 * @param energy the energy over the time frame, in W*sec
+	 */
+	public static void hostEnergy(double time, int hostId, double startTime, double previousUtilization,
+			double utilization, double energy) {
+		EventTracer tracer = getTracer();
+		if (tracer.records(INFO)) {
+			tracer.record(HOST_ENERGY, time, hostId, 0, 0, startTime, previousUtilization, utilization, energy);
+		}
+	}
+
+	/**
+	 * Records the energy of a datacenter over a time frame.
+	 *
+	 * @param time the current time
+	 * @param energy the energy over the time frame, in W*sec
+	 */
+	public static void datacenterEnergy(double time, double energy) {
+		EventTracer tracer = getTracer();
+		if (tracer.records(INFO)) {
+			tracer.record(DATACENTER_ENERGY, time, 0, 0, 0, energy, 0, 0, 0);
+		}
+	}
+
+	/**
+	 * Records the triggering of the dimmer.
+	 *
+	 * @param time the current time
+	 * @param dimmerValue the dimmer value
+	 */
+	public static void dimmerTriggered(double time, double dimmerValue) {
+		EventTracer tracer = getTracer();
+		if (tracer.records(INFO)) {
+			tracer.record(DIMMER_TRIGGERED, time, 0, 0, 0, dimmerValue, 0, 0, 0);
+		}
+	}
+
+	/**
+	 * Records the utilization of a VM after the deactivation of optional components.
+	 *
+	 * @param time the current time
+	 * @param vmId the id of the VM
+	 * @param utilization the utilization after the deactivation
+	 */
+	public static void vmDimmed(double time, int vmId, double utilization) {
+		EventTracer tracer = getTracer();
+		if (tracer.records(DEBUG)) {
+			tracer.record(VM_DIMMED, time, vmId, 0, 0, utilization, 0, 0, 0);
+		}
+	}
+
+	/**
+	 * Records the start of a migration.
+	 *
+	 * @param time the current time
+	 * @param vmId the id of the VM
+	 * @param sourceHostId the id of the source host, or -1 if the VM has no host
+	 * @param targetHostId the id of the target host
+	 */
+	public static void migrationStarted(double time, int vmId, int sourceHostId, int targetHostId) {
+		EventTracer tracer = getTracer();
+		if (tracer.records(INFO)) {
+			tracer.record(MIGRATION_STARTED, time, vmId, sourceHostId, targetHostId, 0, 0, 0, 0);
+		}
+	}
+
+	/**
+	 * Gets the tracer of the current simulation context.
+	 *
+	 * @return the tracer
+	 */
+	private static EventTracer getTracer() {
+		return CloudSim.getContext().getEventTracer();
+	}
+
+	/**
+	 * Checks if the events of a level are recorded by this tracer.
+	 *
+	 * @param eventLevel the level of the events
+	 * @return true, if the events are recorded
+	 */
+	private boolean records(int eventLevel) {
+		return eventLevel <= level && (buffer != null || !Log.isDisabled());
+	}
+
+	/**
+	 * Writes an event to the buffer, or renders it to the log.
+	 *
+	 * @param type the type of the event
+	 * @param time the time of the event
+	 * @param a the first integer
+	 * @param b the second integer
+	 * @param c the third integer
+	 * @param d0 the first value
+	 * @param d1 the second value
+	 * @param d2 the third value
+	 * @param d3 the fourth value
+	 */
+	private void record(int type, double time, int a, int b, int c, double d0, double d1, double d2, double d3) {
+		if (buffer != null) {
+			buffer.write(type, time, a, b, c, d0, d1, d2, d3);
+		} else {
+			text.setLength(0);
+			EventTraceDecoder.render(text, type, time, a, b, c, d0, d1, d2, d3);
+			Log.print(text.toString());
+		}
+	}
+
+}
@@ -9,8 +9,9 @@
 package org.cloudbus.cloudsim;
 
 import java.util.ArrayList;
-import java.util.LinkedList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.cloudbus.cloudsim.core.CloudSim;
 import org.cloudbus.cloudsim.lists.PeList;
@@ -32,7 +33,7 @@ public class HostDynamicWorkload extends Host {
 	private double previousUtilizationMips;
 
 	/** The state history. */
-	private final List<HostStateHistoryEntry> stateHistory = new LinkedList<HostStateHistoryEntry>();
+	private final HostStateHistory stateHistory = new HostStateHistory();
 
 	/**
 	 * Instantiates a new host.
@@ -67,50 +68,35 @@ public class HostDynamicWorkload extends Host {
 		setUtilizationMips(0);
 		double hostTotalRequestedMips = 0;
 
+		// the PEs of all the VMs are provisioned again in one call
+		Map<Vm, List<Double>> mipsShareRequested = new LinkedHashMap<Vm, List<Double>>();
 		for (Vm vm : getVmList()) {
-			getVmScheduler().deallocatePesForVm(vm);
-		}
-
-		for (Vm vm : getVmList()) {
-			getVmScheduler().allocatePesForVm(vm, vm.getCurrentRequestedMips());
-		
+			mipsShareRequested.put(vm, vm.getCurrentRequestedMips());
 		}
+		getVmScheduler().allocatePesForVms(mipsShareRequested);
 
 		for (Vm vm : getVmList()) {
 			double totalRequestedMips = vm.getCurrentRequestedTotalMips();
 			double totalAllocatedMips = getVmScheduler().getTotalAllocatedMipsForVm(vm);
 
-			if (!Log.isDisabled()) {
-				Log.formatLine(
-						"%.2f: [Host #" + getId() + "] Total allocated MIPS for VM #" + vm.getId()
-								+ " (Host #" + vm.getHost().getId()
-								+ ") is %.2f, was requested %.2f out of total %.2f (%.2f%%)",
-						CloudSim.clock(),
-						totalAllocatedMips,
-						totalRequestedMips,
-						vm.getMips(),
-						totalRequestedMips / vm.getMips() * 100);
-
-				List<Pe> pes = getVmScheduler().getPesAllocatedForVM(vm);
-				StringBuilder pesString = new StringBuilder();
-				for (Pe pe : pes) {
-					pesString.append(String.format(" PE #" + pe.getId() + ": %.2f.", pe.getPeProvisioner()
-							.getTotalAllocatedMipsForVm(vm)));
+			if (EventTracer.isEnabled(EventTracer.DEBUG)) {
+				EventTracer.vmAllocation(CloudSim.clock(), getId(), vm.getId(), vm.getHost().getId(),
+						totalAllocatedMips, totalRequestedMips, vm.getMips());
+				EventTracer.vmPes(CloudSim.clock(), getId(), vm.getId(), getNumberOfPes(), getVmScheduler()
+						.getPeCapacity());
+				for (Pe pe : getVmScheduler().getPesAllocatedForVM(vm)) {
+					EventTracer.vmPe(getId(), vm.getId(), pe.getId(), pe.getPeProvisioner()
+							.getTotalAllocatedMipsForVm(vm));
 				}
-				Log.formatLine(
-						"%.2f: [Host #" + getId() + "] MIPS for VM #" + vm.getId() + " by PEs ("
-								+ getNumberOfPes() + " * " + getVmScheduler().getPeCapacity() + ")."
-								+ pesString,
-						CloudSim.clock());
+				EventTracer.vmPesEnd();
 			}
 
 			if (getVmsMigratingIn().contains(vm)) {
-				Log.formatLine("%.2f: [Host #" + getId() + "] VM #" + vm.getId()
-						+ " is being migrated to Host #" + getId(), CloudSim.clock());
+				EventTracer.vmMigratingIn(CloudSim.clock(), getId(), vm.getId());
 			} else {
 				if (totalAllocatedMips + 0.1 < totalRequestedMips) {
-					Log.formatLine("%.2f: [Host #" + getId() + "] Under allocated MIPS for VM #" + vm.getId()
-							+ ": %.2f", CloudSim.clock(), totalRequestedMips - totalAllocatedMips);
+					EventTracer.vmUnderAllocated(CloudSim.clock(), getId(), vm.getId(), totalRequestedMips
+							- totalAllocatedMips);
 				}
 
 				vm.addStateHistoryEntry(
@@ -120,9 +106,7 @@ public class HostDynamicWorkload extends Host {
 						(vm.isInMigration() && !getVmsMigratingIn().contains(vm)));
 
 				if (vm.isInMigration()) {
-					Log.formatLine(
-							"%.2f: [Host #" + getId() + "] VM #" + vm.getId() + " is in migration",
-							CloudSim.clock());
+					EventTracer.vmInMigration(CloudSim.clock(), getId(), vm.getId());
 					totalAllocatedMips /= 0.9; // performance degradation due to migration - 10%
 				}
 			}
@@ -272,7 +256,7 @@ public class HostDynamicWorkload extends Host {
 	 * 
 	 * @return the state history
 	 */
-	public List<HostStateHistoryEntry> getStateHistory() {
+	public HostStateHistory getStateHistory() {
 		return stateHistory;
 	}
 
@@ -287,20 +271,7 @@ public class HostDynamicWorkload extends Host {
 	public
 			void
 			addStateHistoryEntry(double time, double allocatedMips, double requestedMips, boolean isActive) {
-
-		HostStateHistoryEntry newState = new HostStateHistoryEntry(
-				time,
-				allocatedMips,
-				requestedMips,
-				isActive);
-		if (!getStateHistory().isEmpty()) {
-			HostStateHistoryEntry previousState = getStateHistory().get(getStateHistory().size() - 1);
-			if (previousState.getTime() == time) {
-				getStateHistory().set(getStateHistory().size() - 1, newState);
-				return;
-			}
-		}
-		getStateHistory().add(newState);
+		getStateHistory().addEntry(time, allocatedMips, requestedMips, isActive);
 	}
 
 }
@@ -0,0 +1,129 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim;
+
+import org.cloudbus.cloudsim.util.ResultsWriter;
+
+/**
+ * The state history of a host, whose flag is whether the host is active. Besides the entries kept,
+ * it accumulates the times used by the SLA metrics of the hosts over the whole history.
+ *
+ * @see HostDynamicWorkload#getStateHistory()
+ * @since CloudSim Toolkit 3.0
+ */
+public class HostStateHistory extends StateHistory<HostStateHistoryEntry> {
+
+	/** The name of the table of the host state histories in a results file. */
+	public static final String TABLE_NAME = "host_state";
+
+	/** The total time. */
+	private double totalTime;
+
+	/** The time during which the host was under-allocated. */
+	private double underAllocatedTime;
+
+	/** The time during which the host was active. */
+	private double activeTime;
+
+	/** The time during which the host was active and under-allocated. */
+	private double activeUnderAllocatedTime;
+
+	/**
+	 * Instantiates a new host state history. A host is active before its first entry.
+	 */
+	public HostStateHistory() {
+		super(true);
+	}
+
+	/**
+	 * Creates the table of the host state histories in a results file.
+	 *
+	 * @param writer the writer of the results file
+	 * @return the table
+	 */
+	public static ResultsWriter.Table createTable(ResultsWriter writer) {
+		ResultsWriter.Table table = writer.createTable(TABLE_NAME);
+		table.addIntColumn("host");
+		table.addDoubleColumn("time");
+		table.addDoubleColumn("allocated_mips");
+		table.addDoubleColumn("requested_mips");
+		table.addIntColumn("active");
+		return table;
+	}
+
+	/**
+	 * Gets the total time, from the first entry to the last one.
+	 *
+	 * @return the total time
+	 */
+	public double getTotalTime() {
+		return totalTime;
+	}
+
+	/**
+	 * Gets the time during which the allocated MIPS of the host were below its requested MIPS.
+	 *
+	 * @return the under-allocated time
+	 */
+	public double getUnderAllocatedTime() {
+		return underAllocatedTime;
+	}
+
+	/**
+	 * Gets the time during which the host was active.
+	 *
+	 * @return the active time
+	 */
+	public double getActiveTime() {
+		return activeTime;
+	}
+
+	/**
+	 * Gets the time during which the host was active, and its allocated MIPS were below its
+	 * requested MIPS.
+	 *
+	 * @return the active under-allocated time
+	 */
+	public double getActiveUnderAllocatedTime() {
+		return activeUnderAllocatedTime;
+	}
+
+	/**
+	 * Gets the times during which the host was active before each shutdown.
+	 *
+	 * @return the times before the shutdowns
+	 */
+	public double[] getTimesBeforeShutdown() {
+		return getFlagPeriods();
+	}
+
+	@Override
+	protected void accumulate(double duration, double allocatedMips, double requestedMips, boolean isActive) {
+		totalTime += duration;
+		if (allocatedMips < requestedMips) {
+			underAllocatedTime += duration;
+		}
+		if (isActive) {
+			activeTime += duration;
+			if (allocatedMips < requestedMips) {
+				activeUnderAllocatedTime += duration;
+			}
+		}
+	}
+
+	@Override
+	protected HostStateHistoryEntry createEntry(
+			double time,
+			double allocatedMips,
+			double requestedMips,
+			boolean isActive) {
+		return new HostStateHistoryEntry(time, allocatedMips, requestedMips, isActive);
+	}
+
+}
@@ -0,0 +1,475 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim;
+
+import java.io.IOException;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+
+import org.cloudbus.cloudsim.util.ResultsWriter;
+
+/**
+ * The StateHistory class records the state history of a host or a VM: an entry per time frame with
+ * the time, the allocated and requested MIPS, and a flag, i.e. whether the host is active or
+ * whether the VM is in migration. The entries are kept in primitive columns instead of an entry
+ * object per time frame, and the history is a read-only list of entries created on demand. The last
+ * entry is always kept, and read in constant time.
+ * <p>
+ * By default the whole history is kept. The retention can be bounded before the first entry: the
+ * history can keep only its last entries ({@link #setRetainedEntries(int)}), and be downsampled to
+ * an entry per sampling interval ({@link #setSamplingInterval(double)}). An entry is finalized when
+ * an entry of a later time is added; the totals over the finalized entries, e.g. the time during
+ * which the allocated MIPS were below the requested MIPS, are accumulated at that point, so that
+ * they cover the whole history even when some of its entries have been dropped. The entries that
+ * leave the history can be spilled into a table of a results file ({@link #setSpillTable}).
+ *
+ * @param <E> the type of the entries
+ * @see HostStateHistory
+ * @see VmStateHistory
+ * @since CloudSim Toolkit 3.0
+ */
+public abstract class StateHistory<E> extends AbstractList<E> implements RandomAccess {
+
+	/** The initial capacity of the columns. */
+	private static final int INITIAL_CAPACITY = 16;
+
+	/** The index of the id column of the tables of state histories. */
+	protected static final int ID_COLUMN = 0;
+
+	/** The index of the time column of the tables of state histories. */
+	protected static final int TIME_COLUMN = 1;
+
+	/** The index of the allocated MIPS column of the tables of state histories. */
+	protected static final int ALLOCATED_MIPS_COLUMN = 2;
+
+	/** The index of the requested MIPS column of the tables of state histories. */
+	protected static final int REQUESTED_MIPS_COLUMN = 3;
+
+	/** The index of the flag column of the tables of state histories. */
+	protected static final int FLAG_COLUMN = 4;
+
+	/** The number of entries kept, or 0 to keep all of them. */
+	private int retainedEntries;
+
+	/** The minimum time between two kept entries, or 0 to keep every entry. */
+	private double samplingInterval;
+
+	/** The times of the entries. */
+	private double[] times = new double[0];
+
+	/** The allocated MIPS of the entries. */
+	private double[] allocatedMips = new double[0];
+
+	/** The requested MIPS of the entries. */
+	private double[] requestedMips = new double[0];
+
+	/** The flags of the entries. */
+	private boolean[] flags = new boolean[0];
+
+	/** The index in the columns of the first entry. */
+	private int first;
+
+	/** The number of entries kept. */
+	private int size;
+
+	/** The number of entries that have been dropped. */
+	private long droppedEntries;
+
+	/** The time of the last finalized entry that has been kept, or NaN if there is none. */
+	private double lastKeptTime = Double.NaN;
+
+	/** The flag of the last finalized entry. */
+	private boolean previousFlag;
+
+	/** The time at which the flag was last set. */
+	private double lastFlagSetTime;
+
+	/** The lengths of the finished periods during which the flag was set. */
+	private double[] flagPeriods = new double[0];
+
+	/** The number of finished periods during which the flag was set. */
+	private int flagPeriodCount;
+
+	/** The table into which the dropped entries are spilled, or null. */
+	private ResultsWriter.Table spillTable;
+
+	/** The id written with the spilled entries. */
+	private int spillId;
+
+	/**
+	 * Instantiates a new state history.
+	 *
+	 * @param initialFlag the flag before the first entry
+	 */
+	protected StateHistory(boolean initialFlag) {
+		previousFlag = initialFlag;
+	}
+
+	/**
+	 * Sets the number of entries kept: when the history is full, its first entry is dropped to add
+	 * a new one.
+	 *
+	 * @param retainedEntries the number of entries kept, or 0 to keep all of them
+	 */
+	public void setRetainedEntries(int retainedEntries) {
+		checkNotStarted();
+		if (retainedEntries < 0) {
+			throw new IllegalArgumentException("The number of retained entries must not be negative");
+		}
+		this.retainedEntries = retainedEntries;
+	}
+
+	/**
+	 * Gets the number of entries kept.
+	 *
+	 * @return the number of entries kept, or 0 if all of them are kept
+	 */
+	public int getRetainedEntries() {
+		return retainedEntries;
+	}
+
+	/**
+	 * Sets the sampling interval: a finalized entry is dropped if it is less than the sampling
+	 * interval after the previous entry that has been kept. The last entry is always kept.
+	 *
+	 * @param samplingInterval the minimum time between two kept entries, or 0 to keep every entry
+	 */
+	public void setSamplingInterval(double samplingInterval) {
+		checkNotStarted();
+		if (samplingInterval < 0) {
+			throw new IllegalArgumentException("The sampling interval must not be negative");
+		}
+		this.samplingInterval = samplingInterval;
+	}
+
+	/**
+	 * Gets the sampling interval.
+	 *
+	 * @return the minimum time between two kept entries, or 0 if every entry is kept
+	 */
+	public double getSamplingInterval() {
+		return samplingInterval;
+	}
+
+	/**
+	 * Sets the table into which the dropped entries are spilled, as they leave the history. The
+	 * table must have been created by {@code createTable} of the subclass. The entries of a history
+	 * are not spilled in the order of their times when the history is downsampled.
+	 *
+	 * @param table the table, or null to discard the dropped entries
+	 * @param id the id of the host or of the VM, written with the entries
+	 */
+	public void setSpillTable(ResultsWriter.Table table, int id) {
+		spillTable = table;
+		spillId = id;
+	}
+
+	/**
+	 * Adds an entry. If the last entry has the same time, it is replaced.
+	 *
+	 * @param time the time
+	 * @param allocatedMips the allocated mips
+	 * @param requestedMips the requested mips
+	 * @param flag the flag
+	 */
+	public void addEntry(double time, double allocatedMips, double requestedMips, boolean flag) {
+		if (size > 0) {
+			int last = getIndex(size - 1);
+			if (times[last] == time) {
+				setEntry(last, time, allocatedMips, requestedMips, flag);
+				return;
+			}
+			finalizeLastEntry(time);
+		}
+		if (retainedEntries > 0 && size == retainedEntries) {
+			drop(first);
+			first = getIndex(1);
+			size--;
+		}
+		if (size == times.length) {
+			grow();
+		}
+		setEntry(getIndex(size), time, allocatedMips, requestedMips, flag);
+		size++;
+	}
+
+	/**
+	 * Gets an entry kept.
+	 *
+	 * @param index the index of the entry
+	 * @return the entry
+	 */
+	@Override
+	public E get(int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+		}
+		int i = getIndex(index);
+		return createEntry(times[i], allocatedMips[i], requestedMips[i], flags[i]);
+	}
+
+	/**
+	 * Gets the number of entries kept.
+	 *
+	 * @return the number of entries kept
+	 */
+	@Override
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Gets the last entry.
+	 *
+	 * @return the last entry
+	 */
+	public E getLast() {
+		int last = getLastIndex();
+		return createEntry(times[last], allocatedMips[last], requestedMips[last], flags[last]);
+	}
+
+	/**
+	 * Gets the time of the last entry.
+	 *
+	 * @return the time
+	 */
+	public double getLastTime() {
+		return times[getLastIndex()];
+	}
+
+	/**
+	 * Gets the allocated mips of the last entry.
+	 *
+	 * @return the allocated mips
+	 */
+	public double getLastAllocatedMips() {
+		return allocatedMips[getLastIndex()];
+	}
+
+	/**
+	 * Gets the requested mips of the last entry.
+	 *
+	 * @return the requested mips
+	 */
+	public double getLastRequestedMips() {
+		return requestedMips[getLastIndex()];
+	}
+
+	/**
+	 * Gets the number of entries that have been dropped.
+	 *
+	 * @return the number of entries dropped
+	 */
+	public long getDroppedEntries() {
+		return droppedEntries;
+	}
+
+	/**
+	 * Checks if the history is complete, i.e. no entry has been dropped.
+	 *
+	 * @return true, if the history is complete
+	 */
+	public boolean isComplete() {
+		return droppedEntries == 0;
+	}
+
+	/**
+	 * Writes the entries kept into a table created by {@code createTable} of the subclass.
+	 *
+	 * @param table the table
+	 * @param id the id of the host or of the VM
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	public void writeTo(ResultsWriter.Table table, int id) throws IOException {
+		for (int i = 0; i < size; i++) {
+			writeEntry(table, id, getIndex(i));
+		}
+	}
+
+	/**
+	 * Gets the lengths of the periods during which the flag was set, in the order of their ends,
+	 * over the whole history. A period starts at the first entry whose flag is set, or at time 0 if
+	 * the initial flag is set, and ends at the next entry whose flag is not set.
+	 *
+	 * @return the lengths of the periods
+	 */
+	protected double[] getFlagPeriods() {
+		if (size > 0) {
+			int last = getLastIndex();
+			if (previousFlag && !flags[last]) {
+				double[] periods = Arrays.copyOf(flagPeriods, flagPeriodCount + 1);
+				periods[flagPeriodCount] = times[last] - lastFlagSetTime;
+				return periods;
+			}
+		}
+		return Arrays.copyOf(flagPeriods, flagPeriodCount);
+	}
+
+	/**
+	 * Accumulates the totals of a finalized entry.
+	 *
+	 * @param duration the time until the next entry
+	 * @param allocatedMips the allocated mips
+	 * @param requestedMips the requested mips
+	 * @param flag the flag
+	 */
+	protected abstract void accumulate(double duration, double allocatedMips, double requestedMips, boolean flag);
+
+	/**
+	 * Creates an entry.
+	 *
+	 * @param time the time
+	 * @param allocatedMips the allocated mips
+	 * @param requestedMips the requested mips
+	 * @param flag the flag
+	 * @return the entry
+	 */
+	protected abstract E createEntry(double time, double allocatedMips, double requestedMips, boolean flag);
+
+	/**
+	 * Finalizes the last entry, when an entry of a later time is added: its totals are accumulated
+	 * and it is dropped if it is within the sampling interval.
+	 *
+	 * @param nextTime the time of the next entry
+	 */
+	private void finalizeLastEntry(double nextTime) {
+		int last = getIndex(size - 1);
+		double time = times[last];
+		boolean flag = flags[last];
+		accumulate(nextTime - time, allocatedMips[last], requestedMips[last], flag);
+
+		if (previousFlag && !flag) {
+			if (flagPeriodCount == flagPeriods.length) {
+				flagPeriods = Arrays.copyOf(flagPeriods, Math.max(INITIAL_CAPACITY, flagPeriodCount * 2));
+			}
+			flagPeriods[flagPeriodCount++] = time - lastFlagSetTime;
+		}
+		if (!previousFlag && flag) {
+			lastFlagSetTime = time;
+		}
+		previousFlag = flag;
+
+		if (samplingInterval == 0 || Double.isNaN(lastKeptTime) || time - lastKeptTime >= samplingInterval) {
+			lastKeptTime = time;
+		} else {
+			drop(last);
+			size--;
+		}
+	}
+
+	/**
+	 * Drops an entry, and spills it if there is a spill table.
+	 *
+	 * @param i the index of the entry in the columns
+	 */
+	private void drop(int i) {
+		droppedEntries++;
+		if (spillTable != null) {
+			try {
+				writeEntry(spillTable, spillId, i);
+			} catch (IOException e) {
+				throw new IllegalStateException("Cannot spill the state history: " + e.getMessage(), e);
+			}
+		}
+	}
+
+	/**
+	 * Writes an entry into a table.
+	 *
+	 * @param table the table
+	 * @param id the id of the host or of the VM
+	 * @param i the index of the entry in the columns
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	private void writeEntry(ResultsWriter.Table table, int id, int i) throws IOException {
+		table.setInt(ID_COLUMN, id);
+		table.setDouble(TIME_COLUMN, times[i]);
+		table.setDouble(ALLOCATED_MIPS_COLUMN, allocatedMips[i]);
+		table.setDouble(REQUESTED_MIPS_COLUMN, requestedMips[i]);
+		table.setInt(FLAG_COLUMN, flags[i] ? 1 : 0);
+		table.endRow();
+	}
+
+	/**
+	 * Sets an entry in the columns.
+	 *
+	 * @param i the index of the entry in the columns
+	 * @param time the time
+	 * @param allocatedMips the allocated mips
+	 * @param requestedMips the requested mips
+	 * @param flag the flag
+	 */
+	private void setEntry(int i, double time, double allocatedMips, double requestedMips, boolean flag) {
+		times[i] = time;
+		this.allocatedMips[i] = allocatedMips;
+		this.requestedMips[i] = requestedMips;
+		flags[i] = flag;
+	}
+
+	/**
+	 * Grows the columns, up to the number of entries kept.
+	 */
+	private void grow() {
+		int capacity = Math.max(INITIAL_CAPACITY, times.length * 2);
+		if (retainedEntries > 0) {
+			capacity = Math.min(capacity, retainedEntries);
+		}
+		double[] newTimes = new double[capacity];
+		double[] newAllocatedMips = new double[capacity];
+		double[] newRequestedMips = new double[capacity];
+		boolean[] newFlags = new boolean[capacity];
+		for (int i = 0; i < size; i++) {
+			int j = getIndex(i);
+			newTimes[i] = times[j];
+			newAllocatedMips[i] = allocatedMips[j];
+			newRequestedMips[i] = requestedMips[j];
+			newFlags[i] = flags[j];
+		}
+		times = newTimes;
+		allocatedMips = newAllocatedMips;
+		requestedMips = newRequestedMips;
+		flags = newFlags;
+		first = 0;
+	}
+
+	/**
+	 * Gets the index in the columns of an entry.
+	 *
+	 * @param index the index of the entry in the history
+	 * @return the index in the columns
+	 */
+	private int getIndex(int index) {
+		int i = first + index;
+		return i < times.length ? i : i - times.length;
+	}
+
+	/**
+	 * Gets the index in the columns of the last entry.
+	 *
+	 * @return the index in the columns
+	 */
+	private int getLastIndex() {
+		if (size == 0) {
+			throw new NoSuchElementException("The state history is empty");
+		}
+		return getIndex(size - 1);
+	}
+
+	/**
+	 * Checks that no entry has been added, before the retention is changed.
+	 */
+	private void checkNotStarted() {
+		if (size > 0 || droppedEntries > 0) {
+			throw new IllegalStateException("The retention must be set before the first entry");
+		}
+	}
+
+}
@@ -0,0 +1,332 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Map.Entry;
+
+/**
+ * The UtilizationHistory class memoizes the utilization of a utilization model by time, without
+ * boxing. The times are hashed into slots of a fixed width (usually the scheduling interval), and
+ * each slot holds one time and its utilization in primitive arrays, so that the common case of one
+ * utilization per interval is a direct array access. The other times of an occupied slot are kept
+ * in a sorted overflow array. Lookups are exact: a time is only found if it was stored with the very
+ * same value.
+ *
+ * @since CloudSim Toolkit 3.0
+ */
+public class UtilizationHistory {
+
+	/** The magic number of the history files ("CSUH"). */
+	private static final int MAGIC = 0x43535548;
+
+	/** The version of the history file format. */
+	private static final int VERSION = 1;
+
+	/** The first two bytes of a Java serialization stream, used by the former history files. */
+	private static final int SERIALIZATION_MAGIC = 0xACED;
+
+	/** The maximum number of slots; later times go to the overflow array. */
+	private static final int MAX_SLOTS = 1 << 20;
+
+	/** The width of a slot. */
+	private final double slotWidth;
+
+	/** The times stored in the slots, NaN for an empty slot. */
+	private double[] slotTimes;
+
+	/** The utilization stored in the slots. */
+	private double[] slotValues;
+
+	/** The times that did not fit in the slots, in ascending order. */
+	private double[] overflowTimes;
+
+	/** The utilization of the overflow times. */
+	private double[] overflowValues;
+
+	/** The number of overflow times. */
+	private int overflowSize;
+
+	/** The number of stored times. */
+	private int size;
+
+	/**
+	 * Instantiates a new utilization history.
+	 *
+	 * @param slotWidth the width of a slot, usually the scheduling interval
+	 */
+	public UtilizationHistory(double slotWidth) {
+		if (slotWidth <= 0) {
+			throw new IllegalArgumentException("The slot width should be positive, but is:" + slotWidth);
+		}
+		this.slotWidth = slotWidth;
+		clear();
+	}
+
+	/**
+	 * Gets the utilization stored for a time.
+	 *
+	 * @param time the time
+	 * @return the utilization, or NaN if none is stored for the time
+	 */
+	public double get(double time) {
+		int slot = getSlot(time);
+		if (slot >= 0 && slot < slotTimes.length) {
+			if (slotTimes[slot] == time) {
+				return slotValues[slot];
+			}
+			if (Double.isNaN(slotTimes[slot])) {
+				return Double.NaN;
+			}
+		}
+		int index = Arrays.binarySearch(overflowTimes, 0, overflowSize, time);
+		return index >= 0 ? overflowValues[index] : Double.NaN;
+	}
+
+	/**
+	 * Checks whether a utilization is stored for a time.
+	 *
+	 * @param time the time
+	 * @return true, if a utilization is stored for the time
+	 */
+	public boolean contains(double time) {
+		int slot = getSlot(time);
+		if (slot >= 0 && slot < slotTimes.length) {
+			if (slotTimes[slot] == time) {
+				return true;
+			}
+			if (Double.isNaN(slotTimes[slot])) {
+				return false;
+			}
+		}
+		return Arrays.binarySearch(overflowTimes, 0, overflowSize, time) >= 0;
+	}
+
+	/**
+	 * Stores the utilization of a time, replacing the one previously stored.
+	 *
+	 * @param time the time
+	 * @param utilization the utilization
+	 */
+	public void put(double time, double utilization) {
+		if (Double.isNaN(time)) {
+			throw new IllegalArgumentException("The time should be a number");
+		}
+		int slot = getSlot(time);
+		if (slot >= 0 && slot < MAX_SLOTS) {
+			if (slot >= slotTimes.length) {
+				growSlots(slot + 1);
+			}
+			if (Double.isNaN(slotTimes[slot])) {
+				slotTimes[slot] = time;
+				slotValues[slot] = utilization;
+				size++;
+				return;
+			}
+			if (slotTimes[slot] == time) {
+				slotValues[slot] = utilization;
+				return;
+			}
+		}
+
+		int index = Arrays.binarySearch(overflowTimes, 0, overflowSize, time);
+		if (index >= 0) {
+			overflowValues[index] = utilization;
+			return;
+		}
+		int position = -(index + 1);
+		if (overflowSize == overflowTimes.length) {
+			overflowTimes = Arrays.copyOf(overflowTimes, Math.max(4, overflowSize * 2));
+			overflowValues = Arrays.copyOf(overflowValues, overflowTimes.length);
+		}
+		System.arraycopy(overflowTimes, position, overflowTimes, position + 1, overflowSize - position);
+		System.arraycopy(overflowValues, position, overflowValues, position + 1, overflowSize - position);
+		overflowTimes[position] = time;
+		overflowValues[position] = utilization;
+		overflowSize++;
+		size++;
+	}
+
+	/**
+	 * Removes the utilization stored for a time.
+	 *
+	 * @param time the time
+	 * @return true, if a utilization was stored for the time
+	 */
+	public boolean remove(double time) {
+		int slot = getSlot(time);
+		if (slot >= 0 && slot < slotTimes.length && slotTimes[slot] == time) {
+			slotTimes[slot] = Double.NaN;
+			size--;
+
+			// an empty slot has no overflow times, so move one of them into the slot
+			for (int i = 0; i < overflowSize; i++) {
+				if (getSlot(overflowTimes[i]) == slot) {
+					slotTimes[slot] = overflowTimes[i];
+					slotValues[slot] = overflowValues[i];
+					removeOverflow(i);
+					break;
+				}
+			}
+			return true;
+		}
+		int index = Arrays.binarySearch(overflowTimes, 0, overflowSize, time);
+		if (index < 0) {
+			return false;
+		}
+		removeOverflow(index);
+		size--;
+		return true;
+	}
+
+	/**
+	 * Gets the number of stored times.
+	 *
+	 * @return the number of stored times
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Removes all the stored times.
+	 */
+	public void clear() {
+		slotTimes = new double[16];
+		Arrays.fill(slotTimes, Double.NaN);
+		slotValues = new double[16];
+		overflowTimes = new double[0];
+		overflowValues = new double[0];
+		overflowSize = 0;
+		size = 0;
+	}
+
+	/**
+	 * Gets the width of a slot.
+	 *
+	 * @return the slot width
+	 */
+	public double getSlotWidth() {
+		return slotWidth;
+	}
+
+	/**
+	 * Saves the history to a file. The file holds a header, the number of times and the pairs of
+	 * time and utilization.
+	 *
+	 * @param filename the filename
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	public void save(String filename) throws IOException {
+		DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(filename)));
+		try {
+			output.writeInt(MAGIC);
+			output.writeInt(VERSION);
+			output.writeInt(size);
+			for (int slot = 0; slot < slotTimes.length; slot++) {
+				if (!Double.isNaN(slotTimes[slot])) {
+					output.writeDouble(slotTimes[slot]);
+					output.writeDouble(slotValues[slot]);
+				}
+			}
+			for (int i = 0; i < overflowSize; i++) {
+				output.writeDouble(overflowTimes[i]);
+				output.writeDouble(overflowValues[i]);
+			}
+		} finally {
+			output.close();
+		}
+	}
+
+	/**
+	 * Loads a history from a file, replacing the stored times. Besides the files written by
+	 * {@link #save(String)}, the files holding a serialized <tt>Map&lt;Double, Double&gt;</tt>,
+	 * which the utilization models used to write, are supported.
+	 *
+	 * @param filename the filename
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 * @throws ClassNotFoundException if a serialized history cannot be read
+	 */
+	@SuppressWarnings("unchecked")
+	public void load(String filename) throws IOException, ClassNotFoundException {
+		DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(filename)));
+		try {
+			input.mark(4);
+			if (input.readUnsignedShort() == SERIALIZATION_MAGIC) {
+				input.reset();
+				Map<Double, Double> history = (Map<Double, Double>) new ObjectInputStream(input).readObject();
+				clear();
+				for (Entry<Double, Double> entry : history.entrySet()) {
+					put(entry.getKey(), entry.getValue());
+				}
+				return;
+			}
+			input.reset();
+			if (input.readInt() != MAGIC || input.readInt() != VERSION) {
+				throw new IOException(filename + " is not a utilization history file");
+			}
+			int count = input.readInt();
+			clear();
+			for (int i = 0; i < count; i++) {
+				double time = input.readDouble();
+				put(time, input.readDouble());
+			}
+		} finally {
+			input.close();
+		}
+	}
+
+	/**
+	 * Gets the slot of a time.
+	 *
+	 * @param time the time
+	 * @return the slot, or -1 if the time is negative or too large
+	 */
+	private int getSlot(double time) {
+		double slot = Math.floor(time / slotWidth);
+		if (slot < 0 || slot >= MAX_SLOTS) {
+			return -1;
+		}
+		return (int) slot;
+	}
+
+	/**
+	 * Removes an entry of the overflow array.
+	 *
+	 * @param index the index of the entry
+	 */
+	private void removeOverflow(int index) {
+		System.arraycopy(overflowTimes, index + 1, overflowTimes, index, overflowSize - index - 1);
+		System.arraycopy(overflowValues, index + 1, overflowValues, index, overflowSize - index - 1);
+		overflowSize--;
+	}
+
+	/**
+	 * Grows the slot arrays to hold at least a given number of slots.
+	 *
+	 * @param minimumLength the minimum number of slots
+	 */
+	private void growSlots(int minimumLength) {
+		int oldLength = slotTimes.length;
+		int length = Math.min(MAX_SLOTS, Math.max(minimumLength, oldLength * 2));
+		slotTimes = Arrays.copyOf(slotTimes, length);
+		Arrays.fill(slotTimes, oldLength, length, Double.NaN);
+		slotValues = Arrays.copyOf(slotValues, length);
+	}
+
+}
@@ -8,12 +8,6 @@
 
 package org.cloudbus.cloudsim;
 
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
-import java.util.HashMap;
-import java.util.Map;
 import java.util.Random;
 
 import workload.planetlab.OverloadedTraceGenerator;
@@ -27,17 +21,21 @@ import workload.planetlab.OverloadedTraceGenerator;
  */
 public class UtilizationModelDimmer implements UtilizationModel {
 
+	/** The default width of the history slots, i.e. the scheduling interval of the simulations. */
+	public static final double DEFAULT_HISTORY_SLOT_WIDTH = 300;
+
 	/** The random generator. */
 	private Random randomGenerator;
 
 	/** The history. */
-	private Map<Double, Double> history;
+	private UtilizationHistory history;
 	
 	private boolean isDimmerTriggered = false;
 	
 	private double dimmerUtilization = 0.0;
 	
-	OverloadedTraceGenerator overloadTraceGenerator = new OverloadedTraceGenerator();
+	/** The overloaded trace, shared by all the models. */
+	private final double[] overloadedTrace = OverloadedTraceGenerator.getOverloadedTrace();
 	
 	int traceIndex =0;
 
@@ -45,7 +43,7 @@ public class UtilizationModelDimmer implements UtilizationModel {
 	 * Instantiates a new utilization model stochastic.
 	 */
 	public UtilizationModelDimmer() {
-		setHistory(new HashMap<Double, Double>());
+		setHistory(new UtilizationHistory(DEFAULT_HISTORY_SLOT_WIDTH));
 		setRandomGenerator(new Random());
 	}
 
@@ -55,7 +53,17 @@ public class UtilizationModelDimmer implements UtilizationModel {
 	 * @param seed the seed
 	 */
 	public UtilizationModelDimmer(long seed) {
-		setHistory(new HashMap<Double, Double>());
+		this(seed, DEFAULT_HISTORY_SLOT_WIDTH);
+	}
+
+	/**
+	 * Instantiates a new utilization model stochastic.
+	 * 
+	 * @param seed the seed
+	 * @param historySlotWidth the width of the history slots, usually the scheduling interval
+	 */
+	public UtilizationModelDimmer(long seed, double historySlotWidth) {
+		setHistory(new UtilizationHistory(historySlotWidth));
 		setRandomGenerator(new Random(seed));
 	}
 
@@ -65,8 +73,9 @@ public class UtilizationModelDimmer implements UtilizationModel {
 	 */
 	@Override
 	public double getUtilization(double time) {
-		if (getHistory().containsKey(time)) {
-			return getHistory().get(time);
+		double storedUtilization = getHistory().get(time);
+		if (!Double.isNaN(storedUtilization)) {
+			return storedUtilization;
 		}
 		double slot = time / 300;
 //		double utilization = 0;
@@ -80,7 +89,7 @@ public class UtilizationModelDimmer implements UtilizationModel {
 	   double randomUtilization = getRandomGenerator().nextDouble();
 		double utilization = 0.95 + 0.05 * randomUtilization ;
 		
-		utilization = overloadTraceGenerator.getOverloadedTrace().get(traceIndex++ % 287);
+		utilization = overloadedTrace[traceIndex++ % 287];
 		if(isDimmerTriggered && (time - 0.1) % 300 == 0 ){
 			isDimmerTriggered = false;
 //			System.out.println("Regenerate Utilization " + dimmerUtilization);
@@ -91,7 +100,7 @@ public class UtilizationModelDimmer implements UtilizationModel {
 			
 		}else{
 //			Log.format("Is Contained %b \n", getHistory().containsKey(time));
-			if(((time - 0.1) % 300 == 0 || time == 0) && !getHistory().containsKey(time)){
+			if(((time - 0.1) % 300 == 0 || time == 0) && !getHistory().contains(time)){
 		getHistory().put(time, utilization);
 		Log.format("Time: %f, Generate Utilization %f.2 \n", time, utilization);
 		return utilization;
@@ -120,7 +129,7 @@ public class UtilizationModelDimmer implements UtilizationModel {
 	 * 
 	 * @return the history
 	 */
-	protected Map<Double, Double> getHistory() {
+	protected UtilizationHistory getHistory() {
 		return history;
 	}
 
@@ -129,7 +138,7 @@ public class UtilizationModelDimmer implements UtilizationModel {
 	 * 
 	 * @param history the history
 	 */
-	protected void setHistory(Map<Double, Double> history) {
+	protected void setHistory(UtilizationHistory history) {
 		this.history = history;
 	}
 
@@ -140,10 +149,7 @@ public class UtilizationModelDimmer implements UtilizationModel {
 	 * @throws Exception the exception
 	 */
 	public void saveHistory(String filename) throws Exception {
-		FileOutputStream fos = new FileOutputStream(filename);
-		ObjectOutputStream oos = new ObjectOutputStream(fos);
-		oos.writeObject(getHistory());
-		oos.close();
+		getHistory().save(filename);
 	}
 
 	/**
@@ -152,12 +158,8 @@ public class UtilizationModelDimmer implements UtilizationModel {
 	 * @param filename the filename
 	 * @throws Exception the exception
 	 */
-	@SuppressWarnings("unchecked")
 	public void loadHistory(String filename) throws Exception {
-		FileInputStream fis = new FileInputStream(filename);
-		ObjectInputStream ois = new ObjectInputStream(fis);
-		setHistory((Map<Double, Double>) ois.readObject());
-		ois.close();
+		getHistory().load(filename);
 	}
 
 	/**
@@ -1,8 +1,9 @@
 package org.cloudbus.cloudsim;
 
-import java.io.BufferedReader;
-import java.io.FileReader;
 import java.io.IOException;
+import java.util.Arrays;
+
+import org.cloudbus.cloudsim.util.TraceRepository;
 
 /**
  * The Class UtilizationModelPlanetLab.
@@ -16,7 +17,8 @@ public class UtilizationModelPlanetLabInMemory implements UtilizationModel {
 	private final double[] data; 
 	
 	/**
-	 * Instantiates a new utilization model PlanetLab.
+	 * Instantiates a new utilization model PlanetLab. The trace is loaded through the
+	 * {@link TraceRepository}, so it is read only once and may be in the binary format.
 	 * 
 	 * @param inputPath the input path
 	 * @throws NumberFormatException the number format exception
@@ -25,15 +27,7 @@ public class UtilizationModelPlanetLabInMemory implements UtilizationModel {
 	public UtilizationModelPlanetLabInMemory(String inputPath, double schedulingInterval)
 			throws NumberFormatException,
 			IOException {
-		data = new double[289];
-		setSchedulingInterval(schedulingInterval);
-		BufferedReader input = new BufferedReader(new FileReader(inputPath));
-		int n = data.length;
-		for (int i = 0; i < n - 1; i++) {
-			data[i] = Integer.valueOf(input.readLine()) / 100.0;
-		}
-		data[n - 1] = data[n - 2];
-		input.close();
+		this(inputPath, schedulingInterval, 289);
 	}
 	
 	/**
@@ -48,14 +42,14 @@ public class UtilizationModelPlanetLabInMemory implements UtilizationModel {
 			throws NumberFormatException,
 			IOException {
 		setSchedulingInterval(schedulingInterval);
-		data = new double[dataSamples];
-		BufferedReader input = new BufferedReader(new FileReader(inputPath));
-		int n = data.length;
-		for (int i = 0; i < n - 1; i++) {
-			data[i] = Integer.valueOf(input.readLine()) / 100.0;
+		double[] trace = TraceRepository.getTrace(inputPath, 100);
+		int n = dataSamples;
+		if (trace.length < n - 1) {
+			throw new IOException("The trace " + inputPath + " has " + trace.length + " samples instead of "
+					+ (n - 1));
 		}
+		data = Arrays.copyOf(trace, n);
 		data[n - 1] = data[n - 2];
-		input.close();
 	}
 
 	/*
@@ -8,12 +8,6 @@
 
 package org.cloudbus.cloudsim;
 
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
-import java.util.HashMap;
-import java.util.Map;
 import java.util.Random;
 
 /**
@@ -25,17 +19,20 @@ import java.util.Random;
  */
 public class UtilizationModelStochastic implements UtilizationModel {
 
+	/** The default width of the history slots, i.e. the scheduling interval of the simulations. */
+	public static final double DEFAULT_HISTORY_SLOT_WIDTH = 300;
+
 	/** The random generator. */
 	private Random randomGenerator;
 
 	/** The history. */
-	private Map<Double, Double> history;
+	private UtilizationHistory history;
 
 	/**
 	 * Instantiates a new utilization model stochastic.
 	 */
 	public UtilizationModelStochastic() {
-		setHistory(new HashMap<Double, Double>());
+		setHistory(new UtilizationHistory(DEFAULT_HISTORY_SLOT_WIDTH));
 		setRandomGenerator(new Random());
 	}
 
@@ -45,7 +42,17 @@ public class UtilizationModelStochastic implements UtilizationModel {
 	 * @param seed the seed
 	 */
 	public UtilizationModelStochastic(long seed) {
-		setHistory(new HashMap<Double, Double>());
+		this(seed, DEFAULT_HISTORY_SLOT_WIDTH);
+	}
+
+	/**
+	 * Instantiates a new utilization model stochastic.
+	 * 
+	 * @param seed the seed
+	 * @param historySlotWidth the width of the history slots, usually the scheduling interval
+	 */
+	public UtilizationModelStochastic(long seed, double historySlotWidth) {
+		setHistory(new UtilizationHistory(historySlotWidth));
 		setRandomGenerator(new Random(seed));
 	}
 
@@ -55,8 +62,9 @@ public class UtilizationModelStochastic implements UtilizationModel {
 	 */
 	@Override
 	public double getUtilization(double time) {
-		if (getHistory().containsKey(time)) {
-			return getHistory().get(time);
+		double storedUtilization = getHistory().get(time);
+		if (!Double.isNaN(storedUtilization)) {
+			return storedUtilization;
 		}
 
 		double utilization = getRandomGenerator().nextDouble();
@@ -70,7 +78,7 @@ public class UtilizationModelStochastic implements UtilizationModel {
 	 * 
 	 * @return the history
 	 */
-	protected Map<Double, Double> getHistory() {
+	protected UtilizationHistory getHistory() {
 		return history;
 	}
 
@@ -79,7 +87,7 @@ public class UtilizationModelStochastic implements UtilizationModel {
 	 * 
 	 * @param history the history
 	 */
-	protected void setHistory(Map<Double, Double> history) {
+	protected void setHistory(UtilizationHistory history) {
 		this.history = history;
 	}
 
@@ -90,10 +98,7 @@ public class UtilizationModelStochastic implements UtilizationModel {
 	 * @throws Exception the exception
 	 */
 	public void saveHistory(String filename) throws Exception {
-		FileOutputStream fos = new FileOutputStream(filename);
-		ObjectOutputStream oos = new ObjectOutputStream(fos);
-		oos.writeObject(getHistory());
-		oos.close();
+		getHistory().save(filename);
 	}
 
 	/**
@@ -102,12 +107,8 @@ public class UtilizationModelStochastic implements UtilizationModel {
 	 * @param filename the filename
 	 * @throws Exception the exception
 	 */
-	@SuppressWarnings("unchecked")
 	public void loadHistory(String filename) throws Exception {
-		FileInputStream fis = new FileInputStream(filename);
-		ObjectInputStream ois = new ObjectInputStream(fis);
-		setHistory((Map<Double, Double>) ois.readObject());
-		ois.close();
+		getHistory().load(filename);
 	}
 
 	/**
@@ -8,7 +8,6 @@
 package org.cloudbus.cloudsim;
 
 import java.util.ArrayList;
-import java.util.LinkedList;
 import java.util.List;
 
 /**
@@ -74,7 +73,7 @@ public class Vm {
 	private boolean beingInstantiated;
 
 	/** The mips allocation history. */
-	private final List<VmStateHistoryEntry> stateHistory = new LinkedList<VmStateHistoryEntry>();
+	private final VmStateHistory stateHistory = new VmStateHistory();
 	
 
 
@@ -576,7 +575,7 @@ public class Vm {
 	 * 
 	 * @return the state history
 	 */
-	public List<VmStateHistoryEntry> getStateHistory() {
+	public VmStateHistory getStateHistory() {
 		return stateHistory;
 	}
 
@@ -593,19 +592,7 @@ public class Vm {
 			double allocatedMips,
 			double requestedMips,
 			boolean isInMigration) {
-		VmStateHistoryEntry newState = new VmStateHistoryEntry(
-				time,
-				allocatedMips,
-				requestedMips,
-				isInMigration);
-		if (!getStateHistory().isEmpty()) {
-			VmStateHistoryEntry previousState = getStateHistory().get(getStateHistory().size() - 1);
-			if (previousState.getTime() == time) {
-				getStateHistory().set(getStateHistory().size() - 1, newState);
-				return;
-			}
-		}
-		getStateHistory().add(newState);
+		getStateHistory().addEntry(time, allocatedMips, requestedMips, isInMigration);
 	}
 	
 }
@@ -69,6 +69,27 @@ public abstract class VmScheduler {
 	 */
 	public abstract boolean allocatePesForVm(Vm vm, List<Double> mipsShare);
 
+	/**
+	 * Provisions the PEs of several VMs again in one call: the PEs of the VMs are released, and then
+	 * allocated again with the requested MIPS, in the iteration order of the map. The result is the
+	 * one of {@link #deallocatePesForVm(Vm)} for each VM followed by
+	 * {@link #allocatePesForVm(Vm, List)} for each VM, which is how this implementation does it; a
+	 * scheduler may pack the PEs only once instead.
+	 * 
+	 * @param mipsShareRequested the MIPS requested by each virtual PE of the VMs, by VM
+	 * @return $true if all the VMs have been allocated, $false otherwise
+	 */
+	public boolean allocatePesForVms(Map<Vm, List<Double>> mipsShareRequested) {
+		for (Vm vm : mipsShareRequested.keySet()) {
+			deallocatePesForVm(vm);
+		}
+		boolean result = true;
+		for (Map.Entry<Vm, List<Double>> entry : mipsShareRequested.entrySet()) {
+			result &= allocatePesForVm(entry.getKey(), entry.getValue());
+		}
+		return result;
+	}
+
 	/**
 	 * Releases PEs allocated to a VM.
 	 * 
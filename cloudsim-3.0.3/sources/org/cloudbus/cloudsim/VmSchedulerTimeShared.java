@@ -53,6 +53,55 @@ public class VmSchedulerTimeShared extends VmScheduler {
 		/**
 		 * TODO: add the same to RAM and BW provisioners
 		 */
+		updateVmsMigratingOut(vm);
+		boolean result = allocatePesForVm(vm.getUid(), mipsShareRequested);
+		updatePeProvisioning();
+		return result;
+	}
+
+	/**
+	 * Provisions the PEs of several VMs again in one call, with the same result as
+	 * {@link #deallocatePesForVm(Vm)} for each VM followed by {@link #allocatePesForVm(Vm, List)}
+	 * for each VM. The other VMs are allocated again once instead of once per released VM, and the
+	 * PEs are packed once instead of once per VM.
+	 * 
+	 * @param mipsShareRequested the MIPS requested by each virtual PE of the VMs, by VM
+	 * @return true, if all the VMs have been allocated
+	 */
+	@Override
+	public boolean allocatePesForVms(Map<Vm, List<Double>> mipsShareRequested) {
+		if (mipsShareRequested.isEmpty()) {
+			return true;
+		}
+
+		// the state left by the release of the last VM, i.e. the other VMs allocated from scratch
+		for (Vm vm : mipsShareRequested.keySet()) {
+			getMipsMapRequested().remove(vm.getUid());
+		}
+		setPesInUse(0);
+		getMipsMap().clear();
+		setAvailableMips(PeList.getTotalMips(getPeList()));
+		for (Map.Entry<String, List<Double>> entry : getMipsMapRequested().entrySet()) {
+			allocatePesForVm(entry.getKey(), entry.getValue());
+		}
+
+		boolean result = true;
+		for (Map.Entry<Vm, List<Double>> entry : mipsShareRequested.entrySet()) {
+			Vm vm = entry.getKey();
+			updateVmsMigratingOut(vm);
+			result &= allocatePesForVm(vm.getUid(), entry.getValue());
+		}
+		updatePeProvisioning();
+		return result;
+	}
+
+	/**
+	 * Adds a VM to the VMs migrating out if it is in migration and not migrating in, or removes it
+	 * if it is not in migration any more.
+	 * 
+	 * @param vm the vm
+	 */
+	private void updateVmsMigratingOut(Vm vm) {
 		if (vm.isInMigration()) {
 			if (!getVmsMigratingIn().contains(vm.getUid()) && !getVmsMigratingOut().contains(vm.getUid())) {
 				getVmsMigratingOut().add(vm.getUid());
@@ -62,9 +111,6 @@ public class VmSchedulerTimeShared extends VmScheduler {
 				getVmsMigratingOut().remove(vm.getUid());
 			}
 		}
-		boolean result = allocatePesForVm(vm.getUid(), mipsShareRequested);
-		updatePeProvisioning();
-		return result;
 	}
 
 	/**
@@ -132,18 +178,19 @@ public class VmSchedulerTimeShared extends VmScheduler {
 
 		for (Map.Entry<String, List<Double>> entry : getMipsMap().entrySet()) {
 			String vmUid = entry.getKey();
-			getPeMap().put(vmUid, new LinkedList<Pe>());
+			List<Pe> vmPes = new LinkedList<Pe>();
+			getPeMap().put(vmUid, vmPes);
 
 			for (double mips : entry.getValue()) {
 				while (mips >= 0.1) {
 					if (availableMips >= mips) {
 						peProvisioner.allocateMipsForVm(vmUid, mips);
-						getPeMap().get(vmUid).add(pe);
+						vmPes.add(pe);
 						availableMips -= mips;
 						break;
 					} else {
 						peProvisioner.allocateMipsForVm(vmUid, availableMips);
-						getPeMap().get(vmUid).add(pe);
+						vmPes.add(pe);
 						mips -= availableMips;
 						if (mips <= 0.1) {
 							break;
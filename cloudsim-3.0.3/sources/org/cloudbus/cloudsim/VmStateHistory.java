@@ -0,0 +1,141 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim;
+
+import org.cloudbus.cloudsim.util.ResultsWriter;
+
+/**
+ * The state history of a VM, whose flag is whether the VM is in migration. Besides the entries
+ * kept, it accumulates the totals used by the SLA metrics of the VMs over the whole history.
+ *
+ * @see Vm#getStateHistory()
+ * @since CloudSim Toolkit 3.0
+ */
+public class VmStateHistory extends StateHistory<VmStateHistoryEntry> {
+
+	/** The name of the table of the VM state histories in a results file. */
+	public static final String TABLE_NAME = "vm_state";
+
+	/** The allocated MIPS multiplied by the time. */
+	private double totalAllocatedMips;
+
+	/** The requested MIPS multiplied by the time. */
+	private double totalRequestedMips;
+
+	/** The MIPS under-allocated in migration multiplied by the time. */
+	private double underAllocatedMipsDueToMigration;
+
+	/** The sum of the relative under-allocations. */
+	private double slaViolationSum;
+
+	/** The number of under-allocated entries. */
+	private int slaViolationCount;
+
+	/**
+	 * Instantiates a new VM state history. A VM is not in migration before its first entry.
+	 */
+	public VmStateHistory() {
+		super(false);
+	}
+
+	/**
+	 * Creates the table of the VM state histories in a results file.
+	 *
+	 * @param writer the writer of the results file
+	 * @return the table
+	 */
+	public static ResultsWriter.Table createTable(ResultsWriter writer) {
+		ResultsWriter.Table table = writer.createTable(TABLE_NAME);
+		table.addIntColumn("vm");
+		table.addDoubleColumn("time");
+		table.addDoubleColumn("allocated_mips");
+		table.addDoubleColumn("requested_mips");
+		table.addIntColumn("in_migration");
+		return table;
+	}
+
+	/**
+	 * Gets the sum of the allocated MIPS of the entries multiplied by their durations.
+	 *
+	 * @return the total allocated MIPS
+	 */
+	public double getTotalAllocatedMips() {
+		return totalAllocatedMips;
+	}
+
+	/**
+	 * Gets the sum of the requested MIPS of the entries multiplied by their durations.
+	 *
+	 * @return the total requested MIPS
+	 */
+	public double getTotalRequestedMips() {
+		return totalRequestedMips;
+	}
+
+	/**
+	 * Gets the sum of the MIPS under-allocated while the VM was in migration, multiplied by the
+	 * durations of the entries.
+	 *
+	 * @return the MIPS under-allocated due to migration
+	 */
+	public double getUnderAllocatedMipsDueToMigration() {
+		return underAllocatedMipsDueToMigration;
+	}
+
+	/**
+	 * Gets the sum of the under-allocated MIPS relative to the requested MIPS, over the entries
+	 * whose allocated MIPS were below their requested MIPS.
+	 *
+	 * @return the sum of the SLA violations
+	 */
+	public double getSlaViolationSum() {
+		return slaViolationSum;
+	}
+
+	/**
+	 * Gets the number of entries whose allocated MIPS were below their requested MIPS.
+	 *
+	 * @return the number of SLA violations
+	 */
+	public int getSlaViolationCount() {
+		return slaViolationCount;
+	}
+
+	/**
+	 * Gets the times between the start and the end of each migration.
+	 *
+	 * @return the times before the end of the migrations
+	 */
+	public double[] getTimesBeforeMigration() {
+		return getFlagPeriods();
+	}
+
+	@Override
+	protected void accumulate(double duration, double allocatedMips, double requestedMips, boolean isInMigration) {
+		totalAllocatedMips += allocatedMips * duration;
+		totalRequestedMips += requestedMips * duration;
+		if (allocatedMips < requestedMips) {
+			slaViolationSum += (requestedMips - allocatedMips) / requestedMips;
+			slaViolationCount++;
+			if (isInMigration) {
+				underAllocatedMipsDueToMigration += (requestedMips - allocatedMips) * duration;
+			}
+		}
+	}
+
+	@Override
+	protected VmStateHistoryEntry createEntry(
+			double time,
+			double allocatedMips,
+			double requestedMips,
+			boolean isInMigration) {
+		return new VmStateHistoryEntry(time, allocatedMips, requestedMips, isInMigration);
+	}
+
+}
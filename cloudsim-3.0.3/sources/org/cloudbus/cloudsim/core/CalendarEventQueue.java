@@ -0,0 +1,421 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.core;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * This class implements the future event queue as a calendar queue. Events are hashed by time into
+ * an array of buckets ("days") of a fixed width, each bucket keeping its events sorted. The queue
+ * is scanned day by day from the time of the last event, so that enqueue and dequeue take O(1)
+ * amortised time when the bucket width matches the spacing of the events. The number of buckets
+ * and their width are recomputed whenever the queue grows or shrinks by a factor of two.
+ * <p>
+ * R. Brown, "Calendar Queues: A Fast O(1) Priority Queue Implementation for the Simulation Event
+ * Set Problem", Communications of the ACM, Volume 31, Issue 10, Pages: 1220-1227, 1988
+ *
+ * @see EventQueue
+ * @since CloudSim Toolkit 3.0
+ */
+public class CalendarEventQueue implements EventQueue {
+
+	/** The minimum number of buckets. */
+	private static final int MIN_BUCKETS = 16;
+
+	/** The number of events sampled to estimate the bucket width. */
+	private static final int WIDTH_SAMPLE_SIZE = 64;
+
+	/** The buckets, allocated on first use. */
+	private Bucket[] buckets;
+
+	/** The width of a bucket in simulation time. */
+	private double width;
+
+	/** The number of events in the queue. */
+	private int size;
+
+	/** The absolute (not wrapped) number of the bucket the search for the first event starts from. */
+	private long currentDay;
+
+	/** The serial of the events added to the tail. */
+	private long serial = 0;
+
+	/** The serial of the events added to the head, which sorts before any tail serial. */
+	private long firstSerial = Long.MIN_VALUE;
+
+	/**
+	 * Instantiates a new calendar event queue.
+	 */
+	public CalendarEventQueue() {
+		this(1.0);
+	}
+
+	/**
+	 * Instantiates a new calendar event queue.
+	 *
+	 * @param initialWidth the initial width of a bucket, which is adapted as the queue grows
+	 */
+	public CalendarEventQueue(double initialWidth) {
+		if (initialWidth <= 0) {
+			throw new IllegalArgumentException("The bucket width should be positive, but is:" + initialWidth);
+		}
+		buckets = new Bucket[MIN_BUCKETS];
+		width = initialWidth;
+	}
+
+	@Override
+	public void addEvent(SimEvent newEvent) {
+		newEvent.setSerial(serial++);
+		insert(newEvent);
+	}
+
+	@Override
+	public void addEventFirst(SimEvent newEvent) {
+		newEvent.setSerial(firstSerial++);
+		insert(newEvent);
+	}
+
+	@Override
+	public SimEvent peek() {
+		Bucket bucket = findFirstBucket();
+		if (bucket == null) {
+			return null;
+		}
+		return bucket.first();
+	}
+
+	@Override
+	public SimEvent poll() {
+		Bucket bucket = findFirstBucket();
+		if (bucket == null) {
+			return null;
+		}
+		SimEvent first = bucket.removeFirst();
+		size--;
+		shrinkIfNeeded();
+		return first;
+	}
+
+	@Override
+	public Iterator<SimEvent> iterator() {
+		return new Iterator<SimEvent>() {
+
+			private int bucketIndex = 0;
+
+			private int eventIndex = 0;
+
+			@Override
+			public boolean hasNext() {
+				while (bucketIndex < buckets.length) {
+					Bucket bucket = buckets[bucketIndex];
+					if (bucket != null && eventIndex < bucket.size) {
+						return true;
+					}
+					bucketIndex++;
+					eventIndex = 0;
+				}
+				return false;
+			}
+
+			@Override
+			public SimEvent next() {
+				if (!hasNext()) {
+					throw new NoSuchElementException();
+				}
+				return buckets[bucketIndex].events[eventIndex++];
+			}
+
+			@Override
+			public void remove() {
+				throw new UnsupportedOperationException();
+			}
+		};
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public boolean remove(SimEvent event) {
+		Bucket bucket = buckets[getBucketIndex(getDay(event.eventTime()))];
+		if (bucket == null || !bucket.remove(event)) {
+			return false;
+		}
+		size--;
+		shrinkIfNeeded();
+		return true;
+	}
+
+	@Override
+	public boolean removeAll(Collection<SimEvent> events) {
+		boolean result = false;
+		for (SimEvent event : events) {
+			result |= remove(event);
+		}
+		return result;
+	}
+
+	@Override
+	public void clear() {
+		buckets = new Bucket[MIN_BUCKETS];
+		size = 0;
+		currentDay = 0;
+	}
+
+	/**
+	 * Inserts an event which already has its serial.
+	 *
+	 * @param event the event
+	 */
+	private void insert(SimEvent event) {
+		long day = getDay(event.eventTime());
+		if (size == 0 || day < currentDay) {
+			currentDay = day;
+		}
+		addToBucket(event, day);
+		size++;
+		if (size > 2 * buckets.length) {
+			resize(2 * buckets.length);
+		}
+	}
+
+	/**
+	 * Adds an event to the bucket of a given day.
+	 *
+	 * @param event the event
+	 * @param day the day of the event
+	 */
+	private void addToBucket(SimEvent event, long day) {
+		int index = getBucketIndex(day);
+		Bucket bucket = buckets[index];
+		if (bucket == null) {
+			bucket = new Bucket();
+			buckets[index] = bucket;
+		}
+		bucket.add(event);
+	}
+
+	/**
+	 * Finds the bucket holding the first event and moves the current day to it.
+	 *
+	 * @return the bucket, or <tt>null</tt> if the queue is empty
+	 */
+	private Bucket findFirstBucket() {
+		if (size == 0) {
+			return null;
+		}
+
+		// scan one year of days starting from the current one
+		for (int i = 0; i < buckets.length; i++) {
+			Bucket bucket = buckets[getBucketIndex(currentDay)];
+			if (bucket != null && bucket.size > 0 && getDay(bucket.first().eventTime()) <= currentDay) {
+				return bucket;
+			}
+			currentDay++;
+		}
+
+		// the events are sparse: search the earliest event directly
+		Bucket firstBucket = null;
+		for (Bucket bucket : buckets) {
+			if (bucket != null && bucket.size > 0
+					&& (firstBucket == null || bucket.first().compareTo(firstBucket.first()) < 0)) {
+				firstBucket = bucket;
+			}
+		}
+		currentDay = getDay(firstBucket.first().eventTime());
+		return firstBucket;
+	}
+
+	/**
+	 * Halves the number of buckets if the queue is sparse.
+	 */
+	private void shrinkIfNeeded() {
+		if (buckets.length > MIN_BUCKETS && size < buckets.length / 2) {
+			resize(buckets.length / 2);
+		}
+	}
+
+	/**
+	 * Rebuilds the calendar with a new number of buckets and a new bucket width.
+	 *
+	 * @param numberOfBuckets the new number of buckets
+	 */
+	private void resize(int numberOfBuckets) {
+		SimEvent[] events = new SimEvent[size];
+		int count = 0;
+		for (Bucket bucket : buckets) {
+			if (bucket != null) {
+				System.arraycopy(bucket.events, 0, events, count, bucket.size);
+				count += bucket.size;
+			}
+		}
+
+		width = estimateWidth(events);
+		buckets = new Bucket[numberOfBuckets];
+		SimEvent first = null;
+		for (SimEvent event : events) {
+			addToBucket(event, getDay(event.eventTime()));
+			if (first == null || event.compareTo(first) < 0) {
+				first = event;
+			}
+		}
+		if (first != null) {
+			currentDay = getDay(first.eventTime());
+		}
+	}
+
+	/**
+	 * Estimates the bucket width as three times the average spacing of the events. The spacing is
+	 * taken from the interquartile range of a sample of the events, so that a few events scheduled
+	 * far in the future do not stretch the buckets.
+	 *
+	 * @param events the events
+	 * @return the bucket width
+	 */
+	private double estimateWidth(SimEvent[] events) {
+		if (events.length < 2) {
+			return width;
+		}
+		int sampleSize = Math.min(events.length, WIDTH_SAMPLE_SIZE);
+		double[] sample = new double[sampleSize];
+		double step = (double) events.length / sampleSize;
+		for (int i = 0; i < sampleSize; i++) {
+			sample[i] = events[(int) (i * step)].eventTime();
+		}
+		Arrays.sort(sample);
+
+		double spacing = (sample[sampleSize * 3 / 4] - sample[sampleSize / 4]) / (events.length / 2.0);
+		if (spacing <= 0) {
+			spacing = (sample[sampleSize - 1] - sample[0]) / events.length;
+		}
+		if (spacing <= 0 || Double.isNaN(spacing) || Double.isInfinite(spacing)) {
+			return width;
+		}
+
+		// keep the day numbers within the range of a long
+		double minWidth = Math.max(Math.abs(sample[sampleSize - 1]), 1.0) * 1e-12;
+		return Math.max(3 * spacing, minWidth);
+	}
+
+	/**
+	 * Gets the absolute number of the day an event time falls into.
+	 *
+	 * @param time the event time
+	 * @return the day
+	 */
+	private long getDay(double time) {
+		return (long) Math.floor(time / width);
+	}
+
+	/**
+	 * Gets the bucket index of a day.
+	 *
+	 * @param day the day
+	 * @return the bucket index
+	 */
+	private int getBucketIndex(long day) {
+		int index = (int) (day % buckets.length);
+		return index < 0 ? index + buckets.length : index;
+	}
+
+	/**
+	 * A bucket of the calendar. The events are kept in descending order, so that the first event is
+	 * removed from the end of the array.
+	 */
+	private static class Bucket {
+
+		/** The events, in descending order. */
+		private SimEvent[] events = new SimEvent[4];
+
+		/** The number of events. */
+		private int size;
+
+		/**
+		 * Gets the first event of the bucket.
+		 *
+		 * @return the first event
+		 */
+		SimEvent first() {
+			return events[size - 1];
+		}
+
+		/**
+		 * Removes the first event of the bucket.
+		 *
+		 * @return the first event
+		 */
+		SimEvent removeFirst() {
+			SimEvent first = events[--size];
+			events[size] = null;
+			return first;
+		}
+
+		/**
+		 * Adds an event keeping the descending order.
+		 *
+		 * @param event the event
+		 */
+		void add(SimEvent event) {
+			if (size == events.length) {
+				events = Arrays.copyOf(events, events.length * 2);
+			}
+			int index = indexOf(event);
+			int position = -(index + 1);
+			System.arraycopy(events, position, events, position + 1, size - position);
+			events[position] = event;
+			size++;
+		}
+
+		/**
+		 * Removes an event.
+		 *
+		 * @param event the event
+		 * @return true, if the event was in the bucket
+		 */
+		boolean remove(SimEvent event) {
+			int index = indexOf(event);
+			if (index < 0) {
+				return false;
+			}
+			System.arraycopy(events, index + 1, events, index, size - index - 1);
+			events[--size] = null;
+			return true;
+		}
+
+		/**
+		 * Binary search of an event in the descending array.
+		 *
+		 * @param event the event
+		 * @return the index of the event, or <tt>-(insertion point) - 1</tt> if it is not found
+		 */
+		private int indexOf(SimEvent event) {
+			int low = 0;
+			int high = size - 1;
+			while (low <= high) {
+				int middle = (low + high) >>> 1;
+				int comparison = event.compareTo(events[middle]);
+				if (comparison == 0) {
+					return middle;
+				} else if (comparison > 0) {
+					high = middle - 1;
+				} else {
+					low = middle + 1;
+				}
+			}
+			return -(low + 1);
+		}
+
+	}
+
+}
@@ -8,14 +8,18 @@
 
 package org.cloudbus.cloudsim.core;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.ListIterator;
 
 /**
- * This class implements the deferred event queue used by {@link Simulation}. The event queue uses a
- * linked list to store the events.
+ * This class implements the deferred event queue used by {@link Simulation}. The events are kept
+ * in one linked list per destination entity, indexed by the entity id, so that an entity only
+ * looks at its own deferred events. Within a list the events keep their temporal order, and
+ * events with the same time keep their insertion order.
  * 
  * @author Marcos Dias de Assuncao
  * @since CloudSim Toolkit 1.0
@@ -24,11 +28,11 @@ import java.util.ListIterator;
  */
 public class DeferredQueue {
 
-	/** The list. */
-	private final List<SimEvent> list = new LinkedList<SimEvent>();
+	/** The lists of events, indexed by the destination entity id. */
+	private final List<LinkedList<SimEvent>> lists = new ArrayList<LinkedList<SimEvent>>();
 
-	/** The max time. */
-	private double maxTime = -1;
+	/** The total number of events. */
+	private int size = 0;
 
 	/**
 	 * Adds a new event to the queue. Adding a new event to the queue preserves the temporal order
@@ -37,12 +41,14 @@ public class DeferredQueue {
 	 * @param newEvent The event to be added to the queue.
 	 */
 	public void addEvent(SimEvent newEvent) {
+		LinkedList<SimEvent> list = getList(newEvent.getDestination(), true);
+		size++;
+
 		// The event has to be inserted as the last of all events
 		// with the same event_time(). Yes, this matters.
 		double eventTime = newEvent.eventTime();
-		if (eventTime >= maxTime) {
+		if (list.isEmpty() || eventTime >= list.getLast().eventTime()) {
 			list.add(newEvent);
-			maxTime = eventTime;
 			return;
 		}
 
@@ -61,12 +67,81 @@ public class DeferredQueue {
 	}
 
 	/**
-	 * Returns an iterator to the events in the queue.
+	 * Returns an iterator to the events in the queue. The events are grouped by destination
+	 * entity.
 	 * 
 	 * @return the iterator
 	 */
 	public Iterator<SimEvent> iterator() {
-		return list.iterator();
+		List<SimEvent> events = new ArrayList<SimEvent>(size);
+		for (LinkedList<SimEvent> list : lists) {
+			if (list != null) {
+				events.addAll(list);
+			}
+		}
+		return Collections.unmodifiableList(events).iterator();
+	}
+
+	/**
+	 * Returns an iterator to the events sent to a given entity, in temporal order. The iterator
+	 * supports removal.
+	 * 
+	 * @param destination the id of the destination entity
+	 * @return the iterator
+	 */
+	public Iterator<SimEvent> iterator(int destination) {
+		final LinkedList<SimEvent> list = getList(destination, false);
+		if (list == null) {
+			return Collections.<SimEvent> emptyList().iterator();
+		}
+		final Iterator<SimEvent> iterator = list.iterator();
+		return new Iterator<SimEvent>() {
+
+			@Override
+			public boolean hasNext() {
+				return iterator.hasNext();
+			}
+
+			@Override
+			public SimEvent next() {
+				return iterator.next();
+			}
+
+			@Override
+			public void remove() {
+				iterator.remove();
+				size--;
+			}
+		};
+	}
+
+	/**
+	 * Returns the first event sent to a given entity, without removing it.
+	 * 
+	 * @param destination the id of the destination entity
+	 * @return the first event, or <tt>null</tt> if there is none
+	 */
+	public SimEvent first(int destination) {
+		LinkedList<SimEvent> list = getList(destination, false);
+		if (list == null || list.isEmpty()) {
+			return null;
+		}
+		return list.getFirst();
+	}
+
+	/**
+	 * Removes and returns the first event sent to a given entity.
+	 * 
+	 * @param destination the id of the destination entity
+	 * @return the first event, or <tt>null</tt> if there is none
+	 */
+	public SimEvent removeFirst(int destination) {
+		LinkedList<SimEvent> list = getList(destination, false);
+		if (list == null || list.isEmpty()) {
+			return null;
+		}
+		size--;
+		return list.removeFirst();
 	}
 
 	/**
@@ -75,6 +150,20 @@ public class DeferredQueue {
 	 * @return the number of events in the queue.
 	 */
 	public int size() {
+		return size;
+	}
+
+	/**
+	 * Returns the number of events sent to a given entity.
+	 * 
+	 * @param destination the id of the destination entity
+	 * @return the number of events
+	 */
+	public int size(int destination) {
+		LinkedList<SimEvent> list = getList(destination, false);
+		if (list == null) {
+			return 0;
+		}
 		return list.size();
 	}
 
@@ -82,7 +171,38 @@ public class DeferredQueue {
 	 * Clears the queue.
 	 */
 	public void clear() {
-		list.clear();
+		lists.clear();
+		size = 0;
+	}
+
+	/**
+	 * Gets the list of events sent to a given entity.
+	 * 
+	 * @param destination the id of the destination entity
+	 * @param create whether to create the list if it does not exist
+	 * @return the list, or <tt>null</tt> if it does not exist and is not created
+	 */
+	private LinkedList<SimEvent> getList(int destination, boolean create) {
+		if (destination < 0) {
+			if (create) {
+				throw new IllegalArgumentException("Invalid destination entity id: " + destination);
+			}
+			return null;
+		}
+		if (destination >= lists.size()) {
+			if (!create) {
+				return null;
+			}
+			while (destination >= lists.size()) {
+				lists.add(null);
+			}
+		}
+		LinkedList<SimEvent> list = lists.get(destination);
+		if (list == null && create) {
+			list = new LinkedList<SimEvent>();
+			lists.set(destination, list);
+		}
+		return list;
 	}
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,237 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.core;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * This class implements the future event queue as an implicit d-ary heap stored in an array. The
+ * position of each event in the heap is kept in the event itself, so removing an arbitrary event
+ * costs O(log n) instead of a search. A 4-ary heap (the default) needs fewer levels than a binary
+ * heap and keeps the children of a node in the same cache line.
+ *
+ * @see EventQueue
+ * @since CloudSim Toolkit 3.0
+ */
+public class HeapEventQueue implements EventQueue {
+
+	/** The default number of children of each node. */
+	public static final int DEFAULT_ARITY = 4;
+
+	/** The initial capacity of the heap array. */
+	private static final int INITIAL_CAPACITY = 64;
+
+	/** The number of children of each node. */
+	private final int arity;
+
+	/** The heap array. */
+	private SimEvent[] heap;
+
+	/** The number of events in the queue. */
+	private int size;
+
+	/** The serial of the events added to the tail. */
+	private long serial = 0;
+
+	/** The serial of the events added to the head, which sorts before any tail serial. */
+	private long firstSerial = Long.MIN_VALUE;
+
+	/**
+	 * Instantiates a new 4-ary heap event queue.
+	 */
+	public HeapEventQueue() {
+		this(DEFAULT_ARITY);
+	}
+
+	/**
+	 * Instantiates a new heap event queue.
+	 *
+	 * @param arity the number of children of each node, 2 for a binary heap
+	 */
+	public HeapEventQueue(int arity) {
+		if (arity < 2) {
+			throw new IllegalArgumentException("The arity of the heap should be at least 2, but is:" + arity);
+		}
+		this.arity = arity;
+		heap = new SimEvent[INITIAL_CAPACITY];
+	}
+
+	@Override
+	public void addEvent(SimEvent newEvent) {
+		newEvent.setSerial(serial++);
+		insert(newEvent);
+	}
+
+	@Override
+	public void addEventFirst(SimEvent newEvent) {
+		newEvent.setSerial(firstSerial++);
+		insert(newEvent);
+	}
+
+	@Override
+	public SimEvent peek() {
+		if (size == 0) {
+			return null;
+		}
+		return heap[0];
+	}
+
+	@Override
+	public SimEvent poll() {
+		if (size == 0) {
+			return null;
+		}
+		SimEvent first = heap[0];
+		removeAt(0);
+		return first;
+	}
+
+	@Override
+	public Iterator<SimEvent> iterator() {
+		return new Iterator<SimEvent>() {
+
+			private int index = 0;
+
+			@Override
+			public boolean hasNext() {
+				return index < size;
+			}
+
+			@Override
+			public SimEvent next() {
+				if (index >= size) {
+					throw new NoSuchElementException();
+				}
+				return heap[index++];
+			}
+
+			@Override
+			public void remove() {
+				throw new UnsupportedOperationException();
+			}
+		};
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public boolean remove(SimEvent event) {
+		int index = event.getQueueIndex();
+		if (index < 0 || index >= size || heap[index] != event) {
+			return false;
+		}
+		removeAt(index);
+		return true;
+	}
+
+	@Override
+	public boolean removeAll(Collection<SimEvent> events) {
+		boolean result = false;
+		for (SimEvent event : events) {
+			result |= remove(event);
+		}
+		return result;
+	}
+
+	@Override
+	public void clear() {
+		for (int i = 0; i < size; i++) {
+			heap[i].setQueueIndex(-1);
+			heap[i] = null;
+		}
+		size = 0;
+	}
+
+	/**
+	 * Inserts an event which already has its serial.
+	 *
+	 * @param event the event
+	 */
+	private void insert(SimEvent event) {
+		if (size == heap.length) {
+			heap = Arrays.copyOf(heap, heap.length * 2);
+		}
+		siftUp(size++, event);
+	}
+
+	/**
+	 * Removes the event at a given position of the heap.
+	 *
+	 * @param index the position
+	 */
+	private void removeAt(int index) {
+		heap[index].setQueueIndex(-1);
+		SimEvent last = heap[--size];
+		heap[size] = null;
+		if (index < size) {
+			siftDown(index, last);
+			if (heap[index] == last) {
+				siftUp(index, last);
+			}
+		}
+	}
+
+	/**
+	 * Moves an event up from a given position until its parent is not greater than it.
+	 *
+	 * @param index the position
+	 * @param event the event
+	 */
+	private void siftUp(int index, SimEvent event) {
+		while (index > 0) {
+			int parentIndex = (index - 1) / arity;
+			SimEvent parent = heap[parentIndex];
+			if (event.compareTo(parent) >= 0) {
+				break;
+			}
+			heap[index] = parent;
+			parent.setQueueIndex(index);
+			index = parentIndex;
+		}
+		heap[index] = event;
+		event.setQueueIndex(index);
+	}
+
+	/**
+	 * Moves an event down from a given position until none of its children is less than it.
+	 *
+	 * @param index the position
+	 * @param event the event
+	 */
+	private void siftDown(int index, SimEvent event) {
+		while (true) {
+			int firstChild = index * arity + 1;
+			if (firstChild >= size) {
+				break;
+			}
+			int lastChild = Math.min(firstChild + arity, size);
+			int minChild = firstChild;
+			for (int child = firstChild + 1; child < lastChild; child++) {
+				if (heap[child].compareTo(heap[minChild]) < 0) {
+					minChild = child;
+				}
+			}
+			if (heap[minChild].compareTo(event) >= 0) {
+				break;
+			}
+			heap[index] = heap[minChild];
+			heap[index].setQueueIndex(index);
+			index = minChild;
+		}
+		heap[index] = event;
+		event.setQueueIndex(index);
+	}
+
+}
@@ -0,0 +1,342 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.core;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * This class decorates a future event queue with an index of the pending events by source entity
+ * and tag. The events with the same source and tag are linked into a list through the events
+ * themselves, so keeping the index up to date costs O(1) per event and no allocation, and the
+ * events that an entity has scheduled with a given tag can be cancelled without scanning the
+ * whole queue.
+ *
+ * @see CloudSim#cancel(int, org.cloudbus.cloudsim.core.predicates.Predicate)
+ * @see CloudSim#cancelAll(int, org.cloudbus.cloudsim.core.predicates.Predicate)
+ * @since CloudSim Toolkit 3.0
+ */
+public class IndexedEventQueue implements EventQueue {
+
+	/** The decorated queue. */
+	private final EventQueue queue;
+
+	/** The lists of events by tag, indexed by the source entity id. */
+	private EventList[][] lists = new EventList[16][];
+
+	/**
+	 * Instantiates a new indexed event queue.
+	 *
+	 * @param queue the queue to be indexed
+	 */
+	public IndexedEventQueue(EventQueue queue) {
+		this.queue = queue;
+	}
+
+	@Override
+	public void addEvent(SimEvent newEvent) {
+		queue.addEvent(newEvent);
+		link(newEvent);
+	}
+
+	@Override
+	public void addEventFirst(SimEvent newEvent) {
+		queue.addEventFirst(newEvent);
+		link(newEvent);
+	}
+
+	@Override
+	public SimEvent peek() {
+		return queue.peek();
+	}
+
+	@Override
+	public SimEvent poll() {
+		SimEvent first = queue.poll();
+		if (first != null) {
+			unlink(first);
+		}
+		return first;
+	}
+
+	/**
+	 * Returns an iterator to the queue. The iterator does not support removal.
+	 *
+	 * @return the iterator
+	 */
+	@Override
+	public Iterator<SimEvent> iterator() {
+		final Iterator<SimEvent> iterator = queue.iterator();
+		return new Iterator<SimEvent>() {
+
+			@Override
+			public boolean hasNext() {
+				return iterator.hasNext();
+			}
+
+			@Override
+			public SimEvent next() {
+				return iterator.next();
+			}
+
+			@Override
+			public void remove() {
+				throw new UnsupportedOperationException();
+			}
+		};
+	}
+
+	/**
+	 * Returns an iterator to the events scheduled by an entity. The iterator does not support
+	 * removal.
+	 *
+	 * @param source the id of the source entity
+	 * @return the iterator
+	 */
+	public Iterator<SimEvent> iterator(int source) {
+		if (source < 0 || source >= lists.length || lists[source] == null) {
+			return Collections.<SimEvent> emptyList().iterator();
+		}
+		final EventList[] sourceLists = lists[source];
+		return new Iterator<SimEvent>() {
+
+			private int listIndex = 0;
+
+			private SimEvent next = null;
+
+			@Override
+			public boolean hasNext() {
+				while (next == null && listIndex < sourceLists.length && sourceLists[listIndex] != null) {
+					next = sourceLists[listIndex++].head;
+				}
+				return next != null;
+			}
+
+			@Override
+			public SimEvent next() {
+				if (!hasNext()) {
+					throw new NoSuchElementException();
+				}
+				SimEvent event = next;
+				next = event.getIndexNext();
+				return event;
+			}
+
+			@Override
+			public void remove() {
+				throw new UnsupportedOperationException();
+			}
+		};
+	}
+
+	/**
+	 * Returns an iterator to the events scheduled by an entity with a given tag, in the order they
+	 * were added. The iterator does not support removal.
+	 *
+	 * @param source the id of the source entity
+	 * @param tag the tag
+	 * @return the iterator
+	 */
+	public Iterator<SimEvent> iterator(int source, int tag) {
+		final EventList list = getList(source, tag, false);
+		return new Iterator<SimEvent>() {
+
+			private SimEvent next = list == null ? null : list.head;
+
+			@Override
+			public boolean hasNext() {
+				return next != null;
+			}
+
+			@Override
+			public SimEvent next() {
+				if (next == null) {
+					throw new NoSuchElementException();
+				}
+				SimEvent event = next;
+				next = event.getIndexNext();
+				return event;
+			}
+
+			@Override
+			public void remove() {
+				throw new UnsupportedOperationException();
+			}
+		};
+	}
+
+	/**
+	 * Returns the number of events scheduled by an entity with a given tag.
+	 *
+	 * @param source the id of the source entity
+	 * @param tag the tag
+	 * @return the number of events
+	 */
+	public int size(int source, int tag) {
+		EventList list = getList(source, tag, false);
+		return list == null ? 0 : list.size;
+	}
+
+	@Override
+	public int size() {
+		return queue.size();
+	}
+
+	@Override
+	public boolean remove(SimEvent event) {
+		if (!queue.remove(event)) {
+			return false;
+		}
+		unlink(event);
+		return true;
+	}
+
+	@Override
+	public boolean removeAll(Collection<SimEvent> events) {
+		boolean result = false;
+		for (SimEvent event : events) {
+			result |= remove(event);
+		}
+		return result;
+	}
+
+	@Override
+	public void clear() {
+		queue.clear();
+		lists = new EventList[16][];
+	}
+
+	/**
+	 * Links an event at the tail of the list of its source and tag.
+	 *
+	 * @param event the event
+	 */
+	private void link(SimEvent event) {
+		EventList list = getList(event.getSource(), event.getTag(), true);
+		if (list == null) {
+			return;
+		}
+		event.setIndexList(list);
+		event.setIndexPrevious(list.tail);
+		event.setIndexNext(null);
+		if (list.tail == null) {
+			list.head = event;
+		} else {
+			list.tail.setIndexNext(event);
+		}
+		list.tail = event;
+		list.size++;
+	}
+
+	/**
+	 * Unlinks an event from the list of its source and tag.
+	 *
+	 * @param event the event
+	 */
+	private void unlink(SimEvent event) {
+		EventList list = event.getIndexList();
+		if (list == null) {
+			return;
+		}
+		SimEvent previous = event.getIndexPrevious();
+		SimEvent next = event.getIndexNext();
+		if (previous == null) {
+			list.head = next;
+		} else {
+			previous.setIndexNext(next);
+		}
+		if (next == null) {
+			list.tail = previous;
+		} else {
+			next.setIndexPrevious(previous);
+		}
+		list.size--;
+		event.setIndexList(null);
+		event.setIndexPrevious(null);
+		event.setIndexNext(null);
+	}
+
+	/**
+	 * Gets the list of the events with a given source and tag. An entity uses only a handful of
+	 * tags, so the lists of a source are searched linearly.
+	 *
+	 * @param source the id of the source entity
+	 * @param tag the tag
+	 * @param create whether to create the list if it does not exist
+	 * @return the list, or null if the source is not valid or the list does not exist and is not
+	 *         created
+	 */
+	private EventList getList(int source, int tag, boolean create) {
+		if (source < 0) {
+			return null;
+		}
+		if (source >= lists.length) {
+			if (!create) {
+				return null;
+			}
+			lists = Arrays.copyOf(lists, Math.max(source + 1, lists.length * 2));
+		}
+
+		EventList[] sourceLists = lists[source];
+		int index = 0;
+		if (sourceLists != null) {
+			for (; index < sourceLists.length && sourceLists[index] != null; index++) {
+				if (sourceLists[index].tag == tag) {
+					return sourceLists[index];
+				}
+			}
+		}
+		if (!create) {
+			return null;
+		}
+
+		if (sourceLists == null) {
+			sourceLists = new EventList[4];
+			lists[source] = sourceLists;
+		} else if (index == sourceLists.length) {
+			sourceLists = Arrays.copyOf(sourceLists, sourceLists.length * 2);
+			lists[source] = sourceLists;
+		}
+		EventList list = new EventList(tag);
+		sourceLists[index] = list;
+		return list;
+	}
+
+	/**
+	 * A doubly linked list of the pending events with the same source and tag.
+	 */
+	static class EventList {
+
+		/** The tag of the events. */
+		private final int tag;
+
+		/** The first event. */
+		private SimEvent head;
+
+		/** The last event. */
+		private SimEvent tail;
+
+		/** The number of events. */
+		private int size;
+
+		/**
+		 * Instantiates a new event list.
+		 *
+		 * @param tag the tag of the events
+		 */
+		EventList(int tag) {
+			this.tag = tag;
+		}
+
+	}
+
+}
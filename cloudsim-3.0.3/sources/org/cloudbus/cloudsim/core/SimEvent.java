@@ -40,6 +40,18 @@ public class SimEvent implements Cloneable, Comparable<SimEvent> {
 
 	private long serial = -1;
 
+	/** position of the event in an indexed event queue, or -1 if it is not queued **/
+	private int queueIndex = -1;
+
+	/** list of the events with the same source and tag the event is linked into **/
+	private IndexedEventQueue.EventList indexList;
+
+	/** previous event in the index list **/
+	private SimEvent indexPrevious;
+
+	/** next event in the index list **/
+	private SimEvent indexNext;
+
 	// Internal event types
 
 	public static final int ENULL = 0;
@@ -86,6 +98,78 @@ public class SimEvent implements Cloneable, Comparable<SimEvent> {
 		this.serial = serial;
 	}
 
+	/**
+	 * Gets the position of this event in an indexed event queue.
+	 * 
+	 * @return the position, or -1 if the event is not queued
+	 */
+	int getQueueIndex() {
+		return queueIndex;
+	}
+
+	/**
+	 * Sets the position of this event in an indexed event queue.
+	 * 
+	 * @param queueIndex the position, or -1 if the event is not queued
+	 */
+	void setQueueIndex(int queueIndex) {
+		this.queueIndex = queueIndex;
+	}
+
+	/**
+	 * Gets the list of the events with the same source and tag this event is linked into.
+	 * 
+	 * @return the list, or null if the event is not indexed
+	 */
+	IndexedEventQueue.EventList getIndexList() {
+		return indexList;
+	}
+
+	/**
+	 * Sets the list of the events with the same source and tag this event is linked into.
+	 * 
+	 * @param indexList the list, or null if the event is not indexed
+	 */
+	void setIndexList(IndexedEventQueue.EventList indexList) {
+		this.indexList = indexList;
+	}
+
+	/**
+	 * Gets the previous event in the index list.
+	 * 
+	 * @return the previous event
+	 */
+	SimEvent getIndexPrevious() {
+		return indexPrevious;
+	}
+
+	/**
+	 * Sets the previous event in the index list.
+	 * 
+	 * @param indexPrevious the previous event
+	 */
+	void setIndexPrevious(SimEvent indexPrevious) {
+		this.indexPrevious = indexPrevious;
+	}
+
+	/**
+	 * Gets the next event in the index list.
+	 * 
+	 * @return the next event
+	 */
+	SimEvent getIndexNext() {
+		return indexNext;
+	}
+
+	/**
+	 * Sets the next event in the index list.
+	 * 
+	 * @param indexNext the next event
+	 */
+	void setIndexNext(SimEvent indexNext) {
+		this.indexNext = indexNext;
+	}
+
 	/**
 	 * Used to set the time at which this event finished waiting in the event
 	 * 
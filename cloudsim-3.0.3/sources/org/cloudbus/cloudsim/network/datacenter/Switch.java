@@ -72,6 +72,12 @@ public class Switch extends SimEntity {
 
 	public Map<Integer, NetworkVm> Vmlist;
 
+	/** The time at which the buffered packets are forwarded, or -1 if no packet is buffered. */
+	private double forwardTime = -1;
+
+	/** The time of the live forward event, or -1 if there is none. */
+	private double forwardEventTime = -1;
+
 	public Switch(String name, int level, NetworkDatacenter dc) {
 		super(name);
 		this.level = level;
@@ -98,7 +104,7 @@ public class Switch extends SimEntity {
 				processpacket_down(ev);
 				break;
 			case CloudSimTags.Network_Event_send:
-				processpacketforward(ev);
+				processForwardEvent(ev);
 				break;
 
 			case CloudSimTags.Network_Event_Host:
@@ -131,8 +137,7 @@ public class Switch extends SimEntity {
 		// int src=ev.getSource();
 		NetworkPacket hspkt = (NetworkPacket) ev.getData();
 		int recvVMid = hspkt.pkt.reciever;
-		CloudSim.cancelAll(getId(), new PredicateType(CloudSimTags.Network_Event_send));
-		schedule(getId(), latency, CloudSimTags.Network_Event_send);
+		scheduleForward(latency);
 		if (level == NetworkConstants.EDGE_LEVEL) {
 			// packet is to be recieved by host
 			int hostid = dc.VmtoHostlist.get(recvVMid);
@@ -169,8 +174,7 @@ public class Switch extends SimEntity {
 		// int src=ev.getSource();
 		NetworkPacket hspkt = (NetworkPacket) ev.getData();
 		int recvVMid = hspkt.pkt.reciever;
-		CloudSim.cancelAll(getId(), new PredicateType(CloudSimTags.Network_Event_send));
-		schedule(getId(), switching_delay, CloudSimTags.Network_Event_send);
+		scheduleForward(switching_delay);
 		if (level == NetworkConstants.EDGE_LEVEL) {
 			// packet is recieved from host
 			// packet is to be sent to aggregate level or to another host in the
@@ -258,6 +262,46 @@ public class Switch extends SimEntity {
 		}
 	}
 
+	/**
+	 * Schedules the forwarding of the buffered packets, when a packet is buffered: as each packet
+	 * postpones the forwarding of all the buffered packets, the packets are forwarded together after
+	 * the delay of the last one. Instead of cancelling and rescheduling its forward event for each
+	 * packet, the switch keeps the forward time and a single live forward event, which is scheduled
+	 * again if it comes before the forward time. A new event is only scheduled when the forward time
+	 * moves before the live event, which is then ignored.
+	 * 
+	 * @param delay the delay of the packet in the switch
+	 */
+	protected void scheduleForward(double delay) {
+		forwardTime = CloudSim.clock() + delay;
+		if (forwardEventTime < 0 || forwardTime < forwardEventTime) {
+			schedule(getId(), delay, CloudSimTags.Network_Event_send);
+			forwardEventTime = forwardTime;
+		}
+	}
+
+	/**
+	 * Processes a forward event: the buffered packets are forwarded in one pass if the forward time
+	 * has come, otherwise the event is scheduled again at the forward time.
+	 * 
+	 * @param ev the forward event
+	 */
+	protected void processForwardEvent(SimEvent ev) {
+		if (ev.eventTime() != forwardEventTime) {
+			// the event has been replaced by an earlier one
+			return;
+		}
+		forwardEventTime = -1;
+		if (forwardTime > ev.eventTime()) {
+			double delay = forwardTime - CloudSim.clock();
+			schedule(getId(), delay, CloudSimTags.Network_Event_send);
+			forwardEventTime = CloudSim.clock() + delay;
+			return;
+		}
+		forwardTime = -1;
+		processpacketforward(ev);
+	}
+
 	private void registerHost(SimEvent ev) {
 		NetworkHost hs = (NetworkHost) ev.getData();
 		hostlist.put(hs.getId(), (NetworkHost) ev.getData());
@@ -0,0 +1,45 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.power;
+
+import org.cloudbus.cloudsim.Cloudlet;
+
+/**
+ * The BrownoutComponentSelectionStrategy interface chooses the optional components of a cloudlet
+ * to be disabled when the dimmer is triggered on its host.
+ *
+ * @see BrownoutController
+ * @since CloudSim Toolkit 3.0
+ */
+public interface BrownoutComponentSelectionStrategy {
+
+	/**
+	 * Disables the optional components of a cloudlet, and updates the revenue loss and the
+	 * deactivated component ratio of its host. The components of the cloudlet are all enabled
+	 * when it is called.
+	 *
+	 * @param datacenter the datacenter
+	 * @param host the host of the cloudlet
+	 * @param cloudlet the cloudlet
+	 * @param configuredUtilization the utilization to be reduced
+	 */
+	void configureOptionalComponents(
+			PowerDatacenter datacenter,
+			PowerHost host,
+			Cloudlet cloudlet,
+			double configuredUtilization);
+
+	/**
+	 * Gets the order in which the utilization of the optional components is summed.
+	 *
+	 * @return the order, one of the <tt>CloudletOptionalComponentCatalog.ORDER_</tt> constants
+	 */
+	int getOptionalComponentOrder();
+
+}
@@ -0,0 +1,54 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.power;
+
+import org.cloudbus.cloudsim.Cloudlet;
+import org.cloudbus.cloudsim.CloudletOptionalComponentCatalog;
+
+/**
+ * The BrownoutComponentSelectionStrategyInOrder class disables the first optional components of an
+ * order, until their utilization is the nearest to the utilization to be reduced, and the
+ * components sharing their tags. The order of ascending utilization, ascending price or descending
+ * utilization and price ratio gives the lowest utilization, lowest price and highest utilization
+ * and price ratio policies.
+ *
+ * @see org.cloudbus.cloudsim.ComponentDeactivationEngine#getCutRank(CloudletOptionalComponentCatalog,
+ *      int, double)
+ * @since CloudSim Toolkit 3.0
+ */
+public class BrownoutComponentSelectionStrategyInOrder implements BrownoutComponentSelectionStrategy {
+
+	/** The order of the components. */
+	private final int order;
+
+	/**
+	 * Instantiates a new strategy.
+	 *
+	 * @param order the order of the components, one of the
+	 *            <tt>CloudletOptionalComponentCatalog.ORDER_</tt> constants
+	 */
+	public BrownoutComponentSelectionStrategyInOrder(int order) {
+		this.order = order;
+	}
+
+	@Override
+	public void configureOptionalComponents(
+			PowerDatacenter datacenter,
+			PowerHost host,
+			Cloudlet cloudlet,
+			double configuredUtilization) {
+		datacenter.configureOptionalComponentsInOrder(host, cloudlet, configuredUtilization, order);
+	}
+
+	@Override
+	public int getOptionalComponentOrder() {
+		return order;
+	}
+
+}
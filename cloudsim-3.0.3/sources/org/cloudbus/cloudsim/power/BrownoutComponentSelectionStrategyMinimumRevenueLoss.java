@@ -0,0 +1,38 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.power;
+
+import org.cloudbus.cloudsim.Cloudlet;
+import org.cloudbus.cloudsim.CloudletOptionalComponentCatalog;
+
+/**
+ * The BrownoutComponentSelectionStrategyMinimumRevenueLoss class disables the optional components
+ * that reduce at least the required utilization with the lowest revenue loss.
+ *
+ * @see org.cloudbus.cloudsim.ComponentDeactivationEngine#getMinimumRevenueLossGroups(CloudletOptionalComponentCatalog,
+ *      double)
+ * @since CloudSim Toolkit 3.0
+ */
+public class BrownoutComponentSelectionStrategyMinimumRevenueLoss implements BrownoutComponentSelectionStrategy {
+
+	@Override
+	public void configureOptionalComponents(
+			PowerDatacenter datacenter,
+			PowerHost host,
+			Cloudlet cloudlet,
+			double configuredUtilization) {
+		datacenter.configureOptionalComponentsByMinimumRevenueLoss(host, cloudlet, configuredUtilization);
+	}
+
+	@Override
+	public int getOptionalComponentOrder() {
+		return CloudletOptionalComponentCatalog.ORDER_UTILIZATION_AND_PRICE_RATIO;
+	}
+
+}
@@ -0,0 +1,37 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.power;
+
+import org.cloudbus.cloudsim.Cloudlet;
+import org.cloudbus.cloudsim.CloudletOptionalComponentCatalog;
+
+/**
+ * The BrownoutComponentSelectionStrategyNearestUtilization class disables the optional component
+ * whose utilization is the nearest to the utilization to be reduced, and the components sharing
+ * its tag.
+ *
+ * @since CloudSim Toolkit 3.0
+ */
+public class BrownoutComponentSelectionStrategyNearestUtilization implements BrownoutComponentSelectionStrategy {
+
+	@Override
+	public void configureOptionalComponents(
+			PowerDatacenter datacenter,
+			PowerHost host,
+			Cloudlet cloudlet,
+			double configuredUtilization) {
+		datacenter.configureOptionalComponentsByNearestUtilization(host, cloudlet, configuredUtilization);
+	}
+
+	@Override
+	public int getOptionalComponentOrder() {
+		return CloudletOptionalComponentCatalog.ORDER_INSERTION;
+	}
+
+}
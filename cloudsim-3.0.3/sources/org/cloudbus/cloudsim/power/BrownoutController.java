@@ -0,0 +1,45 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.power;
+
+import java.util.List;
+
+/**
+ * The BrownoutController interface drives the brownout of a power datacenter: it decides the
+ * dimmer values ({@link BrownoutDimmerStrategy}) and the optional components to be disabled
+ * ({@link BrownoutComponentSelectionStrategy}). A controller is registered on a
+ * {@link PowerDatacenter}, either for all its hosts or for some of them. When the batch evaluation
+ * of the datacenter is enabled, the dimmer values of all the hosts of a controller are computed in
+ * one call, before any of them is dimmed.
+ * <p>
+ * A controller that keeps no state of its own can be shared by datacenters running concurrently.
+ *
+ * @see PowerDatacenter#setBrownoutController(BrownoutController)
+ * @since CloudSim Toolkit 3.0
+ */
+public interface BrownoutController extends BrownoutDimmerStrategy, BrownoutComponentSelectionStrategy {
+
+	/**
+	 * Gets the dimmer values of some hosts for the slot starting at a given time.
+	 *
+	 * @param datacenter the datacenter
+	 * @param hosts the hosts
+	 * @param currentTime the current time
+	 * @param dimmerValue the dimmer value of the datacenter given by this controller for the slot
+	 * @param hostDimmerValues the array receiving the dimmer values of the hosts, in the order of
+	 *            the hosts; 0 if the dimmer is not triggered on a host
+	 */
+	void getHostDimmerValues(
+			PowerDatacenter datacenter,
+			List<? extends PowerHost> hosts,
+			double currentTime,
+			double dimmerValue,
+			double[] hostDimmerValues);
+
+}
@@ -0,0 +1,102 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.power;
+
+import java.util.List;
+
+import org.cloudbus.cloudsim.Cloudlet;
+
+/**
+ * The BrownoutControllerSimple class is a brownout controller made of a dimmer strategy and a
+ * component selection strategy. The dimmer values of a batch of hosts are computed one host at a
+ * time.
+ *
+ * @since CloudSim Toolkit 3.0
+ */
+public class BrownoutControllerSimple implements BrownoutController {
+
+	/** The dimmer strategy. */
+	private final BrownoutDimmerStrategy dimmerStrategy;
+
+	/** The component selection strategy. */
+	private final BrownoutComponentSelectionStrategy componentSelectionStrategy;
+
+	/**
+	 * Instantiates a new controller.
+	 *
+	 * @param dimmerStrategy the dimmer strategy
+	 * @param componentSelectionStrategy the component selection strategy
+	 */
+	public BrownoutControllerSimple(
+			BrownoutDimmerStrategy dimmerStrategy,
+			BrownoutComponentSelectionStrategy componentSelectionStrategy) {
+		this.dimmerStrategy = dimmerStrategy;
+		this.componentSelectionStrategy = componentSelectionStrategy;
+	}
+
+	@Override
+	public double getSlotTime(PowerDatacenter datacenter, double currentTime) {
+		return getDimmerStrategy().getSlotTime(datacenter, currentTime);
+	}
+
+	@Override
+	public double getDimmerValue(PowerDatacenter datacenter, double currentTime) {
+		return getDimmerStrategy().getDimmerValue(datacenter, currentTime);
+	}
+
+	@Override
+	public double getHostDimmerValue(PowerDatacenter datacenter, PowerHost host, double currentTime, double dimmerValue) {
+		return getDimmerStrategy().getHostDimmerValue(datacenter, host, currentTime, dimmerValue);
+	}
+
+	@Override
+	public void getHostDimmerValues(
+			PowerDatacenter datacenter,
+			List<? extends PowerHost> hosts,
+			double currentTime,
+			double dimmerValue,
+			double[] hostDimmerValues) {
+		for (int i = 0; i < hosts.size(); i++) {
+			hostDimmerValues[i] = getHostDimmerValue(datacenter, hosts.get(i), currentTime, dimmerValue);
+		}
+	}
+
+	@Override
+	public void configureOptionalComponents(
+			PowerDatacenter datacenter,
+			PowerHost host,
+			Cloudlet cloudlet,
+			double configuredUtilization) {
+		getComponentSelectionStrategy().configureOptionalComponents(datacenter, host, cloudlet, configuredUtilization);
+	}
+
+	@Override
+	public int getOptionalComponentOrder() {
+		return getComponentSelectionStrategy().getOptionalComponentOrder();
+	}
+
+	/**
+	 * Gets the dimmer strategy.
+	 *
+	 * @return the dimmer strategy
+	 */
+	public BrownoutDimmerStrategy getDimmerStrategy() {
+		return dimmerStrategy;
+	}
+
+	/**
+	 * Gets the component selection strategy.
+	 *
+	 * @return the component selection strategy
+	 */
+	public BrownoutComponentSelectionStrategy getComponentSelectionStrategy() {
+		return componentSelectionStrategy;
+	}
+
+}
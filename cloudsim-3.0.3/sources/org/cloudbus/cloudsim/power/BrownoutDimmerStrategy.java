@@ -0,0 +1,52 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.power;
+
+/**
+ * The BrownoutDimmerStrategy interface decides how much the optional components of the hosts are
+ * dimmed in a time slot: a dimmer value of the datacenter, computed once per slot, and the dimmer
+ * value of each host, derived from it. The strategy also decides when the slots start.
+ *
+ * @see BrownoutController
+ * @since CloudSim Toolkit 3.0
+ */
+public interface BrownoutDimmerStrategy {
+
+	/**
+	 * Gets the time of the slot starting at a given time, counted from the start of the slots. The
+	 * dimmer values are computed and the dimmer is triggered only when a slot starts.
+	 *
+	 * @param datacenter the datacenter
+	 * @param currentTime the current time
+	 * @return the time of the slot, or -1 if no slot starts at the time
+	 */
+	double getSlotTime(PowerDatacenter datacenter, double currentTime);
+
+	/**
+	 * Gets the dimmer value of a datacenter for the slot starting at a given time.
+	 *
+	 * @param datacenter the datacenter
+	 * @param currentTime the current time
+	 * @return the dimmer value of the datacenter
+	 */
+	double getDimmerValue(PowerDatacenter datacenter, double currentTime);
+
+	/**
+	 * Gets the dimmer value of a host, i.e. the share of the utilization of its cloudlets to be
+	 * reduced by disabling optional components.
+	 *
+	 * @param datacenter the datacenter
+	 * @param host the host
+	 * @param currentTime the current time
+	 * @param dimmerValue the dimmer value of the datacenter
+	 * @return the dimmer value of the host, or 0 if the dimmer is not triggered on the host
+	 */
+	double getHostDimmerValue(PowerDatacenter datacenter, PowerHost host, double currentTime, double dimmerValue);
+
+}
@@ -0,0 +1,186 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.power;
+
+/**
+ * The BrownoutDimmerStrategyCyclic class is the dimmer strategy of the brownout experiments. The
+ * dimmer value of the datacenter follows a sawtooth over the slots: it is
+ * <tt>(slot % cycleLength + 1) * step * scale</tt>, i.e. 0.09, 0.18, ..., 0.9 with the default
+ * parameters. The slots start every slot length from the slot offset, by default every 300 seconds
+ * from the first time frame of the power examples, at 0.1 seconds. The dimmer is triggered on the
+ * hosts whose utilization was at least the up threshold, with a dimmer value proportional to their
+ * utilization.
+ *
+ * @since CloudSim Toolkit 3.0
+ */
+public class BrownoutDimmerStrategyCyclic implements BrownoutDimmerStrategy {
+
+	/** The default length of a slot, in seconds. */
+	public static final double DEFAULT_SLOT_LENGTH = 300;
+
+	/** The default time at which the first slot starts. */
+	public static final double DEFAULT_SLOT_OFFSET = 0.1;
+
+	/** The utilization threshold above which the dimmer is triggered on a host. */
+	private final double upThreshold;
+
+	/** The length of a slot, in seconds. */
+	private final double slotLength;
+
+	/** The time at which the first slot starts. */
+	private final double slotOffset;
+
+	/** The number of slots of a cycle. */
+	private final int cycleLength;
+
+	/** The step of the dimmer value between two slots. */
+	private final double step;
+
+	/** The scale of the dimmer value. */
+	private final double scale;
+
+	/**
+	 * Instantiates a new strategy with the default slots, cycles of 10 slots, a step of 0.1 and a
+	 * scale of 0.9.
+	 *
+	 * @param upThreshold the utilization threshold above which the dimmer is triggered on a host
+	 */
+	public BrownoutDimmerStrategyCyclic(double upThreshold) {
+		this(upThreshold, DEFAULT_SLOT_LENGTH, 10, 0.1, 0.9);
+	}
+
+	/**
+	 * Instantiates a new strategy whose first slot starts at the default slot offset.
+	 *
+	 * @param upThreshold the utilization threshold above which the dimmer is triggered on a host
+	 * @param slotLength the length of a slot, in seconds
+	 * @param cycleLength the number of slots of a cycle
+	 * @param step the step of the dimmer value between two slots
+	 * @param scale the scale of the dimmer value
+	 */
+	public BrownoutDimmerStrategyCyclic(double upThreshold, double slotLength, int cycleLength, double step,
+			double scale) {
+		this(upThreshold, slotLength, cycleLength, step, scale, DEFAULT_SLOT_OFFSET);
+	}
+
+	/**
+	 * Instantiates a new strategy.
+	 *
+	 * @param upThreshold the utilization threshold above which the dimmer is triggered on a host
+	 * @param slotLength the length of a slot, in seconds
+	 * @param cycleLength the number of slots of a cycle
+	 * @param step the step of the dimmer value between two slots
+	 * @param scale the scale of the dimmer value
+	 * @param slotOffset the time at which the first slot starts
+	 */
+	public BrownoutDimmerStrategyCyclic(double upThreshold, double slotLength, int cycleLength, double step,
+			double scale, double slotOffset) {
+		if (upThreshold <= 0 || slotLength <= 0 || cycleLength <= 0) {
+			throw new IllegalArgumentException("The threshold, slot length and cycle length should be positive");
+		}
+		this.upThreshold = upThreshold;
+		this.slotLength = slotLength;
+		this.slotOffset = slotOffset;
+		this.cycleLength = cycleLength;
+		this.step = step;
+		this.scale = scale;
+	}
+
+	@Override
+	public double getSlotTime(PowerDatacenter datacenter, double currentTime) {
+		return getSlotTime(currentTime, getSlotOffset(), getSlotLength());
+	}
+
+	@Override
+	public double getDimmerValue(PowerDatacenter datacenter, double currentTime) {
+		int slot = (int) Math.floor((currentTime - getSlotOffset()) / getSlotLength());
+		return (slot % getCycleLength() + 1) * getStep() * getScale();
+	}
+
+	@Override
+	public double getHostDimmerValue(PowerDatacenter datacenter, PowerHost host, double currentTime, double dimmerValue) {
+		double previousUtilizationOfCpu = host.getPreviousUtilizationOfCpu();
+		if (previousUtilizationOfCpu < getUpThreshold()) {
+			return 0;
+		}
+		return dimmerValue * previousUtilizationOfCpu / getUpThreshold();
+	}
+
+	/**
+	 * Gets the utilization threshold above which the dimmer is triggered on a host.
+	 *
+	 * @return the up threshold
+	 */
+	public double getUpThreshold() {
+		return upThreshold;
+	}
+
+	/**
+	 * Gets the length of a slot.
+	 *
+	 * @return the slot length, in seconds
+	 */
+	public double getSlotLength() {
+		return slotLength;
+	}
+
+	/**
+	 * Gets the time at which the first slot starts.
+	 *
+	 * @return the slot offset
+	 */
+	public double getSlotOffset() {
+		return slotOffset;
+	}
+
+	/**
+	 * Gets the time of the slot starting at a given time, the slots starting every slot length from
+	 * the slot offset.
+	 *
+	 * @param currentTime the current time
+	 * @param slotOffset the time at which the first slot starts
+	 * @param slotLength the length of a slot
+	 * @return the time of the slot from the slot offset, or -1 if no slot starts at the time
+	 */
+	public static double getSlotTime(double currentTime, double slotOffset, double slotLength) {
+		double slotTime = currentTime - slotOffset;
+		if (slotTime >= 0 && slotTime % slotLength == 0) {
+			return slotTime;
+		}
+		return -1;
+	}
+
+	/**
+	 * Gets the number of slots of a cycle.
+	 *
+	 * @return the cycle length
+	 */
+	public int getCycleLength() {
+		return cycleLength;
+	}
+
+	/**
+	 * Gets the step of the dimmer value between two slots.
+	 *
+	 * @return the step
+	 */
+	public double getStep() {
+		return step;
+	}
+
+	/**
+	 * Gets the scale of the dimmer value.
+	 *
+	 * @return the scale
+	 */
+	public double getScale() {
+		return scale;
+	}
+
+}
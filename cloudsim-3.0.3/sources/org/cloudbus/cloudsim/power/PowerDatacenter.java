@@ -8,22 +8,24 @@
 
 package org.cloudbus.cloudsim.power;
 
-import java.util.Collections;
+import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Random;
 import java.util.Set;
 
 import org.cloudbus.cloudsim.Cloudlet;
 import org.cloudbus.cloudsim.CloudletOptionalComponent;
-import org.cloudbus.cloudsim.CompareByComponentUtilizationAndPriceRatio;
-import org.cloudbus.cloudsim.CompareByComponentPrice;
-import org.cloudbus.cloudsim.CompareByComponentUtilization;
+import org.cloudbus.cloudsim.CloudletOptionalComponentCatalog;
+import org.cloudbus.cloudsim.ComponentDeactivationEngine;
 import org.cloudbus.cloudsim.Datacenter;
 import org.cloudbus.cloudsim.DatacenterCharacteristics;
+import org.cloudbus.cloudsim.EventTracer;
 import org.cloudbus.cloudsim.Log;
 import org.cloudbus.cloudsim.ResCloudlet;
 import org.cloudbus.cloudsim.Storage;
@@ -34,10 +36,6 @@ import org.cloudbus.cloudsim.core.CloudSimTags;
 import org.cloudbus.cloudsim.core.SimEvent;
 import org.cloudbus.cloudsim.core.predicates.PredicateType;
 
-import com.cloudbus.cloudsim.examples.power.brownout.Brownout;
-import com.cloudbus.cloudsim.examples.power.brownout.BrownoutConstants;
-import com.cloudbus.cloudsim.examples.power.brownout.DimmerConstants;
-
 /**
  * PowerDatacenter is a class that enables simulation of power-aware data
  * centers.
@@ -76,6 +74,39 @@ public class PowerDatacenter extends Datacenter {
 
 	/** A lined hashmap records how many active hosts at each time interval */
 	private LinkedHashMap<Double, Integer> numberOfActiveHostMap = new LinkedHashMap<Double, Integer>();
+
+	/** The engine that chooses the optional components to be disabled. */
+	private final ComponentDeactivationEngine componentDeactivationEngine = new ComponentDeactivationEngine();
+
+	/** The brownout controller of the hosts that have none of their own, or null for no brownout. */
+	private BrownoutController brownoutController;
+
+	/** The brownout controllers of some hosts, by host id. */
+	private final Map<Integer, BrownoutController> hostBrownoutControllers = new HashMap<Integer, BrownoutController>();
+
+	/** Whether the dimmer values of all the hosts are computed in one batch per controller. */
+	private boolean batchDimmerEvaluation;
+
+	/** The dimmer values of the datacenter given by the brownout controllers at the time below. */
+	private final Map<BrownoutController, Double> dimmerValues = new HashMap<BrownoutController, Double>();
+
+	/** The time of the dimmer values of the brownout controllers. */
+	private double dimmerValuesTime = -1;
+
+	/** The utilization of the components of the cloudlets that are never disabled. */
+	private double dimmerComponentLowerThreshold;
+
+	/** The seed of the random generator of the MDP component selection. */
+	private long markovSeed;
+
+	/**
+	 * Whether the time of each time frame is printed to the standard output, as a progress. It is
+	 * off by default, since the progress of simulations run concurrently would be interleaved.
+	 */
+	private boolean progressPrinted = false;
+
+	/** The state of the hosts, in columns. */
+	private PowerHostStateStore hostStateStore;
 	
 	
 	double highestDimmerValue = 0.0;
@@ -114,6 +145,7 @@ public class PowerDatacenter extends Datacenter {
 		setDisableMigrations(false);
 		setCloudletSubmitted(-1);
 		setMigrationCount(0);
+		setHostStateStore(new PowerHostStateStore(this.<PowerHost> getHostList()));
 	}
 
 	/**
@@ -136,7 +168,10 @@ public class PowerDatacenter extends Datacenter {
 
 		// if some time passed since last processing
 		if (currentTime > getLastProcessTime()) {
-			System.out.print(currentTime + " ");
+			if (isProgressPrinted()) {
+				System.out.print(currentTime);
+				System.out.print(' ');
+			}
 
 			double minTime = updateCloudetProcessingWithoutSchedulingFutureEventsForce();
 
@@ -149,13 +184,8 @@ public class PowerDatacenter extends Datacenter {
 						PowerHost targetHost = (PowerHost) migrate.get("host");
 						PowerHost oldHost = (PowerHost) vm.getHost();
 
-						if (oldHost == null) {
-							Log.formatLine("%.2f: Migration of VM #%d to Host #%d is started", currentTime, vm.getId(),
-									targetHost.getId());
-						} else {
-							Log.formatLine("%.2f: Migration of VM #%d from Host #%d to Host #%d is started",
-									currentTime, vm.getId(), oldHost.getId(), targetHost.getId());
-						}
+						EventTracer.migrationStarted(currentTime, vm.getId(), oldHost == null ? -1 : oldHost.getId(),
+								targetHost.getId());
 
 						targetHost.addMigratingInVm(vm);
 						incrementMigrationCount();
@@ -206,13 +236,20 @@ public class PowerDatacenter extends Datacenter {
 		int numberOfActiveHost = 0;
 		double dimmerValue = 0.0;
 
-		Log.printLine("\n\n--------------------------------------------------------------\n\n");
-		Log.formatLine("New resource usage for the time frame starting at %.2f:", currentTime);
+		EventTracer.timeFrame(currentTime);
 		
 
 		dimmerValue = getDimmerValue(currentTime);
-		if((currentTime - 0.1) % 300 ==0)
-		Log.formatLine("Dimmer is triggered at %.2f, The dimmer value is %.2f", currentTime, dimmerValue);
+		double slotTime = getSlotTime(currentTime);
+		if (slotTime >= 0) {
+			EventTracer.dimmerTriggered(currentTime, dimmerValue);
+		}
+
+		double[] hostDimmerValues = null;
+		if (isBatchDimmerEvaluation()) {
+			hostDimmerValues = getHostDimmerValues(currentTime, dimmerValue);
+		}
+		int hostIndex = 0;
 
 		for (PowerHost host : this.<PowerHost> getHostList()) {
 			Log.printLine();
@@ -224,28 +261,28 @@ public class PowerDatacenter extends Datacenter {
 																	// to update
 																	// processing
 	
-			for(Vm vm : host.getVmList()){
-				Log.formatLine(
-						"%.2f: [Host #" + host.getId() + "] Total allocated MIPS for VM #" + vm.getId()
-								+ " (Host #" + vm.getHost().getId()
-								+ ") is %.2f, was requested %.2f out of total %.2f (%.2f%%)",
-						CloudSim.clock(),
-						host.getVmScheduler().getTotalAllocatedMipsForVm(vm),
-						vm.getCurrentRequestedTotalMips(),
-						vm.getMips(),
-						vm.getCurrentRequestedTotalMips() / vm.getMips() * 100);
+			if (EventTracer.isEnabled(EventTracer.DEBUG)) {
+				for (Vm vm : host.getVmList()) {
+					EventTracer.vmAllocation(CloudSim.clock(), host.getId(), vm.getId(), vm.getHost().getId(), host
+							.getVmScheduler().getTotalAllocatedMipsForVm(vm), vm.getCurrentRequestedTotalMips(), vm
+							.getMips());
+				}
 			}
 			
 			
-			Log.formatLine("%.2f: [Host #%d] utilization is %.2f%%", currentTime, host.getId(),
-					host.getUtilizationOfCpu() * 100);
+			EventTracer.hostUtilization(currentTime, host.getId(), host.getUtilizationOfCpu());
 			
 
 
 //			if(host.getPreviousUtilizationOfCpu() > DimmerConstants.DimmerUpThreshold){
 //				Log.formatLine( "Tests: %.2f: [Host #%d] previous utilization is %.2f%%", currentTime, host.getId(),
 //						host.getPreviousUtilizationOfCpu() * 100);
-			triggerDimmer(host, currentTime, dimmerValue);
+			if (hostDimmerValues == null) {
+				triggerDimmer(host, currentTime, dimmerValue);
+			} else {
+				triggerDimmer(host, currentTime, dimmerValue, hostDimmerValues[hostIndex]);
+			}
+			hostIndex++;
 			double time = host.updateVmsProcessing(currentTime); 
 			
 //			}
@@ -256,8 +293,7 @@ public class PowerDatacenter extends Datacenter {
 				minTime = time;
 			}
 
-			Log.formatLine("%.2f: [Host #%d] utilization is %.2f%%", currentTime, host.getId(),
-					host.getUtilizationOfCpu() * 100);
+			EventTracer.hostUtilization(currentTime, host.getId(), host.getUtilizationOfCpu());
 			
 			
 			
@@ -265,41 +301,39 @@ public class PowerDatacenter extends Datacenter {
 		}
 
 		if (timeDiff > 0) {
-			Log.formatLine("\nEnergy consumption for the last time frame from %.2f to %.2f:", getLastProcessTime(),
-					currentTime);
+			EventTracer.energyTimeFrame(getLastProcessTime(), currentTime);
 
 			// Added the code that recored time frame that may trigger dimmer
 //			if((currentTime - 0.1) % 300 ==0){
 			timeFrameMayTriggeredDimmer.add(currentTime);
 //			}
 
-			for (PowerHost host : this.<PowerHost> getHostList()) {
-				double previousUtilizationOfCpu = host.getPreviousUtilizationOfCpu();
-				double utilizationOfCpu = host.getUtilizationOfCpu();
-				double timeFrameHostEnergy = host.getEnergyLinearInterpolation(previousUtilizationOfCpu,
-						utilizationOfCpu, timeDiff);
-				timeFrameDatacenterEnergy += timeFrameHostEnergy;
-
-				Log.printLine();
-				Log.formatLine("%.2f: [Host #%d] utilization at %.2f was %.2f%%, now is %.2f%%", currentTime,
-						host.getId(), getLastProcessTime(), previousUtilizationOfCpu * 100, utilizationOfCpu * 100);
-//				System.out.println("Host #" + host.getId() + " Time:" + currentTime + " At:" + getLastProcessTime() + " Previous:" + previousUtilizationOfCpu * 100 + " Now:" + utilizationOfCpu * 100);
-				
-				Log.formatLine("%.2f: [Host #%d] energy is %.2f W*sec", currentTime, host.getId(), timeFrameHostEnergy);
-
-				if (host.getUtilizationOfCpu() == 0) { // Compute the total
-														// active number of host
-														// at each time interval
-					numberOfActiveHost++;
+			// the energy of the hosts with a power table is computed in one call, and the one of the
+			// other hosts by the hosts themselves
+			PowerHostStateStore store = getHostStateStore();
+			store.computeEnergyLinearInterpolation(timeDiff);
+			for (int i = 0; i < store.size(); i++) {
+				PowerHost host = store.getHost(i);
+				double previousUtilizationOfCpu = store.getPreviousUtilizationOfCpu(i);
+				double utilizationOfCpu = store.getUtilizationOfCpu(i);
+				double timeFrameHostEnergy = store.getEnergy(i);
+				if (Double.isNaN(timeFrameHostEnergy)) {
+					timeFrameHostEnergy = host.getEnergyLinearInterpolation(previousUtilizationOfCpu,
+							utilizationOfCpu, timeDiff);
 				}
+				timeFrameDatacenterEnergy += timeFrameHostEnergy;
 
+				EventTracer.hostEnergy(currentTime, host.getId(), getLastProcessTime(), previousUtilizationOfCpu,
+						utilizationOfCpu, timeFrameHostEnergy);
 			}
+			// Compute the total active number of host at each time interval
+			numberOfActiveHost = store.getNumberOfIdleHosts();
 
-			Log.formatLine("\n%.2f: Data center's energy is %.2f W*sec\n", currentTime, timeFrameDatacenterEnergy);
+			EventTracer.datacenterEnergy(currentTime, timeFrameDatacenterEnergy);
 		}
 
-		if (0 == (currentTime - 0.1) % 300) {
-			numberOfActiveHostMap.put(currentTime - 0.1, numberOfActiveHost); // Record
+		if (slotTime >= 0) {
+			numberOfActiveHostMap.put(slotTime, numberOfActiveHost); // Record
 																				// the
 																				// active
 																				// number
@@ -393,6 +427,28 @@ public class PowerDatacenter extends Datacenter {
 		return result;
 	}
 
+	/**
+	 * Gets the state store of the hosts. It is created again if the host list of the datacenter has
+	 * changed since, i.e. if hosts have been added, removed, replaced or reordered.
+	 * 
+	 * @return the state store of the hosts
+	 */
+	public PowerHostStateStore getHostStateStore() {
+		if (hostStateStore == null || !hostStateStore.isStoreOf(this.<PowerHost> getHostList())) {
+			setHostStateStore(new PowerHostStateStore(this.<PowerHost> getHostList()));
+		}
+		return hostStateStore;
+	}
+
+	/**
+	 * Sets the state store of the hosts.
+	 * 
+	 * @param hostStateStore the state store of the hosts
+	 */
+	protected void setHostStateStore(PowerHostStateStore hostStateStore) {
+		this.hostStateStore = hostStateStore;
+	}
+
 	/**
 	 * Checks if is disable migrations.
 	 * 
@@ -458,82 +514,63 @@ public class PowerDatacenter extends Datacenter {
 	}
 
 	/**
-	 * Defines when to trigger the dimmer to configure utilization of host
+	 * Defines when to trigger the dimmer to configure utilization of host. The dimmer value of the
+	 * host is derived from the dimmer value of the datacenter given by the brownout controller of the
+	 * host, when a slot of this controller starts.
 	 * 
-	 * @param host
+	 * @param host the host
+	 * @param currentTime the current time
+	 * @param dimmerValue the dimmer value given by the brownout controller of the datacenter
 	 * @author minxianx
 	 */
 	public void triggerDimmer(PowerHost host, double currentTime, double dimmerValue) {
+		double hostDimmerValue = 0.0;
+		BrownoutController controller = getBrownoutController(host);
+		if (controller != null && isSlotStart(host, currentTime)) {
+			hostDimmerValue = controller.getHostDimmerValue(this, host, currentTime,
+					getDimmerValue(controller, currentTime));
+		}
+		triggerDimmer(host, currentTime, dimmerValue, hostDimmerValue);
+	}
+
+	/**
+	 * Triggers the dimmer on a host whose dimmer value is already known: the optional components of
+	 * its cloudlets are configured by the brownout controller of the host.
+	 * 
+	 * @param host the host
+	 * @param currentTime the current time
+	 * @param dimmerValue the dimmer value given by the brownout controller of the datacenter
+	 * @param hostDimmerValue the dimmer value of the host, or 0 if the dimmer is not triggered
+	 */
+	protected void triggerDimmer(PowerHost host, double currentTime, double dimmerValue, double hostDimmerValue) {
 		double utilizationAfterDimmer = 0.0;
-		double previousUtilizationOfCpu = host.getPreviousUtilizationOfCpu();
 		double vmPreviousUtilizationOfcpu = 0.0;
+		boolean slotStart = isSlotStart(host, currentTime);
 		
-		int stateSize = 0;
-		if((currentTime - 0.1) % 300 == 0) {
+		if (slotStart) {
 		updataHostObtainedRevenue(host);
 		}
 
-		if (previousUtilizationOfCpu >= DimmerConstants.DimmerUpThreshold &&(currentTime - 0.1) % 300 == 0) {
-//			Log.formatLine("Host Utilzation %.2f:", previousUtilizationOfCpu);
-//			System.out.println("\n"  + "#" + host.getId() + " Host Utilization Before:" + previousUtilizationOfCpu);
+		if (hostDimmerValue > 0 && slotStart) {
+			BrownoutController controller = getBrownoutController(host);
 			dimmerTimes++;
 			
-			dimmerValue = dimmerValue * previousUtilizationOfCpu / DimmerConstants.DimmerUpThreshold;
-			Log.formatLine("Dimmer is triggered at %.2f, The dimmer value is %.2f", currentTime, dimmerValue);
-			
-//			host.setDimmerValue(dimmerValue);
-
-
-//			Log.formatLine("Dimmer is triggered at %.2f, The dimmer value is %.2f", currentTime, dimmerValue);
+			dimmerValue = hostDimmerValue;
+			EventTracer.dimmerTriggered(currentTime, dimmerValue);
 
 			for (Vm vm : host.getVmList()) {
-				stateSize = vm.getStateHistory().size();
-				vmPreviousUtilizationOfcpu = vm.getStateHistory().get(stateSize - 1).getRequestedMips() / vm.getMips();
+				vmPreviousUtilizationOfcpu = vm.getStateHistory().getLastRequestedMips() / vm.getMips();
 				
 
 				for (ResCloudlet rcl : vm.getCloudletScheduler().getCloudletExecList()) {
 					updateOptionalComponents(rcl.getCloudlet());
-					// rcl.getCloudlet().getUtilizationModelCpu().setUtilization(utilizaiton,
-					// CloudSim.clock());
-					// configureOptionalComponentsByNearestUtilization(host,
-					// rcl.getCloudlet(),
-					// vmPreviousUtilizationOfcpu * (1 - dimmerValue));
-					if(Brownout.brownoutPolicyId == 0){
-					configureOptionalComponentsByNearestUtilization(host, rcl.getCloudlet(),
-							vmPreviousUtilizationOfcpu * (dimmerValue));
-					}
-//////					
-					else if(Brownout.brownoutPolicyId == 1){
-					configureOptionalComponentsByLowestUtilization(host, rcl.getCloudlet(),
-							vmPreviousUtilizationOfcpu * (dimmerValue));
-			}
-					else if(Brownout.brownoutPolicyId ==2 ){
-					configureOptionalComponentsByLowestPrice(host, rcl.getCloudlet(),
-							vmPreviousUtilizationOfcpu * (dimmerValue));
-					}
-					else{
-					configureOptionalComponentsByHighestUtilizationAndPriceRatio(host, rcl.getCloudlet(),
+					controller.configureOptionalComponents(this, host, rcl.getCloudlet(),
 							vmPreviousUtilizationOfcpu * (dimmerValue));
-					}
-					
-					//Revision needed
 
-					
-//					configureOptionalComponentsByMDP(host, rcl.getCloudlet(), vmPreviousUtilizationOfcpu * (dimmerValue));
-		
-
-//					System.out.println("The dimmer value is" + dimmerValue);
-					utilizationAfterDimmer = getUtilizaitonAfterDimmer(vmPreviousUtilizationOfcpu, rcl.getCloudlet());
-					Log.formatLine("VM #%d utilizaiton after deactivation %.2f:", vm.getId(), vmPreviousUtilizationOfcpu * utilizationAfterDimmer);
-//					System.out.println("utilization After Dimmer" + utilizationAfterDimmer);
+					utilizationAfterDimmer = getUtilizaitonAfterDimmer(vmPreviousUtilizationOfcpu, rcl.getCloudlet(),
+							controller.getOptionalComponentOrder());
+					EventTracer.vmDimmed(currentTime, vm.getId(), vmPreviousUtilizationOfcpu * utilizationAfterDimmer);
 					rcl.getCloudlet().getUtilizationModelCpu().setUtilization(utilizationAfterDimmer, currentTime);
-					
-			
-			
-					// host.getDisabaledTagsSet().removeAll(host.getDisabaledTagsSet());
-					// System.out.println("DisabledTagSet is cleaned......");
-					
-
 				}
 			}
 	
@@ -541,46 +578,245 @@ public class PowerDatacenter extends Datacenter {
 	}
 
 	/**
-	 * Get the dimmer value. If there are k hosts are overloads, the dimmer
-	 * value is 1 - k/n, in which n is the total number of host
+	 * Gets the dimmer values of all the hosts, computed in one batch per brownout controller whose
+	 * slot starts at the current time, from the dimmer value of the datacenter given by this
+	 * controller.
 	 * 
-	 * @return
+	 * @param currentTime the current time
+	 * @param dimmerValue the dimmer value given by the brownout controller of the datacenter
+	 * @return the dimmer values of the hosts, in the order of the host list; 0 for the hosts whose
+	 *         controller starts no slot
 	 */
-	public double getDimmerValue(double currentTime) {
-		double dimmerValue = 0.0f;
-		double overloadedNumberOfHost = 0;
-		for (PowerHost host : this.<PowerHost> getHostList()) {
-//			System.out.println("Host Utilization: " + host.getPreviousUtilizationOfCpu());
-			if (host.getPreviousUtilizationOfCpu() > DimmerConstants.DimmerUpThreshold) {
-				
-				overloadedNumberOfHost++;
+	protected double[] getHostDimmerValues(double currentTime, double dimmerValue) {
+		List<PowerHost> hosts = this.<PowerHost> getHostList();
+		Map<BrownoutController, List<Integer>> hostIndexesByController = new LinkedHashMap<BrownoutController, List<Integer>>();
+		for (int i = 0; i < hosts.size(); i++) {
+			BrownoutController controller = getBrownoutController(hosts.get(i));
+			if (controller == null || controller.getSlotTime(this, currentTime) < 0) {
+				continue;
 			}
+			List<Integer> hostIndexes = hostIndexesByController.get(controller);
+			if (hostIndexes == null) {
+				hostIndexes = new ArrayList<Integer>();
+				hostIndexesByController.put(controller, hostIndexes);
+			}
+			hostIndexes.add(i);
 		}
 
-		int slot = (int) currentTime / 300;
-		double dimpar = (slot % 10 + 1) * 0.1 * 0.9;
-//		dimmerValue = Math.sqrt(overloadedNumberOfHost / (double) this.<PowerHost> getHostList().size()) * (1 - DimmerConstants.DimmerComponentLowerThreshold);
-//		dimmerValue = Math.sqrt(overloadedNumberOfHost / (double) this.<PowerHost> getHostList().size() ) ;
-		dimmerValue = dimpar;
-		
-//		double slot = currentTime / 300;
-//		if( (slot >= 0 && slot < 48))   dimmerValue = 0.1;
-//		if( (slot >= 48 && slot < 96))	dimmerValue = 0.3;
-//		if( (slot >= 144 && slot < 192)) dimmerValue = 0.6;
-//		if( (slot >= 192 && slot < 240))  dimmerValue = 0.4;
-//		if( (slot >= 96 && slot < 144) || (slot >= 240 && slot < 288))	dimmerValue = 0.5; 
-//		
-
-//		dimmerValue = overloadedNumberOfHost / (double) this.<PowerHost> getHostList().size() * (1 - DimmerConstants.DimmerComponentLowerThreshold) ;
-
-//		if(dimmerValue > (1 - DimmerConstants.DimmerComponentLowerThreshold)){
-//			dimmerValue = 1 - DimmerConstants.DimmerComponentLowerThreshold;
-//		}
-		
-		if(dimmerValue < lowestDimmerValue && dimmerValue > 0) lowestDimmerValue = dimmerValue;
-		if(dimmerValue > highestDimmerValue) highestDimmerValue = dimmerValue;
-		
-		return dimmerValue ;
+		double[] hostDimmerValues = new double[hosts.size()];
+		for (Entry<BrownoutController, List<Integer>> entry : hostIndexesByController.entrySet()) {
+			List<Integer> hostIndexes = entry.getValue();
+			List<PowerHost> controllerHosts = new ArrayList<PowerHost>(hostIndexes.size());
+			for (int hostIndex : hostIndexes) {
+				controllerHosts.add(hosts.get(hostIndex));
+			}
+			double[] controllerDimmerValues = new double[controllerHosts.size()];
+			BrownoutController controller = entry.getKey();
+			controller.getHostDimmerValues(this, controllerHosts, currentTime, getDimmerValue(controller, currentTime),
+					controllerDimmerValues);
+			for (int i = 0; i < hostIndexes.size(); i++) {
+				hostDimmerValues[hostIndexes.get(i)] = controllerDimmerValues[i];
+			}
+		}
+		return hostDimmerValues;
+	}
+
+	/**
+	 * Get the dimmer value given by the brownout controller of the datacenter.
+	 * 
+	 * @param currentTime the current time
+	 * @return the dimmer value, or 0 if the datacenter has no brownout controller
+	 */
+	public double getDimmerValue(double currentTime) {
+		if (getBrownoutController() == null) {
+			return 0.0;
+		}
+		return getDimmerValue(getBrownoutController(), currentTime);
+	}
+
+	/**
+	 * Gets the dimmer value of the datacenter given by a brownout controller. It is computed once
+	 * per time and controller, so that the hosts sharing a controller get the same value.
+	 * 
+	 * @param controller the brownout controller
+	 * @param currentTime the current time
+	 * @return the dimmer value
+	 */
+	protected double getDimmerValue(BrownoutController controller, double currentTime) {
+		if (currentTime != dimmerValuesTime) {
+			dimmerValues.clear();
+			dimmerValuesTime = currentTime;
+		}
+		Double value = dimmerValues.get(controller);
+		if (value == null) {
+			double dimmerValue = controller.getDimmerValue(this, currentTime);
+			if(dimmerValue < lowestDimmerValue && dimmerValue > 0) lowestDimmerValue = dimmerValue;
+			if(dimmerValue > highestDimmerValue) highestDimmerValue = dimmerValue;
+			value = dimmerValue;
+			dimmerValues.put(controller, value);
+		}
+		return value;
+	}
+
+	/**
+	 * Gets the time of the slot starting at a given time, as given by the brownout controller of the
+	 * datacenter. Without a brownout controller, the slots are the default ones of
+	 * {@link BrownoutDimmerStrategyCyclic}.
+	 * 
+	 * @param currentTime the current time
+	 * @return the time of the slot, or -1 if no slot starts at the time
+	 */
+	public double getSlotTime(double currentTime) {
+		if (getBrownoutController() == null) {
+			return BrownoutDimmerStrategyCyclic.getSlotTime(currentTime,
+					BrownoutDimmerStrategyCyclic.DEFAULT_SLOT_OFFSET, BrownoutDimmerStrategyCyclic.DEFAULT_SLOT_LENGTH);
+		}
+		return getBrownoutController().getSlotTime(this, currentTime);
+	}
+
+	/**
+	 * Checks whether a slot of the brownout controller of a host starts at a given time.
+	 * 
+	 * @param host the host
+	 * @param currentTime the current time
+	 * @return true, if a slot starts at the time
+	 */
+	public boolean isSlotStart(PowerHost host, double currentTime) {
+		BrownoutController controller = hostBrownoutControllers.get(host.getId());
+		if (controller == null) {
+			return getSlotTime(currentTime) >= 0;
+		}
+		return controller.getSlotTime(this, currentTime) >= 0;
+	}
+
+	/**
+	 * Gets the brownout controller of the hosts that have none of their own.
+	 * 
+	 * @return the brownout controller, or null if there is no brownout
+	 */
+	public BrownoutController getBrownoutController() {
+		return brownoutController;
+	}
+
+	/**
+	 * Sets the brownout controller of the hosts that have none of their own. It also gives the
+	 * dimmer value of the datacenter.
+	 * 
+	 * @param brownoutController the brownout controller, or null for no brownout
+	 */
+	public void setBrownoutController(BrownoutController brownoutController) {
+		this.brownoutController = brownoutController;
+	}
+
+	/**
+	 * Gets the brownout controller of a host.
+	 * 
+	 * @param host the host
+	 * @return the brownout controller of the host, or the one of the datacenter if it has none
+	 */
+	public BrownoutController getBrownoutController(PowerHost host) {
+		BrownoutController controller = hostBrownoutControllers.get(host.getId());
+		if (controller == null) {
+			return getBrownoutController();
+		}
+		return controller;
+	}
+
+	/**
+	 * Sets the brownout controller of a host.
+	 * 
+	 * @param host the host
+	 * @param brownoutController the brownout controller, or null for the one of the datacenter
+	 */
+	public void setBrownoutController(PowerHost host, BrownoutController brownoutController) {
+		if (brownoutController == null) {
+			hostBrownoutControllers.remove(host.getId());
+		} else {
+			hostBrownoutControllers.put(host.getId(), brownoutController);
+		}
+	}
+
+	/**
+	 * Checks whether the dimmer values of the hosts are computed in one batch per controller at the
+	 * start of each slot, rather than host by host.
+	 * 
+	 * @return true, if the dimmer values are computed in batches
+	 */
+	public boolean isBatchDimmerEvaluation() {
+		return batchDimmerEvaluation;
+	}
+
+	/**
+	 * Sets whether the dimmer values of the hosts are computed in one batch per controller.
+	 * 
+	 * @param batchDimmerEvaluation true, to compute the dimmer values in batches
+	 */
+	public void setBatchDimmerEvaluation(boolean batchDimmerEvaluation) {
+		this.batchDimmerEvaluation = batchDimmerEvaluation;
+	}
+
+	/**
+	 * Gets the utilization of the components of the cloudlets that are never disabled, which is
+	 * added to the utilization of their enabled optional components after the dimmer.
+	 * 
+	 * @return the dimmer component lower threshold
+	 */
+	public double getDimmerComponentLowerThreshold() {
+		return dimmerComponentLowerThreshold;
+	}
+
+	/**
+	 * Sets the utilization of the components of the cloudlets that are never disabled.
+	 * 
+	 * @param dimmerComponentLowerThreshold the dimmer component lower threshold
+	 */
+	public void setDimmerComponentLowerThreshold(double dimmerComponentLowerThreshold) {
+		this.dimmerComponentLowerThreshold = dimmerComponentLowerThreshold;
+	}
+
+	/**
+	 * Gets the seed of the random generator of the MDP component selection.
+	 * 
+	 * @return the markov seed
+	 */
+	public long getMarkovSeed() {
+		return markovSeed;
+	}
+
+	/**
+	 * Sets the seed of the random generator of the MDP component selection.
+	 * 
+	 * @param markovSeed the markov seed
+	 */
+	public void setMarkovSeed(long markovSeed) {
+		this.markovSeed = markovSeed;
+	}
+
+	/**
+	 * Checks whether the time of each time frame is printed to the standard output, as a progress.
+	 * 
+	 * @return true, if the progress is printed
+	 */
+	public boolean isProgressPrinted() {
+		return progressPrinted;
+	}
+
+	/**
+	 * Sets whether the time of each time frame is printed to the standard output, as a progress.
+	 * 
+	 * @param progressPrinted true, to print the progress
+	 */
+	public void setProgressPrinted(boolean progressPrinted) {
+		this.progressPrinted = progressPrinted;
+	}
+
+	/**
+	 * Gets the engine that chooses the optional components to be disabled.
+	 * 
+	 * @return the component deactivation engine
+	 */
+	protected ComponentDeactivationEngine getComponentDeactivationEngine() {
+		return componentDeactivationEngine;
 	}
 
 	/**
@@ -599,33 +835,28 @@ public class PowerDatacenter extends Datacenter {
 			double configuredUtilization) {
 		
 		int vmsize = host.getVmList().size();
+		CloudletOptionalComponentCatalog catalog = cloudlet.getOptionalComponentCatalog();
 		int nearestUtilizationComponentNumber = 0;
 		double minimulUtilizationDifference = 1.0;
 		double utilizationDifference = 0.0;
-		int index = 0;
-		for (CloudletOptionalComponent coc : cloudlet.getCloudletOptionalComponentList()) {			
-			utilizationDifference = Math.abs(configuredUtilization - coc.getComponentUtilization());
+		for (int index = 0; index < catalog.size(); index++) {
+			utilizationDifference = Math.abs(configuredUtilization - catalog.getUtilization(index));
 			if (utilizationDifference < minimulUtilizationDifference) {
 				minimulUtilizationDifference = utilizationDifference;
 				nearestUtilizationComponentNumber = index;
 			}
-			index++;
 		}
-		cloudlet.getCloudletOptionalComponentList().get(nearestUtilizationComponentNumber).setEnabled(false);
-		host.getDisabaledTagsSet().add(
-				cloudlet.getCloudletOptionalComponentList().get(nearestUtilizationComponentNumber).getComponentTag());
-		for (CloudletOptionalComponent coc : cloudlet.getCloudletOptionalComponentList()) {
-			if (isTagInSet(host.getDisabaledTagsSet(), coc.getComponentTag())) {
-				coc.setEnabled(false);
+		cloudlet.setOptionalComponentEnabled(nearestUtilizationComponentNumber, false);
+		host.getDisabaledTagsSet().add(catalog.getTag(nearestUtilizationComponentNumber));
+		for (int index = 0; index < catalog.size(); index++) {
+			if (isTagInSet(host.getDisabaledTagsSet(), catalog.getTag(index))) {
+				cloudlet.setOptionalComponentEnabled(index, false);
 			}
 		}
-//		System.out.println(host.getDisabaledTagsSet().toString());
 		
-		updateHostDeactivatedComponentRatio(host, cloudlet, vmsize);
-		updateHostRevenueLoss(host, cloudlet);
-		host.getDisabaledTagsSet().removeAll(host.getDisabaledTagsSet());
-//		System.out.println("DisabledTagSet is cleaned......");
-
+		updateHostDeactivatedComponentRatio(host, cloudlet, vmsize, CloudletOptionalComponentCatalog.ORDER_INSERTION);
+		updateHostRevenueLoss(host, cloudlet, CloudletOptionalComponentCatalog.ORDER_INSERTION);
+		host.getDisabaledTagsSet().clear();
 	}
 
 	/**
@@ -642,77 +873,8 @@ public class PowerDatacenter extends Datacenter {
 	 */
 	public void configureOptionalComponentsByLowestUtilization(PowerHost host, Cloudlet cloudlet,
 			double configuredUtilization) {
-
-		int vmsize = host.getVmList().size(); // should be above 0, needs check
-		Collections.sort(cloudlet.getCloudletOptionalComponentList(), new CompareByComponentUtilization());
-
-		if (cloudlet.getCloudletOptionalComponentList().get(0).getComponentUtilization() >= configuredUtilization) {
-			cloudlet.getCloudletOptionalComponentList().get(0).setEnabled(false);
-			host.getDisabaledTagsSet().add(cloudlet.getCloudletOptionalComponentList().get(0).getComponentTag());
-			for (CloudletOptionalComponent coc : cloudlet.getCloudletOptionalComponentList()) {
-				if (isTagInSet(host.getDisabaledTagsSet(), coc.getComponentTag())) {
-					coc.setEnabled(false);
-				}
-
-			}
-			updateHostDeactivatedComponentRatio(host, cloudlet, vmsize);
-			updateHostRevenueLoss(host, cloudlet);
-			
-			
-		} else {
-
-			int partitionIndex = cloudlet.getCloudletOptionalComponentList().size() - 1;
-			double tempUtilization1 = 0.0;
-			double tempUtilization2 = 0.0;
-
-			for (int index = 1; index < cloudlet.getCloudletOptionalComponentList().size(); index++) {
-				tempUtilization1 = 0.0;
-				for (int i = 0; i <= index - 1; i++) {
-					tempUtilization1 += cloudlet.getCloudletOptionalComponentList().get(i).getComponentUtilization();
-				}
-
-				// tempUtilization2 = 0.0;
-				// for (int j = 0; j <= index; j++) {
-				// tempUtilization2 +=
-				// cloudlet.getCloudletOptionalComponentList().get(j).getComponentUtilization();
-				// }
-				tempUtilization2 = tempUtilization1
-						+ cloudlet.getCloudletOptionalComponentList().get(index).getComponentUtilization();
-
-				if ((tempUtilization1 <= configuredUtilization) && (configuredUtilization < tempUtilization2)) {
-					if((configuredUtilization - tempUtilization1) <= (tempUtilization2 - configuredUtilization)){
-					partitionIndex = index - 1;
-					break;
-					}else{
-						partitionIndex= index;
-						break;
-					}
-				}
-
-			}
-			for (int k = 0; k <= partitionIndex; k++) {
-				cloudlet.getCloudletOptionalComponentList().get(k).setEnabled(false);
-				host.getDisabaledTagsSet().add(cloudlet.getCloudletOptionalComponentList().get(k).getComponentTag());
-			}
-			
-
-			for (int index = partitionIndex; index < cloudlet.getCloudletOptionalComponentList().size(); index++) {
-				if (isTagInSet(host.getDisabaledTagsSet(),
-						cloudlet.getCloudletOptionalComponentList().get(index).getComponentTag())) {
-					cloudlet.getCloudletOptionalComponentList().get(index).setEnabled(false);
-				}
-
-			}
-			
-			 
-			updateHostDeactivatedComponentRatio(host, cloudlet, vmsize);
-
-			updateHostRevenueLoss(host, cloudlet);
-			
-		}
-//		System.out.println(host.getDisabaledTagsSet().toString());
-		host.getDisabaledTagsSet().removeAll(host.getDisabaledTagsSet());
-//		System.out.println("DisabledTagSet is cleaned......");
+		configureOptionalComponentsInOrder(host, cloudlet, configuredUtilization,
+				CloudletOptionalComponentCatalog.ORDER_UTILIZATION);
 	}
 
 	/**
@@ -729,67 +891,8 @@ public class PowerDatacenter extends Datacenter {
 	 */
 	public void configureOptionalComponentsByHighestUtilizationAndPriceRatio(PowerHost host, Cloudlet cloudlet,
 			double configuredUtilization) {
-		
-		int vmsize = host.getVmList().size(); // should be above 0, needs check
-		Collections.sort(cloudlet.getCloudletOptionalComponentList(), new CompareByComponentUtilizationAndPriceRatio());
-
-		if (cloudlet.getCloudletOptionalComponentList().get(0).getComponentUtilization() >= configuredUtilization) {
-			cloudlet.getCloudletOptionalComponentList().get(0).setEnabled(false);
-			host.getDisabaledTagsSet().add(cloudlet.getCloudletOptionalComponentList().get(0).getComponentTag());
-			for (CloudletOptionalComponent coc : cloudlet.getCloudletOptionalComponentList()) {
-				if (isTagInSet(host.getDisabaledTagsSet(), coc.getComponentTag())) {
-					coc.setEnabled(false);
-				}
-
-			}
-			
-			updateHostDeactivatedComponentRatio(host, cloudlet, vmsize);
-			updateHostRevenueLoss(host, cloudlet);
-		} else {
-
-			int partitionIndex = cloudlet.getCloudletOptionalComponentList().size() - 1;
-			double tempUtilization1 = 0.0;
-			double tempUtilization2 = 0.0;
-
-			for (int index = 1; index < cloudlet.getCloudletOptionalComponentList().size(); index++) {
-				tempUtilization1 = 0.0;
-				for (int i = 0; i <= index - 1; i++) {
-					tempUtilization1 += cloudlet.getCloudletOptionalComponentList().get(i).getComponentUtilization();
-				}
-				tempUtilization2 = tempUtilization1
-						+ cloudlet.getCloudletOptionalComponentList().get(index).getComponentUtilization();
-
-				if ((tempUtilization1 <= configuredUtilization) && (configuredUtilization < tempUtilization2)) {
-					if((configuredUtilization - tempUtilization1) <= (tempUtilization2 - configuredUtilization)){
-						partitionIndex = index - 1;
-						break;
-						}else{
-							partitionIndex= index;
-							break;
-						}
-				}
-
-			}
-			for (int k = 0; k <= partitionIndex; k++) {
-				cloudlet.getCloudletOptionalComponentList().get(k).setEnabled(false);
-				host.getDisabaledTagsSet().add(cloudlet.getCloudletOptionalComponentList().get(k).getComponentTag());
-			}
-			 
-
-			for (int index = partitionIndex; index < cloudlet.getCloudletOptionalComponentList().size(); index++) {
-				if (isTagInSet(host.getDisabaledTagsSet(),
-						cloudlet.getCloudletOptionalComponentList().get(index).getComponentTag())) {
-					cloudlet.getCloudletOptionalComponentList().get(index).setEnabled(false);
-				}
-
-			}
-			updateHostDeactivatedComponentRatio(host, cloudlet, vmsize);
-			updateHostRevenueLoss(host, cloudlet);
-			
-		}
-//		System.out.println(host.getDisabaledTagsSet().toString());
-		host.getDisabaledTagsSet().removeAll(host.getDisabaledTagsSet());
-//		System.out.println("DisabledTagSet is cleaned......");
+		configureOptionalComponentsInOrder(host, cloudlet, configuredUtilization,
+				CloudletOptionalComponentCatalog.ORDER_UTILIZATION_AND_PRICE_RATIO);
 	}
 
 	
@@ -797,7 +900,7 @@ public class PowerDatacenter extends Datacenter {
 			double configuredUtilization) {		
 		
 		
-		setRandomGenerator(new Random(Brownout.MARKOV_SEED + seedFactor++));
+		setRandomGenerator(new Random(getMarkovSeed() + seedFactor++));
 		mdpProb = getRandomGenerator().nextInt(1000) / 1000.0;
 		
 		System.out.println("MDP_PROB: " + mdpProb);
@@ -805,77 +908,49 @@ public class PowerDatacenter extends Datacenter {
 		
 		
 		int vmsize = host.getVmList().size(); // should be above 0, needs check
-		Collections.sort(cloudlet.getCloudletOptionalComponentList(), new CompareByComponentUtilizationAndPriceRatio());
-		
-		int optionalComponentListSize = cloudlet.getCloudletOptionalComponentList().size();
+		CloudletOptionalComponentCatalog catalog = cloudlet.getOptionalComponentCatalog();
+		int order = CloudletOptionalComponentCatalog.ORDER_UTILIZATION_AND_PRICE_RATIO;
 		
-//		double prob = 1.0 / optionalComponentListSize;
+		int optionalComponentListSize = catalog.size();
 		
 		double probLow = configuredUtilization / ((optionalComponentListSize + 1) /2);   //round up
 		double probHigh = (1 - configuredUtilization) / (optionalComponentListSize - optionalComponentListSize /2);
 		
-		
-		
-		
-		
 		System.out.println("ProbLow: " + probLow);
 		System.out.println("ProbHigh: " + probHigh);
 		
 		
-		//Set the probability 
+		//Set the probability of the components, by rank
+		double[] probabilities = new double[optionalComponentListSize];
 		for (int index = 0; index < optionalComponentListSize / 2; index++) {
-			cloudlet.getCloudletOptionalComponentList().get(index).setProbability(configuredUtilization + probHigh * (optionalComponentListSize / 2 - index));
-			
+			probabilities[index] = configuredUtilization + probHigh * (optionalComponentListSize / 2 - index);
 		}
 		
 		for (int index = optionalComponentListSize / 2; index < optionalComponentListSize; index++) {
-			cloudlet.getCloudletOptionalComponentList().get(index).setProbability(configuredUtilization -  probLow * (index - optionalComponentListSize / 2));
-			
+			probabilities[index] = configuredUtilization -  probLow * (index - optionalComponentListSize / 2);
 		}
 
-		
-		
-		
-//		double prob = 0.0f;
-//		double utilization = 0.0f;
-//		double price = 0.0f;
-//		double upratio = 0.0f;
-//		int compId;
-//		for (int index = 0; index < optionalComponentListSize; index++) {
-//			compId = cloudlet.getCloudletOptionalComponentList().get(index).getId();
-//			prob = cloudlet.getCloudletOptionalComponentList().get(index).getProbability();
-//			utilization = cloudlet.getCloudletOptionalComponentList().get(index).getComponentUtilization();
-//			price = cloudlet.getCloudletOptionalComponentList().get(index).getComponentPrice();
-//			upratio = utilization / price;
-//			System.out.println("Id: " + compId + " Prob: " + prob + " utilization: " + utilization + " price: " + price + " upratio: " + upratio);
-//			
-//			if(cloudlet.getCloudletOptionalComponentList().get(index).getProbability() < mdpProb){
-//				cloudlet.getCloudletOptionalComponentList().get(index).setEnabled(false);
-//			}
-//			
-//		}
 		//Set the component with lower probability than mdp as 
-		for (CloudletOptionalComponent coc : cloudlet.getCloudletOptionalComponentList()) {
-			if (coc.getProbability() < mdpProb) {
-				coc.setEnabled(false);
-				host.getDisabaledTagsSet().add(coc.getComponentTag());
+		for (int rank = 0; rank < optionalComponentListSize; rank++) {
+			if (probabilities[rank] < mdpProb) {
+				int index = catalog.getComponentIndex(order, rank);
+				cloudlet.setOptionalComponentEnabled(index, false);
+				host.getDisabaledTagsSet().add(catalog.getTag(index));
 			}
 			
 		}
-//		updateHostDeactivatedComponentRatio(host, cloudlet, vmsize);
-//		updateHostRevenueLoss(host, cloudlet);
 		
 		//update status of connected components
-		for (CloudletOptionalComponent coc : cloudlet.getCloudletOptionalComponentList()) {
-			if (isTagInSet(host.getDisabaledTagsSet(), coc.getComponentTag())) {
-				coc.setEnabled(false);
+		for (int index = 0; index < optionalComponentListSize; index++) {
+			if (isTagInSet(host.getDisabaledTagsSet(), catalog.getTag(index))) {
+				cloudlet.setOptionalComponentEnabled(index, false);
 			}
 		}
-		updateHostDeactivatedComponentRatio(host, cloudlet, vmsize);
-		updateHostRevenueLoss(host, cloudlet);
+		updateHostDeactivatedComponentRatio(host, cloudlet, vmsize, order);
+		updateHostRevenueLoss(host, cloudlet, order);
 
 		System.out.println(host.getDisabaledTagsSet().toString());
-		host.getDisabaledTagsSet().removeAll(host.getDisabaledTagsSet());
+		host.getDisabaledTagsSet().clear();
 		System.out.println("DisabledTagSet is cleaned......");
 	}
 	
@@ -893,83 +968,47 @@ public class PowerDatacenter extends Datacenter {
 	 */
 	public void configureOptionalComponentsByLowestPrice(PowerHost host, Cloudlet cloudlet,
 			double configuredUtilization) {
+		configureOptionalComponentsInOrder(host, cloudlet, configuredUtilization,
+				CloudletOptionalComponentCatalog.ORDER_PRICE);
+	}
 
+	/**
+	 * Disables the first components of a cloudlet in a given order, until their utilization is the
+	 * nearest to the configured utilization, and the components sharing a tag with them. The
+	 * components are taken in the order precomputed by the catalog, and the cut is found by a binary
+	 * search on its cumulative utilization.
+	 * 
+	 * @param host the host
+	 * @param cloudlet the cloudlet
+	 * @param configuredUtilization the utilization to be reduced
+	 * @param order the order of the components, one of the
+	 *            <tt>CloudletOptionalComponentCatalog.ORDER_</tt> constants
+	 */
+	protected void configureOptionalComponentsInOrder(PowerHost host, Cloudlet cloudlet,
+			double configuredUtilization, int order) {
 		int vmsize = host.getVmList().size(); // should be above 0, needs check
+		getComponentDeactivationEngine().disableByCut(cloudlet, order, configuredUtilization);
+		updateHostDeactivatedComponentRatio(host, cloudlet, vmsize, order);
+		updateHostRevenueLoss(host, cloudlet, order);
+	}
 
-		Collections.sort(cloudlet.getCloudletOptionalComponentList(), new CompareByComponentPrice());
-
-		// The outputs are as expected
-		// for (CloudletOptionalComponent coc :
-		// cloudlet.getCloudletOptionalComponentList()) {
-		// System.out.println(coc.getComponentTag() + " " +
-		// coc.getComponentUtilization() + " " + coc.getComponentPrice());
-		// }
-		if (cloudlet.getCloudletOptionalComponentList().get(0).getComponentUtilization() >= configuredUtilization) {
-			cloudlet.getCloudletOptionalComponentList().get(0).setEnabled(false);
-			host.getDisabaledTagsSet().add(cloudlet.getCloudletOptionalComponentList().get(0).getComponentTag());
-			for (CloudletOptionalComponent coc : cloudlet.getCloudletOptionalComponentList()) {
-				if (isTagInSet(host.getDisabaledTagsSet(), coc.getComponentTag())) {
-					coc.setEnabled(false);
-				}
-
-			}
-			
-			updateHostDeactivatedComponentRatio(host, cloudlet, vmsize);
-			updateHostRevenueLoss(host, cloudlet);
-		} else {
-			// partionIndex is used to find the boundary that divides the
-			// utilization
-			int partitionIndex = cloudlet.getCloudletOptionalComponentList().size() - 1;
-			double tempUtilization1 = 0.0;
-			double tempUtilization2 = 0.0;
-			// System.out.println("Configured Utilization: " +
-			// configuredUtilization);
-			for (int index = 1; index < cloudlet.getCloudletOptionalComponentList().size(); index++) {
-				tempUtilization1 = 0.0;
-				for (int i = 0; i <= index - 1; i++) {
-					tempUtilization1 += cloudlet.getCloudletOptionalComponentList().get(i).getComponentUtilization();
-				}
-				tempUtilization2 = tempUtilization1
-						+ cloudlet.getCloudletOptionalComponentList().get(index).getComponentUtilization();
-				// for (int j = 0; j <= index; j++) {
-				// tempUtilization2 +=
-				// cloudlet.getCloudletOptionalComponentList().get(j).getComponentUtilization();
-				// }
-				// System.out.println(tempUtilization1 + " " +
-				// configuredUtilization + " " + tempUtilization2);
-				if ((tempUtilization1 <= configuredUtilization) && (configuredUtilization < tempUtilization2)) {
-					if((configuredUtilization - tempUtilization1) <= (tempUtilization2 - configuredUtilization)){
-						partitionIndex = index - 1;
-						break;
-						}else{
-							partitionIndex= index;
-							break;
-						}
-				}
-
-			}
-			for (int k = 0; k <= partitionIndex; k++) {
-				cloudlet.getCloudletOptionalComponentList().get(k).setEnabled(false);
-				host.getDisabaledTagsSet().add(cloudlet.getCloudletOptionalComponentList().get(k).getComponentTag());
-			}
-
-			for (int index = partitionIndex; index < cloudlet.getCloudletOptionalComponentList().size(); index++) {
-				if (isTagInSet(host.getDisabaledTagsSet(),
-						cloudlet.getCloudletOptionalComponentList().get(index).getComponentTag())) {
-					cloudlet.getCloudletOptionalComponentList().get(index).setEnabled(false);
-				}
-
-			}
-			// System.out.println(host.getDisabaledTagsSet().toString());
-			// System.out.println("Partition Index: " + partitionIndex);
-			updateHostDeactivatedComponentRatio(host, cloudlet, vmsize);
-			updateHostRevenueLoss(host, cloudlet);
-			
-
-		}
-//		System.out.println(host.getDisabaledTagsSet().toString());
-		host.getDisabaledTagsSet().removeAll(host.getDisabaledTagsSet());
-//		System.out.println("DisabledTagSet is cleaned......");
+	/**
+	 * Set the specific component of cloudlet as disabled, the configuredUtilization is the goal
+	 * utilization that would be reduced. And this function finds the components, disabled together
+	 * with the ones sharing their tag, that reduce at least the goal utilization with the lowest
+	 * revenue loss.
+	 * 
+	 * @param host the host
+	 * @param cloudlet the cloudlet
+	 * @param configuredUtilization the goal utilization that would be reduced
+	 */
+	public void configureOptionalComponentsByMinimumRevenueLoss(PowerHost host, Cloudlet cloudlet,
+			double configuredUtilization) {
+		int vmsize = host.getVmList().size();
+		int order = CloudletOptionalComponentCatalog.ORDER_UTILIZATION_AND_PRICE_RATIO;
+		getComponentDeactivationEngine().disableByMinimumRevenueLoss(cloudlet, configuredUtilization);
+		updateHostDeactivatedComponentRatio(host, cloudlet, vmsize, order);
+		updateHostRevenueLoss(host, cloudlet, order);
 	}
 
 	/**
@@ -993,20 +1032,28 @@ public class PowerDatacenter extends Datacenter {
 	 * @author minxianx
 	 */
 	public void updateHostRevenueLoss(PowerHost host, Cloudlet cloudlet) {
+		updateHostRevenueLoss(host, cloudlet, CloudletOptionalComponentCatalog.ORDER_INSERTION);
+	}
+
+	/**
+	 * Update the revenue loss of host, summing the price of the disabled components in a given
+	 * order.
+	 * 
+	 * @param host the host
+	 * @param cloudlet the cloudlet
+	 * @param order the order of the components
+	 */
+	public void updateHostRevenueLoss(PowerHost host, Cloudlet cloudlet, int order) {
+		CloudletOptionalComponentCatalog catalog = cloudlet.getOptionalComponentCatalog();
 		double hostRevenueLoss = 0.0;
-		for (CloudletOptionalComponent coc : cloudlet.getCloudletOptionalComponentList()) {
-			if (coc.isEnabled() == false) {
-				hostRevenueLoss += coc.getComponentPrice();
-				
+		for (int rank = 0; rank < catalog.size(); rank++) {
+			int index = catalog.getComponentIndex(order, rank);
+			if (!cloudlet.isOptionalComponentEnabled(index)) {
+				hostRevenueLoss += catalog.getPrice(index);
 			}
 		}
-//		System.out.println("Host id:" + host.getId() + " Increased Revenue Loss: " +
-//				 hostRevenueLoss);
 		hostRevenueLoss += host.getRevenueLoss();
 		host.setRevenueLoss(hostRevenueLoss);
-//		 System.out.println("Host id:" + host.getId() + " Revenue Loss: " +
-//		 hostRevenueLoss);
-		// System.out.println();
 	}
 
 	/**
@@ -1016,25 +1063,33 @@ public class PowerDatacenter extends Datacenter {
 	 * @param vmSize
 	 */
 	public void updateHostDeactivatedComponentRatio(PowerHost host, Cloudlet cloudlet, int vmSize) {
+		updateHostDeactivatedComponentRatio(host, cloudlet, vmSize, CloudletOptionalComponentCatalog.ORDER_INSERTION);
+	}
+
+	/**
+	 * Update the host total deactivated component ratio, summing the utilization of the disabled
+	 * components in a given order.
+	 * 
+	 * @param host the host
+	 * @param cloudlet the cloudlet
+	 * @param vmSize the number of vms of the host
+	 * @param order the order of the components
+	 */
+	public void updateHostDeactivatedComponentRatio(PowerHost host, Cloudlet cloudlet, int vmSize, int order) {
+		CloudletOptionalComponentCatalog catalog = cloudlet.getOptionalComponentCatalog();
 		double deacticatedComponentRatio = 0.0;
 		double deactivatedComponentNumber = 0.0;
-		for (CloudletOptionalComponent coc : cloudlet.getCloudletOptionalComponentList()) {
-			if (coc.isEnabled() == false) {
-//				deactivatedComponentNumber++;
-				deactivatedComponentNumber += coc.getComponentUtilization();
+		for (int rank = 0; rank < catalog.size(); rank++) {
+			int index = catalog.getComponentIndex(order, rank);
+			if (!cloudlet.isOptionalComponentEnabled(index)) {
+				deactivatedComponentNumber += catalog.getUtilization(index);
 			}
 		}
-		if (vmSize == 0 || cloudlet.getCloudletOptionalComponentList().size() == 0) {
+		if (vmSize == 0 || catalog.size() == 0) {
 			deacticatedComponentRatio = 0;
 		} else {
-			deacticatedComponentRatio = deactivatedComponentNumber / cloudlet.getCloudletOptionalComponentList().size()
-					/ vmSize;
-			
-			
 			deacticatedComponentRatio = deactivatedComponentNumber;
-//			System.out.println("Deactivated Component Ratio in Loop: " + deacticatedComponentRatio);
 		}
-//        System.out.println("Deactivated Component Ratio: " + host.getTotalDeactivatedComponentRatio());
         
 		host.setTotalDeactivatedComponentRatio(deacticatedComponentRatio + host.getTotalDeactivatedComponentRatio());
 	}
@@ -1046,9 +1101,7 @@ public class PowerDatacenter extends Datacenter {
 	 * @author minxianx
 	 */
 	public void updateOptionalComponents(Cloudlet cloudlet) {
-		for (CloudletOptionalComponent coc : cloudlet.getCloudletOptionalComponentList()) {
-			coc.setEnabled(true);
-		}
+		cloudlet.enableOptionalComponents();
 	}
 
 	/**
@@ -1059,23 +1112,43 @@ public class PowerDatacenter extends Datacenter {
 	 * @author minxianx
 	 */
 	public double getUtilizaitonAfterDimmer(double previousUtilizationOfCpu, Cloudlet cloudlet) {
+		return getUtilizaitonAfterDimmer(previousUtilizationOfCpu, cloudlet,
+				CloudletOptionalComponentCatalog.ORDER_INSERTION);
+	}
+
+	/**
+	 * Get the utilization of Cloudlet after dimmer is triggered, summing the utilization of the
+	 * enabled components in a given order.
+	 * 
+	 * @param previousUtilizationOfCpu the previous utilization of cpu
+	 * @param cloudlet the cloudlet
+	 * @param order the order of the components
+	 * @return the utilization after the dimmer
+	 */
+	public double getUtilizaitonAfterDimmer(double previousUtilizationOfCpu, Cloudlet cloudlet, int order) {
+		CloudletOptionalComponentCatalog catalog = cloudlet.getOptionalComponentCatalog();
 		double dimmerUtilization = 0.0;
-		Log.format("Components are:  ");
+		// the arguments of the log are only formatted, and boxed, if the log is enabled
+		boolean logEnabled = !Log.isDisabled();
+		if (logEnabled) {
+			Log.print("Components are:  ");
+		}
 
-		for (CloudletOptionalComponent coc : cloudlet.getCloudletOptionalComponentList()) {
-			if (coc.isEnabled() == true) {
-				dimmerUtilization += coc.getComponentUtilization();
-				Log.format(" %s ", coc.getComponentTag());
+		for (int rank = 0; rank < catalog.size(); rank++) {
+			int index = catalog.getComponentIndex(order, rank);
+			if (cloudlet.isOptionalComponentEnabled(index)) {
+				dimmerUtilization += catalog.getUtilization(index);
+				if (logEnabled) {
+					Log.print(" " + catalog.getTag(index) + " ");
+				}
 			}
 		}
-		
-		Log.format(" are working, ");
-		// if(previousUtilizationOfCpu - dimmierUtilization <= 0){
-		// return DimmerConstants.DimmerComponentLowerThreshold;
-		// }
 
-		double UtilizationAfterDimmer = (dimmerUtilization + DimmerConstants.DimmerComponentLowerThreshold) * previousUtilizationOfCpu;
-		Log.format(" wokring utilization is %f.2 \n", dimmerUtilization + DimmerConstants.DimmerComponentLowerThreshold );
+		double UtilizationAfterDimmer = (dimmerUtilization + getDimmerComponentLowerThreshold()) * previousUtilizationOfCpu;
+		if (logEnabled) {
+			Log.format(" are working,  working utilization is %.2f \n", dimmerUtilization
+					+ getDimmerComponentLowerThreshold());
+		}
 		return UtilizationAfterDimmer;
 	}
 
@@ -1086,12 +1159,7 @@ public class PowerDatacenter extends Datacenter {
 	 * @author minxianx
 	 */
 	public double getDataCenterRevenueLoss() {
-		double dataCenterRevenueLoss = 0.0;
-		for (PowerHost host : this.<PowerHost> getHostList()) {
-			dataCenterRevenueLoss += host.getRevenueLoss();
-			
-		}
-		return dataCenterRevenueLoss;
+		return getHostStateStore().getRevenueLoss();
 	}
 
 	public double getDataCenterObainedRevenue() {
@@ -1139,7 +1207,7 @@ public class PowerDatacenter extends Datacenter {
 	}
 
 	public int getTimesMayTriggerDimmer() {
-		return timeFrameMayTriggeredDimmer.size() * BrownoutConstants.NUMBER_OF_HOSTS;
+		return timeFrameMayTriggeredDimmer.size() * getHostList().size();
 	}
 
 	/**
@@ -10,12 +10,15 @@ package org.cloudbus.cloudsim.power;
 
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.cloudbus.cloudsim.HostDynamicWorkload;
 import org.cloudbus.cloudsim.Pe;
 import org.cloudbus.cloudsim.VmScheduler;
 import org.cloudbus.cloudsim.power.models.PowerModel;
+import org.cloudbus.cloudsim.power.models.PowerModelSpecPower;
 import org.cloudbus.cloudsim.provisioners.BwProvisioner;
 import org.cloudbus.cloudsim.provisioners.RamProvisioner;
 
@@ -35,6 +38,9 @@ import org.cloudbus.cloudsim.provisioners.RamProvisioner;
  */
 public class PowerHost extends HostDynamicWorkload {
 
+	/** Whether the host classes compute the power and the energy as this class does, by class. */
+	private static final Map<Class<?>, Boolean> defaultEnergyClasses = new ConcurrentHashMap<Class<?>, Boolean>();
+
 	/** The power model. */
 	private PowerModel powerModel;
 	
@@ -53,6 +59,12 @@ public class PowerHost extends HostDynamicWorkload {
     /**The obtained revenue*/
 	private double obtainedRevenue = 0.0;
 
+	/** The state store the host is attached to, or null. */
+	private PowerHostStateStore stateStore;
+
+	/** The index of the host in its state store. */
+	private int stateStoreIndex;
+
 	/**
 	 * Instantiates a new host.
 	 * 
@@ -76,11 +88,15 @@ public class PowerHost extends HostDynamicWorkload {
 	}
 
 	/**
-	 * Gets the power. For this moment only consumed by all PEs.
+	 * Gets the power. For this moment only consumed by all PEs. If the host is attached to a state
+	 * store, the power is only computed again after a change of the utilization.
 	 * 
 	 * @return the power
 	 */
 	public double getPower() {
+		if (stateStore != null) {
+			return stateStore.getPower(stateStoreIndex);
+		}
 		return getPower(getUtilizationOfCpu());
 	}
 
@@ -134,6 +150,63 @@ public class PowerHost extends HostDynamicWorkload {
 		return (fromPower + (toPower - fromPower) / 2) * time;
 	}
 
+	/**
+	 * Gets the power table of the power model, with which the energy of the hosts is computed in
+	 * one call by {@link PowerModelSpecPower#getEnergyLinearInterpolation(double[][], double[], double[],
+	 * double, double[], int)}. There is no table if the class of the host overrides
+	 * {@link #getPower(double)} or {@link #getEnergyLinearInterpolation(double, double, double)}, so
+	 * that the energy is then computed by the host.
+	 * 
+	 * @return the power table, or null if the power model has none or the host computes its energy
+	 */
+	public double[] getPowerTable() {
+		if (getPowerModel() instanceof PowerModelSpecPower && hasDefaultEnergy(getClass())) {
+			return ((PowerModelSpecPower) getPowerModel()).getPowerTable();
+		}
+		return null;
+	}
+
+	/**
+	 * Checks whether a host class computes the power and the energy as this class does, i.e. whether
+	 * neither it nor its superclasses below this class override {@link #getPower(double)} or
+	 * {@link #getEnergyLinearInterpolation(double, double, double)}.
+	 * 
+	 * @param hostClass the host class
+	 * @return true, if the energy can be computed from the power table
+	 */
+	private static boolean hasDefaultEnergy(Class<?> hostClass) {
+		Boolean defaultEnergy = defaultEnergyClasses.get(hostClass);
+		if (defaultEnergy == null) {
+			defaultEnergy = Boolean.TRUE;
+			for (Class<?> c = hostClass; c != PowerHost.class; c = c.getSuperclass()) {
+				if (declaresMethod(c, "getPower", Double.TYPE)
+						|| declaresMethod(c, "getEnergyLinearInterpolation", Double.TYPE, Double.TYPE, Double.TYPE)) {
+					defaultEnergy = Boolean.FALSE;
+					break;
+				}
+			}
+			defaultEnergyClasses.put(hostClass, defaultEnergy);
+		}
+		return defaultEnergy;
+	}
+
+	/**
+	 * Checks whether a class declares a method.
+	 * 
+	 * @param c the class
+	 * @param name the name of the method
+	 * @param parameterTypes the parameter types of the method
+	 * @return true, if the class declares the method
+	 */
+	private static boolean declaresMethod(Class<?> c, String name, Class<?>... parameterTypes) {
+		try {
+			c.getDeclaredMethod(name, parameterTypes);
+			return true;
+		} catch (NoSuchMethodException e) {
+			return false;
+		}
+	}
+
 	/**
 	 * Sets the power model.
 	 * 
@@ -141,6 +214,9 @@ public class PowerHost extends HostDynamicWorkload {
 	 */
 	protected void setPowerModel(PowerModel powerModel) {
 		this.powerModel = powerModel;
+		if (stateStore != null) {
+			stateStore.resetPower(stateStoreIndex);
+		}
 	}
 
 	/**
@@ -151,6 +227,89 @@ public class PowerHost extends HostDynamicWorkload {
 	public PowerModel getPowerModel() {
 		return powerModel;
 	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.cloudbus.cloudsim.HostDynamicWorkload#getUtilizationMips()
+	 */
+	@Override
+	public double getUtilizationMips() {
+		if (stateStore != null) {
+			return stateStore.getUtilizationMips(stateStoreIndex);
+		}
+		return super.getUtilizationMips();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.cloudbus.cloudsim.HostDynamicWorkload#setUtilizationMips(double)
+	 */
+	@Override
+	protected void setUtilizationMips(double utilizationMips) {
+		if (stateStore != null) {
+			stateStore.setUtilizationMips(stateStoreIndex, utilizationMips);
+			return;
+		}
+		super.setUtilizationMips(utilizationMips);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.cloudbus.cloudsim.HostDynamicWorkload#getPreviousUtilizationMips()
+	 */
+	@Override
+	public double getPreviousUtilizationMips() {
+		if (stateStore != null) {
+			return stateStore.getPreviousUtilizationMips(stateStoreIndex);
+		}
+		return super.getPreviousUtilizationMips();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.cloudbus.cloudsim.HostDynamicWorkload#setPreviousUtilizationMips(double)
+	 */
+	@Override
+	protected void setPreviousUtilizationMips(double previousUtilizationMips) {
+		if (stateStore != null) {
+			stateStore.setPreviousUtilizationMips(stateStoreIndex, previousUtilizationMips);
+			return;
+		}
+		super.setPreviousUtilizationMips(previousUtilizationMips);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.cloudbus.cloudsim.Host#getTotalMips()
+	 */
+	@Override
+	public int getTotalMips() {
+		if (stateStore != null) {
+			return stateStore.getTotalMips(stateStoreIndex);
+		}
+		return super.getTotalMips();
+	}
+
+	/**
+	 * Gets the state store the host is attached to.
+	 * 
+	 * @return the state store, or null if the host keeps its own state
+	 */
+	public PowerHostStateStore getStateStore() {
+		return stateStore;
+	}
+
+	/**
+	 * Attaches the host to a state store, which keeps the state of the host from then on. The
+	 * store must hold the current state of the host.
+	 * 
+	 * @param stateStore the state store
+	 * @param index the index of the host in the store
+	 */
+	void setStateStore(PowerHostStateStore stateStore, int index) {
+		this.stateStore = stateStore;
+		stateStoreIndex = index;
+	}
 	
 	public void setDimmerValue(double dimmerValue){
 		this.dimmerValue = dimmerValue;
@@ -161,10 +320,17 @@ public class PowerHost extends HostDynamicWorkload {
 	}
 	
 	public double getRevenueLoss(){
+		if (stateStore != null) {
+			return stateStore.getRevenueLoss(stateStoreIndex);
+		}
 		return revenueLoss;
 	}
 	
 	public void setRevenueLoss(double revenueLoss){
+		if (stateStore != null) {
+			stateStore.setRevenueLoss(stateStoreIndex, revenueLoss);
+			return;
+		}
 		this.revenueLoss = revenueLoss;
 	}
 	
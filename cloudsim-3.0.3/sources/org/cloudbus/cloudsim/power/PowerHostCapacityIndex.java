@@ -0,0 +1,302 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.power;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.cloudbus.cloudsim.Host;
+import org.cloudbus.cloudsim.Vm;
+
+/**
+ * The PowerHostCapacityIndex class indexes the hosts of a VM placement, so that the search of the
+ * host with the minimum power increase only evaluates the hosts that may be chosen. The hosts are
+ * bucketed by type, i.e. by power model, PE capacity, total MIPS, RAM and BW, and in each bucket:
+ * <ul>
+ * <li>the hosts running VMs are ordered by free MIPS, so that the hosts without enough free MIPS
+ * for a VM are skipped at once; the ones without enough free RAM or BW are skipped as well;</li>
+ * <li>the idle hosts, i.e. the empty hosts with no utilization and all their capacity free, have
+ * the same power increase for a given VM, so only the first one that is not excluded is
+ * evaluated.</li>
+ * </ul>
+ * The candidate hosts are returned in the order of the host list, so that the chosen host is the
+ * same as with a full scan. The index also caches the utilization of the CPU in MIPS of the hosts.
+ * It is updated by {@link #update(PowerHost, double, int, long)} whenever the VMs of a host
+ * change.
+ * <p>
+ * The power models of two hosts are considered equal if they are of the same class and give the
+ * same power at each tenth of utilization, which holds for the power models of the power package.
+ *
+ * @see PowerVmAllocationPolicyMigrationAbstract#findHostForVm(Vm, Set)
+ * @since CloudSim Toolkit 3.0
+ */
+public class PowerHostCapacityIndex {
+
+	/** The hosts, in the order of the host list. */
+	private final List<PowerHost> hosts;
+
+	/** The position of the hosts in the host list. */
+	private final Map<PowerHost, Integer> positions;
+
+	/** The bucket of each host. */
+	private final Bucket[] hostBuckets;
+
+	/** The free MIPS of each host. */
+	private final double[] availableMips;
+
+	/** The free RAM of each host. */
+	private final int[] availableRam;
+
+	/** The free BW of each host. */
+	private final long[] availableBw;
+
+	/** The utilization of the CPU in MIPS of each host, NaN if not known. */
+	private final double[] utilizationMips;
+
+	/** Whether each host is idle. */
+	private final boolean[] idle;
+
+	/** The buckets, by order of first host. */
+	private final List<Bucket> buckets;
+
+	/** The free MIPS searched in the buckets, which is the one of the position -1. */
+	private double searchedMips;
+
+	/**
+	 * Instantiates a new index from the current state of the hosts.
+	 *
+	 * @param hostList the host list
+	 */
+	public PowerHostCapacityIndex(List<? extends PowerHost> hostList) {
+		int size = hostList.size();
+		hosts = new ArrayList<PowerHost>(hostList);
+		positions = new HashMap<PowerHost, Integer>(size * 2);
+		hostBuckets = new Bucket[size];
+		availableMips = new double[size];
+		availableRam = new int[size];
+		availableBw = new long[size];
+		utilizationMips = new double[size];
+		idle = new boolean[size];
+
+		Map<String, Bucket> bucketsByType = new LinkedHashMap<String, Bucket>();
+		for (int position = 0; position < size; position++) {
+			PowerHost host = hosts.get(position);
+			positions.put(host, position);
+			String type = getType(host);
+			Bucket bucket = bucketsByType.get(type);
+			if (bucket == null) {
+				bucket = new Bucket(host);
+				bucketsByType.put(type, bucket);
+			}
+			hostBuckets[position] = bucket;
+			set(position, host.getVmScheduler().getAvailableMips(), host.getRamProvisioner().getAvailableRam(),
+					host.getBwProvisioner().getAvailableBw());
+		}
+		buckets = new ArrayList<Bucket>(bucketsByType.values());
+	}
+
+	/**
+	 * Updates the free capacity of a host.
+	 *
+	 * @param host the host
+	 * @param mips the free MIPS
+	 * @param ram the free RAM
+	 * @param bw the free BW
+	 */
+	public void update(PowerHost host, double mips, int ram, long bw) {
+		Integer position = positions.get(host);
+		if (position == null) {
+			return;
+		}
+		Bucket bucket = hostBuckets[position];
+		if (idle[position]) {
+			bucket.idleHosts.remove(position);
+		} else {
+			bucket.activeHosts.remove(position);
+		}
+		set(position, mips, ram, bw);
+	}
+
+	/**
+	 * Gets the utilization of the CPU in MIPS of a host, as computed by
+	 * {@link PowerVmAllocationPolicyMigrationAbstract#getUtilizationOfCpuMips(PowerHost)} since the
+	 * last update of the host.
+	 *
+	 * @param host the host
+	 * @return the utilization of the CPU in MIPS, or NaN if it is not known
+	 */
+	public double getUtilizationOfCpuMips(PowerHost host) {
+		Integer position = positions.get(host);
+		return position == null ? Double.NaN : utilizationMips[position];
+	}
+
+	/**
+	 * Sets the utilization of the CPU in MIPS of a host, which is kept until the next update of the
+	 * host.
+	 *
+	 * @param host the host
+	 * @param mips the utilization of the CPU in MIPS
+	 */
+	public void setUtilizationOfCpuMips(PowerHost host, double mips) {
+		Integer position = positions.get(host);
+		if (position != null) {
+			utilizationMips[position] = mips;
+		}
+	}
+
+	/**
+	 * Gets the hosts that may be chosen for a VM, in the order of the host list: the hosts that are
+	 * suitable for the VM, i.e. with enough PE capacity and free MIPS, RAM and BW, of which only the
+	 * first idle host of each bucket that is not excluded.
+	 *
+	 * @param vm the vm
+	 * @param excludedHosts the excluded hosts, which are not returned
+	 * @return the candidate hosts
+	 */
+	public List<PowerHost> getCandidateHosts(Vm vm, Set<? extends Host> excludedHosts) {
+		double requestedMips = vm.getCurrentRequestedTotalMips();
+		double requestedMaxMips = vm.getCurrentRequestedMaxMips();
+		int requestedRam = Math.min(vm.getCurrentRequestedRam(), vm.getRam());
+		long requestedBw = vm.getCurrentRequestedBw();
+
+		BitSet candidates = new BitSet(hosts.size());
+		for (Bucket bucket : buckets) {
+			if (bucket.peCapacity < requestedMaxMips) {
+				continue;
+			}
+			searchedMips = requestedMips;
+			for (int position : bucket.activeHosts.tailSet(-1, true)) {
+				if (availableRam[position] >= requestedRam && availableBw[position] >= requestedBw
+						&& !excludedHosts.contains(hosts.get(position))) {
+					candidates.set(position);
+				}
+			}
+			if (bucket.totalMips >= requestedMips && bucket.ram >= requestedRam && bucket.bw >= requestedBw) {
+				for (int position : bucket.idleHosts) {
+					if (!excludedHosts.contains(hosts.get(position))) {
+						candidates.set(position);
+						break;
+					}
+				}
+			}
+		}
+
+		List<PowerHost> candidateHosts = new ArrayList<PowerHost>(candidates.cardinality());
+		for (int position = candidates.nextSetBit(0); position >= 0; position = candidates
+				.nextSetBit(position + 1)) {
+			candidateHosts.add(hosts.get(position));
+		}
+		return candidateHosts;
+	}
+
+	/**
+	 * Sets the free capacity of a host and adds it to its bucket.
+	 *
+	 * @param position the position of the host
+	 * @param mips the free MIPS
+	 * @param ram the free RAM
+	 * @param bw the free BW
+	 */
+	private void set(int position, double mips, int ram, long bw) {
+		PowerHost host = hosts.get(position);
+		Bucket bucket = hostBuckets[position];
+		availableMips[position] = mips;
+		availableRam[position] = ram;
+		availableBw[position] = bw;
+		utilizationMips[position] = Double.NaN;
+		idle[position] = host.getVmList().isEmpty() && host.getUtilizationOfCpu() == 0
+				&& mips == bucket.totalMips && ram == bucket.ram && bw == bucket.bw;
+		if (idle[position]) {
+			bucket.idleHosts.add(position);
+		} else {
+			bucket.activeHosts.add(position);
+		}
+	}
+
+	/**
+	 * Gets the free MIPS of a host.
+	 *
+	 * @param position the position of the host, or -1 for the searched free MIPS
+	 * @return the free MIPS
+	 */
+	private double getAvailableMips(int position) {
+		return position < 0 ? searchedMips : availableMips[position];
+	}
+
+	/**
+	 * Gets the type of a host, which identifies its bucket.
+	 *
+	 * @param host the host
+	 * @return the type
+	 */
+	private static String getType(PowerHost host) {
+		StringBuilder type = new StringBuilder(host.getPowerModel().getClass().getName());
+		for (int i = 0; i <= 10; i++) {
+			type.append(' ').append(host.getPower(i / 10.0));
+		}
+		type.append(' ').append(host.getVmScheduler().getPeCapacity());
+		type.append(' ').append(host.getTotalMips());
+		type.append(' ').append(host.getRamProvisioner().getRam());
+		type.append(' ').append(host.getBwProvisioner().getBw());
+		return type.toString();
+	}
+
+	/**
+	 * The hosts of the same type.
+	 */
+	private class Bucket {
+
+		/** The PE capacity of the hosts. */
+		private final double peCapacity;
+
+		/** The total MIPS of the hosts. */
+		private final double totalMips;
+
+		/** The RAM of the hosts. */
+		private final int ram;
+
+		/** The BW of the hosts. */
+		private final long bw;
+
+		/** The hosts running VMs, by free MIPS and position. */
+		private final TreeSet<Integer> activeHosts;
+
+		/** The idle hosts, by position. */
+		private final TreeSet<Integer> idleHosts = new TreeSet<Integer>();
+
+		/**
+		 * Instantiates a new bucket.
+		 *
+		 * @param host the first host of the bucket
+		 */
+		public Bucket(PowerHost host) {
+			peCapacity = host.getVmScheduler().getPeCapacity();
+			totalMips = host.getTotalMips();
+			ram = host.getRamProvisioner().getRam();
+			bw = host.getBwProvisioner().getBw();
+			activeHosts = new TreeSet<Integer>(new Comparator<Integer>() {
+
+				@Override
+				public int compare(Integer position1, Integer position2) {
+					int result = Double.compare(getAvailableMips(position1), getAvailableMips(position2));
+					return result != 0 ? result : position1.compareTo(position2);
+				}
+			});
+		}
+
+	}
+
+}
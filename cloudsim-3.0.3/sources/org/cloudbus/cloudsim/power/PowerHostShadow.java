@@ -0,0 +1,279 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.power;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.cloudbus.cloudsim.Vm;
+
+/**
+ * The PowerHostShadow class is the tentative state of a host while a VM placement is planned. It
+ * keeps the capacity left on the host (MIPS, RAM, BW and storage) and the MIPS allocated to the
+ * VMs tentatively placed on it, without touching the VM scheduler and provisioners of the host.
+ * The VM list of the host is changed in place, so that the over-utilization detection sees the
+ * projected VMs, and every change is journaled to be undone when the planning is over.
+ * <p>
+ * A shadow is created from the current state of the host, in constant time, and is only valid as
+ * long as the real allocation of the host does not change.
+ *
+ * @see PowerVmAllocationPolicyMigrationAbstract
+ * @since CloudSim Toolkit 3.0
+ */
+public class PowerHostShadow {
+
+	/** The host. */
+	private final PowerHost host;
+
+	/** The MIPS left on the host. */
+	private double availableMips;
+
+	/** The RAM left on the host. */
+	private int availableRam;
+
+	/** The BW left on the host. */
+	private long availableBw;
+
+	/** The storage left on the host. */
+	private long storage;
+
+	/** The MIPS allocated to the VMs tentatively placed on the host. */
+	private final Map<Vm, Double> allocatedMips = new HashMap<Vm, Double>();
+
+	/** The changes of the VM list of the host, in order. */
+	private final List<Change> journal = new ArrayList<Change>();
+
+	/**
+	 * Instantiates a new shadow of a host.
+	 *
+	 * @param host the host
+	 */
+	public PowerHostShadow(PowerHost host) {
+		this.host = host;
+		availableMips = host.getVmScheduler().getAvailableMips();
+		availableRam = host.getRamProvisioner().getAvailableRam();
+		availableBw = host.getBwProvisioner().getAvailableBw();
+		storage = host.getStorage();
+	}
+
+	/**
+	 * Checks whether a VM fits in the capacity left on the host, as {@link PowerHost#isSuitableForVm(Vm)}.
+	 *
+	 * @param vm the vm
+	 * @return true, if the VM fits
+	 */
+	public boolean isSuitableForVm(Vm vm) {
+		return host.getVmScheduler().getPeCapacity() >= vm.getCurrentRequestedMaxMips()
+				&& availableMips >= vm.getCurrentRequestedTotalMips()
+				&& availableRam >= Math.min(vm.getCurrentRequestedRam(), vm.getRam())
+				&& availableBw >= vm.getCurrentRequestedBw();
+	}
+
+	/**
+	 * Tentatively places a VM on the host. The VM is added to the VM list of the host, but not to
+	 * its scheduler and provisioners.
+	 *
+	 * @param vm the vm
+	 * @return true, if the VM could be placed, as {@link PowerHost#vmCreate(Vm)}
+	 */
+	public boolean vmCreate(Vm vm) {
+		if (storage < vm.getSize() || availableRam < Math.min(vm.getCurrentRequestedRam(), vm.getRam())
+				|| availableBw < vm.getCurrentRequestedBw()) {
+			return false;
+		}
+		if (!vm.isInMigration()) {
+			// as the scheduler does when it allocates the VM, a stale migrating out entry is dropped
+			host.getVmScheduler().getVmsMigratingOut().remove(vm.getUid());
+		}
+		if (!isSuitableForVm(vm)) {
+			return false;
+		}
+		double mips = vm.getCurrentRequestedTotalMips();
+		journal.add(new Change(vm, host.getVmList().size(), true, allocatedMips.get(vm)));
+		availableMips -= mips;
+		availableRam -= Math.min(vm.getCurrentRequestedRam(), vm.getRam());
+		availableBw -= vm.getCurrentRequestedBw();
+		storage -= vm.getSize();
+		allocatedMips.put(vm, mips);
+		host.getVmList().add(vm);
+		return true;
+	}
+
+	/**
+	 * Tentatively removes a VM from the host, releasing the capacity allocated to it.
+	 *
+	 * @param vm the vm
+	 */
+	public void vmDestroy(Vm vm) {
+		int index = host.getVmList().indexOf(vm);
+		if (index < 0) {
+			return;
+		}
+		journal.add(new Change(vm, index, false, allocatedMips.get(vm)));
+		Double mips = allocatedMips.remove(vm);
+		if (mips != null) {
+			availableMips += mips;
+			availableRam += Math.min(vm.getCurrentRequestedRam(), vm.getRam());
+			availableBw += vm.getCurrentRequestedBw();
+		} else {
+			availableMips += host.getTotalAllocatedMipsForVm(vm);
+			availableRam += host.getRamProvisioner().getAllocatedRamForVm(vm);
+			availableBw += host.getBwProvisioner().getAllocatedBwForVm(vm);
+		}
+		storage += vm.getSize();
+		host.getVmList().remove(index);
+	}
+
+	/**
+	 * Gets the MIPS allocated to a VM of the host, including the VMs tentatively placed on it.
+	 *
+	 * @param vm the vm
+	 * @return the allocated MIPS
+	 */
+	public double getTotalAllocatedMipsForVm(Vm vm) {
+		Double mips = allocatedMips.get(vm);
+		if (mips != null) {
+			return mips;
+		}
+		return host.getTotalAllocatedMipsForVm(vm);
+	}
+
+	/**
+	 * Gets the number of journaled changes, to be passed to {@link #undo(int)}.
+	 *
+	 * @return the number of changes
+	 */
+	public int getJournalSize() {
+		return journal.size();
+	}
+
+	/**
+	 * Undoes the latest changes, in reverse order, until the journal has a given size.
+	 *
+	 * @param journalSize the size of the journal to go back to, 0 to undo all the changes
+	 */
+	public void undo(int journalSize) {
+		List<Vm> vmList = host.getVmList();
+		for (int i = journal.size() - 1; i >= journalSize; i--) {
+			Change change = journal.remove(i);
+			if (change.added) {
+				vmList.remove(change.index);
+			} else {
+				vmList.add(change.index, change.vm);
+			}
+			availableMips = change.availableMips;
+			availableRam = change.availableRam;
+			availableBw = change.availableBw;
+			storage = change.storage;
+			if (change.allocatedMips != null) {
+				allocatedMips.put(change.vm, change.allocatedMips);
+			} else {
+				allocatedMips.remove(change.vm);
+			}
+		}
+	}
+
+	/**
+	 * Gets the host.
+	 *
+	 * @return the host
+	 */
+	public PowerHost getHost() {
+		return host;
+	}
+
+	/**
+	 * Gets the MIPS left on the host.
+	 *
+	 * @return the available MIPS
+	 */
+	public double getAvailableMips() {
+		return availableMips;
+	}
+
+	/**
+	 * Gets the RAM left on the host.
+	 *
+	 * @return the available RAM
+	 */
+	public int getAvailableRam() {
+		return availableRam;
+	}
+
+	/**
+	 * Gets the BW left on the host.
+	 *
+	 * @return the available BW
+	 */
+	public long getAvailableBw() {
+		return availableBw;
+	}
+
+	/**
+	 * Gets the storage left on the host.
+	 *
+	 * @return the available storage
+	 */
+	public long getStorage() {
+		return storage;
+	}
+
+	/**
+	 * A change of the VM list of the host, with the capacity left before it.
+	 */
+	private class Change {
+
+		/** The vm. */
+		private final Vm vm;
+
+		/** The index of the VM in the list. */
+		private final int index;
+
+		/** Whether the VM was added, or removed. */
+		private final boolean added;
+
+		/** The MIPS left on the host before the change. */
+		private final double availableMips;
+
+		/** The RAM left on the host before the change. */
+		private final int availableRam;
+
+		/** The BW left on the host before the change. */
+		private final long availableBw;
+
+		/** The storage left on the host before the change. */
+		private final long storage;
+
+		/** The MIPS tentatively allocated to the VM before the change, or null. */
+		private final Double allocatedMips;
+
+		/**
+		 * Instantiates a new change.
+		 *
+		 * @param vm the vm
+		 * @param index the index of the VM in the list
+		 * @param added whether the VM was added, or removed
+		 * @param allocatedMips the MIPS tentatively allocated to the VM before the change, or null
+		 */
+		public Change(Vm vm, int index, boolean added, Double allocatedMips) {
+			this.vm = vm;
+			this.index = index;
+			this.added = added;
+			this.allocatedMips = allocatedMips;
+			availableMips = PowerHostShadow.this.availableMips;
+			availableRam = PowerHostShadow.this.availableRam;
+			availableBw = PowerHostShadow.this.availableBw;
+			storage = PowerHostShadow.this.storage;
+		}
+
+	}
+
+}
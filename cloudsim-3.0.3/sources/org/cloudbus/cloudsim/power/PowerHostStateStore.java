@@ -0,0 +1,361 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.power;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.cloudbus.cloudsim.lists.PeList;
+import org.cloudbus.cloudsim.power.models.PowerModelSpecPower;
+import org.cloudbus.cloudsim.provisioners.PeProvisioner;
+
+/**
+ * The PowerHostStateStore class keeps the state of the hosts of a datacenter in columns, i.e. in
+ * primitive arrays indexed by the position of the hosts in the host list: the current and previous
+ * utilization of the CPU in MIPS, the total MIPS, the power at the current utilization, the
+ * revenue loss and whether the host is active. The hosts attached to the store read and write
+ * their state there (see {@link PowerHost#getUtilizationMips()}), so that the datacenter sweeps
+ * the arrays at each time frame instead of the host objects, e.g. to compute the energy of the
+ * hosts in one call.
+ * <p>
+ * The total MIPS of a host is read from its PEs when the host is attached, and again when the
+ * MIPS of a PE have been changed (see {@link PeProvisioner#getMipsChanges()}), or by
+ * {@link #updateTotalMips()}, e.g. after a change of the PE list of a host. The power is computed
+ * on first use after a change of the utilization or of the total MIPS.
+ *
+ * @since CloudSim Toolkit 3.0
+ */
+public class PowerHostStateStore {
+
+	/** The hosts, in the order of the columns. */
+	private final List<PowerHost> hosts;
+
+	/** The current utilization of the CPU of the hosts, in MIPS. */
+	private final double[] utilizationMips;
+
+	/** The previous utilization of the CPU of the hosts, in MIPS. */
+	private final double[] previousUtilizationMips;
+
+	/** The total MIPS of the hosts. */
+	private final int[] totalMips;
+
+	/** The number of changes of the MIPS of the PEs when the total MIPS were read. */
+	private long peMipsChanges;
+
+	/** The power of the hosts at the current utilization, or NaN if it is not computed yet. */
+	private final double[] power;
+
+	/** The revenue loss of the hosts. */
+	private final double[] revenueLoss;
+
+	/** Whether the hosts are active, i.e. have a utilization of the CPU. */
+	private final boolean[] active;
+
+	/** The power tables of the hosts, for the energy computation. */
+	private final double[][] powerTables;
+
+	/** The previous utilization of the CPU of the hosts, for the energy computation. */
+	private final double[] previousUtilizations;
+
+	/** The current utilization of the CPU of the hosts, for the energy computation. */
+	private final double[] utilizations;
+
+	/** The energy of the hosts over the last time frame. */
+	private final double[] energy;
+
+	/**
+	 * Instantiates a new store, and attaches the hosts to it with their current state.
+	 *
+	 * @param hostList the hosts
+	 */
+	public PowerHostStateStore(List<? extends PowerHost> hostList) {
+		hosts = new ArrayList<PowerHost>(hostList);
+		int size = hosts.size();
+		utilizationMips = new double[size];
+		previousUtilizationMips = new double[size];
+		totalMips = new int[size];
+		power = new double[size];
+		revenueLoss = new double[size];
+		active = new boolean[size];
+		powerTables = new double[size][];
+		previousUtilizations = new double[size];
+		utilizations = new double[size];
+		energy = new double[size];
+		peMipsChanges = PeProvisioner.getMipsChanges();
+		for (int i = 0; i < size; i++) {
+			PowerHost host = hosts.get(i);
+			utilizationMips[i] = host.getUtilizationMips();
+			previousUtilizationMips[i] = host.getPreviousUtilizationMips();
+			totalMips[i] = PeList.getTotalMips(host.getPeList());
+			power[i] = Double.NaN;
+			revenueLoss[i] = host.getRevenueLoss();
+			active[i] = getUtilizationOfCpu(i) != 0;
+			host.setStateStore(this, i);
+		}
+	}
+
+	/**
+	 * Gets the number of hosts.
+	 *
+	 * @return the number of hosts
+	 */
+	public int size() {
+		return hosts.size();
+	}
+
+	/**
+	 * Gets a host.
+	 *
+	 * @param index the index of the host
+	 * @return the host
+	 */
+	public PowerHost getHost(int index) {
+		return hosts.get(index);
+	}
+
+	/**
+	 * Checks whether the store holds the hosts of a host list, i.e. the same hosts in the same order.
+	 *
+	 * @param hostList the host list
+	 * @return true, if the columns of the store are the hosts of the list
+	 */
+	public boolean isStoreOf(List<? extends PowerHost> hostList) {
+		if (hostList.size() != hosts.size()) {
+			return false;
+		}
+		for (int i = 0; i < hosts.size(); i++) {
+			if (hostList.get(i) != hosts.get(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Reads the total MIPS of the hosts from their PEs again. It is done when needed after the MIPS
+	 * of a PE changed, but not after a change of the PE list of a host.
+	 */
+	public void updateTotalMips() {
+		peMipsChanges = PeProvisioner.getMipsChanges();
+		for (int i = 0; i < totalMips.length; i++) {
+			int mips = PeList.getTotalMips(hosts.get(i).getPeList());
+			if (mips != totalMips[i]) {
+				totalMips[i] = mips;
+				power[i] = Double.NaN;
+				active[i] = getUtilizationOfCpu(i) != 0;
+			}
+		}
+	}
+
+	/**
+	 * Gets the utilization of the CPU of a host, as {@link PowerHost#getUtilizationOfCpu()}.
+	 *
+	 * @param index the index of the host
+	 * @return the utilization
+	 */
+	public double getUtilizationOfCpu(int index) {
+		checkTotalMips();
+		return getUtilization(utilizationMips[index], totalMips[index]);
+	}
+
+	/**
+	 * Gets the previous utilization of the CPU of a host, as
+	 * {@link PowerHost#getPreviousUtilizationOfCpu()}.
+	 *
+	 * @param index the index of the host
+	 * @return the previous utilization
+	 */
+	public double getPreviousUtilizationOfCpu(int index) {
+		checkTotalMips();
+		return getUtilization(previousUtilizationMips[index], totalMips[index]);
+	}
+
+	/**
+	 * Gets the number of hosts that are not active, i.e. that have no utilization of the CPU.
+	 *
+	 * @return the number of idle hosts
+	 */
+	public int getNumberOfIdleHosts() {
+		checkTotalMips();
+		int idleHosts = 0;
+		for (boolean hostActive : active) {
+			if (!hostActive) {
+				idleHosts++;
+			}
+		}
+		return idleHosts;
+	}
+
+	/**
+	 * Gets the total revenue loss of the hosts.
+	 *
+	 * @return the revenue loss
+	 */
+	public double getRevenueLoss() {
+		double totalRevenueLoss = 0;
+		for (double hostRevenueLoss : revenueLoss) {
+			totalRevenueLoss += hostRevenueLoss;
+		}
+		return totalRevenueLoss;
+	}
+
+	/**
+	 * Computes the energy of the hosts over a time frame, from their previous to their current
+	 * utilization, in one call (see
+	 * {@link PowerModelSpecPower#getEnergyLinearInterpolation(double[][], double[], double[], double, double[], int)}).
+	 * The energy of a host without power table, or with a utilization out of [0, 1], is NaN and
+	 * must be computed by the host.
+	 *
+	 * @param time the length of the time frame
+	 */
+	public void computeEnergyLinearInterpolation(double time) {
+		for (int i = 0; i < energy.length; i++) {
+			powerTables[i] = hosts.get(i).getPowerTable();
+			previousUtilizations[i] = getPreviousUtilizationOfCpu(i);
+			utilizations[i] = getUtilizationOfCpu(i);
+		}
+		PowerModelSpecPower.getEnergyLinearInterpolation(powerTables, previousUtilizations, utilizations, time,
+				energy, energy.length);
+	}
+
+	/**
+	 * Gets the energy of a host over the last time frame given to
+	 * {@link #computeEnergyLinearInterpolation(double)}.
+	 *
+	 * @param index the index of the host
+	 * @return the energy, or NaN if it must be computed by the host
+	 */
+	public double getEnergy(int index) {
+		return energy[index];
+	}
+
+	/**
+	 * Gets the utilization of the CPU in MIPS of a host.
+	 *
+	 * @param index the index of the host
+	 * @return the utilization in MIPS
+	 */
+	double getUtilizationMips(int index) {
+		return utilizationMips[index];
+	}
+
+	/**
+	 * Sets the utilization of the CPU in MIPS of a host.
+	 *
+	 * @param index the index of the host
+	 * @param mips the utilization in MIPS
+	 */
+	void setUtilizationMips(int index, double mips) {
+		utilizationMips[index] = mips;
+		active[index] = getUtilizationOfCpu(index) != 0;
+		power[index] = Double.NaN;
+	}
+
+	/**
+	 * Gets the previous utilization of the CPU in MIPS of a host.
+	 *
+	 * @param index the index of the host
+	 * @return the previous utilization in MIPS
+	 */
+	double getPreviousUtilizationMips(int index) {
+		return previousUtilizationMips[index];
+	}
+
+	/**
+	 * Sets the previous utilization of the CPU in MIPS of a host.
+	 *
+	 * @param index the index of the host
+	 * @param mips the previous utilization in MIPS
+	 */
+	void setPreviousUtilizationMips(int index, double mips) {
+		previousUtilizationMips[index] = mips;
+	}
+
+	/**
+	 * Gets the total MIPS of a host.
+	 *
+	 * @param index the index of the host
+	 * @return the total MIPS
+	 */
+	int getTotalMips(int index) {
+		checkTotalMips();
+		return totalMips[index];
+	}
+
+	/**
+	 * Gets the power of a host at its current utilization, and computes it if needed.
+	 *
+	 * @param index the index of the host
+	 * @return the power
+	 */
+	double getPower(int index) {
+		checkTotalMips();
+		double hostPower = power[index];
+		if (Double.isNaN(hostPower)) {
+			PowerHost host = hosts.get(index);
+			hostPower = host.getPower(host.getUtilizationOfCpu());
+			power[index] = hostPower;
+		}
+		return hostPower;
+	}
+
+	/**
+	 * Forgets the power of a host, e.g. after a change of its power model.
+	 *
+	 * @param index the index of the host
+	 */
+	void resetPower(int index) {
+		power[index] = Double.NaN;
+	}
+
+	/**
+	 * Gets the revenue loss of a host.
+	 *
+	 * @param index the index of the host
+	 * @return the revenue loss
+	 */
+	double getRevenueLoss(int index) {
+		return revenueLoss[index];
+	}
+
+	/**
+	 * Sets the revenue loss of a host.
+	 *
+	 * @param index the index of the host
+	 * @param hostRevenueLoss the revenue loss
+	 */
+	void setRevenueLoss(int index, double hostRevenueLoss) {
+		revenueLoss[index] = hostRevenueLoss;
+	}
+
+	/**
+	 * Reads the total MIPS of the hosts again if the MIPS of a PE changed since they were read.
+	 */
+	private void checkTotalMips() {
+		if (PeProvisioner.getMipsChanges() != peMipsChanges) {
+			updateTotalMips();
+		}
+	}
+
+	/**
+	 * Gets a utilization of the CPU from MIPS, as {@link PowerHost#getUtilizationOfCpu()}.
+	 *
+	 * @param mips the utilization in MIPS
+	 * @param hostTotalMips the total MIPS of the host
+	 * @return the utilization
+	 */
+	private static double getUtilization(double mips, int hostTotalMips) {
+		double utilization = mips / hostTotalMips;
+		if (utilization > 1 && utilization < 1.01) {
+			utilization = 1;
+		}
+		return utilization;
+	}
+
+}
@@ -16,6 +16,7 @@ import org.cloudbus.cloudsim.power.models.PowerModel;
 import org.cloudbus.cloudsim.provisioners.BwProvisioner;
 import org.cloudbus.cloudsim.provisioners.RamProvisioner;
 import org.cloudbus.cloudsim.util.MathUtil;
+import org.cloudbus.cloudsim.util.UtilizationStatistics;
 
 /**
  * The class of a host that stores its CPU utilization history. The history is used by VM allocation
@@ -34,6 +35,21 @@ import org.cloudbus.cloudsim.util.MathUtil;
  */
 public class PowerHostUtilizationHistory extends PowerHost {
 
+	/** The utilization history computed last, or null. */
+	private double[] utilizationHistory;
+
+	/** The statistics of the utilization history computed last, or null if not needed yet. */
+	private UtilizationStatistics utilizationStatistics;
+
+	/** The VMs of which the last utilization history was computed, in order. */
+	private PowerVm[] historyVms = new PowerVm[0];
+
+	/** The versions of the utilization histories of these VMs. */
+	private long[] historyVersions = new long[0];
+
+	/** The MIPS of these VMs. */
+	private double[] historyMips = new double[0];
+
 	/**
 	 * Instantiates a new power host utilization history.
 	 * 
@@ -57,19 +73,73 @@ public class PowerHostUtilizationHistory extends PowerHost {
 	}
 
 	/**
-	 * Gets the host utilization history.
+	 * Gets the host utilization history. It is only computed again when the VMs of the host or
+	 * their histories have changed since the last call, e.g. after a migration or at a new
+	 * scheduling interval; the returned array must not be modified.
 	 * 
 	 * @return the host utilization history
 	 */
 	protected double[] getUtilizationHistory() {
-		double[] utilizationHistory = new double[PowerVm.HISTORY_LENGTH];
+		List<PowerVm> vmList = getVmList();
+		if (utilizationHistory != null && isUtilizationHistoryOf(vmList)) {
+			return utilizationHistory;
+		}
+
+		int size = vmList.size();
+		if (historyVms.length != size) {
+			historyVms = new PowerVm[size];
+			historyVersions = new long[size];
+			historyMips = new double[size];
+		}
+		double[] history = new double[PowerVm.HISTORY_LENGTH];
 		double hostMips = getTotalMips();
-		for (PowerVm vm : this.<PowerVm> getVmList()) {
-			for (int i = 0; i < vm.getUtilizationHistory().size(); i++) {
-				utilizationHistory[i] += vm.getUtilizationHistory().get(i) * vm.getMips() / hostMips;
+		for (int i = 0; i < size; i++) {
+			PowerVm vm = vmList.get(i);
+			for (int j = 0; j < vm.getUtilizationHistorySize(); j++) {
+				history[j] += vm.getUtilizationHistoryValue(j) * vm.getMips() / hostMips;
+			}
+			historyVms[i] = vm;
+			historyVersions[i] = vm.getUtilizationHistoryVersion();
+			historyMips[i] = vm.getMips();
+		}
+		utilizationHistory = MathUtil.trimZeroTail(history);
+		utilizationStatistics = null;
+		return utilizationHistory;
+	}
+
+	/**
+	 * Gets the statistics of the host utilization history, i.e. its median, MAD and IQR. They are
+	 * kept as long as the history is.
+	 * 
+	 * @return the statistics of the host utilization history
+	 */
+	protected UtilizationStatistics getUtilizationStatistics() {
+		double[] history = getUtilizationHistory();
+		if (utilizationStatistics == null) {
+			utilizationStatistics = new UtilizationStatistics(history);
+		}
+		return utilizationStatistics;
+	}
+
+	/**
+	 * Checks whether the last utilization history was computed from given VMs, in the same order,
+	 * with the same MIPS and histories.
+	 * 
+	 * @param vmList the VMs
+	 * @return true, if the last utilization history is still valid
+	 */
+	private boolean isUtilizationHistoryOf(List<PowerVm> vmList) {
+		if (vmList.size() != historyVms.length) {
+			return false;
+		}
+		for (int i = 0; i < historyVms.length; i++) {
+			PowerVm vm = vmList.get(i);
+			if (vm != historyVms[i] || vm.getUtilizationHistoryVersion() != historyVersions[i]
+					|| vm.getMips() != historyMips[i]) {
+				return false;
 			}
 		}
-		return MathUtil.trimZeroTail(utilizationHistory);
+		return true;
 	}
 
 }
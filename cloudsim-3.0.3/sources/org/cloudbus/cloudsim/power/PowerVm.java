@@ -8,13 +8,13 @@
 
 package org.cloudbus.cloudsim.power;
 
-import java.util.LinkedList;
+import java.util.AbstractList;
 import java.util.List;
 
 import org.cloudbus.cloudsim.CloudletScheduler;
 import org.cloudbus.cloudsim.Vm;
 import org.cloudbus.cloudsim.core.CloudSim;
-import org.cloudbus.cloudsim.util.MathUtil;
+import org.cloudbus.cloudsim.util.UtilizationStatistics;
 
 /**
  * The class of a VM that stores its CPU utilization history. The history is used by VM allocation
@@ -36,8 +36,23 @@ public class PowerVm extends Vm {
 	/** The Constant HISTORY_LENGTH. */
 	public static final int HISTORY_LENGTH = 30;
 
-	/** The utilization history. */
-	private final List<Double> utilizationHistory = new LinkedList<Double>();
+	/** The utilization history, in a ring buffer of which the latest value is at historyStart. */
+	private final double[] utilizationHistory = new double[HISTORY_LENGTH];
+
+	/** The position of the latest value of the utilization history in the ring buffer. */
+	private int historyStart;
+
+	/** The number of values of the utilization history. */
+	private int historySize;
+
+	/** The number of values added to the utilization history so far. */
+	private long historyVersion;
+
+	/** The sorted values of the utilization history. */
+	private final UtilizationStatistics utilizationStatistics = new UtilizationStatistics(HISTORY_LENGTH);
+
+	/** The utilization history as a list, from the latest value. */
+	private final List<Double> utilizationHistoryView = new UtilizationHistoryView();
 
 	/** The previous time. */
 	private double previousTime;
@@ -109,16 +124,7 @@ public class PowerVm extends Vm {
 	public double getUtilizationMad() {
 		double mad = 0;
 		if (!getUtilizationHistory().isEmpty()) {
-			int n = HISTORY_LENGTH;
-			if (HISTORY_LENGTH > getUtilizationHistory().size()) {
-				n = getUtilizationHistory().size();
-			}
-			double median = MathUtil.median(getUtilizationHistory());
-			double[] deviationSum = new double[n];
-			for (int i = 0; i < n; i++) {
-				deviationSum[i] = Math.abs(median - getUtilizationHistory().get(i));
-			}
-			mad = MathUtil.median(deviationSum);
+			mad = utilizationStatistics.getMad();
 		}
 		return mad;
 	}
@@ -171,19 +177,58 @@ public class PowerVm extends Vm {
 	 * @param utilization the utilization
 	 */
 	public void addUtilizationHistoryValue(final double utilization) {
-		getUtilizationHistory().add(0, utilization);
-		if (getUtilizationHistory().size() > HISTORY_LENGTH) {
-			getUtilizationHistory().remove(HISTORY_LENGTH);
+		historyStart = (historyStart + HISTORY_LENGTH - 1) % HISTORY_LENGTH;
+		if (historySize < HISTORY_LENGTH) {
+			historySize++;
+		} else {
+			// the oldest value is overwritten
+			utilizationStatistics.remove(utilizationHistory[historyStart]);
 		}
+		utilizationHistory[historyStart] = utilization;
+		utilizationStatistics.add(utilization);
+		historyVersion++;
+	}
+
+	/**
+	 * Gets a value of the utilization history.
+	 * 
+	 * @param index the index of the value, 0 for the latest one
+	 * @return the utilization
+	 */
+	public double getUtilizationHistoryValue(final int index) {
+		if (index < 0 || index >= historySize) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + historySize);
+		}
+		return utilizationHistory[(historyStart + index) % HISTORY_LENGTH];
+	}
+
+	/**
+	 * Gets the number of values of the utilization history, at most {@link #HISTORY_LENGTH}.
+	 * 
+	 * @return the size of the utilization history
+	 */
+	public int getUtilizationHistorySize() {
+		return historySize;
+	}
+
+	/**
+	 * Gets the number of values added to the utilization history so far, which tells whether the
+	 * history has changed since it was last read.
+	 * 
+	 * @return the version of the utilization history
+	 */
+	public long getUtilizationHistoryVersion() {
+		return historyVersion;
 	}
 
 	/**
-	 * Gets the utilization history.
+	 * Gets the utilization history, from the latest value. The list is a read-only view of the
+	 * history, which follows its changes.
 	 * 
 	 * @return the utilization history
 	 */
 	protected List<Double> getUtilizationHistory() {
-		return utilizationHistory;
+		return utilizationHistoryView;
 	}
 
 	/**
@@ -222,4 +267,21 @@ public class PowerVm extends Vm {
 		this.schedulingInterval = schedulingInterval;
 	}
 
+	/**
+	 * A read-only view of the utilization history.
+	 */
+	private class UtilizationHistoryView extends AbstractList<Double> {
+
+		@Override
+		public Double get(final int index) {
+			return getUtilizationHistoryValue(index);
+		}
+
+		@Override
+		public int size() {
+			return historySize;
+		}
+
+	}
+
 }
@@ -15,12 +15,18 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
 
 import org.cloudbus.cloudsim.Host;
 import org.cloudbus.cloudsim.HostDynamicWorkload;
 import org.cloudbus.cloudsim.Log;
 import org.cloudbus.cloudsim.Vm;
 import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.core.SimulationContext;
 import org.cloudbus.cloudsim.power.lists.PowerVmList;
 import org.cloudbus.cloudsim.util.ExecutionTimeMeasurer;
 
@@ -41,12 +47,48 @@ import org.cloudbus.cloudsim.util.ExecutionTimeMeasurer;
  */
 public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAllocationPolicyAbstract {
 
+	/** The number of threads of the parallel over-utilization detection. */
+	private static final int DETECTION_THREADS = Runtime.getRuntime().availableProcessors();
+
+	/** The minimum number of hosts checked by a task of the parallel over-utilization detection. */
+	private static final int DETECTION_TASK_MIN_HOSTS = 16;
+
+	/** The executor of the parallel over-utilization detection, shared by all the policies and contexts. */
+	private static ExecutorService detectionExecutor;
+
+	/** The smallest power saving, in W, for which the local search changes the migration map. */
+	private static final double MIN_POWER_SAVING = 1e-6;
+
 	/** The vm selection policy. */
 	private PowerVmSelectionPolicy vmSelectionPolicy;
 
 	/** The saved allocation. */
 	private final List<Map<String, Object>> savedAllocation = new ArrayList<Map<String, Object>>();
 
+	/** The shadows of the hosts touched by the current placement, by host. */
+	private final Map<PowerHost, PowerHostShadow> hostShadows = new HashMap<PowerHost, PowerHostShadow>();
+
+	/** The capacity index of the hosts during the current placement, or null. */
+	private PowerHostCapacityIndex hostCapacityIndex;
+
+	/** Whether the capacity index of the hosts is used by the placement. */
+	private boolean hostCapacityIndexEnabled = true;
+
+	/** Whether the over-utilization of the hosts is detected in parallel. */
+	private boolean parallelDetectionEnabled = true;
+
+	/** The wall-clock budget of the planning of a migration map in seconds, or 0 if unbounded. */
+	private double planningTimeBudget;
+
+	/** The operation budget of the planning of a migration map, or 0 if unbounded. */
+	private long planningOperationBudget;
+
+	/** The time at which the current planning must end, as given by {@link System#nanoTime()}. */
+	private long planningDeadline;
+
+	/** The number of operations of the current planning. */
+	private long planningOperations;
+
 	/** The utilization history. */
 	private final Map<Integer, List<Double>> utilizationHistory = new HashMap<Integer, List<Double>>();
 
@@ -82,7 +124,14 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAl
 	}
 
 	/**
-	 * Optimize allocation of the VMs according to current utilization.
+	 * Optimize allocation of the VMs according to current utilization. The VMs are tentatively
+	 * moved on the shadows of the hosts (see {@link PowerHostShadow}), so the real allocation is not
+	 * changed, and only the resulting migration map is returned.
+	 * <p>
+	 * If a planning budget is set (see {@link #setPlanningTimeBudget(double)} and
+	 * {@link #setPlanningOperationBudget(long)}), the planning is anytime: the greedy placement stops
+	 * when the budget is exhausted and the migrations planned so far are returned, and the budget
+	 * left is spent improving them by local search (see {@link #improveMigrationMap(List, List)}).
 	 * 
 	 * @param vmList the vm list
 	 * 
@@ -91,6 +140,7 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAl
 	@Override
 	public List<Map<String, Object>> optimizeAllocation(List<? extends Vm> vmList) {
 		ExecutionTimeMeasurer.start("optimizeAllocationTotal");
+		startPlanning();
 
 		ExecutionTimeMeasurer.start("optimizeAllocationHostSelection");
 		List<PowerHostUtilizationHistory> overUtilizedHosts = getOverUtilizedHosts();
@@ -99,7 +149,9 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAl
 
 		printOverUtilizedHosts(overUtilizedHosts);
 
-		saveAllocation();
+		if (isHostCapacityIndexEnabled()) {
+			setHostCapacityIndex(new PowerHostCapacityIndex(this.<PowerHost> getHostList()));
+		}
 
 		ExecutionTimeMeasurer.start("optimizeAllocationVmSelection");
 		List<? extends Vm> vmsToMigrate = getVmsToMigrateFromHosts(overUtilizedHosts);
@@ -115,7 +167,12 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAl
 
 		migrationMap.addAll(getMigrationMapFromUnderUtilizedHosts(overUtilizedHosts));
 
-		restoreAllocation();
+		if (isPlanningBudgeted()) {
+			improveMigrationMap(migrationMap, overUtilizedHosts);
+		}
+
+		discardHostShadows();
+		setHostCapacityIndex(null);
 
 		getExecutionTimeHistoryTotal().add(ExecutionTimeMeasurer.end("optimizeAllocationTotal"));
 
@@ -150,6 +207,10 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAl
 			if (numberOfHosts  == excludedHostsForFindingUnderUtilizedHost.size() ) { //Modified, the original is "=="
 				break;
 			}
+			if (isPlanningBudgetExhausted()) {
+				Log.printLine("The planning budget is exhausted, no more under-utilized hosts are evacuated");
+				break;
+			}
 
 			PowerHost underUtilizedHost = getUnderUtilizedHost(excludedHostsForFindingUnderUtilizedHost);
 			if (underUtilizedHost == null) {
@@ -203,7 +264,8 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAl
 	}
 
 	/**
-	 * Find host for vm.
+	 * Find host for vm. During a placement, only the candidate hosts of the capacity index are
+	 * evaluated, if it is enabled.
 	 * 
 	 * @param vm the vm
 	 * @param excludedHosts the excluded hosts
@@ -213,33 +275,62 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAl
 		double minPower = Double.MAX_VALUE;
 		PowerHost allocatedHost = null;
 
-		for (PowerHost host : this.<PowerHost> getHostList()) {
-			if (excludedHosts.contains(host)) {
+		// the candidate hosts of the index are suitable for the VM and not excluded
+		boolean indexed = getHostCapacityIndex() != null;
+		List<PowerHost> hosts = this.<PowerHost> getHostList();
+		if (indexed) {
+			hosts = getHostCapacityIndex().getCandidateHosts(vm, excludedHosts);
+		}
+		for (PowerHost host : hosts) {
+			if (!indexed && excludedHosts.contains(host)) {
 				continue;
 			}
-			if (host.isSuitableForVm(vm)) {
-				if (getUtilizationOfCpuMips(host) != 0 && isHostOverUtilizedAfterAllocation(host, vm)) {
+			PowerHostShadow shadow = getHostShadows().get(host);
+			if (indexed || (shadow != null ? shadow.isSuitableForVm(vm) : host.isSuitableForVm(vm))) {
+				// with a stateless detection, the power is checked first, so that the over-utilization
+				// is only checked for the hosts that would be chosen; the power model is not asked for
+				// a utilization above 1, as it fails, and the detection skips these hosts first
+				boolean powerFirst = indexed && isHostOverUtilizationStateless()
+						&& getMaxUtilizationAfterAllocation(host, vm) <= 1;
+				if (!powerFirst && getUtilizationOfCpuMips(host) != 0 && isHostOverUtilizedAfterAllocation(host, vm)) {
 					continue;
 				}
 
+				double powerDiff = Double.MAX_VALUE;
 				try {
 					double powerAfterAllocation = getPowerAfterAllocation(host, vm);
 					if (powerAfterAllocation != -1) {
-						double powerDiff = powerAfterAllocation - host.getPower();
-						if (powerDiff < minPower) {
-							minPower = powerDiff;
-							allocatedHost = host;
-						}
+						powerDiff = powerAfterAllocation - host.getPower();
 					}
 				} catch (Exception e) {
 				}
+				if (powerDiff < minPower
+						&& !(powerFirst && getUtilizationOfCpuMips(host) != 0 && isHostOverUtilizedAfterAllocation(
+								host, vm))) {
+					minPower = powerDiff;
+					allocatedHost = host;
+				}
 			}
 		}
 		return allocatedHost;
 	}
 
 	/**
-	 * Checks if is host over utilized after allocation.
+	 * Checks whether the over-utilization detection is stateless, i.e. whether
+	 * {@link #isHostOverUtilized(PowerHost)} gives the same result whatever the number and order of
+	 * its calls within a placement. If so, the hosts may be checked in parallel, and the indexed
+	 * search only checks the hosts that lower the power increase found so far. A detection that
+	 * draws random numbers must return false.
+	 * 
+	 * @return true, if the detection is stateless
+	 */
+	protected boolean isHostOverUtilizationStateless() {
+		return true;
+	}
+
+	/**
+	 * Checks if is host over utilized after allocation. The VM is only placed on the shadow of the
+	 * host while the host is checked.
 	 * 
 	 * @param host the host
 	 * @param vm the vm
@@ -247,9 +338,14 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAl
 	 */
 	protected boolean isHostOverUtilizedAfterAllocation(PowerHost host, Vm vm) {
 		boolean isHostOverUtilizedAfterAllocation = true;
-		if (host.vmCreate(vm)) {
+		PowerHostShadow shadow = getHostShadows().get(host);
+		if (shadow == null) {
+			shadow = new PowerHostShadow(host);
+		}
+		int journalSize = shadow.getJournalSize();
+		if (shadow.vmCreate(vm)) {
 			isHostOverUtilizedAfterAllocation = isHostOverUtilized(host);
-			host.vmDestroy(vm);
+			shadow.undo(journalSize);
 		}
 		return isHostOverUtilizedAfterAllocation;
 	}
@@ -296,9 +392,15 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAl
 		List<Map<String, Object>> migrationMap = new LinkedList<Map<String, Object>>();
 		PowerVmList.sortByCpuUtilization(vmsToMigrate);
 		for (Vm vm : vmsToMigrate) {
+			if (isPlanningBudgetExhausted()) {
+				Log.printLine("The planning budget is exhausted, the other VMs are not reallocated");
+				break;
+			}
+			countPlanningOperation();
 			PowerHost allocatedHost = findHostForVm(vm, excludedHosts);
 			if (allocatedHost != null) {
-				allocatedHost.vmCreate(vm);
+				getHostShadow(allocatedHost).vmCreate(vm);
+				updateHostCapacityIndex(allocatedHost);
 				Log.printLine("VM #" + vm.getId() + " allocated to host #" + allocatedHost.getId());
 
 				Map<String, Object> migrate = new HashMap<String, Object>();
@@ -323,9 +425,15 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAl
 		List<Map<String, Object>> migrationMap = new LinkedList<Map<String, Object>>();
 		PowerVmList.sortByCpuUtilization(vmsToMigrate);
 		for (Vm vm : vmsToMigrate) {
-			PowerHost allocatedHost = findHostForVm(vm, excludedHosts);
+			// the host is only evacuated if all its VMs are placed within the budget
+			PowerHost allocatedHost = null;
+			if (!isPlanningBudgetExhausted()) {
+				countPlanningOperation();
+				allocatedHost = findHostForVm(vm, excludedHosts);
+			}
 			if (allocatedHost != null) {
-				allocatedHost.vmCreate(vm);
+				getHostShadow(allocatedHost).vmCreate(vm);
+				updateHostCapacityIndex(allocatedHost);
 				Log.printLine("VM #" + vm.getId() + " allocated to host #" + allocatedHost.getId());
 
 				Map<String, Object> migrate = new HashMap<String, Object>();
@@ -335,7 +443,8 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAl
 			} else {
 				Log.printLine("Not all VMs can be reallocated from the host, reallocation cancelled");
 				for (Map<String, Object> map : migrationMap) {
-					((Host) map.get("host")).vmDestroy((Vm) map.get("vm"));
+					getHostShadow((PowerHost) map.get("host")).vmDestroy((Vm) map.get("vm"));
+					updateHostCapacityIndex((PowerHost) map.get("host"));
 				}
 				migrationMap.clear();
 				break;
@@ -344,6 +453,169 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAl
 		return migrationMap;
 	}
 
+	/**
+	 * Improves a migration map by local search over the shadows of the hosts, until no change saves
+	 * power or the planning budget is exhausted. The map is changed in place and stays valid after
+	 * each step, so the search can stop at any time. Two neighborhoods are explored: a VM is moved
+	 * to another host (see {@link #moveVm(Map, Set)}), and the target hosts of two VMs are swapped
+	 * (see {@link #swapVms(Map, Map)}). A change is kept if it lowers the power of the hosts, as
+	 * given by {@link #getPlannedPower(PowerHost)}, and leaves no host over-utilized.
+	 * <p>
+	 * The over-utilized hosts and the source hosts of the migrations do not receive VMs. A VM that
+	 * is planned to migrate more than once, i.e. again from a host it is planned to migrate to, is
+	 * left as is, as are the VMs planned to migrate to a source host.
+	 * 
+	 * @param migrationMap the migration map
+	 * @param overUtilizedHosts the over utilized hosts
+	 */
+	protected void improveMigrationMap(List<Map<String, Object>> migrationMap,
+			List<PowerHostUtilizationHistory> overUtilizedHosts) {
+		Set<Host> excludedHosts = new HashSet<Host>(overUtilizedHosts);
+		Map<Vm, Integer> migrations = new HashMap<Vm, Integer>();
+		for (Map<String, Object> migrate : migrationMap) {
+			Vm vm = (Vm) migrate.get("vm");
+			excludedHosts.add(vm.getHost());
+			Integer count = migrations.get(vm);
+			migrations.put(vm, count == null ? 1 : count + 1);
+		}
+		List<Map<String, Object>> movableMigrations = new ArrayList<Map<String, Object>>();
+		for (Map<String, Object> migrate : migrationMap) {
+			if (migrations.get(migrate.get("vm")) == 1 && !excludedHosts.contains(migrate.get("host"))) {
+				movableMigrations.add(migrate);
+			}
+		}
+
+		int moves = 0;
+		int swaps = 0;
+		boolean improved = true;
+		while (improved) {
+			improved = false;
+			for (Map<String, Object> migrate : movableMigrations) {
+				if (isPlanningBudgetExhausted()) {
+					break;
+				}
+				countPlanningOperation();
+				if (moveVm(migrate, excludedHosts)) {
+					moves++;
+					improved = true;
+				}
+			}
+			for (int i = 0; i < movableMigrations.size() && !isPlanningBudgetExhausted(); i++) {
+				for (int j = i + 1; j < movableMigrations.size(); j++) {
+					if (isPlanningBudgetExhausted()) {
+						break;
+					}
+					countPlanningOperation();
+					if (swapVms(movableMigrations.get(i), movableMigrations.get(j))) {
+						swaps++;
+						improved = true;
+					}
+				}
+			}
+			if (isPlanningBudgetExhausted()) {
+				break;
+			}
+		}
+		Log.printLine("Local search of the migration map: " + moves + " moves, " + swaps + " swaps");
+	}
+
+	/**
+	 * Moves a planned VM to the host found by {@link #findHostForVm(Vm, Set)}, if it saves power.
+	 * 
+	 * @param migrate the planned migration of the VM, of which the host is updated
+	 * @param excludedHosts the hosts that do not receive VMs
+	 * @return true, if the VM has been moved
+	 */
+	private boolean moveVm(Map<String, Object> migrate, Set<Host> excludedHosts) {
+		Vm vm = (Vm) migrate.get("vm");
+		PowerHost host = (PowerHost) migrate.get("host");
+		PowerHostShadow shadow = getHostShadow(host);
+		int journalSize = shadow.getJournalSize();
+		double power = getPlannedPower(host);
+
+		shadow.vmDestroy(vm);
+		updateHostCapacityIndex(host);
+		boolean excluded = excludedHosts.add(host);
+		PowerHost newHost = findHostForVm(vm, excludedHosts);
+		if (excluded) {
+			excludedHosts.remove(host);
+		}
+		if (newHost != null) {
+			PowerHostShadow newShadow = getHostShadow(newHost);
+			int newJournalSize = newShadow.getJournalSize();
+			double newPower = getPlannedPower(newHost);
+			if (newShadow.vmCreate(vm)) {
+				updateHostCapacityIndex(newHost);
+				double saving = power - getPlannedPower(host) + newPower - getPlannedPower(newHost);
+				if (saving > MIN_POWER_SAVING) {
+					migrate.put("host", newHost);
+					return true;
+				}
+			}
+			newShadow.undo(newJournalSize);
+			updateHostCapacityIndex(newHost);
+		}
+		shadow.undo(journalSize);
+		updateHostCapacityIndex(host);
+		return false;
+	}
+
+	/**
+	 * Swaps the hosts of two planned VMs, if it saves power and neither host is over-utilized
+	 * afterwards.
+	 * 
+	 * @param migrate the planned migration of the first VM
+	 * @param otherMigrate the planned migration of the second VM
+	 * @return true, if the VMs have been swapped
+	 */
+	private boolean swapVms(Map<String, Object> migrate, Map<String, Object> otherMigrate) {
+		Vm vm = (Vm) migrate.get("vm");
+		Vm otherVm = (Vm) otherMigrate.get("vm");
+		PowerHost host = (PowerHost) migrate.get("host");
+		PowerHost otherHost = (PowerHost) otherMigrate.get("host");
+		if (host == otherHost || vm.getCurrentRequestedTotalMips() == otherVm.getCurrentRequestedTotalMips()) {
+			return false;
+		}
+		PowerHostShadow shadow = getHostShadow(host);
+		PowerHostShadow otherShadow = getHostShadow(otherHost);
+		int journalSize = shadow.getJournalSize();
+		int otherJournalSize = otherShadow.getJournalSize();
+		double power = getPlannedPower(host) + getPlannedPower(otherHost);
+
+		shadow.vmDestroy(vm);
+		otherShadow.vmDestroy(otherVm);
+		if (shadow.vmCreate(otherVm) && otherShadow.vmCreate(vm)) {
+			updateHostCapacityIndex(host);
+			updateHostCapacityIndex(otherHost);
+			if (power - getPlannedPower(host) - getPlannedPower(otherHost) > MIN_POWER_SAVING
+					&& !isHostOverUtilized(host) && !isHostOverUtilized(otherHost)) {
+				migrate.put("host", otherHost);
+				otherMigrate.put("host", host);
+				return true;
+			}
+		}
+		shadow.undo(journalSize);
+		otherShadow.undo(otherJournalSize);
+		updateHostCapacityIndex(host);
+		updateHostCapacityIndex(otherHost);
+		return false;
+	}
+
+	/**
+	 * Gets the power of a host with its currently planned VMs, which is 0 if the host has no load,
+	 * as it is then switched off.
+	 * 
+	 * @param host the host
+	 * @return the power, in W
+	 */
+	protected double getPlannedPower(PowerHost host) {
+		double utilization = getUtilizationOfCpuMips(host) / host.getTotalMips();
+		if (utilization == 0) {
+			return 0;
+		}
+		return host.getPowerModel().getPower(Math.min(utilization, 1));
+	}
+
 	/**
 	 * Gets the vms to migrate from hosts.
 	 * 
@@ -361,7 +633,8 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAl
 					break;
 				}
 				vmsToMigrate.add(vm);
-				host.vmDestroy(vm);
+				getHostShadow(host).vmDestroy(vm);
+				updateHostCapacityIndex(host);
 				if (!isHostOverUtilized(host)) {
 					break;
 				}
@@ -387,20 +660,96 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAl
 	}
 
 	/**
-	 * Gets the over utilized hosts.
+	 * Gets the over utilized hosts. If the detection is stateless and there are enough hosts, the
+	 * hosts are checked in parallel (see {@link #isParallelDetectionEnabled()}); the result is
+	 * always in the order of the host list.
 	 * 
 	 * @return the over utilized hosts
 	 */
 	protected List<PowerHostUtilizationHistory> getOverUtilizedHosts() {
 		List<PowerHostUtilizationHistory> overUtilizedHosts = new LinkedList<PowerHostUtilizationHistory>();
-		for (PowerHostUtilizationHistory host : this.<PowerHostUtilizationHistory> getHostList()) {
-			if (isHostOverUtilized(host)) {
-				overUtilizedHosts.add(host);
+		List<PowerHostUtilizationHistory> hostList = this.<PowerHostUtilizationHistory> getHostList();
+		if (!isParallelDetectionEnabled() || !isHostOverUtilizationStateless() || DETECTION_THREADS < 2
+				|| hostList.size() < 2 * DETECTION_TASK_MIN_HOSTS) {
+			for (PowerHostUtilizationHistory host : hostList) {
+				if (isHostOverUtilized(host)) {
+					overUtilizedHosts.add(host);
+				}
+			}
+			return overUtilizedHosts;
+		}
+
+		final List<PowerHostUtilizationHistory> hosts = new ArrayList<PowerHostUtilizationHistory>(hostList);
+		final boolean[] overUtilized = new boolean[hosts.size()];
+		// the detection reads the clock of the simulation, so the tasks run in its context
+		final SimulationContext context = CloudSim.getContext();
+		int taskHosts = Math.max(DETECTION_TASK_MIN_HOSTS, (hosts.size() + 4 * DETECTION_THREADS - 1)
+				/ (4 * DETECTION_THREADS));
+		List<Future<?>> tasks = new ArrayList<Future<?>>();
+		for (int start = 0; start < hosts.size(); start += taskHosts) {
+			final int from = start;
+			final int to = Math.min(start + taskHosts, hosts.size());
+			tasks.add(getDetectionExecutor().submit(new Runnable() {
+
+				@Override
+				public void run() {
+					SimulationContext previous = CloudSim.bindContext(context);
+					try {
+						for (int i = from; i < to; i++) {
+							overUtilized[i] = isHostOverUtilized(hosts.get(i));
+						}
+					} finally {
+						CloudSim.bindContext(previous);
+					}
+				}
+			}));
+		}
+		for (Future<?> task : tasks) {
+			try {
+				task.get();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException("Interrupted while detecting the over-utilized hosts", e);
+			} catch (ExecutionException e) {
+				if (e.getCause() instanceof RuntimeException) {
+					throw (RuntimeException) e.getCause();
+				}
+				if (e.getCause() instanceof Error) {
+					throw (Error) e.getCause();
+				}
+				throw new IllegalStateException(e.getCause());
+			}
+		}
+
+		for (int i = 0; i < hosts.size(); i++) {
+			if (overUtilized[i]) {
+				overUtilizedHosts.add(hosts.get(i));
 			}
 		}
 		return overUtilizedHosts;
 	}
 
+	/**
+	 * Gets the executor of the parallel over-utilization detection, and creates it if needed. Its
+	 * threads are daemon threads, so that they do not keep the simulation from exiting.
+	 * 
+	 * @return the executor
+	 */
+	private static synchronized ExecutorService getDetectionExecutor() {
+		if (detectionExecutor == null) {
+			detectionExecutor = Executors.newFixedThreadPool(DETECTION_THREADS, new ThreadFactory() {
+
+				@Override
+				public Thread newThread(Runnable runnable) {
+					Thread thread = new Thread(runnable, "OverUtilizationDetection");
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
+		}
+		return detectionExecutor;
+	}
+
 	/**
 	 * Gets the switched off host.
 	 * 
@@ -471,7 +820,7 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAl
 	 * @param host the host
 	 * @param metric the metric
 	 */
-	protected void addHistoryEntry(HostDynamicWorkload host, double metric) {
+	protected synchronized void addHistoryEntry(HostDynamicWorkload host, double metric) {
 		int hostId = host.getId();
 		if (!getTimeHistory().containsKey(hostId)) {
 			getTimeHistory().put(hostId, new LinkedList<Double>());
@@ -489,6 +838,100 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAl
 		}
 	}
 
+	/**
+	 * Gets the shadow of a host for the current placement, and creates it if needed. The shadow is
+	 * kept until {@link #discardHostShadows()} is called.
+	 * 
+	 * @param host the host
+	 * @return the shadow of the host
+	 */
+	protected PowerHostShadow getHostShadow(PowerHost host) {
+		PowerHostShadow shadow = getHostShadows().get(host);
+		if (shadow == null) {
+			shadow = new PowerHostShadow(host);
+			getHostShadows().put(host, shadow);
+		}
+		return shadow;
+	}
+
+	/**
+	 * Updates the capacity index after a change of the shadow of a host, if the index is used.
+	 * 
+	 * @param host the host
+	 */
+	protected void updateHostCapacityIndex(PowerHost host) {
+		if (getHostCapacityIndex() != null) {
+			PowerHostShadow shadow = getHostShadow(host);
+			getHostCapacityIndex().update(host, shadow.getAvailableMips(), shadow.getAvailableRam(),
+					shadow.getAvailableBw());
+		}
+	}
+
+	/**
+	 * Undoes the tentative changes of the current placement on the hosts, and refreshes the
+	 * allocation of the hosts as {@link #restoreAllocation()} would, i.e. the hosts with migrating
+	 * in VMs or with VMs whose RAM or BW request changed get their VMs allocated again. The other
+	 * hosts are left untouched.
+	 */
+	protected void discardHostShadows() {
+		for (PowerHostShadow shadow : getHostShadows().values()) {
+			shadow.undo(0);
+		}
+		getHostShadows().clear();
+		for (PowerHost host : this.<PowerHost> getHostList()) {
+			if (!host.getVmsMigratingIn().isEmpty() || isAllocationOutdated(host)) {
+				restoreAllocation(host);
+			}
+		}
+	}
+
+	/**
+	 * Checks whether the RAM or BW allocated to a VM of a host is not the one currently requested.
+	 * 
+	 * @param host the host
+	 * @return true, if the allocation of a VM is outdated
+	 */
+	protected boolean isAllocationOutdated(PowerHost host) {
+		for (Vm vm : host.getVmList()) {
+			if (host.getRamProvisioner().getAllocatedRamForVm(vm) != Math.min(vm.getCurrentRequestedRam(), vm.getRam())
+					|| host.getBwProvisioner().getAllocatedBwForVm(vm) != vm.getCurrentRequestedBw()) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Allocates the VMs of a host again, the migrating in VMs first, as {@link #restoreAllocation()}
+	 * does for all the hosts.
+	 * 
+	 * @param host the host
+	 */
+	protected void restoreAllocation(PowerHost host) {
+		List<Vm> vms = new ArrayList<Vm>();
+		Map<Vm, Host> migratingInVmHosts = new HashMap<Vm, Host>();
+		for (Vm vm : host.getVmList()) {
+			if (host.getVmsMigratingIn().contains(vm)) {
+				// the migrating in VMs still belong to their source host
+				migratingInVmHosts.put(vm, vm.getHost());
+			} else {
+				vms.add(vm);
+			}
+		}
+		host.vmDestroyAll();
+		host.reallocateMigratingInVms();
+		for (Vm vm : vms) {
+			if (!host.vmCreate(vm)) {
+				Log.printLine("Couldn't restore VM #" + vm.getId() + " on host #" + host.getId());
+				System.exit(0);
+			}
+			getVmTable().put(vm.getUid(), host);
+		}
+		for (Map.Entry<Vm, Host> entry : migratingInVmHosts.entrySet()) {
+			entry.getKey().setHost(entry.getValue());
+		}
+	}
+
 	/**
 	 * Save allocation.
 	 */
@@ -563,20 +1006,34 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAl
 	}
 	
 	/**
-	 * Gets the utilization of the CPU in MIPS for the current potentially allocated VMs.
+	 * Gets the utilization of the CPU in MIPS for the current potentially allocated VMs. During a
+	 * placement, it is cached by the capacity index until the VMs of the host change.
 	 *
 	 * @param host the host
 	 *
 	 * @return the utilization of the CPU in MIPS
 	 */
 	protected double getUtilizationOfCpuMips(PowerHost host) {
+		PowerHostCapacityIndex index = getHostCapacityIndex();
+		if (index != null) {
+			double cachedUtilizationMips = index.getUtilizationOfCpuMips(host);
+			if (!Double.isNaN(cachedUtilizationMips)) {
+				return cachedUtilizationMips;
+			}
+		}
 		double hostUtilizationMips = 0;
+		PowerHostShadow shadow = getHostShadows().get(host);
 		for (Vm vm2 : host.getVmList()) {
+			double allocatedMips = shadow != null ? shadow.getTotalAllocatedMipsForVm(vm2) : host
+					.getTotalAllocatedMipsForVm(vm2);
 			if (host.getVmsMigratingIn().contains(vm2)) {
 				// calculate additional potential CPU usage of a migrating in VM
-				hostUtilizationMips += host.getTotalAllocatedMipsForVm(vm2) * 0.9 / 0.1;
+				hostUtilizationMips += allocatedMips * 0.9 / 0.1;
 			}
-			hostUtilizationMips += host.getTotalAllocatedMipsForVm(vm2);
+			hostUtilizationMips += allocatedMips;
+		}
+		if (index != null) {
+			index.setUtilizationOfCpuMips(host, hostUtilizationMips);
 		}
 		return hostUtilizationMips;
 	}
@@ -590,6 +1047,151 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAl
 		return savedAllocation;
 	}
 
+	/**
+	 * Gets the shadows of the hosts touched by the current placement.
+	 * 
+	 * @return the shadows, by host
+	 */
+	protected Map<PowerHost, PowerHostShadow> getHostShadows() {
+		return hostShadows;
+	}
+
+	/**
+	 * Gets the capacity index of the hosts during the current placement.
+	 * 
+	 * @return the capacity index, or null if there is no placement or the index is disabled
+	 */
+	protected PowerHostCapacityIndex getHostCapacityIndex() {
+		return hostCapacityIndex;
+	}
+
+	/**
+	 * Sets the capacity index of the hosts during the current placement.
+	 * 
+	 * @param hostCapacityIndex the capacity index, or null
+	 */
+	protected void setHostCapacityIndex(PowerHostCapacityIndex hostCapacityIndex) {
+		this.hostCapacityIndex = hostCapacityIndex;
+	}
+
+	/**
+	 * Checks whether the capacity index of the hosts is used by the placement.
+	 * 
+	 * @return true, if the capacity index is used
+	 */
+	public boolean isHostCapacityIndexEnabled() {
+		return hostCapacityIndexEnabled;
+	}
+
+	/**
+	 * Sets whether the capacity index of the hosts is used by the placement. It should be disabled
+	 * if the power after allocation of a host depends on more than its type and capacity, e.g. if
+	 * {@link #getPowerAfterAllocation(PowerHost, Vm)} is overridden that way.
+	 * 
+	 * @param hostCapacityIndexEnabled whether the capacity index is used
+	 */
+	public void setHostCapacityIndexEnabled(boolean hostCapacityIndexEnabled) {
+		this.hostCapacityIndexEnabled = hostCapacityIndexEnabled;
+	}
+
+	/**
+	 * Checks whether the over-utilization of the hosts is detected in parallel.
+	 * 
+	 * @return true, if the detection is parallel
+	 */
+	public boolean isParallelDetectionEnabled() {
+		return parallelDetectionEnabled;
+	}
+
+	/**
+	 * Sets whether the over-utilization of the hosts is detected in parallel. The hosts are only
+	 * checked in parallel if the detection is stateless (see
+	 * {@link #isHostOverUtilizationStateless()}); {@link #isHostOverUtilized(PowerHost)} must then
+	 * only change the state of the checked host, its VMs and the history of the policy. It should
+	 * be disabled if it is overridden otherwise.
+	 * 
+	 * @param parallelDetectionEnabled whether the detection is parallel
+	 */
+	public void setParallelDetectionEnabled(boolean parallelDetectionEnabled) {
+		this.parallelDetectionEnabled = parallelDetectionEnabled;
+	}
+
+	/**
+	 * Gets the wall-clock budget of the planning of a migration map.
+	 * 
+	 * @return the budget in seconds, or 0 if the planning time is unbounded
+	 */
+	public double getPlanningTimeBudget() {
+		return planningTimeBudget;
+	}
+
+	/**
+	 * Sets the wall-clock budget of the planning of a migration map by
+	 * {@link #optimizeAllocation(List)}, which includes the detection of the over-utilized hosts
+	 * and the selection of the VMs to migrate. The placement is checked against the budget between
+	 * VMs, so the budget may be exceeded by the placement of one VM.
+	 * 
+	 * @param planningTimeBudget the budget in seconds, or 0 if the planning time is unbounded
+	 */
+	public void setPlanningTimeBudget(double planningTimeBudget) {
+		this.planningTimeBudget = planningTimeBudget;
+	}
+
+	/**
+	 * Gets the operation budget of the planning of a migration map.
+	 * 
+	 * @return the maximum number of operations, or 0 if it is unbounded
+	 */
+	public long getPlanningOperationBudget() {
+		return planningOperationBudget;
+	}
+
+	/**
+	 * Sets the operation budget of the planning of a migration map by
+	 * {@link #optimizeAllocation(List)}. An operation is the search of a host for a VM, or the
+	 * evaluation of a move or a swap by the local search. Unlike the time budget, it gives the same
+	 * migration map on every run.
+	 * 
+	 * @param planningOperationBudget the maximum number of operations, or 0 if it is unbounded
+	 */
+	public void setPlanningOperationBudget(long planningOperationBudget) {
+		this.planningOperationBudget = planningOperationBudget;
+	}
+
+	/**
+	 * Checks whether the planning of a migration map has a time or operation budget.
+	 * 
+	 * @return true, if the planning is budgeted
+	 */
+	protected boolean isPlanningBudgeted() {
+		return getPlanningTimeBudget() > 0 || getPlanningOperationBudget() > 0;
+	}
+
+	/**
+	 * Starts the budget of the planning of a migration map.
+	 */
+	protected void startPlanning() {
+		planningDeadline = System.nanoTime() + (long) (getPlanningTimeBudget() * 1e9);
+		planningOperations = 0;
+	}
+
+	/**
+	 * Counts an operation of the planning of a migration map.
+	 */
+	protected void countPlanningOperation() {
+		planningOperations++;
+	}
+
+	/**
+	 * Checks whether the budget of the current planning is exhausted.
+	 * 
+	 * @return true, if the budget is exhausted
+	 */
+	protected boolean isPlanningBudgetExhausted() {
+		return getPlanningOperationBudget() > 0 && planningOperations >= getPlanningOperationBudget()
+				|| getPlanningTimeBudget() > 0 && System.nanoTime() - planningDeadline >= 0;
+	}
+
 	/**
 	 * Sets the vm selection policy.
 	 * 
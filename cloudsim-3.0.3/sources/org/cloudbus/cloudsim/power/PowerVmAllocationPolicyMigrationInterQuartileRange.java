@@ -98,16 +98,29 @@ public class PowerVmAllocationPolicyMigrationInterQuartileRange extends
 		return utilization > upperThreshold;
 	}
 
+	/**
+	 * A host whose IQR cannot be computed is checked by the fallback policy, so the detection is
+	 * stateless only if the one of the fallback policy is.
+	 * 
+	 * @return true, if the detection of the fallback policy is stateless
+	 */
+	@Override
+	protected boolean isHostOverUtilizationStateless() {
+		return getFallbackVmAllocationPolicy().isHostOverUtilizationStateless();
+	}
+
 	/**
 	 * Gets the host utilization iqr.
 	 * 
 	 * @param host the host
 	 * @return the host utilization iqr
+	 * @throws IllegalArgumentException if the history is too short, in which case the host is
+	 *             checked by the fallback policy
 	 */
 	protected double getHostUtilizationIqr(PowerHostUtilizationHistory host) throws IllegalArgumentException {
 		double[] data = host.getUtilizationHistory();
 		if (MathUtil.countNonZeroBeginning(data) >= 12) { // 12 has been suggested as a safe value
-			return MathUtil.iqr(data);
+			return host.getUtilizationStatistics().getIqr();
 		}
 		throw new IllegalArgumentException();
 	}
@@ -114,6 +114,17 @@ public class PowerVmAllocationPolicyMigrationLocalRegression extends PowerVmAllo
 		return predictedUtilization >= 1;
 	}
 
+	/**
+	 * A host whose utilization history is too short for the regression is checked by the fallback
+	 * policy, so the detection is stateless only if the one of the fallback policy is.
+	 * 
+	 * @return true, if the detection of the fallback policy is stateless
+	 */
+	@Override
+	protected boolean isHostOverUtilizationStateless() {
+		return getFallbackVmAllocationPolicy().isHostOverUtilizationStateless();
+	}
+
 	/**
 	 * Gets the parameter estimates.
 	 * 
@@ -98,6 +98,17 @@ public class PowerVmAllocationPolicyMigrationMedianAbsoluteDeviation extends
 		return utilization > upperThreshold;
 	}
 
+	/**
+	 * A host whose MAD cannot be computed is checked by the fallback policy, so the detection is
+	 * stateless only if the one of the fallback policy is.
+	 * 
+	 * @return true, if the detection of the fallback policy is stateless
+	 */
+	@Override
+	protected boolean isHostOverUtilizationStateless() {
+		return getFallbackVmAllocationPolicy().isHostOverUtilizationStateless();
+	}
+
 	/**
 	 * Gets the host utilization mad.
 	 * 
@@ -107,7 +118,7 @@ public class PowerVmAllocationPolicyMigrationMedianAbsoluteDeviation extends
 	protected double getHostUtilizationMad(PowerHostUtilizationHistory host) throws IllegalArgumentException {
 		double[] data = host.getUtilizationHistory();
 		if (MathUtil.countNonZeroBeginning(data) >= 12) { // 12 has been suggested as a safe value
-			return MathUtil.mad(data);
+			return host.getUtilizationStatistics().getMad();
 		}
 		throw new IllegalArgumentException();
 	}
@@ -74,6 +74,16 @@ public class PowerVmAllocationPolicyMigrationUtilizationBasedProbability extends
 		return (utilization > getUtilizationThreshold()) && (utilizationBasedProbability > bernoulliProbability);
 	}
 
+	/**
+	 * The detection draws a new random number at each call, so every host is checked in order.
+	 * 
+	 * @return false
+	 */
+	@Override
+	protected boolean isHostOverUtilizationStateless() {
+		return false;
+	}
+
 	/**
 	 * Sets the utilization threshold.
 	 * 
@@ -0,0 +1,286 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.power;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.cloudbus.cloudsim.Vm;
+
+/**
+ * The Maximum Correlation (MC) VM selection policy, computed from the covariance matrix of the
+ * utilization histories of the VMs instead of a regression per VM. With an intercept, the
+ * coefficient of determination of the regression of VM i on the other VMs is
+ * <tt>R2 = 1 - 1 / (S[i][i] * inv(S)[i][i])</tt>, where S is the matrix of the sums of the
+ * cross-products of the deviations of the VMs, so the inverse of S, computed once by a Cholesky
+ * decomposition, gives the coefficients of all the VMs.
+ * <p>
+ * The inverse is kept for the last host. When a VM selected on it is removed, and the histories of
+ * the others did not change, the inverse of the remaining VMs is obtained by a rank-one downdate
+ * of the former inverse, so the repeated selections on an over-utilized host do not decompose the
+ * matrix again.
+ * <p>
+ * The coefficients are the ones of {@link PowerVmSelectionPolicyMaximumCorrelation} up to the
+ * rounding. The fallback policy is used when there are less than 2 VMs, not more samples than VMs,
+ * or a singular covariance matrix, e.g. because of a VM with a constant utilization.
+ *
+ * @see PowerVmSelectionPolicyMaximumCorrelation
+ * @since CloudSim Toolkit 3.0
+ */
+public class PowerVmSelectionPolicyMaximumCorrelationCovariance extends PowerVmSelectionPolicyMaximumCorrelation {
+
+	/** The smallest pivot of the Cholesky decomposition, relative to the diagonal of the matrix. */
+	private static final double SINGULARITY_THRESHOLD = 1e-10;
+
+	/** The host of the last selection, or null. */
+	private PowerHost host;
+
+	/** The VMs of the last selection, in order. */
+	private final List<PowerVm> vms = new ArrayList<PowerVm>();
+
+	/** The versions of the utilization histories of the VMs. */
+	private long[] versions;
+
+	/** The number of samples of the histories. */
+	private int samples;
+
+	/** The sums of the squared deviations of the VMs, i.e. the diagonal of S. */
+	private double[] variances;
+
+	/** The inverse of S, or null if it is not known. */
+	private double[][] inverse;
+
+	/**
+	 * Instantiates a new power vm selection policy maximum correlation.
+	 *
+	 * @param fallbackPolicy the fallback policy
+	 */
+	public PowerVmSelectionPolicyMaximumCorrelationCovariance(final PowerVmSelectionPolicy fallbackPolicy) {
+		super(fallbackPolicy);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.cloudbus.cloudsim.power.PowerVmSelectionPolicyMaximumCorrelation#getVmToMigrate(org.
+	 * cloudbus.cloudsim.power.PowerHost)
+	 */
+	@Override
+	public Vm getVmToMigrate(final PowerHost host) {
+		List<PowerVm> migratableVms = getMigratableVms(host);
+		if (migratableVms.isEmpty()) {
+			return null;
+		}
+		double[] metrics = getCorrelationCoefficients(host, migratableVms);
+		if (metrics == null) {
+			return getFallbackPolicy().getVmToMigrate(host);
+		}
+		double maxMetric = Double.MIN_VALUE;
+		int maxIndex = 0;
+		for (int i = 0; i < metrics.length; i++) {
+			double metric = metrics[i];
+			if (metric > maxMetric) {
+				maxMetric = metric;
+				maxIndex = i;
+			}
+		}
+		return migratableVms.get(maxIndex);
+	}
+
+	/**
+	 * Gets the coefficients of determination of the regression of each VM on the others.
+	 *
+	 * @param host the host
+	 * @param vmList the VMs of the host
+	 * @return the coefficients, or null if they cannot be computed
+	 */
+	protected double[] getCorrelationCoefficients(final PowerHost host, final List<PowerVm> vmList) {
+		if (!isInverseOf(host, vmList) && !downdateInverse(host, vmList) && !computeInverse(host, vmList)) {
+			return null;
+		}
+		double[] coefficients = new double[vmList.size()];
+		for (int i = 0; i < coefficients.length; i++) {
+			coefficients[i] = 1 - 1 / (variances[i] * inverse[i][i]);
+		}
+		return coefficients;
+	}
+
+	/**
+	 * Checks whether the inverse is the one of given VMs.
+	 *
+	 * @param host the host
+	 * @param vmList the VMs
+	 * @return true, if the inverse can be used as is
+	 */
+	private boolean isInverseOf(final PowerHost host, final List<PowerVm> vmList) {
+		if (inverse == null || host != this.host || vmList.size() != vms.size()
+				|| getMinUtilizationHistorySize(vmList) != samples) {
+			return false;
+		}
+		for (int i = 0; i < vmList.size(); i++) {
+			if (vmList.get(i) != vms.get(i) || vmList.get(i).getUtilizationHistoryVersion() != versions[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Removes a VM from the inverse by a rank-one downdate, if the given VMs are the ones of the
+	 * inverse without one of them.
+	 *
+	 * @param host the host
+	 * @param vmList the VMs
+	 * @return true, if the inverse has been downdated
+	 */
+	private boolean downdateInverse(final PowerHost host, final List<PowerVm> vmList) {
+		int n = vmList.size();
+		if (inverse == null || host != this.host || n != vms.size() - 1 || n < 2
+				|| getMinUtilizationHistorySize(vmList) != samples) {
+			return false;
+		}
+		int removed = n;
+		for (int i = 0, j = 0; i < n; i++, j++) {
+			if (vmList.get(i) != vms.get(j)) {
+				if (removed < n) {
+					return false;
+				}
+				removed = j++;
+				if (vmList.get(i) != vms.get(j)) {
+					return false;
+				}
+			}
+			if (vmList.get(i).getUtilizationHistoryVersion() != versions[j]) {
+				return false;
+			}
+		}
+
+		double[][] downdated = new double[n][n];
+		double[] remainingVariances = new double[n];
+		long[] remainingVersions = new long[n];
+		double pivot = inverse[removed][removed];
+		for (int a = 0, i = 0; a <= n; a++) {
+			if (a == removed) {
+				continue;
+			}
+			for (int b = 0, j = 0; b <= n; b++) {
+				if (b == removed) {
+					continue;
+				}
+				downdated[i][j++] = inverse[a][b] - inverse[a][removed] * inverse[removed][b] / pivot;
+			}
+			remainingVariances[i] = variances[a];
+			remainingVersions[i] = versions[a];
+			i++;
+		}
+		inverse = downdated;
+		variances = remainingVariances;
+		versions = remainingVersions;
+		vms.remove(removed);
+		return true;
+	}
+
+	/**
+	 * Computes the inverse of the covariance matrix of given VMs.
+	 *
+	 * @param host the host
+	 * @param vmList the VMs
+	 * @return true, if the inverse has been computed, or false if the matrix is singular or there
+	 *         are not enough samples
+	 */
+	private boolean computeInverse(final PowerHost host, final List<PowerVm> vmList) {
+		this.host = host;
+		inverse = null;
+		vms.clear();
+		int n = vmList.size();
+		int m = getMinUtilizationHistorySize(vmList);
+		if (n < 2 || m <= n) {
+			return false;
+		}
+
+		double[][] deviations = new double[n][m];
+		for (int i = 0; i < n; i++) {
+			PowerVm vm = vmList.get(i);
+			double mean = 0;
+			for (int t = 0; t < m; t++) {
+				deviations[i][t] = vm.getUtilizationHistoryValue(t);
+				mean += deviations[i][t];
+			}
+			mean /= m;
+			for (int t = 0; t < m; t++) {
+				deviations[i][t] -= mean;
+			}
+		}
+		double[][] s = new double[n][n];
+		for (int a = 0; a < n; a++) {
+			for (int b = 0; b <= a; b++) {
+				double sum = 0;
+				for (int t = 0; t < m; t++) {
+					sum += deviations[a][t] * deviations[b][t];
+				}
+				s[a][b] = sum;
+				s[b][a] = sum;
+			}
+		}
+
+		// Cholesky decomposition S = L L^T
+		double[][] l = new double[n][n];
+		for (int j = 0; j < n; j++) {
+			double sum = s[j][j];
+			for (int k = 0; k < j; k++) {
+				sum -= l[j][k] * l[j][k];
+			}
+			if (!(sum > SINGULARITY_THRESHOLD * s[j][j])) {
+				return false;
+			}
+			l[j][j] = Math.sqrt(sum);
+			for (int i = j + 1; i < n; i++) {
+				double value = s[i][j];
+				for (int k = 0; k < j; k++) {
+					value -= l[i][k] * l[j][k];
+				}
+				l[i][j] = value / l[j][j];
+			}
+		}
+
+		// inverse of L, then inv(S) = inv(L)^T inv(L)
+		double[][] lInverse = new double[n][n];
+		for (int j = 0; j < n; j++) {
+			lInverse[j][j] = 1 / l[j][j];
+			for (int i = j + 1; i < n; i++) {
+				double sum = 0;
+				for (int k = j; k < i; k++) {
+					sum += l[i][k] * lInverse[k][j];
+				}
+				lInverse[i][j] = -sum / l[i][i];
+			}
+		}
+		inverse = new double[n][n];
+		for (int a = 0; a < n; a++) {
+			for (int b = 0; b <= a; b++) {
+				double sum = 0;
+				for (int k = a; k < n; k++) {
+					sum += lInverse[k][a] * lInverse[k][b];
+				}
+				inverse[a][b] = sum;
+				inverse[b][a] = sum;
+			}
+		}
+
+		variances = new double[n];
+		versions = new long[n];
+		for (int i = 0; i < n; i++) {
+			variances[i] = s[i][i];
+			versions[i] = vmList.get(i).getUtilizationHistoryVersion();
+		}
+		vms.addAll(vmList);
+		samples = m;
+		return true;
+	}
+
+}
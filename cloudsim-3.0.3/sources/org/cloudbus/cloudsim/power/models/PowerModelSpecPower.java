@@ -25,6 +25,15 @@ package org.cloudbus.cloudsim.power.models;
  */
 public abstract class PowerModelSpecPower implements PowerModel {
 
+	/** The number of utilization intervals of the power data, i.e. of 10%. */
+	private static final int INTERVALS = 10;
+
+	/**
+	 * The power table, compiled from the power data on first use: the power at i * 10% utilization
+	 * is at index 2 * i, followed by the tenth of the power increase up to the next level.
+	 */
+	private volatile double[] powerTable;
+
 	/*
 	 * (non-Javadoc)
 	 * @see org.cloudbus.cloudsim.power.models.PowerModel#getPower(double)
@@ -36,16 +45,96 @@ public abstract class PowerModelSpecPower implements PowerModel {
 //			throw new IllegalArgumentException("Utilization value must be between 0 and 1");
 			return getPowerData(0);
 		}
-		if (utilization % 0.1 == 0) {
-			return getPowerData((int) (utilization * 10));
+		return getPower(getPowerTable(), utilization);
+	}
+
+	/**
+	 * Gets the power for the utilizations of an array, in one call.
+	 * 
+	 * @param utilization the utilizations, in [0, 1]
+	 * @param power the array to which the power is written, at the same index
+	 * @param length the number of utilizations
+	 * @throws IllegalArgumentException if a utilization is not in [0, 1]
+	 */
+	public void getPower(double[] utilization, double[] power, int length) throws IllegalArgumentException {
+		double[] table = getPowerTable();
+		for (int i = 0; i < length; i++) {
+			if (utilization[i] < 0 || utilization[i] > 1) {
+				throw new IllegalArgumentException("Utilization value must be between 0 and 1");
+			}
+			power[i] = getPower(table, utilization[i]);
+		}
+	}
+
+	/**
+	 * Gets the power table of the model, i.e. the power data compiled for
+	 * {@link #getPower(double[], double)}. The table must not be modified.
+	 * 
+	 * @return the power table
+	 */
+	public double[] getPowerTable() {
+		double[] table = powerTable;
+		if (table == null) {
+			table = new double[2 * (INTERVALS + 1)];
+			for (int i = 0; i <= INTERVALS; i++) {
+				table[2 * i] = getPowerData(i);
+				if (i < INTERVALS) {
+					table[2 * i + 1] = (getPowerData(i + 1) - getPowerData(i)) / 10;
+				}
+			}
+			powerTable = table;
+		}
+		return table;
+	}
+
+	/**
+	 * Gets the power from a power table, with the same linear interpolation between the power data
+	 * as {@link #getPower(double)}.
+	 * 
+	 * @param table the power table, see {@link #getPowerTable()}
+	 * @param utilization the utilization, in [0, 1]
+	 * @return the power
+	 */
+	public static double getPower(double[] table, double utilization) {
+		double level = utilization * INTERVALS;
+		int index = (int) Math.floor(level);
+		if (level == index) {
+			return table[2 * index];
+		}
+		return table[2 * index] + table[2 * index + 1] * (utilization - (double) index / 10) * 100;
+	}
+
+	/**
+	 * Gets the energy consumption of hosts in one call, with the same linear interpolation of the
+	 * utilization change as the hosts (see
+	 * {@link org.cloudbus.cloudsim.power.PowerHost#getEnergyLinearInterpolation(double, double, double)}).
+	 * The energy is NaN for a host without power table, or with a utilization out of [0, 1], so
+	 * that the caller can compute it otherwise.
+	 * 
+	 * @param tables the power tables of the hosts, or null for a host without power table
+	 * @param fromUtilization the from utilizations of the hosts
+	 * @param toUtilization the to utilizations of the hosts
+	 * @param time the time
+	 * @param energy the array to which the energy of the hosts is written
+	 * @param length the number of hosts
+	 */
+	public static void getEnergyLinearInterpolation(double[][] tables, double[] fromUtilization,
+			double[] toUtilization, double time, double[] energy, int length) {
+		for (int i = 0; i < length; i++) {
+			double from = fromUtilization[i];
+			double to = toUtilization[i];
+			if (tables[i] == null) {
+				energy[i] = Double.NaN;
+			} else if (from == 0) {
+				energy[i] = 0;
+			} else if (!(from > 0 && from <= 1 && to >= 0 && to <= 1)) {
+				energy[i] = Double.NaN;
+			} else {
+				double fromPower = getPower(tables[i], from);
+				double toPower = getPower(tables[i], to);
+				energy[i] = (fromPower + (toPower - fromPower) / 2) * time;
+			}
 		}
-		int utilization1 = (int) Math.floor(utilization * 10);
-		int utilization2 = (int) Math.ceil(utilization * 10);
-		double power1 = getPowerData(utilization1);
-		double power2 = getPowerData(utilization2);
-		double delta = (power2 - power1) / 10;
-		double power = power1 + delta * (utilization - (double) utilization1 / 10) * 100;
-		return power;
 	}
 
 	/**
@@ -9,6 +9,7 @@
 package org.cloudbus.cloudsim.provisioners;
 
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.cloudbus.cloudsim.Vm;
 
@@ -20,6 +21,12 @@ import org.cloudbus.cloudsim.Vm;
  */
 public abstract class PeProvisioner {
 
+	/**
+	 * The number of changes of the MIPS of all the provisioners, so that the total MIPS of hosts
+	 * cached from their PEs can be checked to be up to date.
+	 */
+	private static final AtomicLong mipsChanges = new AtomicLong();
+
 	/** The mips. */
 	private double mips;
 
@@ -151,6 +158,18 @@ public abstract class PeProvisioner {
 	 */
 	public void setMips(double mips) {
 		this.mips = mips;
+		mipsChanges.incrementAndGet();
+	}
+
+	/**
+	 * Gets the number of changes of the MIPS of all the provisioners, e.g. to check whether a total
+	 * of MIPS cached from PEs is up to date. It only increases, and is shared by all the
+	 * simulations of the JVM.
+	 * 
+	 * @return the number of changes of the MIPS
+	 */
+	public static long getMipsChanges() {
+		return mipsChanges.get();
 	}
 
 	/**
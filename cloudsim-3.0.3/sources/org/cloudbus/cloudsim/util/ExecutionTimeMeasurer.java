@@ -12,15 +12,22 @@ import java.util.HashMap;
 import java.util.Map;
 
 /**
- * The class for measuring the execution time.
+ * The class for measuring the execution time. The measurements are kept per thread, so that
+ * simulations running in parallel do not interfere with each other.
  * 
  * @author Anton Beloglazov
  * @since CloudSim Toolkit 3.0
  */
 public class ExecutionTimeMeasurer {
 
-	/** The execution times. */
-	private final static Map<String, Long> executionTimes = new HashMap<String, Long>();
+	/** The execution times of each thread. */
+	private final static ThreadLocal<Map<String, Long>> executionTimes = new ThreadLocal<Map<String, Long>>() {
+
+		@Override
+		protected Map<String, Long> initialValue() {
+			return new HashMap<String, Long>();
+		}
+	};
 
 	/**
 	 * Start.
@@ -44,12 +51,12 @@ public class ExecutionTimeMeasurer {
 	}
 
 	/**
-	 * Gets the execution times.
+	 * Gets the execution times of the calling thread.
 	 * 
 	 * @return the execution times
 	 */
 	public static Map<String, Long> getExecutionTimes() {
-		return executionTimes;
+		return executionTimes.get();
 	}
 
 }
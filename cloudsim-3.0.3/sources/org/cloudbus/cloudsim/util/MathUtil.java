@@ -23,6 +23,9 @@ import org.apache.commons.math3.stat.regression.SimpleRegression;
  */
 public class MathUtil {
 
+	/** The last tricube weights, which are read-only and only depend on their number. */
+	private static volatile double[] tricubeWeights = new double[0];
+
 	/**
 	 * Sums a list of numbers.
 	 * 
@@ -58,7 +61,7 @@ public class MathUtil {
 	 * @return the median
 	 */
 	public static double median(final List<Double> list) {
-		return getStatistics(list).getPercentile(50);
+		return median(listToArray(list));
 	}
 
 	/**
@@ -69,7 +72,7 @@ public class MathUtil {
 	 * @return the median
 	 */
 	public static double median(final double[] list) {
-		return getStatistics(list).getPercentile(50);
+		return new UtilizationStatistics(list).getMedian();
 	}
 
 	/**
@@ -163,12 +166,7 @@ public class MathUtil {
 	public static double mad(final double[] data) {
 		double mad = 0;
 		if (data.length > 0) {
-			double median = median(data);
-			double[] deviationSum = new double[data.length];
-			for (int i = 0; i < data.length; i++) {
-				deviationSum[i] = Math.abs(median - data[i]);
-			}
-			mad = median(deviationSum);
+			mad = new UtilizationStatistics(data).getMad();
 		}
 		return mad;
 	}
@@ -236,6 +234,10 @@ public class MathUtil {
 	 */
 	public static double[] getLoessParameterEstimates(final double[] y) {
 		int n = y.length;
+		if (n >= 3) {
+			// the tricube weights are never zero, so the regression is not weighted
+			return getLinearParameterEstimates(y);
+		}
 		double[] x = new double[n];
 		for (int i = 0; i < n; i++) {
 			x[i] = i + 1;
@@ -244,6 +246,40 @@ public class MathUtil {
 				.regress().getParameterEstimates();
 	}
 
+	/**
+	 * Gets the parameter estimates of the linear regression of y on x = 1, 2, ..., n, i.e. the
+	 * intercept and the slope, without building a {@link SimpleRegression}. The sums are updated in
+	 * the same order as {@link SimpleRegression#addData(double, double)}, so the estimates are
+	 * exactly the same as the ones of {@link #createLinearRegression(double[], double[])}.
+	 * 
+	 * @param y the y, of at least 3 values
+	 * @return the intercept and the slope
+	 */
+	private static double[] getLinearParameterEstimates(final double[] y) {
+		int n = y.length;
+		double xbar = 1;
+		double ybar = y[0];
+		double sumXX = 0;
+		double sumXY = 0;
+		double sumX = 1;
+		double sumY = y[0];
+		for (int i = 1; i < n; i++) {
+			double x = i + 1;
+			double fact1 = 1.0 + i;
+			double fact2 = i / (1.0 + i);
+			double dx = x - xbar;
+			double dy = y[i] - ybar;
+			sumXX += dx * dx * fact2;
+			sumXY += dx * dy * fact2;
+			xbar += dx / fact1;
+			ybar += dy / fact1;
+			sumX += x;
+			sumY += y[i];
+		}
+		double slope = sumXY / sumXX;
+		return new double[] { (sumY - slope * sumX) / n, slope };
+	}
+
 	public static SimpleRegression createLinearRegression(final double[] x,
 			final double[] y) {
 		SimpleRegression regression = new SimpleRegression();
@@ -296,6 +332,31 @@ public class MathUtil {
 	 */
 	public static double[] getRobustLoessParameterEstimates(final double[] y) {
 		int n = y.length;
+		if (n >= 3) {
+			// the tricube weights are never zero, so the first regression is not weighted, and the
+			// second one is only weighted if enough bisquare weights are zero, i.e. if the median
+			// residual is zero, e.g. up to rounding, but enough residuals are not
+			double[] estimates = getLinearParameterEstimates(y);
+			double[] residuals = new double[n];
+			for (int i = 0; i < n; i++) {
+				residuals[i] = y[i] - (estimates[0] + estimates[1] * (i + 1));
+			}
+			double[] weights = getTricubeBisquareWeigts(residuals);
+			int numZeroWeigths = 0;
+			for (int i = 0; i < n; i++) {
+				if (weights[i] <= 0) {
+					numZeroWeigths++;
+				}
+			}
+			if (numZeroWeigths < 0.4 * n) {
+				return estimates;
+			}
+			double[] x = new double[n];
+			for (int i = 0; i < n; i++) {
+				x[i] = i + 1;
+			}
+			return createWeigthedLinearRegression(x, y, weights).regress().getParameterEstimates();
+		}
 		double[] x = new double[n];
 		for (int i = 0; i < n; i++) {
 			x[i] = i + 1;
@@ -347,7 +408,11 @@ public class MathUtil {
 	 */
 	public static double[] getTricubeBisquareWeigts(final double[] residuals) {
 		int n = residuals.length;
-		double[] weights = getTricubeWeigts(n);
+		double[] weights = tricubeWeights;
+		if (weights.length != n) {
+			weights = getTricubeWeigts(n);
+			tricubeWeights = weights;
+		}
 		double[] weights2 = new double[n];
 		double s6 = median(abs(residuals)) * 6;
 		for (int i = 2; i < n; i++) {
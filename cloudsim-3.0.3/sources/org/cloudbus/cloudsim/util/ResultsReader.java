@@ -0,0 +1,477 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.util;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * The ResultsReader class reads a results file written by {@link ResultsWriter}: the chunks of
+ * each table are decoded and appended, so that the values of a column are read back exactly, in
+ * primitive arrays. A table can be exported as CSV with {@link Table#writeCsv(Appendable)}.
+ * <p>
+ * A results file larger than the heap is read chunk by chunk with a {@link ChunkReader}: each chunk
+ * is decoded as a table of its own rows, which can be processed and then dropped.
+ *
+ * @see ResultsWriter
+ * @since CloudSim Toolkit 3.0
+ */
+public class ResultsReader {
+
+	/** The tables, by name, in the order of their first chunk. */
+	private final Map<String, Table> tables = new LinkedHashMap<String, Table>();
+
+	/**
+	 * Reads a results file.
+	 *
+	 * @param path the path of the file
+	 * @throws IOException Signals that an I/O exception has occurred, or the file is not a results
+	 *             file.
+	 */
+	public ResultsReader(String path) throws IOException {
+		InputStream input = new BufferedInputStream(new FileInputStream(path));
+		try {
+			read(input);
+		} finally {
+			input.close();
+		}
+	}
+
+	/**
+	 * Reads results from a stream.
+	 *
+	 * @param input the input stream, which is not closed
+	 * @throws IOException Signals that an I/O exception has occurred, or the input is not a results
+	 *             file.
+	 */
+	public ResultsReader(InputStream input) throws IOException {
+		read(input);
+	}
+
+	/**
+	 * Gets the names of the tables.
+	 *
+	 * @return the names of the tables
+	 */
+	public List<String> getTableNames() {
+		return new ArrayList<String>(tables.keySet());
+	}
+
+	/**
+	 * Gets a table.
+	 *
+	 * @param name the name of the table
+	 * @return the table, or null if there is no such table
+	 */
+	public Table getTable(String name) {
+		return tables.get(name);
+	}
+
+	/**
+	 * Reads the chunks of the tables and appends them to their tables.
+	 *
+	 * @param input the input stream
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	private void read(InputStream input) throws IOException {
+		ChunkReader chunkReader = new ChunkReader(input);
+		try {
+			for (Table chunk = chunkReader.next(); chunk != null; chunk = chunkReader.next()) {
+				Table table = tables.get(chunk.name);
+				if (table == null) {
+					tables.put(chunk.name, chunk);
+				} else {
+					table.append(chunk);
+				}
+			}
+		} finally {
+			chunkReader.close();
+		}
+	}
+
+	/**
+	 * The ChunkReader class reads the chunks of a results file one by one, in the order in which
+	 * they have been written, so that a file is processed with the memory of one chunk. The chunks
+	 * of the tables are interleaved in the file.
+	 */
+	public static class ChunkReader {
+
+		/** The input. */
+		private final DataInputStream input;
+
+		/** The decompressor of the chunks. */
+		private final Inflater inflater = new Inflater();
+
+		/** The buffer of the compressed chunks. */
+		private byte[] compressedChunk = new byte[0];
+
+		/** The buffer of the decompressed chunks. */
+		private byte[] chunk = new byte[65536];
+
+		/** The first chunk of each table, to check the columns of the next ones. */
+		private final Map<String, Table> firstChunks = new HashMap<String, Table>();
+
+		/** Whether the end of the file has been read. */
+		private boolean finished;
+
+		/**
+		 * Instantiates a new reader of the chunks of a stream, and reads the header of the file.
+		 *
+		 * @param input the input stream, which is not closed
+		 * @throws IOException Signals that an I/O exception has occurred, or the input is not a
+		 *             results file.
+		 */
+		public ChunkReader(InputStream input) throws IOException {
+			this.input = new DataInputStream(input);
+			if (this.input.readInt() != ResultsWriter.MAGIC) {
+				inflater.end();
+				throw new IOException("The input is not a results file");
+			}
+			int version = this.input.readInt();
+			if (version != ResultsWriter.VERSION) {
+				inflater.end();
+				throw new IOException("Unsupported version " + version + " of the results file");
+			}
+		}
+
+		/**
+		 * Reads the next chunk.
+		 *
+		 * @return a table of the rows of the chunk, or null at the end of the file
+		 * @throws IOException Signals that an I/O exception has occurred.
+		 */
+		public Table next() throws IOException {
+			if (finished) {
+				return null;
+			}
+			int size = input.readInt();
+			if (size == 0) {
+				finished = true;
+				return null;
+			}
+			if (compressedChunk.length < size) {
+				compressedChunk = new byte[size];
+			}
+			input.readFully(compressedChunk, 0, size);
+			inflater.reset();
+			inflater.setInput(compressedChunk, 0, size);
+			int length = 0;
+			try {
+				while (!inflater.finished()) {
+					if (length == chunk.length) {
+						chunk = Arrays.copyOf(chunk, 2 * chunk.length);
+					}
+					int inflated = inflater.inflate(chunk, length, chunk.length - length);
+					if (inflated == 0 && inflater.needsInput()) {
+						throw new EOFException("The results file is truncated");
+					}
+					length += inflated;
+				}
+			} catch (DataFormatException e) {
+				throw new IOException("The results file is corrupted: " + e.getMessage());
+			}
+			return decode(length);
+		}
+
+		/**
+		 * Releases the decompressor. The input stream is not closed.
+		 */
+		public void close() {
+			inflater.end();
+		}
+
+		/**
+		 * Decodes the decompressed chunk.
+		 *
+		 * @param length the length of the chunk
+		 * @return a table of the rows of the chunk
+		 * @throws IOException Signals that an I/O exception has occurred.
+		 */
+		private Table decode(int length) throws IOException {
+			ByteArrayInputStream chunkStream = new ByteArrayInputStream(chunk, 0, length);
+			DataInputStream chunkInput = new DataInputStream(chunkStream);
+			String name = chunkInput.readUTF();
+			int columns = chunkInput.readInt();
+			String[] columnNames = new String[columns];
+			byte[] columnTypes = new byte[columns];
+			for (int i = 0; i < columns; i++) {
+				columnNames[i] = chunkInput.readUTF();
+				columnTypes[i] = chunkInput.readByte();
+			}
+			Table firstChunk = firstChunks.get(name);
+			if (firstChunk == null) {
+				firstChunks.put(name, new Table(name, columnNames, columnTypes));
+			} else if (!Arrays.equals(firstChunk.columnNames, columnNames)
+					|| !Arrays.equals(firstChunk.columnTypes, columnTypes)) {
+				throw new IOException("The chunks of the table " + name + " have different columns");
+			}
+
+			int rows = chunkInput.readInt();
+			ByteBuffer values = ByteBuffer.wrap(chunk, 0, length);
+			values.position(length - chunkStream.available());
+			Table table = new Table(name, columnNames, columnTypes);
+			table.ensureCapacity(rows);
+			for (int i = 0; i < columns; i++) {
+				if (columnTypes[i] == ResultsWriter.INT) {
+					int[] columnValues = table.intValues[i];
+					int previous = 0;
+					for (int row = 0; row < rows; row++) {
+						previous += values.getInt();
+						columnValues[row] = previous;
+					}
+				} else {
+					double[] columnValues = table.doubleValues[i];
+					long previous = 0;
+					for (int row = 0; row < rows; row++) {
+						previous ^= values.getLong();
+						columnValues[row] = Double.longBitsToDouble(previous);
+					}
+				}
+			}
+			table.rows = rows;
+			return table;
+		}
+
+	}
+
+	/**
+	 * A table of the results.
+	 */
+	public static class Table {
+
+		/** The name of the table. */
+		private final String name;
+
+		/** The names of the columns. */
+		private final String[] columnNames;
+
+		/** The types of the columns. */
+		private final byte[] columnTypes;
+
+		/** The values of the int columns, or null for the double columns. */
+		private final int[][] intValues;
+
+		/** The values of the double columns, or null for the int columns. */
+		private final double[][] doubleValues;
+
+		/** The number of rows. */
+		private int rows;
+
+		/**
+		 * Instantiates a new table.
+		 *
+		 * @param name the name of the table
+		 * @param columnNames the names of the columns
+		 * @param columnTypes the types of the columns
+		 */
+		private Table(String name, String[] columnNames, byte[] columnTypes) {
+			this.name = name;
+			this.columnNames = columnNames;
+			this.columnTypes = columnTypes;
+			intValues = new int[columnNames.length][];
+			doubleValues = new double[columnNames.length][];
+			for (int i = 0; i < columnNames.length; i++) {
+				if (columnTypes[i] == ResultsWriter.INT) {
+					intValues[i] = new int[0];
+				} else {
+					doubleValues[i] = new double[0];
+				}
+			}
+		}
+
+		/**
+		 * Gets the name of the table.
+		 *
+		 * @return the name
+		 */
+		public String getName() {
+			return name;
+		}
+
+		/**
+		 * Gets the number of columns.
+		 *
+		 * @return the number of columns
+		 */
+		public int getColumnCount() {
+			return columnNames.length;
+		}
+
+		/**
+		 * Gets the name of a column.
+		 *
+		 * @param column the index of the column
+		 * @return the name of the column
+		 */
+		public String getColumnName(int column) {
+			return columnNames[column];
+		}
+
+		/**
+		 * Gets the index of a column.
+		 *
+		 * @param columnName the name of the column
+		 * @return the index of the column, or -1 if there is no such column
+		 */
+		public int getColumnIndex(String columnName) {
+			return Arrays.asList(columnNames).indexOf(columnName);
+		}
+
+		/**
+		 * Checks whether a column is an int column.
+		 *
+		 * @param column the index of the column
+		 * @return true, if the column is an int column, false if it is a double column
+		 */
+		public boolean isIntColumn(int column) {
+			return columnTypes[column] == ResultsWriter.INT;
+		}
+
+		/**
+		 * Gets the number of rows.
+		 *
+		 * @return the number of rows
+		 */
+		public int getRowCount() {
+			return rows;
+		}
+
+		/**
+		 * Gets the values of an int column.
+		 *
+		 * @param column the index of the column
+		 * @return the values
+		 */
+		public int[] getIntColumn(int column) {
+			if (!isIntColumn(column)) {
+				throw new IllegalArgumentException("The column " + columnNames[column] + " is not an int column");
+			}
+			return Arrays.copyOf(intValues[column], rows);
+		}
+
+		/**
+		 * Gets the values of a column as doubles.
+		 *
+		 * @param column the index of the column
+		 * @return the values
+		 */
+		public double[] getDoubleColumn(int column) {
+			if (!isIntColumn(column)) {
+				return Arrays.copyOf(doubleValues[column], rows);
+			}
+			double[] values = new double[rows];
+			for (int row = 0; row < rows; row++) {
+				values[row] = intValues[column][row];
+			}
+			return values;
+		}
+
+		/**
+		 * Writes the table as CSV, with a header line of the names of the columns. The doubles are
+		 * written with {@link Double#toString(double)}, so that they are read back exactly.
+		 *
+		 * @param output the output of the CSV
+		 * @throws IOException Signals that an I/O exception has occurred.
+		 */
+		public void writeCsv(Appendable output) throws IOException {
+			writeCsvHeader(output);
+			writeCsvRows(output);
+		}
+
+		/**
+		 * Writes the header line of the CSV of the table, i.e. the names of the columns.
+		 *
+		 * @param output the output of the CSV
+		 * @throws IOException Signals that an I/O exception has occurred.
+		 */
+		public void writeCsvHeader(Appendable output) throws IOException {
+			for (int i = 0; i < columnNames.length; i++) {
+				if (i > 0) {
+					output.append(',');
+				}
+				output.append(columnNames[i]);
+			}
+			output.append('\n');
+		}
+
+		/**
+		 * Writes the rows of the table as CSV lines, without the header line, e.g. to export a
+		 * table chunk by chunk.
+		 *
+		 * @param output the output of the CSV
+		 * @throws IOException Signals that an I/O exception has occurred.
+		 */
+		public void writeCsvRows(Appendable output) throws IOException {
+			StringBuilder line = new StringBuilder();
+			for (int row = 0; row < rows; row++) {
+				line.setLength(0);
+				for (int i = 0; i < columnNames.length; i++) {
+					if (i > 0) {
+						line.append(',');
+					}
+					if (isIntColumn(i)) {
+						line.append(intValues[i][row]);
+					} else {
+						line.append(doubleValues[i][row]);
+					}
+				}
+				line.append('\n');
+				output.append(line);
+			}
+		}
+
+		/**
+		 * Appends the rows of a chunk of the table.
+		 *
+		 * @param chunk the chunk
+		 */
+		private void append(Table chunk) {
+			ensureCapacity(rows + chunk.rows);
+			for (int i = 0; i < columnNames.length; i++) {
+				if (intValues[i] != null) {
+					System.arraycopy(chunk.intValues[i], 0, intValues[i], rows, chunk.rows);
+				} else {
+					System.arraycopy(chunk.doubleValues[i], 0, doubleValues[i], rows, chunk.rows);
+				}
+			}
+			rows += chunk.rows;
+		}
+
+		/**
+		 * Ensures that the columns can hold a number of rows.
+		 *
+		 * @param capacity the number of rows
+		 */
+		private void ensureCapacity(int capacity) {
+			for (int i = 0; i < columnNames.length; i++) {
+				if (intValues[i] != null && intValues[i].length < capacity) {
+					intValues[i] = Arrays.copyOf(intValues[i], Math.max(capacity, intValues[i].length * 2));
+				} else if (doubleValues[i] != null && doubleValues[i].length < capacity) {
+					doubleValues[i] = Arrays.copyOf(doubleValues[i], Math.max(capacity, doubleValues[i].length * 2));
+				}
+			}
+		}
+
+	}
+
+}
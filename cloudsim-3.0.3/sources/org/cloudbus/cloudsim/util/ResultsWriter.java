@@ -0,0 +1,388 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.util;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.Deflater;
+
+/**
+ * The ResultsWriter class writes the results of a simulation, e.g. the state histories of the
+ * hosts and the VMs, into one compact binary file. The results are tables of int and double
+ * columns, filled row by row; the rows of a table are kept in primitive arrays and written in
+ * chunks, so that a large run is streamed with a bounded memory.
+ * <p>
+ * A chunk holds the rows of one table column by column, which suits time series: an int is stored
+ * as the difference with the previous value of its column, and a double as the XOR of its bits
+ * with the ones of the previous value, and the chunk is then compressed with Deflate. The values
+ * are read back exactly by {@link ResultsReader}.
+ * <p>
+ * The file starts with a magic number and a version. Each chunk is written as its compressed size
+ * and the compressed bytes of: the name of the table, the names and types of the columns, the
+ * number of rows and the encoded columns. A size of 0 ends the file.
+ *
+ * @see ResultsReader
+ * @since CloudSim Toolkit 3.0
+ */
+public class ResultsWriter {
+
+	/** The magic number of the results files ("\u0089RES"). */
+	static final int MAGIC = 0x89524553;
+
+	/** The version of the format. */
+	static final int VERSION = 1;
+
+	/** The type of the int columns. */
+	static final byte INT = 'I';
+
+	/** The type of the double columns. */
+	static final byte DOUBLE = 'D';
+
+	/** The default number of rows of a chunk. */
+	public static final int DEFAULT_CHUNK_ROWS = 65536;
+
+	/** The output. */
+	private final DataOutputStream output;
+
+	/** The number of rows of a chunk. */
+	private final int chunkRows;
+
+	/** The tables created. */
+	private final List<Table> tables = new ArrayList<Table>();
+
+	/**
+	 * The buffer of the chunks before compression, reused by all the chunks and grown to hold a
+	 * chunk of chunkRows rows of the widest table.
+	 */
+	private ByteBuffer chunk = ByteBuffer.allocate(0);
+
+	/** The output of the header of the chunks into the chunk buffer. */
+	private final DataOutputStream chunkOutput = new DataOutputStream(new OutputStream() {
+
+		@Override
+		public void write(int b) {
+			chunk.put((byte) b);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) {
+			chunk.put(b, off, len);
+		}
+	});
+
+	/** The buffer of the compressed chunks. */
+	private final ByteArrayOutputStream compressedChunk = new ByteArrayOutputStream();
+
+	/** The compressor of the chunks. */
+	private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+
+	/** The output buffer of the compressor. */
+	private final byte[] deflaterBuffer = new byte[65536];
+
+	/** Whether the writer is closed. */
+	private boolean closed;
+
+	/**
+	 * Instantiates a new writer of a file, with the default number of rows by chunk.
+	 *
+	 * @param path the path of the file
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	public ResultsWriter(String path) throws IOException {
+		this(new BufferedOutputStream(new FileOutputStream(path)), DEFAULT_CHUNK_ROWS);
+	}
+
+	/**
+	 * Instantiates a new writer.
+	 *
+	 * @param output the output stream, which is closed with the writer
+	 * @param chunkRows the number of rows of a chunk
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	public ResultsWriter(OutputStream output, int chunkRows) throws IOException {
+		if (chunkRows <= 0) {
+			throw new IllegalArgumentException("The number of rows of a chunk must be positive");
+		}
+		this.output = new DataOutputStream(output);
+		this.chunkRows = chunkRows;
+		this.output.writeInt(MAGIC);
+		this.output.writeInt(VERSION);
+	}
+
+	/**
+	 * Creates a table. The columns are added to the table before its first row.
+	 *
+	 * @param name the name of the table
+	 * @return the table
+	 */
+	public Table createTable(String name) {
+		if (closed) {
+			throw new IllegalStateException("The writer is closed");
+		}
+		for (Table table : tables) {
+			if (table.name.equals(name)) {
+				throw new IllegalArgumentException("The table " + name + " already exists");
+			}
+		}
+		Table table = new Table(name);
+		tables.add(table);
+		return table;
+	}
+
+	/**
+	 * Gets a table created before, e.g. a table filled while the simulation runs.
+	 *
+	 * @param name the name of the table
+	 * @return the table, or null if there is no such table
+	 */
+	public Table getTable(String name) {
+		for (Table table : tables) {
+			if (table.name.equals(name)) {
+				return table;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Writes the remaining rows of the tables, ends the file and closes the output.
+	 *
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	public void close() throws IOException {
+		if (closed) {
+			return;
+		}
+		try {
+			for (Table table : tables) {
+				table.flush();
+			}
+			output.writeInt(0);
+		} finally {
+			closed = true;
+			deflater.end();
+			output.close();
+		}
+	}
+
+	/**
+	 * Writes a chunk of a table.
+	 *
+	 * @param table the table
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	private void writeChunk(Table table) throws IOException {
+		// the header is at most 3 bytes by char of the names, as modified UTF-8
+		int capacity = 2 + 3 * table.name.length() + 4 + 4;
+		int rowSize = 0;
+		for (int i = 0; i < table.columnNames.size(); i++) {
+			capacity += 2 + 3 * table.columnNames.get(i).length() + 1;
+			rowSize += table.columnTypes[i] == INT ? 4 : 8;
+		}
+		capacity += chunkRows * rowSize;
+		if (chunk.capacity() < capacity) {
+			chunk = ByteBuffer.allocate(capacity);
+		}
+		ByteBuffer buffer = chunk;
+		buffer.clear();
+		chunkOutput.writeUTF(table.name);
+		chunkOutput.writeInt(table.columnNames.size());
+		for (int i = 0; i < table.columnNames.size(); i++) {
+			chunkOutput.writeUTF(table.columnNames.get(i));
+			chunkOutput.writeByte(table.columnTypes[i]);
+		}
+		chunkOutput.writeInt(table.rows);
+
+		for (int i = 0; i < table.columnNames.size(); i++) {
+			long[] values = table.values[i];
+			if (table.columnTypes[i] == INT) {
+				int previous = 0;
+				for (int row = 0; row < table.rows; row++) {
+					int value = (int) values[row];
+					buffer.putInt(value - previous);
+					previous = value;
+				}
+			} else {
+				long previous = 0;
+				for (int row = 0; row < table.rows; row++) {
+					buffer.putLong(values[row] ^ previous);
+					previous = values[row];
+				}
+			}
+		}
+
+		deflater.reset();
+		deflater.setInput(buffer.array(), 0, buffer.position());
+		deflater.finish();
+		compressedChunk.reset();
+		while (!deflater.finished()) {
+			int length = deflater.deflate(deflaterBuffer);
+			compressedChunk.write(deflaterBuffer, 0, length);
+		}
+		output.writeInt(compressedChunk.size());
+		compressedChunk.writeTo(output);
+	}
+
+	/**
+	 * A table of the results, filled row by row: the values of a row are set with
+	 * {@link #setInt(int, int)} and {@link #setDouble(int, double)}, and the row is added by
+	 * {@link #endRow()}.
+	 */
+	public class Table {
+
+		/** The name of the table. */
+		private final String name;
+
+		/** The names of the columns. */
+		private final List<String> columnNames = new ArrayList<String>();
+
+		/** The types of the columns. */
+		private byte[] columnTypes = new byte[0];
+
+		/** The values of the rows of the current chunk, by column: the ints, or the bits of the doubles. */
+		private long[][] values = new long[0][];
+
+		/** The number of rows of the current chunk. */
+		private int rows;
+
+		/** Whether a row has been added. */
+		private boolean started;
+
+		/**
+		 * Instantiates a new table.
+		 *
+		 * @param name the name of the table
+		 */
+		private Table(String name) {
+			this.name = name;
+		}
+
+		/**
+		 * Adds an int column.
+		 *
+		 * @param columnName the name of the column
+		 * @return the index of the column
+		 */
+		public int addIntColumn(String columnName) {
+			return addColumn(columnName, INT);
+		}
+
+		/**
+		 * Adds a double column.
+		 *
+		 * @param columnName the name of the column
+		 * @return the index of the column
+		 */
+		public int addDoubleColumn(String columnName) {
+			return addColumn(columnName, DOUBLE);
+		}
+
+		/**
+		 * Sets an int value of the current row.
+		 *
+		 * @param column the index of the column
+		 * @param value the value
+		 */
+		public void setInt(int column, int value) {
+			if (columnTypes[column] != INT) {
+				throw new IllegalArgumentException("The column " + columnNames.get(column) + " is not an int column");
+			}
+			values[column][rows] = value;
+		}
+
+		/**
+		 * Sets a double value of the current row.
+		 *
+		 * @param column the index of the column
+		 * @param value the value
+		 */
+		public void setDouble(int column, double value) {
+			if (columnTypes[column] != DOUBLE) {
+				throw new IllegalArgumentException("The column " + columnNames.get(column)
+						+ " is not a double column");
+			}
+			values[column][rows] = Double.doubleToRawLongBits(value);
+		}
+
+		/**
+		 * Adds the current row, and writes the chunk if it is full. The values that have not been
+		 * set are the ones of the previous row.
+		 *
+		 * @throws IOException Signals that an I/O exception has occurred.
+		 */
+		public void endRow() throws IOException {
+			started = true;
+			rows++;
+			if (rows == chunkRows) {
+				flush();
+			} else {
+				for (long[] columnValues : values) {
+					columnValues[rows] = columnValues[rows - 1];
+				}
+			}
+		}
+
+		/**
+		 * Writes the rows of the current chunk.
+		 *
+		 * @throws IOException Signals that an I/O exception has occurred.
+		 */
+		private void flush() throws IOException {
+			if (rows > 0 || !started) {
+				// a table without rows is written once, for its columns
+				started = true;
+				long[] lastRow = new long[values.length];
+				for (int i = 0; i < values.length; i++) {
+					lastRow[i] = rows > 0 ? values[i][rows - 1] : 0;
+				}
+				writeChunk(this);
+				rows = 0;
+				for (int i = 0; i < values.length; i++) {
+					values[i][0] = lastRow[i];
+				}
+			}
+		}
+
+		/**
+		 * Adds a column.
+		 *
+		 * @param columnName the name of the column
+		 * @param type the type of the column
+		 * @return the index of the column
+		 */
+		private int addColumn(String columnName, byte type) {
+			if (started || rows > 0) {
+				throw new IllegalStateException("The columns must be added before the first row");
+			}
+			if (columnNames.contains(columnName)) {
+				throw new IllegalArgumentException("The column " + columnName + " already exists");
+			}
+			int column = columnNames.size();
+			columnNames.add(columnName);
+			byte[] types = new byte[column + 1];
+			System.arraycopy(columnTypes, 0, types, 0, column);
+			types[column] = type;
+			columnTypes = types;
+			long[][] columns = new long[column + 1][];
+			System.arraycopy(values, 0, columns, 0, column);
+			columns[column] = new long[chunkRows];
+			values = columns;
+			return column;
+		}
+
+	}
+
+}
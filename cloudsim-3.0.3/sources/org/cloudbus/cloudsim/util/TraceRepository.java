@@ -0,0 +1,205 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.util;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The TraceRepository class loads utilization traces once and shares them between all the
+ * utilization models that use them. A trace is either a text file with one value per line or a
+ * binary file written by {@link #convert(String, String)}, which is memory-mapped and read with no
+ * parsing. The format is detected from the content of the file, so a folder of text traces can be
+ * replaced by a folder of converted ones.
+ * <p>
+ * The traces returned by the repository are shared and must not be modified.
+ *
+ * @since CloudSim Toolkit 3.0
+ */
+public class TraceRepository {
+
+	/** The magic number of the binary traces ("\u0089TRC"). */
+	private static final int MAGIC = 0x89545243;
+
+	/** The size of the header of the binary traces: the magic number and the number of values. */
+	private static final int HEADER_SIZE = 8;
+
+	/** The loaded traces, by path and divisor. */
+	private static final ConcurrentMap<String, double[]> traces = new ConcurrentHashMap<String, double[]>();
+
+	/**
+	 * Gets a trace.
+	 *
+	 * @param path the path of the trace file
+	 * @return the values of the trace, which must not be modified
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	public static double[] getTrace(String path) throws IOException {
+		return getTrace(path, 1);
+	}
+
+	/**
+	 * Gets a trace whose values are divided by a given divisor, e.g. 100 for the PlanetLab traces,
+	 * which hold percentages.
+	 *
+	 * @param path the path of the trace file
+	 * @param divisor the divisor of the values
+	 * @return the values of the trace, which must not be modified
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	public static double[] getTrace(String path, double divisor) throws IOException {
+		String key = new File(path).getAbsolutePath() + "/" + divisor;
+		double[] trace = traces.get(key);
+		if (trace == null) {
+			trace = readTrace(path);
+			if (divisor != 1) {
+				for (int i = 0; i < trace.length; i++) {
+					trace[i] = trace[i] / divisor;
+				}
+			}
+			// another thread may have loaded the same trace in the meantime
+			double[] previous = traces.putIfAbsent(key, trace);
+			if (previous != null) {
+				trace = previous;
+			}
+		}
+		return trace;
+	}
+
+	/**
+	 * Removes all the traces from the repository.
+	 */
+	public static void clear() {
+		traces.clear();
+	}
+
+	/**
+	 * Reads a trace file in the text or binary format.
+	 *
+	 * @param path the path of the trace file
+	 * @return the values
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	public static double[] readTrace(String path) throws IOException {
+		RandomAccessFile file = new RandomAccessFile(path, "r");
+		try {
+			if (file.length() >= HEADER_SIZE && file.readInt() == MAGIC) {
+				return readBinaryTrace(path, file);
+			}
+		} finally {
+			file.close();
+		}
+		return readTextTrace(path);
+	}
+
+	/**
+	 * Converts a text trace into the binary format.
+	 *
+	 * @param textPath the path of the text trace
+	 * @param binaryPath the path of the binary trace to be written
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	public static void convert(String textPath, String binaryPath) throws IOException {
+		double[] values = readTextTrace(textPath);
+		DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(binaryPath)));
+		try {
+			output.writeInt(MAGIC);
+			output.writeInt(values.length);
+			for (double value : values) {
+				output.writeDouble(value);
+			}
+		} finally {
+			output.close();
+		}
+	}
+
+	/**
+	 * Checks whether a trace file is in the binary format.
+	 *
+	 * @param path the path of the trace file
+	 * @return true, if the file starts with the magic number of the binary traces
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	public static boolean isBinary(String path) throws IOException {
+		File file = new File(path);
+		if (file.length() < HEADER_SIZE) {
+			return false;
+		}
+		DataInputStream input = new DataInputStream(new FileInputStream(file));
+		try {
+			return input.readInt() == MAGIC;
+		} finally {
+			input.close();
+		}
+	}
+
+	/**
+	 * Reads a text trace, with one value per line. Empty lines are skipped.
+	 *
+	 * @param path the path of the trace file
+	 * @return the values
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	private static double[] readTextTrace(String path) throws IOException {
+		double[] values = new double[512];
+		int size = 0;
+		BufferedReader input = new BufferedReader(new FileReader(path));
+		try {
+			String line;
+			while ((line = input.readLine()) != null) {
+				line = line.trim();
+				if (line.isEmpty()) {
+					continue;
+				}
+				if (size == values.length) {
+					values = Arrays.copyOf(values, size * 2);
+				}
+				values[size++] = Double.parseDouble(line);
+			}
+		} finally {
+			input.close();
+		}
+		return Arrays.copyOf(values, size);
+	}
+
+	/**
+	 * Reads a binary trace by mapping it into memory.
+	 *
+	 * @param path the path of the trace file
+	 * @param file the trace file
+	 * @return the values
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	private static double[] readBinaryTrace(String path, RandomAccessFile file) throws IOException {
+		FileChannel channel = file.getChannel();
+		MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		buffer.getInt();
+		int size = buffer.getInt();
+		if (size < 0 || HEADER_SIZE + 8L * size > channel.size()) {
+			throw new IOException("The binary trace " + path + " is truncated");
+		}
+		double[] values = new double[size];
+		buffer.asDoubleBuffer().get(values);
+		return values;
+	}
+
+}
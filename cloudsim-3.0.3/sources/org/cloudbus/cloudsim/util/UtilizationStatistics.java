@@ -0,0 +1,216 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.util;
+
+import java.util.Arrays;
+
+import org.apache.commons.math3.stat.descriptive.DescriptiveStatistics;
+
+/**
+ * The UtilizationStatistics class keeps a window of utilization values sorted, so that their
+ * median, median absolute deviation (MAD) and interquartile range (IQR) are read without sorting
+ * the window again. A value is added or evicted with a binary search and an array copy, which for
+ * the small windows of the policies is faster than a tree; the median is then read in constant
+ * time, and the MAD in linear time by merging the deviations on both sides of the median.
+ * <p>
+ * The median and the MAD are the same as the ones computed with {@link DescriptiveStatistics},
+ * i.e. the 50th percentile with the legacy estimation, and NaN values are ignored. The IQR is the
+ * one of {@link MathUtil#iqr(double[])} for values without NaN, but unlike it, it needs at least 2
+ * values.
+ *
+ * @since CloudSim Toolkit 3.0
+ */
+public class UtilizationStatistics {
+
+	/** The values, sorted in ascending order. */
+	private double[] values;
+
+	/** The number of values. */
+	private int size;
+
+	/** The sorted deviations from the median, computed by {@link #getMad()}. */
+	private double[] deviations;
+
+	/**
+	 * Instantiates empty statistics.
+	 *
+	 * @param capacity the initial capacity, e.g. the length of the window
+	 */
+	public UtilizationStatistics(int capacity) {
+		values = new double[Math.max(capacity, 1)];
+	}
+
+	/**
+	 * Instantiates the statistics of a window of values.
+	 *
+	 * @param data the values, which are not modified
+	 */
+	public UtilizationStatistics(double[] data) {
+		this(data.length);
+		for (double value : data) {
+			if (!Double.isNaN(value)) {
+				values[size++] = value;
+			}
+		}
+		Arrays.sort(values, 0, size);
+	}
+
+	/**
+	 * Adds a value.
+	 *
+	 * @param value the value, ignored if NaN
+	 */
+	public void add(double value) {
+		if (Double.isNaN(value)) {
+			return;
+		}
+		if (size == values.length) {
+			values = Arrays.copyOf(values, size * 2);
+		}
+		int index = Arrays.binarySearch(values, 0, size, value);
+		if (index < 0) {
+			index = -index - 1;
+		}
+		System.arraycopy(values, index, values, index + 1, size - index);
+		values[index] = value;
+		size++;
+	}
+
+	/**
+	 * Evicts a value, e.g. the one that leaves the window.
+	 *
+	 * @param value the value
+	 * @return true, if the value was in the window
+	 */
+	public boolean remove(double value) {
+		int index = Double.isNaN(value) ? -1 : Arrays.binarySearch(values, 0, size, value);
+		if (index < 0) {
+			return false;
+		}
+		System.arraycopy(values, index + 1, values, index, size - index - 1);
+		size--;
+		return true;
+	}
+
+	/**
+	 * Removes all the values.
+	 */
+	public void clear() {
+		size = 0;
+	}
+
+	/**
+	 * Gets the number of values.
+	 *
+	 * @return the number of values
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Gets a percentile of the values, with the legacy estimation of {@link DescriptiveStatistics}.
+	 *
+	 * @param p the percentile, in (0, 100]
+	 * @return the percentile, or NaN if there is no value
+	 */
+	public double getPercentile(double p) {
+		return getPercentile(values, size, p);
+	}
+
+	/**
+	 * Gets the median of the values.
+	 *
+	 * @return the median, or NaN if there is no value
+	 */
+	public double getMedian() {
+		return getPercentile(50);
+	}
+
+	/**
+	 * Gets the median absolute deviation of the values.
+	 *
+	 * @return the MAD, or NaN if there is no value
+	 */
+	public double getMad() {
+		if (size == 0) {
+			return Double.NaN;
+		}
+		double median = getMedian();
+		if (deviations == null || deviations.length < size) {
+			deviations = new double[values.length];
+		}
+		// the deviations grow from the median outwards, so both sides are merged in order
+		int right = 0;
+		while (right < size && values[right] < median) {
+			right++;
+		}
+		int left = right - 1;
+		for (int i = 0; i < size; i++) {
+			double leftDeviation = left >= 0 ? Math.abs(median - values[left]) : Double.POSITIVE_INFINITY;
+			double rightDeviation = right < size ? Math.abs(median - values[right]) : Double.POSITIVE_INFINITY;
+			if (right >= size || (left >= 0 && leftDeviation < rightDeviation)) {
+				deviations[i] = leftDeviation;
+				left--;
+			} else {
+				deviations[i] = rightDeviation;
+				right++;
+			}
+		}
+		return getPercentile(deviations, size, 50);
+	}
+
+	/**
+	 * Gets the interquartile range of the values, as the difference of the values at the ranks of
+	 * the first and third quartiles.
+	 *
+	 * @return the IQR
+	 * @throws IllegalArgumentException if there are less than 2 values
+	 */
+	public double getIqr() {
+		int q1 = (int) Math.round(0.25 * (size + 1)) - 1;
+		int q3 = (int) Math.round(0.75 * (size + 1)) - 1;
+		if (q3 >= size) {
+			throw new IllegalArgumentException("The IQR needs at least 2 values");
+		}
+		return values[q3] - values[q1];
+	}
+
+	/**
+	 * Gets a percentile of sorted values, with the legacy estimation of
+	 * {@link DescriptiveStatistics}.
+	 *
+	 * @param sorted the sorted values
+	 * @param n the number of values
+	 * @param p the percentile, in (0, 100]
+	 * @return the percentile, or NaN if there is no value
+	 */
+	private static double getPercentile(double[] sorted, int n, double p) {
+		if (n == 0) {
+			return Double.NaN;
+		}
+		if (n == 1) {
+			return sorted[0];
+		}
+		double pos = p / 100d * (n + 1);
+		double fpos = Math.floor(pos);
+		int intPos = (int) fpos;
+		double dif = pos - fpos;
+		if (pos < 1) {
+			return sorted[0];
+		}
+		if (pos >= n) {
+			return sorted[n - 1];
+		}
+		double lower = sorted[intPos - 1];
+		double upper = sorted[intPos];
+		return lower + dif * (upper - lower);
+	}
+
+}